@@ -10,6 +10,7 @@ export interface PageMeta {
   pageSize: number;
   totalItems: number;
   totalPages: number;
+  nextCursor?: string;
 }
 
 export interface ProblemDetail {
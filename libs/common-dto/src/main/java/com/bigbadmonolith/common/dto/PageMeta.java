@@ -1,17 +1,30 @@
 package com.bigbadmonolith.common.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Offset pages carry page, totalItems and totalPages; cursor pages carry nextCursor and only
+ * carry totalItems when the caller asked for the count.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record PageMeta(
-    int page,
+    Integer page,
     int pageSize,
-    long totalItems,
-    int totalPages
+    Long totalItems,
+    Integer totalPages,
+    String nextCursor
 ) {
     public static PageMeta from(org.springframework.data.domain.Page<?> page) {
         return new PageMeta(
             page.getNumber(),
             page.getSize(),
             page.getTotalElements(),
-            page.getTotalPages()
+            page.getTotalPages(),
+            null
         );
     }
+
+    public static PageMeta cursor(int pageSize, String nextCursor, Long totalItems) {
+        return new PageMeta(null, pageSize, totalItems, null, nextCursor);
+    }
 }
@@ -0,0 +1,59 @@
+package com.bigbadmonolith.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void generate_shouldSetVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.generate();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(UuidV7.timestamp(id)).isBetween(Instant.ofEpochMilli(before), Instant.ofEpochMilli(after + 1));
+        assertThat(UUID.fromString(id.toString())).isEqualTo(id);
+    }
+
+    @Test
+    void generate_shouldBeStrictlyIncreasingInStringAndByteOrder() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidV7.generate());
+        }
+
+        for (int i = 1; i < ids.size(); i++) {
+            // Databases compare UUIDs as unsigned bytes, which is also the order of their text form.
+            assertThat(ids.get(i).toString()).isGreaterThan(ids.get(i - 1).toString());
+        }
+        assertThat(new HashSet<>(ids)).hasSize(ids.size());
+    }
+
+    @Test
+    void generate_shouldStayUniqueAcrossThreads() {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 200_000).parallel().forEach(i -> ids.add(UuidV7.generate()));
+
+        assertThat(ids).hasSize(200_000);
+    }
+
+    @Test
+    void timestamp_shouldRejectOtherVersions() {
+        assertThatThrownBy(() -> UuidV7.timestamp(UUID.randomUUID()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> UuidV7.timestamp(UUID.nameUUIDFromBytes("customer:42".getBytes())))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
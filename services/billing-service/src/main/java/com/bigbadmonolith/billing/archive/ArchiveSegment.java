@@ -0,0 +1,500 @@
+package com.bigbadmonolith.billing.archive;
+
+import com.bigbadmonolith.billing.model.BillableHour;
+import com.bigbadmonolith.billing.repository.BillableHourRepositoryCustom.Filter;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One archived month decoded into column arrays, and the file format it is stored in.
+ * <p>
+ * A file starts with a magic number, the format version and the {@link ArchiveStats}, followed
+ * by one block per column: its name, its raw and compressed lengths and the column deflated on
+ * its own. Ids are stored as two longs; customer, user and category ids are dictionary-encoded;
+ * hours and rate as hundredths; date_logged as days after the first date in the file; notes as
+ * nullable strings; and the timestamps as epoch seconds plus nanos. Rows are sorted by
+ * (date_logged, id) ascending, the listing order.
+ */
+final class ArchiveSegment {
+    static final int MAGIC = 0x42484131; // "BHA1"
+    static final int VERSION = 1;
+
+    private static final Comparator<BillableHour> ROW_ORDER = Comparator.comparing(BillableHour::getDateLogged)
+        .thenComparing(BillableHour::getId, ArchiveStats.UUID_ORDER);
+    private static final int ANY = -1;
+
+    final ArchiveStats stats;
+    private final int rows;
+    private final long[] idHigh;
+    private final long[] idLow;
+    private final Dictionary customers;
+    private final Dictionary users;
+    private final Dictionary categories;
+    private final int[] hours;
+    private final long[] rates;
+    private final long[] days;
+    private final String[] notes;
+    private final long[] createdSeconds;
+    private final int[] createdNanos;
+    private final long[] updatedSeconds;
+    private final int[] updatedNanos;
+
+    private ArchiveSegment(ArchiveStats stats, Map<String, byte[]> columns) throws IOException {
+        this.stats = stats;
+        this.rows = stats.rows();
+        this.idHigh = new long[rows];
+        this.idLow = new long[rows];
+        DataInputStream ids = column(columns, "id");
+        for (int i = 0; i < rows; i++) {
+            idHigh[i] = ids.readLong();
+            idLow[i] = ids.readLong();
+        }
+        this.customers = Dictionary.read(column(columns, "customer_id"), rows);
+        this.users = Dictionary.read(column(columns, "user_id"), rows);
+        this.categories = Dictionary.read(column(columns, "category_id"), rows);
+        this.hours = new int[rows];
+        this.rates = new long[rows];
+        this.days = new long[rows];
+        this.notes = new String[rows];
+        DataInputStream hourColumn = column(columns, "hours");
+        DataInputStream rateColumn = column(columns, "rate_snapshot");
+        DataInputStream dayColumn = column(columns, "date_logged");
+        DataInputStream noteColumn = column(columns, "note");
+        long firstDay = stats.minDate().toEpochDay();
+        for (int i = 0; i < rows; i++) {
+            hours[i] = hourColumn.readInt();
+            rates[i] = rateColumn.readLong();
+            days[i] = firstDay + dayColumn.readUnsignedByte();
+            notes[i] = noteColumn.readBoolean() ? noteColumn.readUTF() : null;
+        }
+        this.createdSeconds = new long[rows];
+        this.createdNanos = new int[rows];
+        this.updatedSeconds = new long[rows];
+        this.updatedNanos = new int[rows];
+        readInstants(column(columns, "created_at"), createdSeconds, createdNanos);
+        readInstants(column(columns, "updated_at"), updatedSeconds, updatedNanos);
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Returns up to {@code limit} entries matching the filter in listing order for the given
+     * direction, starting after the (afterDate, afterId) position when one is given.
+     */
+    List<BillableHour> find(Filter filter, LocalDate afterDate, UUID afterId, Sort.Direction direction, int limit) {
+        List<BillableHour> found = new ArrayList<>();
+        int[] codes = codes(filter);
+        if (codes == null) {
+            return found;
+        }
+        long afterDay = afterDate == null ? 0 : afterDate.toEpochDay();
+        boolean descending = direction == Sort.Direction.DESC;
+        for (int n = 0; n < rows && found.size() < limit; n++) {
+            int row = descending ? rows - 1 - n : n;
+            if (afterDate != null) {
+                int position = compare(row, afterDay, afterId);
+                if (descending ? position >= 0 : position <= 0) {
+                    continue;
+                }
+            }
+            if (matches(row, filter, codes)) {
+                found.add(entry(row));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Offers every entry matching the filter to {@code top}, a queue headed by the last entry in
+     * {@code order}, keeping it at no more than {@code limit} entries.
+     */
+    void top(Filter filter, Comparator<BillableHour> order, int limit, PriorityQueue<BillableHour> top) {
+        int[] codes = codes(filter);
+        if (codes == null) {
+            return;
+        }
+        for (int row = 0; row < rows; row++) {
+            if (matches(row, filter, codes)) {
+                BillableHour entry = entry(row);
+                if (top.size() < limit) {
+                    top.add(entry);
+                } else if (order.compare(entry, top.peek()) < 0) {
+                    top.poll();
+                    top.add(entry);
+                }
+            }
+        }
+    }
+
+    long count(Filter filter) {
+        int[] codes = codes(filter);
+        if (codes == null) {
+            return 0;
+        }
+        long count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (matches(row, filter, codes)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Customer id, revenue, hours and entry count per customer, in the shape of
+     * {@code BillableHourRepository.sumRevenueByCustomer()}.
+     */
+    List<Object[]> sumRevenueByCustomer() {
+        int size = customers.values().length;
+        BigDecimal[] revenue = new BigDecimal[size];
+        long[] hundredths = new long[size];
+        long[] entries = new long[size];
+        for (int row = 0; row < rows; row++) {
+            int code = customers.codes()[row];
+            BigDecimal amount = BigDecimal.valueOf(hours[row] * rates[row], 4);
+            revenue[code] = revenue[code] == null ? amount : revenue[code].add(amount);
+            hundredths[code] += hours[row];
+            entries[code]++;
+        }
+        List<Object[]> sums = new ArrayList<>(size);
+        for (int code = 0; code < size; code++) {
+            if (entries[code] > 0) {
+                sums.add(new Object[] {customers.values()[code], revenue[code], BigDecimal.valueOf(hundredths[code], 2), entries[code]});
+            }
+        }
+        return sums;
+    }
+
+    List<BillableHour> entries() {
+        List<BillableHour> entries = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            entries.add(entry(row));
+        }
+        return entries;
+    }
+
+    private BillableHour entry(int row) {
+        BillableHour entry = new BillableHour();
+        entry.setId(new UUID(idHigh[row], idLow[row]));
+        entry.setCustomerId(customers.at(row));
+        entry.setUserId(users.at(row));
+        entry.setCategoryId(categories.at(row));
+        entry.setHours(BigDecimal.valueOf(hours[row], 2));
+        entry.setRateSnapshot(BigDecimal.valueOf(rates[row], 2));
+        entry.setDateLogged(LocalDate.ofEpochDay(days[row]));
+        entry.setNote(notes[row]);
+        entry.setCreatedAt(Instant.ofEpochSecond(createdSeconds[row], createdNanos[row]));
+        entry.setUpdatedAt(Instant.ofEpochSecond(updatedSeconds[row], updatedNanos[row]));
+        return entry;
+    }
+
+    /**
+     * Dictionary codes for the filter's customer, user and category ({@code ANY} where unset),
+     * or null when one of them does not occur in this month at all.
+     */
+    private int[] codes(Filter filter) {
+        int customer = customers.codeOf(filter.customerId());
+        int user = users.codeOf(filter.userId());
+        int category = categories.codeOf(filter.categoryId());
+        if ((filter.customerId() != null && customer == ANY) || (filter.userId() != null && user == ANY)
+                || (filter.categoryId() != null && category == ANY)) {
+            return null;
+        }
+        return new int[] {customer, user, category};
+    }
+
+    private boolean matches(int row, Filter filter, int[] codes) {
+        return (codes[0] == ANY || customers.codes()[row] == codes[0])
+            && (codes[1] == ANY || users.codes()[row] == codes[1])
+            && (codes[2] == ANY || categories.codes()[row] == codes[2])
+            && (filter.fromDate() == null || days[row] >= filter.fromDate().toEpochDay())
+            && (filter.toDate() == null || days[row] <= filter.toDate().toEpochDay());
+    }
+
+    private int compare(int row, long day, UUID id) {
+        int byDay = Long.compare(days[row], day);
+        if (byDay != 0) {
+            return byDay;
+        }
+        int byHigh = Long.compareUnsigned(idHigh[row], id.getMostSignificantBits());
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(idLow[row], id.getLeastSignificantBits());
+    }
+
+    static byte[] encode(YearMonth month, List<BillableHour> entries) throws IOException {
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("An archive file needs at least one entry");
+        }
+        List<BillableHour> sorted = entries.stream().sorted(ROW_ORDER).toList();
+        ArchiveStats stats = statsOf(month, sorted);
+        long firstDay = stats.minDate().toEpochDay();
+
+        Map<String, byte[]> columns = new LinkedHashMap<>();
+        columns.put("id", encodeColumn(sorted, (out, entry) -> {
+            out.writeLong(entry.getId().getMostSignificantBits());
+            out.writeLong(entry.getId().getLeastSignificantBits());
+        }));
+        columns.put("customer_id", Dictionary.encode(sorted, BillableHour::getCustomerId));
+        columns.put("user_id", Dictionary.encode(sorted, BillableHour::getUserId));
+        columns.put("category_id", Dictionary.encode(sorted, BillableHour::getCategoryId));
+        columns.put("hours", encodeColumn(sorted, (out, entry) -> out.writeInt(entry.getHours().movePointRight(2).intValueExact())));
+        columns.put("rate_snapshot", encodeColumn(sorted,
+            (out, entry) -> out.writeLong(entry.getRateSnapshot().movePointRight(2).longValueExact())));
+        columns.put("date_logged", encodeColumn(sorted, (out, entry) -> out.writeByte((int) (entry.getDateLogged().toEpochDay() - firstDay))));
+        columns.put("note", encodeColumn(sorted, (out, entry) -> {
+            out.writeBoolean(entry.getNote() != null);
+            if (entry.getNote() != null) {
+                out.writeUTF(entry.getNote());
+            }
+        }));
+        columns.put("created_at", encodeColumn(sorted, (out, entry) -> {
+            out.writeLong(entry.getCreatedAt().getEpochSecond());
+            out.writeInt(entry.getCreatedAt().getNano());
+        }));
+        columns.put("updated_at", encodeColumn(sorted, (out, entry) -> {
+            out.writeLong(entry.getUpdatedAt().getEpochSecond());
+            out.writeInt(entry.getUpdatedAt().getNano());
+        }));
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(file);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        writeStats(out, stats);
+        out.writeShort(columns.size());
+        for (Map.Entry<String, byte[]> column : columns.entrySet()) {
+            byte[] compressed = deflate(column.getValue());
+            out.writeUTF(column.getKey());
+            out.writeInt(column.getValue().length);
+            out.writeInt(compressed.length);
+            out.write(compressed);
+        }
+        out.flush();
+        return file.toByteArray();
+    }
+
+    static ArchiveSegment decode(byte[] file) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(file));
+        ArchiveStats stats = readHeader(in);
+        int count = in.readUnsignedShort();
+        Map<String, byte[]> columns = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            int rawLength = in.readInt();
+            int compressedLength = in.readInt();
+            columns.put(name, inflate(in.readNBytes(compressedLength), rawLength));
+        }
+        return new ArchiveSegment(stats, columns);
+    }
+
+    /**
+     * Reads only the magic number, version and statistics at the start of a file.
+     */
+    static ArchiveStats readHeader(InputStream file) throws IOException {
+        DataInputStream in = file instanceof DataInputStream data ? data : new DataInputStream(file);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a billable hour archive file");
+        }
+        int version = in.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported archive file version " + version);
+        }
+        return new ArchiveStats(YearMonth.of(in.readInt(), in.readInt()), in.readInt(),
+            LocalDate.ofEpochDay(in.readLong()), LocalDate.ofEpochDay(in.readLong()),
+            readUuid(in), readUuid(in), readUuid(in), readUuid(in), readUuid(in), readUuid(in),
+            new BigDecimal(in.readUTF()), new BigDecimal(in.readUTF()));
+    }
+
+    private static ArchiveStats statsOf(YearMonth month, List<BillableHour> sorted) {
+        BigDecimal totalHours = BigDecimal.ZERO;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        for (BillableHour entry : sorted) {
+            if (!YearMonth.from(entry.getDateLogged()).equals(month)) {
+                throw new IllegalArgumentException("Entry " + entry.getId() + " is not from " + month);
+            }
+            totalHours = totalHours.add(entry.getHours());
+            totalRevenue = totalRevenue.add(entry.getHours().multiply(entry.getRateSnapshot()));
+        }
+        return new ArchiveStats(month, sorted.size(),
+            sorted.get(0).getDateLogged(), sorted.get(sorted.size() - 1).getDateLogged(),
+            min(sorted, BillableHour::getCustomerId), max(sorted, BillableHour::getCustomerId),
+            min(sorted, BillableHour::getUserId), max(sorted, BillableHour::getUserId),
+            min(sorted, BillableHour::getCategoryId), max(sorted, BillableHour::getCategoryId),
+            totalHours, totalRevenue);
+    }
+
+    private static void writeStats(DataOutputStream out, ArchiveStats stats) throws IOException {
+        out.writeInt(stats.month().getYear());
+        out.writeInt(stats.month().getMonthValue());
+        out.writeInt(stats.rows());
+        out.writeLong(stats.minDate().toEpochDay());
+        out.writeLong(stats.maxDate().toEpochDay());
+        for (UUID id : List.of(stats.minCustomerId(), stats.maxCustomerId(), stats.minUserId(), stats.maxUserId(),
+                stats.minCategoryId(), stats.maxCategoryId())) {
+            writeUuid(out, id);
+        }
+        out.writeUTF(stats.hours().toPlainString());
+        out.writeUTF(stats.revenue().toPlainString());
+    }
+
+    private static UUID min(List<BillableHour> entries, Function<BillableHour, UUID> column) {
+        return entries.stream().map(column).min(ArchiveStats.UUID_ORDER).orElseThrow();
+    }
+
+    private static UUID max(List<BillableHour> entries, Function<BillableHour, UUID> column) {
+        return entries.stream().map(column).max(ArchiveStats.UUID_ORDER).orElseThrow();
+    }
+
+    private static byte[] encodeColumn(List<BillableHour> entries, ColumnWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (BillableHour entry : entries) {
+            writer.write(out, entry);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream column(Map<String, byte[]> columns, String name) throws IOException {
+        byte[] column = columns.get(name);
+        if (column == null) {
+            throw new IOException("Archive file has no " + name + " column");
+        }
+        return new DataInputStream(new ByteArrayInputStream(column));
+    }
+
+    private void readInstants(DataInputStream in, long[] seconds, int[] nanos) throws IOException {
+        for (int i = 0; i < rows; i++) {
+            seconds[i] = in.readLong();
+            nanos[i] = in.readInt();
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(raw, length, rawLength - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != rawLength) {
+                throw new IOException("Truncated archive column");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive column", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ColumnWriter {
+        void write(DataOutputStream out, BillableHour entry) throws IOException;
+    }
+
+    /**
+     * A dictionary-encoded UUID column: the distinct values plus one code per row.
+     */
+    private record Dictionary(UUID[] values, int[] codes) {
+
+        UUID at(int row) {
+            return values[codes[row]];
+        }
+
+        int codeOf(UUID value) {
+            if (value != null) {
+                for (int code = 0; code < values.length; code++) {
+                    if (values[code].equals(value)) {
+                        return code;
+                    }
+                }
+            }
+            return ANY;
+        }
+
+        static byte[] encode(List<BillableHour> entries, Function<BillableHour, UUID> column) throws IOException {
+            Map<UUID, Integer> codes = new LinkedHashMap<>();
+            for (BillableHour entry : entries) {
+                codes.putIfAbsent(column.apply(entry), codes.size());
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(codes.size());
+            for (UUID value : codes.keySet()) {
+                writeUuid(out, value);
+            }
+            for (BillableHour entry : entries) {
+                out.writeInt(codes.get(column.apply(entry)));
+            }
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        static Dictionary read(DataInputStream in, int rows) throws IOException {
+            UUID[] values = new UUID[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readUuid(in);
+            }
+            int[] codes = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                codes[i] = in.readInt();
+            }
+            return new Dictionary(values, codes);
+        }
+    }
+}
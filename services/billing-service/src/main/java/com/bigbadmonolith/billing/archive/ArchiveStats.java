@@ -0,0 +1,39 @@
+package com.bigbadmonolith.billing.archive;
+
+import com.bigbadmonolith.billing.repository.BillableHourRepositoryCustom.Filter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Per-file statistics stored in the header of an archive file: the range of every filterable
+ * column plus the month's totals, so that most queries can rule a file out, or answer from it,
+ * without decompressing any column.
+ */
+public record ArchiveStats(YearMonth month, int rows, LocalDate minDate, LocalDate maxDate,
+                           UUID minCustomerId, UUID maxCustomerId, UUID minUserId, UUID maxUserId,
+                           UUID minCategoryId, UUID maxCategoryId, BigDecimal hours, BigDecimal revenue) {
+
+    /**
+     * Byte-wise (unsigned) UUID order, the order PostgreSQL sorts uuid columns in; {@link UUID#compareTo}
+     * compares signed longs and would disagree for ids with the high bit set.
+     */
+    public static final Comparator<UUID> UUID_ORDER = Comparator
+        .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+        .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    public boolean mayContain(Filter filter) {
+        return within(filter.customerId(), minCustomerId, maxCustomerId)
+            && within(filter.userId(), minUserId, maxUserId)
+            && within(filter.categoryId(), minCategoryId, maxCategoryId)
+            && (filter.fromDate() == null || !maxDate.isBefore(filter.fromDate()))
+            && (filter.toDate() == null || !minDate.isAfter(filter.toDate()));
+    }
+
+    private static boolean within(UUID value, UUID min, UUID max) {
+        return value == null || (UUID_ORDER.compare(value, min) >= 0 && UUID_ORDER.compare(value, max) <= 0);
+    }
+}
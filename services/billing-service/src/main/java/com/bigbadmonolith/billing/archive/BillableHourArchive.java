@@ -0,0 +1,388 @@
+package com.bigbadmonolith.billing.archive;
+
+import com.bigbadmonolith.billing.model.ArchiveCatalogEntry;
+import com.bigbadmonolith.billing.model.ArchiveCustomerTotal;
+import com.bigbadmonolith.billing.model.ArchiveCustomerTotalId;
+import com.bigbadmonolith.billing.model.BillableHour;
+import com.bigbadmonolith.billing.repository.ArchiveCatalogRepository;
+import com.bigbadmonolith.billing.repository.ArchiveCustomerTotalRepository;
+import com.bigbadmonolith.billing.repository.BillableHourRepositoryCustom.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Cold storage for closed months of billable hours: one immutable, compressed columnar file per
+ * month (see {@link ArchiveSegment} for the format) with a sha256sum-compatible checksum file
+ * next to it. The directory must be storage that every billing node mounts.
+ * <p>
+ * The catalog of archived months, with each file's checksum and header statistics, is the
+ * archive_catalog table: a month is archived exactly when the transaction that removed its
+ * billable hours has committed, on every node at once. Queries read the catalog, rule out files
+ * by their statistics and only decode the rest, after checking them against the catalog's
+ * checksum; the most recently used files are kept decoded.
+ */
+@Component
+public class BillableHourArchive implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(BillableHourArchive.class);
+
+    private static final String FILE_PREFIX = "billable-hours-";
+    private static final String FILE_SUFFIX = ".bha";
+    private static final String CHECKSUM_SUFFIX = ".sha256";
+    private static final String TEMP_PREFIX = ".archive-";
+
+    private final Path directory;
+    private final Duration orphanGrace;
+    private final ArchiveCatalogRepository catalogRepository;
+    private final ArchiveCustomerTotalRepository customerTotalRepository;
+    // Keyed by checksum, so a month restored and archived again is never served from the old file
+    private final Map<String, ArchiveSegment> decoded;
+
+    public BillableHourArchive(@Value("${billing.archive.dir:data/archive}") String directory,
+                               @Value("${billing.archive.cache-size:12}") int cacheSize,
+                               @Value("${billing.archive.orphan-grace:1h}") Duration orphanGrace,
+                               ArchiveCatalogRepository catalogRepository,
+                               ArchiveCustomerTotalRepository customerTotalRepository) {
+        this.directory = Path.of(directory);
+        this.orphanGrace = orphanGrace;
+        this.catalogRepository = catalogRepository;
+        this.customerTotalRepository = customerTotalRepository;
+        this.decoded = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ArchiveSegment> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public List<ArchivedMonth> list() {
+        return List.copyOf(months().values());
+    }
+
+    public Optional<ArchivedMonth> get(YearMonth month) {
+        return catalogRepository.findById(month.toString()).map(this::toArchivedMonth);
+    }
+
+    public boolean isArchived(YearMonth month) {
+        return catalogRepository.existsById(month.toString());
+    }
+
+    /**
+     * Whether any archived month could hold entries matching the filter, judged from the file
+     * statistics alone.
+     */
+    public boolean mayContain(Filter filter) {
+        return months().values().stream().anyMatch(month -> month.stats().mayContain(filter));
+    }
+
+    /**
+     * Returns up to {@code limit} archived entries matching the filter in listing order, starting
+     * after the (afterDate, afterId) position when one is given. Months are disjoint and visited in
+     * order, so the walk stops as soon as it has enough entries.
+     */
+    public List<BillableHour> find(Filter filter, LocalDate afterDate, UUID afterId, Sort.Direction direction, int limit) {
+        boolean descending = direction == Sort.Direction.DESC;
+        NavigableMap<YearMonth, ArchivedMonth> months = months();
+        List<BillableHour> found = new ArrayList<>();
+        for (ArchivedMonth month : (descending ? months.descendingMap() : months).values()) {
+            if (found.size() >= limit) {
+                break;
+            }
+            ArchiveStats stats = month.stats();
+            if (!stats.mayContain(filter) || (afterDate != null
+                    && (descending ? stats.minDate().isAfter(afterDate) : stats.maxDate().isBefore(afterDate)))) {
+                continue;
+            }
+            found.addAll(segment(month).find(filter, afterDate, afterId, direction, limit - found.size()));
+        }
+        return found;
+    }
+
+    /**
+     * Returns the first {@code limit} archived entries matching the filter in the given order, for
+     * orders the files are not kept in. Every candidate month is scanned, but no more than
+     * {@code limit} entries are held at a time.
+     */
+    public List<BillableHour> findFirst(Filter filter, Comparator<BillableHour> order, int limit) {
+        PriorityQueue<BillableHour> top = new PriorityQueue<>(order.reversed());
+        for (ArchivedMonth month : months().values()) {
+            if (limit > 0 && month.stats().mayContain(filter)) {
+                segment(month).top(filter, order, limit, top);
+            }
+        }
+        List<BillableHour> found = new ArrayList<>(top);
+        found.sort(order);
+        return found;
+    }
+
+    public long count(Filter filter) {
+        long count = 0;
+        for (ArchivedMonth month : months().values()) {
+            ArchiveStats stats = month.stats();
+            if (!stats.mayContain(filter)) {
+                continue;
+            }
+            boolean wholeMonth = filter.customerId() == null && filter.userId() == null && filter.categoryId() == null
+                && (filter.fromDate() == null || !filter.fromDate().isAfter(stats.minDate()))
+                && (filter.toDate() == null || !filter.toDate().isBefore(stats.maxDate()));
+            count += wholeMonth ? stats.rows() : segment(month).count(filter);
+        }
+        return count;
+    }
+
+    public BigDecimal totalRevenue() {
+        return months().values().stream().map(month -> month.stats().revenue()).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Year, month, revenue, hours and entry count per archived month, in the shape of
+     * {@code BillableHourRepository.sumRevenueByMonth()}; read from the catalog.
+     */
+    public List<Object[]> sumRevenueByMonth() {
+        return months().values().stream()
+            .map(month -> new Object[] {month.month().getYear(), month.month().getMonthValue(),
+                month.stats().revenue(), month.stats().hours(), (long) month.stats().rows()})
+            .toList();
+    }
+
+    /**
+     * Customer id, revenue, hours and entry count per customer over the archived months, in the
+     * shape of {@code BillableHourRepository.sumRevenueByCustomer()}; read from the catalog.
+     */
+    public List<Object[]> sumRevenueByCustomer() {
+        return customerTotalRepository.sumRevenueByCustomer();
+    }
+
+    /**
+     * Writes a month to a new archive file and adds it to the catalog. Must run in the transaction
+     * that removes the month's billable hours. The checksum file and then the archive file are
+     * each written under a temporary name, synced and moved into place, the archive file after
+     * being decoded again to check it. The file name carries the time of archiving, so a month
+     * archived again never reuses the name of a file still being deleted. If the transaction
+     * rolls back, both files are deleted; if the process stops first, they are left without a
+     * catalog row and removed at a later startup (see {@link #afterSingletonsInstantiated}).
+     */
+    public ArchivedMonth write(YearMonth month, List<BillableHour> entries) {
+        requireTransaction();
+        if (isArchived(month)) {
+            throw new IllegalStateException("Month " + month + " is already archived");
+        }
+        Instant archivedAt = Instant.now();
+        Path file = directory.resolve(FILE_PREFIX + month + "." + archivedAt.toEpochMilli() + FILE_SUFFIX);
+        try {
+            byte[] bytes = ArchiveSegment.encode(month, entries);
+            ArchiveSegment segment = ArchiveSegment.decode(bytes);
+            if (segment.rows() != entries.size()) {
+                throw new IllegalStateException("Archive file for " + month + " did not read back all entries");
+            }
+            String checksum = sha256(bytes);
+            Files.createDirectories(directory);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // After an unknown outcome the files stay; the catalog decides at the next startup
+                    if (status == STATUS_ROLLED_BACK) {
+                        decoded.remove(checksum);
+                        deleteFiles(file);
+                    }
+                }
+            });
+            writeDurably(checksumFileFor(file), (checksum + "  " + file.getFileName() + "\n").getBytes(StandardCharsets.UTF_8));
+            writeDurably(file, bytes);
+            file.toFile().setReadOnly();
+
+            // Flushed at once: removing the entries afterwards clears the persistence context
+            catalogRepository.saveAndFlush(new ArchiveCatalogEntry(file.getFileName().toString(), checksum, archivedAt, segment.stats));
+            customerTotalRepository.saveAllAndFlush(segment.sumRevenueByCustomer().stream()
+                .map(row -> new ArchiveCustomerTotal(new ArchiveCustomerTotalId(month.toString(), (UUID) row[0]),
+                    (BigDecimal) row[1], (BigDecimal) row[2], (Long) row[3]))
+                .toList());
+            decoded.put(checksum, segment);
+            return new ArchivedMonth(month, file, checksum, segment.stats);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive file for " + month, e);
+        }
+    }
+
+    /**
+     * Reads every entry of an archived month after checking the file against its checksum.
+     */
+    public List<BillableHour> read(YearMonth month) {
+        ArchivedMonth archived = get(month)
+            .orElseThrow(() -> new IllegalStateException("Month " + month + " is not archived"));
+        try {
+            return ArchiveSegment.decode(readVerified(archived)).entries();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive file " + archived.file(), e);
+        }
+    }
+
+    /**
+     * Removes a month from the catalog, in the transaction that restores its billable hours, and
+     * deletes its files once that transaction has committed. Files left behind by a process that
+     * stopped in between are removed at a later startup.
+     */
+    public void delete(YearMonth month) {
+        requireTransaction();
+        Optional<ArchivedMonth> found = get(month);
+        if (found.isEmpty()) {
+            return;
+        }
+        ArchivedMonth archived = found.get();
+        customerTotalRepository.deletePeriod(month.toString());
+        catalogRepository.deleteById(month.toString());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                decoded.remove(archived.sha256());
+                deleteFiles(archived.file());
+            }
+        });
+    }
+
+    /**
+     * Deletes the files no catalog row refers to: archive and checksum files of an archive that
+     * never committed, of a restore that committed but stopped before deleting them, and
+     * temporary files. Only files older than the grace period are deleted, since a newer one may
+     * belong to an archive still running on another node.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Set<String> catalogued = new HashSet<>();
+        catalogRepository.findAll().forEach(entry -> {
+            catalogued.add(entry.getFileName());
+            catalogued.add(entry.getFileName() + CHECKSUM_SUFFIX);
+        });
+        Instant cutoff = Instant.now().minus(orphanGrace);
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, path -> Files.isRegularFile(path)
+                && (path.getFileName().toString().startsWith(FILE_PREFIX) || path.getFileName().toString().startsWith(TEMP_PREFIX)))) {
+            for (Path file : files) {
+                if (!catalogued.contains(file.getFileName().toString())
+                        && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    file.toFile().setWritable(true);
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not clean up the billable hour archive in " + directory, e);
+        }
+        if (deleted > 0) {
+            log.warn("Deleted {} archive file(s) in {} left behind by an archive or restore that did not complete",
+                deleted, directory);
+        }
+    }
+
+    private NavigableMap<YearMonth, ArchivedMonth> months() {
+        NavigableMap<YearMonth, ArchivedMonth> months = new TreeMap<>();
+        catalogRepository.findAllByOrderByPeriod().forEach(entry -> months.put(YearMonth.parse(entry.getPeriod()), toArchivedMonth(entry)));
+        return months;
+    }
+
+    private ArchivedMonth toArchivedMonth(ArchiveCatalogEntry entry) {
+        return new ArchivedMonth(YearMonth.parse(entry.getPeriod()), directory.resolve(entry.getFileName()),
+            entry.getSha256(), entry.getStats());
+    }
+
+    private ArchiveSegment segment(ArchivedMonth month) {
+        return decoded.computeIfAbsent(month.sha256(), key -> {
+            try {
+                return ArchiveSegment.decode(readVerified(month));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read archive file " + month.file(), e);
+            }
+        });
+    }
+
+    private static byte[] readVerified(ArchivedMonth month) throws IOException {
+        byte[] bytes = Files.readAllBytes(month.file());
+        if (!month.sha256().equalsIgnoreCase(sha256(bytes))) {
+            throw new IllegalStateException("Archive file " + month.file() + " does not match its checksum");
+        }
+        return bytes;
+    }
+
+    private void writeDurably(Path target, byte[] bytes) throws IOException {
+        Path temp = Files.createTempFile(directory, TEMP_PREFIX, ".tmp");
+        try {
+            Files.write(temp, bytes);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void deleteFiles(Path file) {
+        try {
+            file.toFile().setWritable(true);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(checksumFileFor(file));
+        } catch (IOException e) {
+            log.warn("Could not delete archive file {}; it is removed at a later startup: {}", file, e.getMessage());
+        }
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("The archive catalog can only be changed in a transaction");
+        }
+    }
+
+    private static Path checksumFileFor(Path file) {
+        return file.resolveSibling(file.getFileName() + CHECKSUM_SUFFIX);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record ArchivedMonth(YearMonth month, Path file, String sha256, ArchiveStats stats) {}
+}
@@ -0,0 +1,191 @@
+package com.bigbadmonolith.billing.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * A short-lived in-process cache (L1) in front of a shared Redis cache (L2).
+ * <p>
+ * Reads try L1, then L2 (copying the value into L1), then the loader. Evictions clear both
+ * tiers here and are broadcast so other nodes drop their L1 copy; the L1 TTL bounds how long a
+ * node can serve a value that was changed elsewhere if a broadcast is missed. Redis failures
+ * are logged and treated as misses, so an outage falls back to the database.
+ * <p>
+ * An eviction also leaves a short-lived tombstone in Redis, and puts for a tombstoned key are
+ * dropped on every node. A put is applied after its transaction commits, so without it a read
+ * that loaded the old row before a change could write that row back after the change's
+ * eviction and keep it in L2 for the whole L2 TTL.
+ */
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    static final String ALL_KEYS = "*";
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final BiConsumer<String, String> invalidationPublisher;
+    private final Tombstones tombstones;
+    final LongAdder localHits = new LongAdder();
+    final LongAdder remoteHits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder remoteErrors = new LongAdder();
+    final LongAdder remoteInvalidations = new LongAdder();
+    final LongAdder tombstonedPuts = new LongAdder();
+
+    TwoTierCache(String name, Cache remote, Duration localTtl, long localMaximumSize,
+                 BiConsumer<String, String> invalidationPublisher, Tombstones tombstones) {
+        super(false);
+        this.name = name;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+        this.tombstones = tombstones;
+        this.local = Caffeine.newBuilder()
+            .expireAfterWrite(localTtl)
+            .maximumSize(localMaximumSize)
+            .build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        ValueWrapper wrapper = null;
+        try {
+            wrapper = remote.get(key);
+        } catch (RuntimeException e) {
+            remoteFailed("read", key, e);
+        }
+        if (wrapper != null && wrapper.get() != null) {
+            remoteHits.increment();
+            local.put(localKey, wrapper.get());
+            return wrapper.get();
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object stored = toStoreValue(value);
+        String localKey = localKey(key);
+        try {
+            if (tombstones.isMarked(name, localKey)) {
+                tombstonedPuts.increment();
+                return;
+            }
+        } catch (RuntimeException e) {
+            // Redis is down, so the put cannot reach L2 either; L1 keeps its TTL bound.
+            remoteFailed("tombstone read", key, e);
+        }
+        local.put(localKey, stored);
+        try {
+            remote.put(key, stored);
+        } catch (RuntimeException e) {
+            remoteFailed("write", key, e);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        try {
+            tombstones.mark(name, localKey);
+            remote.evict(key);
+            invalidationPublisher.accept(name, localKey);
+        } catch (RuntimeException e) {
+            remoteFailed("evict", key, e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        try {
+            tombstones.mark(name, ALL_KEYS);
+            remote.clear();
+            invalidationPublisher.accept(name, ALL_KEYS);
+        } catch (RuntimeException e) {
+            remoteFailed("clear", ALL_KEYS, e);
+        }
+    }
+
+    /**
+     * Drops this node's L1 copy after another node changed the value.
+     */
+    void evictLocal(String localKey) {
+        remoteInvalidations.increment();
+        if (ALL_KEYS.equals(localKey)) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(localKey);
+        }
+    }
+
+    long localSize() {
+        return local.estimatedSize();
+    }
+
+    private void remoteFailed(String operation, Object key, RuntimeException e) {
+        remoteErrors.increment();
+        log.warn("Redis cache {} failed for {}::{}: {}", operation, name, key, e.getMessage());
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * Records evicted keys for as long as a transaction that read the old value may still put it.
+     */
+    interface Tombstones {
+
+        void mark(String cacheName, String key);
+
+        /** Whether the key, or the whole cache, was evicted within the tombstone TTL. */
+        boolean isMarked(String cacheName, String key);
+    }
+}
@@ -0,0 +1,150 @@
+package com.bigbadmonolith.billing.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Builds a {@link TwoTierCache} for each cache of the given Redis cache manager and keeps the
+ * nodes' L1 tiers coherent over a Redis pub/sub channel.
+ * <p>
+ * Caches are transaction-aware: puts and evictions made inside a transaction are applied after
+ * it commits, so other nodes cannot reload the old row between the eviction and the commit.
+ * Eviction tombstones are plain Redis keys that expire after the tombstone TTL.
+ */
+public class TwoTierCacheManager extends AbstractTransactionSupportingCacheManager
+        implements MessageListener, MeterBinder, TwoTierCache.Tombstones {
+
+    public static final String INVALIDATION_CHANNEL = "billing:cache:invalidate";
+    private static final String TOMBSTONE_PREFIX = "billing:tombstone:";
+
+    private final CacheManager remote;
+    private final StringRedisTemplate redis;
+    private final Duration localTtl;
+    private final long localMaximumSize;
+    private final Duration tombstoneTtl;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache> twoTierCaches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(RedisConnectionFactory connectionFactory, CacheManager remote,
+                               Duration localTtl, long localMaximumSize, Duration tombstoneTtl) {
+        this.remote = remote;
+        this.redis = new StringRedisTemplate(connectionFactory);
+        this.localTtl = localTtl;
+        this.localMaximumSize = localMaximumSize;
+        this.tombstoneTtl = tombstoneTtl;
+        setTransactionAware(true);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return remote.getCacheNames().stream().map(this::createCache).toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return remote.getCache(name) != null ? createCache(name) : null;
+    }
+
+    private TwoTierCache createCache(String name) {
+        return twoTierCaches.computeIfAbsent(name, cacheName ->
+            new TwoTierCache(cacheName, remote.getCache(cacheName), localTtl, localMaximumSize, this::publishEviction, this));
+    }
+
+    @Override
+    public void mark(String cacheName, String key) {
+        redis.opsForValue().set(tombstoneKey(cacheName, key), nodeId, tombstoneTtl);
+    }
+
+    @Override
+    public boolean isMarked(String cacheName, String key) {
+        Long marked = redis.countExistingKeys(
+            List.of(tombstoneKey(cacheName, key), tombstoneKey(cacheName, TwoTierCache.ALL_KEYS)));
+        return marked != null && marked > 0;
+    }
+
+    private static String tombstoneKey(String cacheName, String key) {
+        return TOMBSTONE_PREFIX + cacheName + "::" + key;
+    }
+
+    private void publishEviction(String cacheName, String key) {
+        redis.convertAndSend(INVALIDATION_CHANNEL, nodeId + '|' + cacheName + '|' + key);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        TwoTierCache cache = twoTierCaches.get(parts[1]);
+        if (cache != null) {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    TwoTierCache twoTierCache(String name) {
+        return twoTierCaches.get(name);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (TwoTierCache cache : twoTierCaches.values()) {
+            String name = cache.getName();
+            counter(registry, name, "l1_hit", cache, c -> c.localHits.sum());
+            counter(registry, name, "l2_hit", cache, c -> c.remoteHits.sum());
+            counter(registry, name, "miss", cache, c -> c.misses.sum());
+            Gauge.builder("billing.cache.hit.ratio", cache, c -> ratio(c.localHits.sum(), c.remoteHits.sum() + c.misses.sum()))
+                .tag("cache", name).tag("tier", "l1")
+                .description("Share of lookups answered from the in-process tier")
+                .register(registry);
+            Gauge.builder("billing.cache.hit.ratio", cache, c -> ratio(c.remoteHits.sum(), c.misses.sum()))
+                .tag("cache", name).tag("tier", "l2")
+                .description("Share of lookups that missed L1 and were answered from Redis")
+                .register(registry);
+            Gauge.builder("billing.cache.l1.size", cache, TwoTierCache::localSize)
+                .tag("cache", name)
+                .register(registry);
+            FunctionCounter.builder("billing.cache.l1.remote.evictions", cache, c -> c.remoteInvalidations.sum())
+                .tag("cache", name)
+                .description("L1 evictions triggered by changes on other nodes")
+                .register(registry);
+            FunctionCounter.builder("billing.cache.l2.errors", cache, c -> c.remoteErrors.sum())
+                .tag("cache", name)
+                .register(registry);
+            FunctionCounter.builder("billing.cache.puts.tombstoned", cache, c -> c.tombstonedPuts.sum())
+                .tag("cache", name)
+                .description("Puts dropped because the key was evicted within the tombstone TTL")
+                .register(registry);
+        }
+    }
+
+    private static void counter(MeterRegistry registry, String cache, String result, TwoTierCache target,
+                                ToDoubleFunction<TwoTierCache> count) {
+        FunctionCounter.builder("billing.cache.gets", target, count)
+            .tag("cache", cache).tag("result", result)
+            .register(registry);
+    }
+
+    private static double ratio(long hits, long others) {
+        long total = hits + others;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bigbadmonolith.billing.config;
+
+import com.bigbadmonolith.billing.cache.TwoTierCacheManager;
+import com.bigbadmonolith.billing.dto.BillableHourResponse;
+import com.bigbadmonolith.billing.dto.BillingCategoryResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+import java.time.Duration;
+
+/**
+ * Caching is switched on by CACHE_TYPE ({@code spring.cache.type}). With {@code redis} the
+ * caches below are two-tier (in-process L1 in front of Redis); with {@code none}, the default,
+ * the annotations are no-ops and every read goes to the database.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String CATEGORIES = "billingCategories";
+    public static final String BILLABLE_HOURS = "billableHours";
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                            ObjectMapper objectMapper,
+                                            @Value("${billing.cache.l1.ttl:30s}") Duration localTtl,
+                                            @Value("${billing.cache.l1.maximum-size:10000}") long localMaximumSize,
+                                            @Value("${billing.cache.l2.ttl:10m}") Duration remoteTtl,
+                                            @Value("${billing.cache.l2.tombstone-ttl:30s}") Duration tombstoneTtl) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
+            .entryTtl(remoteTtl)
+            .disableCachingNullValues()
+            .prefixCacheNameWith("billing:");
+        RedisCacheManager remote = RedisCacheManager.builder(connectionFactory)
+            .withCacheConfiguration(CATEGORIES, defaults.serializeValuesWith(
+                SerializationPair.fromSerializer(new Jackson2JsonRedisSerializer<>(objectMapper, BillingCategoryResponse.class))))
+            .withCacheConfiguration(BILLABLE_HOURS, defaults.serializeValuesWith(
+                SerializationPair.fromSerializer(new Jackson2JsonRedisSerializer<>(objectMapper, BillableHourResponse.class))))
+            .disableCreateOnMissingCache()
+            .build();
+        remote.initializeCaches();
+        return new TwoTierCacheManager(connectionFactory, remote, localTtl, localMaximumSize, tombstoneTtl);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   TwoTierCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,63 @@
+package com.bigbadmonolith.billing.controller;
+
+import com.bigbadmonolith.billing.dto.AccountingPeriodResponse;
+import com.bigbadmonolith.billing.dto.PeriodInvoiceResponse;
+import com.bigbadmonolith.billing.service.AccountingPeriodService;
+import com.bigbadmonolith.common.dto.ApiResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Figures for a closed period never change, so they are served as immutable and may be cached
+ * by the client for a year; figures for an open period must be revalidated every time. Invoice
+ * figures are per customer, so shared caches must not store either.
+ */
+@RestController
+@RequestMapping("/api/v1/billing/periods")
+public class AccountingPeriodController {
+    private static final CacheControl CLOSED = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+    private static final CacheControl OPEN = CacheControl.noCache();
+
+    private final AccountingPeriodService periodService;
+
+    public AccountingPeriodController(AccountingPeriodService periodService) {
+        this.periodService = periodService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<AccountingPeriodResponse>>> findClosed() {
+        return ResponseEntity.ok().cacheControl(OPEN).body(ApiResponse.success(periodService.findClosed()));
+    }
+
+    @GetMapping("/{year}/{month}")
+    public ResponseEntity<ApiResponse<AccountingPeriodResponse>> find(@PathVariable int year, @PathVariable int month) {
+        AccountingPeriodResponse period = periodService.find(year, month);
+        return ResponseEntity.ok().cacheControl(period.closed() ? CLOSED : OPEN).body(ApiResponse.success(period));
+    }
+
+    @PostMapping("/{year}/{month}/close")
+    public ResponseEntity<ApiResponse<AccountingPeriodResponse>> close(@PathVariable int year, @PathVariable int month) {
+        return ResponseEntity.ok(ApiResponse.success(periodService.close(year, month)));
+    }
+
+    @GetMapping("/{year}/{month}/invoices")
+    public ResponseEntity<ApiResponse<List<PeriodInvoiceResponse>>> invoices(@PathVariable int year, @PathVariable int month) {
+        // Checked before reading: a period closed in between is served as open one last time.
+        boolean closed = periodService.isClosed(year, month);
+        return ResponseEntity.ok().cacheControl(closed ? CLOSED : OPEN)
+            .body(ApiResponse.success(periodService.invoices(year, month)));
+    }
+
+    @GetMapping("/{year}/{month}/invoices/{customerId}")
+    public ResponseEntity<ApiResponse<PeriodInvoiceResponse>> invoice(@PathVariable int year, @PathVariable int month,
+                                                                      @PathVariable UUID customerId) {
+        boolean closed = periodService.isClosed(year, month);
+        return ResponseEntity.ok().cacheControl(closed ? CLOSED : OPEN)
+            .body(ApiResponse.success(periodService.invoice(year, month, customerId)));
+    }
+}
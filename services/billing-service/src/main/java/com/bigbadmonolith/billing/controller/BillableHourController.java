@@ -1,6 +1,7 @@
 package com.bigbadmonolith.billing.controller;
 
 import com.bigbadmonolith.billing.dto.*;
+import com.bigbadmonolith.billing.service.BillableHourImportService;
 import com.bigbadmonolith.billing.service.BillableHourService;
 import com.bigbadmonolith.billing.service.BillableHourService.BillableHourCreateResult;
 import com.bigbadmonolith.common.dto.ApiResponse;
@@ -24,9 +25,11 @@ import java.util.UUID;
 @RequestMapping("/api/v1/billing/hours")
 public class BillableHourController {
     private final BillableHourService billableHourService;
+    private final BillableHourImportService importService;
 
-    public BillableHourController(BillableHourService billableHourService) {
+    public BillableHourController(BillableHourService billableHourService, BillableHourImportService importService) {
         this.billableHourService = billableHourService;
+        this.importService = importService;
     }
 
     @PostMapping
@@ -40,6 +43,16 @@ public class BillableHourController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(data));
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<BulkBillableHourResponse>> createBulk(@Valid @RequestBody BulkBillableHourRequest request) {
+        BulkBillableHourResponse result = importService.importEntries(request.entries(), request.mode());
+        if (result.created() == 0) {
+            // Nothing was written, so this is an error, reported per rejected row.
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ApiResponse.error(result.rejections()));
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(result));
+    }
+
     @GetMapping
     public ResponseEntity<ApiResponse<List<BillableHourResponse>>> findAll(
             @RequestParam(defaultValue = "0") int page,
@@ -50,8 +63,16 @@ public class BillableHourController {
             @RequestParam(required = false) UUID userId,
             @RequestParam(required = false) UUID categoryId,
             @RequestParam(required = false) LocalDate fromDate,
-            @RequestParam(required = false) LocalDate toDate) {
+            @RequestParam(required = false) LocalDate toDate,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         Sort sortOrder = Sort.by(Sort.Direction.fromString(direction), sort);
+        if (after != null) {
+            // Keyset mode: an empty "after" starts the walk, each page's nextCursor continues it.
+            BillableHourSlice slice = billableHourService.findAfter(customerId, userId, categoryId, fromDate, toDate,
+                after, sortOrder, size, includeTotal);
+            return ResponseEntity.ok(ApiResponse.success(slice.items(), PageMeta.cursor(size, slice.nextCursor(), slice.totalItems())));
+        }
         Pageable pageable = PageRequest.of(page, size, sortOrder);
         Page<BillableHourResponse> result = billableHourService.findAll(customerId, userId, categoryId, fromDate, toDate, pageable);
         return ResponseEntity.ok(ApiResponse.success(result.getContent(), PageMeta.from(result)));
@@ -1,27 +1,33 @@
 package com.bigbadmonolith.billing.controller;
 
-import com.bigbadmonolith.billing.service.BillableHourService;
+import com.bigbadmonolith.billing.dto.RevenueSummary;
+import com.bigbadmonolith.billing.dto.RevenueTotals;
+import com.bigbadmonolith.billing.service.RevenueDashboardService;
 import com.bigbadmonolith.common.dto.ApiResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.math.BigDecimal;
-import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/billing/dashboard")
 public class DashboardController {
-    private final BillableHourService billableHourService;
+    private final RevenueDashboardService revenueDashboardService;
 
-    public DashboardController(BillableHourService billableHourService) {
-        this.billableHourService = billableHourService;
+    public DashboardController(RevenueDashboardService revenueDashboardService) {
+        this.revenueDashboardService = revenueDashboardService;
     }
 
     @GetMapping("/revenue")
-    public ResponseEntity<ApiResponse<Map<String, BigDecimal>>> getRevenue() {
-        BigDecimal totalRevenue = billableHourService.calculateTotalRevenue();
-        return ResponseEntity.ok(ApiResponse.success(Map.of("totalRevenue", totalRevenue)));
+    public ResponseEntity<ApiResponse<RevenueSummary>> getRevenue() {
+        return ResponseEntity.ok(ApiResponse.success(revenueDashboardService.summary()));
+    }
+
+    @GetMapping("/revenue/customers/{customerId}")
+    public ResponseEntity<ApiResponse<RevenueTotals>> getCustomerRevenue(@PathVariable UUID customerId) {
+        return ResponseEntity.ok(ApiResponse.success(revenueDashboardService.forCustomer(customerId)));
     }
 }
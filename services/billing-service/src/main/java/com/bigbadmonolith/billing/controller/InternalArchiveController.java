@@ -0,0 +1,33 @@
+package com.bigbadmonolith.billing.controller;
+
+import com.bigbadmonolith.billing.dto.ArchivedMonthResponse;
+import com.bigbadmonolith.billing.service.BillableHourArchiveService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/internal/billing/archives")
+public class InternalArchiveController {
+    private final BillableHourArchiveService archiveService;
+
+    public InternalArchiveController(BillableHourArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ArchivedMonthResponse>> list() {
+        return ResponseEntity.ok(archiveService.list());
+    }
+
+    @PostMapping("/{year}/{month}")
+    public ResponseEntity<ArchivedMonthResponse> archive(@PathVariable int year, @PathVariable int month) {
+        return ResponseEntity.ok(archiveService.archive(year, month));
+    }
+
+    @PostMapping("/{year}/{month}/restore")
+    public ResponseEntity<ArchivedMonthResponse> restore(@PathVariable int year, @PathVariable int month) {
+        return ResponseEntity.ok(archiveService.restore(year, month));
+    }
+}
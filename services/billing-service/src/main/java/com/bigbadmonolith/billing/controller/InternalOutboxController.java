@@ -0,0 +1,22 @@
+package com.bigbadmonolith.billing.controller;
+
+import com.bigbadmonolith.billing.event.OutboxRelay;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/internal/billing/outbox")
+public class InternalOutboxController {
+    private final OutboxRelay outboxRelay;
+
+    public InternalOutboxController(OutboxRelay outboxRelay) {
+        this.outboxRelay = outboxRelay;
+    }
+
+    @PostMapping("/rejected/replay")
+    public ResponseEntity<Map<String, Integer>> replayRejected() {
+        return ResponseEntity.ok(Map.of("replayed", outboxRelay.replayRejected()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.bigbadmonolith.billing.controller;
+
+import com.bigbadmonolith.billing.dto.TimesheetFormat;
+import com.bigbadmonolith.billing.dto.TimesheetImportProgress;
+import com.bigbadmonolith.billing.service.TimesheetImportService;
+import com.bigbadmonolith.common.dto.ApiResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/billing/hours/imports")
+public class TimesheetImportController {
+    private final TimesheetImportService importService;
+
+    public TimesheetImportController(TimesheetImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ApiResponse<TimesheetImportProgress>> submit(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        TimesheetImportProgress progress = importService.submit(body, TimesheetFormat.fromContentType(contentType));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .header(HttpHeaders.LOCATION, "/api/v1/billing/hours/imports/" + progress.id())
+            .body(ApiResponse.success(progress));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<TimesheetImportProgress>> progress(@PathVariable UUID id) {
+        return ResponseEntity.ok(ApiResponse.success(importService.progress(id)));
+    }
+
+    @GetMapping("/{id}/rejects")
+    public ResponseEntity<Resource> rejects(@PathVariable UUID id) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rejects-" + id + ".csv\"")
+            .body(new FileSystemResource(importService.rejectsFile(id)));
+    }
+}
@@ -0,0 +1,14 @@
+package com.bigbadmonolith.billing.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record AccountingPeriodResponse(
+    int year,
+    int month,
+    boolean closed,
+    Instant closedAt,
+    BigDecimal hours,
+    BigDecimal amount,
+    long entries
+) {}
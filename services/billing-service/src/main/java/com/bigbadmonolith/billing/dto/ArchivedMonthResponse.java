@@ -0,0 +1,16 @@
+package com.bigbadmonolith.billing.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ArchivedMonthResponse(
+    int year,
+    int month,
+    String file,
+    String sha256,
+    int entries,
+    LocalDate firstDate,
+    LocalDate lastDate,
+    BigDecimal hours,
+    BigDecimal revenue
+) {}
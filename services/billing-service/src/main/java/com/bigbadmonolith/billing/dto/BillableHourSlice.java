@@ -0,0 +1,13 @@
+package com.bigbadmonolith.billing.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset walk. {@code nextCursor} is null on the last page; {@code totalItems} is
+ * only filled in when the caller asked for it.
+ */
+public record BillableHourSlice(
+    List<BillableHourResponse> items,
+    String nextCursor,
+    Long totalItems
+) {}
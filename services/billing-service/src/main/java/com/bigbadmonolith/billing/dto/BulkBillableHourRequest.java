@@ -0,0 +1,15 @@
+package com.bigbadmonolith.billing.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * Entries are validated one by one by the import rather than with {@code @Valid}, so a single
+ * bad row is reported against its index instead of failing the whole request.
+ */
+public record BulkBillableHourRequest(
+    BulkImportMode mode,
+
+    @NotEmpty(message = "At least one entry is required")
+    List<CreateBillableHourRequest> entries
+) {}
@@ -0,0 +1,24 @@
+package com.bigbadmonolith.billing.dto;
+
+import com.bigbadmonolith.common.dto.ProblemDetail;
+
+import java.util.List;
+
+public record BulkBillableHourResponse(
+    BulkImportMode mode,
+    boolean committed,
+    int received,
+    int created,
+    int rejected,
+    List<BulkBillableHourResult> results
+) {
+    /**
+     * The rejected rows as problems for the error envelope, each naming the entry it is about.
+     */
+    public List<ProblemDetail> rejections() {
+        return results.stream()
+            .filter(BulkBillableHourResult::rejected)
+            .map(result -> ProblemDetail.of(422, "Validation Error", "entries[" + result.index() + "]: " + result.message()))
+            .toList();
+    }
+}
@@ -0,0 +1,21 @@
+package com.bigbadmonolith.billing.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkBillableHourResult(
+    int index,
+    String status,
+    UUID id,
+    String message,
+    String warning
+) {
+    public static final String CREATED = "created";
+    public static final String REJECTED = "rejected";
+    public static final String NOT_WRITTEN = "not_written";
+
+    public boolean rejected() {
+        return REJECTED.equals(status);
+    }
+}
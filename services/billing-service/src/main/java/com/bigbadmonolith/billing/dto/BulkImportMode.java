@@ -0,0 +1,8 @@
+package com.bigbadmonolith.billing.dto;
+
+public enum BulkImportMode {
+    /** Nothing is written if any entry is rejected. */
+    ALL_OR_NOTHING,
+    /** Valid entries are written; rejected ones are reported per row. */
+    BEST_EFFORT
+}
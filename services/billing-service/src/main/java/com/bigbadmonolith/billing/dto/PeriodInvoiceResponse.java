@@ -0,0 +1,13 @@
+package com.bigbadmonolith.billing.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record PeriodInvoiceResponse(
+    int year,
+    int month,
+    UUID customerId,
+    BigDecimal hours,
+    BigDecimal amount,
+    long entries
+) {}
@@ -0,0 +1,13 @@
+package com.bigbadmonolith.billing.dto;
+
+import java.math.BigDecimal;
+
+public record RevenueSummary(
+    BigDecimal totalRevenue,
+    BigDecimal totalHours,
+    long totalEntries,
+    BigDecimal monthToDateRevenue,
+    BigDecimal monthToDateHours,
+    BigDecimal yearToDateRevenue,
+    BigDecimal yearToDateHours
+) {}
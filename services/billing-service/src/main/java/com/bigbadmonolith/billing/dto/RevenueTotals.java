@@ -0,0 +1,9 @@
+package com.bigbadmonolith.billing.dto;
+
+import java.math.BigDecimal;
+
+public record RevenueTotals(
+    BigDecimal revenue,
+    BigDecimal hours,
+    long entries
+) {}
@@ -0,0 +1,30 @@
+package com.bigbadmonolith.billing.dto;
+
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import org.springframework.http.MediaType;
+
+public enum TimesheetFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String contentType;
+
+    TimesheetFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() { return contentType; }
+
+    public static TimesheetFormat fromContentType(String value) {
+        if (value != null) {
+            MediaType mediaType = MediaType.parseMediaType(value);
+            for (TimesheetFormat format : values()) {
+                if (mediaType.isCompatibleWith(MediaType.parseMediaType(format.contentType))) {
+                    return format;
+                }
+            }
+        }
+        throw new BusinessValidationException("Unsupported timesheet content type '" + value
+            + "' (expected text/csv or application/x-ndjson)");
+    }
+}
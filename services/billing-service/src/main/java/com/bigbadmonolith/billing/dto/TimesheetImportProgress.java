@@ -0,0 +1,20 @@
+package com.bigbadmonolith.billing.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TimesheetImportProgress(
+    UUID id,
+    TimesheetFormat format,
+    TimesheetImportStatus status,
+    long rowsRead,
+    long accepted,
+    long rejected,
+    double rowsPerSecond,
+    Instant submittedAt,
+    Instant startedAt,
+    Instant finishedAt,
+    String error
+) {}
@@ -0,0 +1,8 @@
+package com.bigbadmonolith.billing.dto;
+
+public enum TimesheetImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,222 @@
+package com.bigbadmonolith.billing.event;
+
+import com.bigbadmonolith.billing.event.ReportingEventClient.DeliveryResult;
+import com.bigbadmonolith.billing.model.OutboxEvent;
+import com.bigbadmonolith.billing.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox to reporting-service in id order, one batch per request.
+ * <p>
+ * Delivery is at-least-once: rows are deleted only after the receiver has answered, so a crash
+ * between the request and the delete replays the batch (the receiver's upserts are idempotent).
+ * When the whole request fails the batch is retried with exponential backoff and nothing behind
+ * it is sent in the meantime, which keeps per-record ordering. Individual events the receiver
+ * rejects are kept with status REJECTED rather than blocking the outbox; they are counted by the
+ * {@code billing.outbox.rejected} gauge and sent again with {@link #replayRejected}.
+ * <p>
+ * Every instance may run the relay: each batch is sent in a transaction holding the relay lock,
+ * which only one instance gets at a time, so batches never overlap and events stay in order.
+ */
+@Component
+public class OutboxRelay implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxRepository;
+    private final ReportingEventClient reportingClient;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private volatile ScheduledExecutorService scheduler;
+
+    public OutboxRelay(OutboxEventRepository outboxRepository,
+                       ReportingEventClient reportingClient,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${billing.outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${billing.outbox.relay.poll-interval:500ms}") Duration pollInterval,
+                       @Value("${billing.outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${billing.outbox.relay.initial-backoff:1s}") Duration initialBackoff,
+                       @Value("${billing.outbox.relay.max-backoff:5m}") Duration maxBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.reportingClient = reportingClient;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Sends at most one batch. Returns the number of events the receiver answered for, or 0
+     * when another instance holds the relay lock, there was nothing due or the request failed.
+     */
+    public int relayOnce() {
+        Integer relayed = transactionTemplate.execute(status -> outboxRepository.tryLockRelay() ? relayBatch() : 0);
+        return relayed == null ? 0 : relayed;
+    }
+
+    /**
+     * Queues every rejected event again, behind the pending ones, once the receiver has been
+     * fixed. Returns the number of events queued.
+     */
+    public int replayRejected() {
+        Integer replayed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> rejected = outboxRepository.findByStatusOrderByIdAsc(OutboxEvent.REJECTED, Limit.unlimited());
+            outboxRepository.deleteAllInBatch(rejected);
+            outboxRepository.saveAll(rejected.stream()
+                    .map(event -> new OutboxEvent(event.getEntity(), event.getEntityId(), event.getAction(), event.getPayload()))
+                    .toList());
+            return rejected.size();
+        });
+        log.info("Queued {} rejected outbox events again", replayed);
+        return replayed == null ? 0 : replayed;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("billing.outbox.rejected", outboxRepository, repository -> repository.countByStatus(OutboxEvent.REJECTED))
+                .description("Outbox events reporting rejected, kept until replayed")
+                .register(registry);
+    }
+
+    /**
+     * Sends the first batch of pending events; runs in the transaction holding the relay lock,
+     * and so does the request.
+     */
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxRepository.findByStatusOrderByIdAsc(OutboxEvent.PENDING, Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        OutboxEvent head = batch.get(0);
+        if (head.getNextAttemptAt() != null && head.getNextAttemptAt().isAfter(now)) {
+            return 0;
+        }
+
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+        Map<Integer, DeliveryResult> results;
+        try {
+            results = reportingClient.sendBatch(batch.stream().map(this::toRequest).toList());
+        } catch (RestClientException e) {
+            Instant nextAttempt = now.plus(backoff(head.getAttempts() + 1));
+            outboxRepository.scheduleRetry(ids, nextAttempt, truncate(e.getMessage()));
+            log.warn("Outbox relay of {} events failed (attempt {}), retrying at {}: {}",
+                    batch.size(), head.getAttempts() + 1, nextAttempt, e.getMessage());
+            return 0;
+        }
+
+        List<Long> delivered = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            DeliveryResult result = results.get(i);
+            if (result != null && result.failed()) {
+                OutboxEvent event = batch.get(i);
+                log.error("Reporting rejected {} {} {}: {}", event.getAction(), event.getEntity(),
+                        event.getEntityId(), result.message());
+                outboxRepository.reject(event.getId(), truncate(result.message()));
+            } else {
+                delivered.add(ids.get(i));
+            }
+        }
+        outboxRepository.deleteAllByIdInBatch(delivered);
+        return batch.size();
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private void drain() {
+        try {
+            while (relayOnce() == batchSize) {
+                // keep going while full batches are being delivered
+            }
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed", e);
+        }
+    }
+
+    private Map<String, Object> toRequest(OutboxEvent event) {
+        try {
+            return Map.of(
+                    "entity", event.getEntity(),
+                    "action", event.getAction(),
+                    "payload", objectMapper.readTree(event.getPayload()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt outbox payload for event " + event.getId(), e);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::drain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = scheduler;
+        if (running == null) {
+            return;
+        }
+        scheduler = null;
+        running.shutdown();
+        try {
+            running.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
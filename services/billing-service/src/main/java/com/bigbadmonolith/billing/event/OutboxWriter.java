@@ -0,0 +1,110 @@
+package com.bigbadmonolith.billing.event;
+
+import com.bigbadmonolith.billing.model.BillableHour;
+import com.bigbadmonolith.billing.model.BillingCategory;
+import com.bigbadmonolith.billing.model.OutboxEvent;
+import com.bigbadmonolith.billing.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Records billing changes for the reporting read model. Must be called inside the transaction
+ * that makes the change, so the outbox row commits or rolls back with it; delivery happens
+ * later in {@link OutboxRelay}, off the request path.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxWriter {
+    static final String BILLABLE_HOURS = "billable-hours";
+    static final String CATEGORIES = "categories";
+    static final String UPSERT = "upsert";
+    static final String REMOVE = "remove";
+
+    private static final String INSERT_OUTBOX =
+        "INSERT INTO event_outbox (entity, entity_id, action, payload, status, attempts, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, 0, ?)";
+    private static final int BATCH_SIZE = 1000;
+
+    private final OutboxEventRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(OutboxEventRepository outboxRepository, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void billableHourSaved(BillableHour entry) {
+        append(BILLABLE_HOURS, entry.getId(), UPSERT, billableHourPayload(entry));
+    }
+
+    /**
+     * Bulk variant for imports: one JDBC batch instead of a persist per entry.
+     */
+    public void billableHoursSaved(List<BillableHour> entries) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, entries, BATCH_SIZE, (ps, entry) -> {
+            ps.setString(1, BILLABLE_HOURS);
+            ps.setObject(2, entry.getId());
+            ps.setString(3, UPSERT);
+            ps.setString(4, serialize(BILLABLE_HOURS, entry.getId(), billableHourPayload(entry)));
+            ps.setString(5, OutboxEvent.PENDING);
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    public void billableHourDeleted(UUID id) {
+        append(BILLABLE_HOURS, id, REMOVE, Map.of("id", id.toString()));
+    }
+
+    public void categorySaved(BillingCategory category) {
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("id", category.getId().toString());
+        payload.put("name", category.getName());
+        payload.put("hourlyRate", category.getHourlyRate().toPlainString());
+        append(CATEGORIES, category.getId(), UPSERT, payload);
+    }
+
+    public void categoryDeleted(UUID id) {
+        append(CATEGORIES, id, REMOVE, Map.of("id", id.toString()));
+    }
+
+    private void append(String entity, UUID entityId, String action, Map<String, String> payload) {
+        outboxRepository.save(new OutboxEvent(entity, entityId, action, serialize(entity, entityId, payload)));
+    }
+
+    private String serialize(String entity, UUID entityId, Map<String, String> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload for " + entity + " " + entityId, e);
+        }
+    }
+
+    private static Map<String, String> billableHourPayload(BillableHour entry) {
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("id", entry.getId().toString());
+        payload.put("customerId", entry.getCustomerId().toString());
+        payload.put("userId", entry.getUserId().toString());
+        payload.put("categoryId", entry.getCategoryId().toString());
+        payload.put("hours", entry.getHours().toPlainString());
+        payload.put("rateSnapshot", entry.getRateSnapshot().toPlainString());
+        payload.put("dateLogged", entry.getDateLogged().toString());
+        if (entry.getNote() != null) {
+            payload.put("note", entry.getNote());
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bigbadmonolith.billing.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Posts batches of events to reporting-service's {@code /internal/events/batch} endpoint.
+ * Throws {@link org.springframework.web.client.RestClientException} when the batch as a whole
+ * was not accepted (connection failure, timeout or non-2xx status).
+ */
+@Component
+public class ReportingEventClient {
+
+    private final RestClient restClient;
+
+    public ReportingEventClient(RestClient.Builder restClientBuilder,
+                                @Value("${billing.outbox.reporting-url:http://localhost:8084}") String reportingUrl,
+                                @Value("${billing.outbox.timeout:5s}") Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = restClientBuilder
+                .baseUrl(reportingUrl)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    /**
+     * Sends the events in order and returns the receiver's verdict for each, keyed by the
+     * event's position in {@code events}.
+     */
+    public Map<Integer, DeliveryResult> sendBatch(List<Map<String, Object>> events) {
+        JsonNode response = restClient.post()
+                .uri("/internal/events/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(events)
+                .retrieve()
+                .body(JsonNode.class);
+
+        Map<Integer, DeliveryResult> results = new HashMap<>();
+        if (response != null) {
+            for (JsonNode result : response.path("results")) {
+                results.put(result.path("index").asInt(), new DeliveryResult(
+                        result.path("status").asText(),
+                        result.hasNonNull("message") ? result.get("message").asText() : null));
+            }
+        }
+        return results;
+    }
+
+    public record DeliveryResult(String status, String message) {
+        /** The status reporting-service gives an event it could not apply. */
+        public static final String FAILED = "failed";
+
+        public boolean failed() {
+            return FAILED.equals(status);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.bigbadmonolith.billing.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A closed month ("YYYY-MM") with its totals as of closing. Never updated or deleted.
+ */
+@Entity
+@Immutable
+@Table(name = "accounting_periods")
+public class AccountingPeriod implements Persistable<String> {
+    @Id
+    @Column(name = "period", length = 7)
+    private String period;
+
+    @Column(name = "closed_at", nullable = false)
+    private Instant closedAt;
+
+    @Column(name = "hours", nullable = false, precision = 14, scale = 2)
+    private BigDecimal hours;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "entries", nullable = false)
+    private long entries;
+
+    // Rows are only ever inserted, so a new instance is saved without first looking for an existing row.
+    @Transient
+    private boolean isNew;
+
+    public AccountingPeriod() {}
+
+    public AccountingPeriod(String period, Instant closedAt, BigDecimal hours, BigDecimal amount, long entries) {
+        this.period = period;
+        this.closedAt = closedAt;
+        this.hours = hours;
+        this.amount = amount;
+        this.entries = entries;
+        this.isNew = true;
+    }
+
+    public String getPeriod() { return period; }
+    public Instant getClosedAt() { return closedAt; }
+    public BigDecimal getHours() { return hours; }
+    public BigDecimal getAmount() { return amount; }
+    public long getEntries() { return entries; }
+
+    @Override
+    public String getId() { return period; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+}
@@ -0,0 +1,107 @@
+package com.bigbadmonolith.billing.model;
+
+import com.bigbadmonolith.billing.archive.ArchiveStats;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.UUID;
+
+/**
+ * An archived month ("YYYY-MM"): its archive file, the file's checksum and the statistics from
+ * the file header. Inserted when the month is archived and deleted when it is restored.
+ */
+@Entity
+@Immutable
+@Table(name = "archive_catalog")
+public class ArchiveCatalogEntry implements Persistable<String> {
+    @Id
+    @Column(name = "period", length = 7)
+    private String period;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    @Column(name = "entries", nullable = false)
+    private int entries;
+
+    @Column(name = "min_date", nullable = false)
+    private LocalDate minDate;
+
+    @Column(name = "max_date", nullable = false)
+    private LocalDate maxDate;
+
+    @Column(name = "min_customer_id", nullable = false)
+    private UUID minCustomerId;
+
+    @Column(name = "max_customer_id", nullable = false)
+    private UUID maxCustomerId;
+
+    @Column(name = "min_user_id", nullable = false)
+    private UUID minUserId;
+
+    @Column(name = "max_user_id", nullable = false)
+    private UUID maxUserId;
+
+    @Column(name = "min_category_id", nullable = false)
+    private UUID minCategoryId;
+
+    @Column(name = "max_category_id", nullable = false)
+    private UUID maxCategoryId;
+
+    @Column(name = "hours", nullable = false, precision = 14, scale = 2)
+    private BigDecimal hours;
+
+    @Column(name = "revenue", nullable = false, precision = 19, scale = 4)
+    private BigDecimal revenue;
+
+    @Transient
+    private boolean isNew;
+
+    public ArchiveCatalogEntry() {}
+
+    public ArchiveCatalogEntry(String fileName, String sha256, Instant archivedAt, ArchiveStats stats) {
+        this.period = stats.month().toString();
+        this.fileName = fileName;
+        this.sha256 = sha256;
+        this.archivedAt = archivedAt;
+        this.entries = stats.rows();
+        this.minDate = stats.minDate();
+        this.maxDate = stats.maxDate();
+        this.minCustomerId = stats.minCustomerId();
+        this.maxCustomerId = stats.maxCustomerId();
+        this.minUserId = stats.minUserId();
+        this.maxUserId = stats.maxUserId();
+        this.minCategoryId = stats.minCategoryId();
+        this.maxCategoryId = stats.maxCategoryId();
+        this.hours = stats.hours();
+        this.revenue = stats.revenue();
+        this.isNew = true;
+    }
+
+    public String getPeriod() { return period; }
+    public String getFileName() { return fileName; }
+    public String getSha256() { return sha256; }
+    public Instant getArchivedAt() { return archivedAt; }
+
+    public ArchiveStats getStats() {
+        return new ArchiveStats(YearMonth.parse(period), entries, minDate, maxDate, minCustomerId, maxCustomerId,
+            minUserId, maxUserId, minCategoryId, maxCategoryId, hours, revenue);
+    }
+
+    @Override
+    public String getId() { return period; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+}
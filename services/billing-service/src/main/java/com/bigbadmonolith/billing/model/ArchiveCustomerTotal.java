@@ -0,0 +1,50 @@
+package com.bigbadmonolith.billing.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+
+/**
+ * One customer's revenue, hours and entry count in an archived month, summed when it was archived.
+ */
+@Entity
+@Immutable
+@Table(name = "archive_customer_totals")
+public class ArchiveCustomerTotal implements Persistable<ArchiveCustomerTotalId> {
+    @EmbeddedId
+    private ArchiveCustomerTotalId id;
+
+    @Column(name = "revenue", nullable = false, precision = 19, scale = 4)
+    private BigDecimal revenue;
+
+    @Column(name = "hours", nullable = false, precision = 14, scale = 2)
+    private BigDecimal hours;
+
+    @Column(name = "entries", nullable = false)
+    private long entries;
+
+    @Transient
+    private boolean isNew;
+
+    public ArchiveCustomerTotal() {}
+
+    public ArchiveCustomerTotal(ArchiveCustomerTotalId id, BigDecimal revenue, BigDecimal hours, long entries) {
+        this.id = id;
+        this.revenue = revenue;
+        this.hours = hours;
+        this.entries = entries;
+        this.isNew = true;
+    }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public BigDecimal getHours() { return hours; }
+    public long getEntries() { return entries; }
+
+    @Override
+    public ArchiveCustomerTotalId getId() { return id; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+}
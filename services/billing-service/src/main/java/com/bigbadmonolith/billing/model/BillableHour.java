@@ -1,5 +1,6 @@
 package com.bigbadmonolith.billing.model;
 
+import com.bigbadmonolith.common.id.UuidV7;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -7,7 +8,13 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "billable_hours")
+@Table(name = "billable_hours", indexes = {
+    // Mirrors the Flyway migrations so that schemas generated from the entities plan the same way.
+    @Index(name = "idx_billable_hours_date_id", columnList = "date_logged, id"),
+    @Index(name = "idx_billable_hours_customer_date_id", columnList = "customer_id, date_logged, id"),
+    @Index(name = "idx_billable_hours_user_date_id", columnList = "user_id, date_logged, id"),
+    @Index(name = "idx_billable_hours_category_date_id", columnList = "category_id, date_logged, id")
+})
 public class BillableHour {
     @Id
     private UUID id;
@@ -44,7 +51,7 @@ public class BillableHour {
 
     @PrePersist
     protected void onCreate() {
-        if (id == null) id = UUID.randomUUID();
+        if (id == null) id = UuidV7.generate();
         createdAt = Instant.now();
         updatedAt = Instant.now();
     }
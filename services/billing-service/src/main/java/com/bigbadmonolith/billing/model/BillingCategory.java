@@ -1,5 +1,6 @@
 package com.bigbadmonolith.billing.model;
 
+import com.bigbadmonolith.common.id.UuidV7;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -30,7 +31,7 @@ public class BillingCategory {
 
     @PrePersist
     protected void onCreate() {
-        if (id == null) id = UUID.randomUUID();
+        if (id == null) id = UuidV7.generate();
         createdAt = Instant.now();
         updatedAt = Instant.now();
     }
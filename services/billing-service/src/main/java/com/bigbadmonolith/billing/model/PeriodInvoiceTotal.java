@@ -0,0 +1,50 @@
+package com.bigbadmonolith.billing.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+
+/**
+ * One customer's invoice totals for a closed accounting period, computed when it was closed.
+ */
+@Entity
+@Immutable
+@Table(name = "period_invoice_totals")
+public class PeriodInvoiceTotal implements Persistable<PeriodInvoiceTotalId> {
+    @EmbeddedId
+    private PeriodInvoiceTotalId id;
+
+    @Column(name = "hours", nullable = false, precision = 14, scale = 2)
+    private BigDecimal hours;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "entries", nullable = false)
+    private long entries;
+
+    @Transient
+    private boolean isNew;
+
+    public PeriodInvoiceTotal() {}
+
+    public PeriodInvoiceTotal(PeriodInvoiceTotalId id, BigDecimal hours, BigDecimal amount, long entries) {
+        this.id = id;
+        this.hours = hours;
+        this.amount = amount;
+        this.entries = entries;
+        this.isNew = true;
+    }
+
+    public BigDecimal getHours() { return hours; }
+    public BigDecimal getAmount() { return amount; }
+    public long getEntries() { return entries; }
+
+    @Override
+    public PeriodInvoiceTotalId getId() { return id; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+}
@@ -0,0 +1,38 @@
+package com.bigbadmonolith.billing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+@Embeddable
+public class PeriodInvoiceTotalId implements Serializable {
+    @Column(name = "period", nullable = false, length = 7)
+    private String period;
+
+    @Column(name = "customer_id", nullable = false)
+    private UUID customerId;
+
+    public PeriodInvoiceTotalId() {}
+
+    public PeriodInvoiceTotalId(String period, UUID customerId) {
+        this.period = period;
+        this.customerId = customerId;
+    }
+
+    public String getPeriod() { return period; }
+    public UUID getCustomerId() { return customerId; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PeriodInvoiceTotalId other)) return false;
+        return Objects.equals(period, other.period) && Objects.equals(customerId, other.customerId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(period, customerId);
+    }
+}
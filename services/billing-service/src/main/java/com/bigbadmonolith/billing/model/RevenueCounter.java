@@ -0,0 +1,32 @@
+package com.bigbadmonolith.billing.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "revenue_counters")
+public class RevenueCounter {
+    public static final String SCOPE_ALL = "ALL";
+    public static final String SCOPE_MONTH = "MONTH";
+    public static final String SCOPE_CUSTOMER = "CUSTOMER";
+    public static final String ALL_KEY = "*";
+
+    @EmbeddedId
+    private RevenueCounterId id;
+
+    @Column(name = "revenue", nullable = false, precision = 19, scale = 4)
+    private BigDecimal revenue;
+
+    @Column(name = "hours", nullable = false, precision = 14, scale = 2)
+    private BigDecimal hours;
+
+    @Column(name = "entries", nullable = false)
+    private long entries;
+
+    public RevenueCounter() {}
+
+    public RevenueCounterId getId() { return id; }
+    public BigDecimal getRevenue() { return revenue; }
+    public BigDecimal getHours() { return hours; }
+    public long getEntries() { return entries; }
+}
@@ -0,0 +1,42 @@
+package com.bigbadmonolith.billing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class RevenueCounterId implements Serializable {
+    @Column(name = "scope", nullable = false, length = 16)
+    private String scope;
+
+    @Column(name = "scope_key", nullable = false, length = 36)
+    private String scopeKey;
+
+    @Column(name = "stripe", nullable = false)
+    private short stripe;
+
+    public RevenueCounterId() {}
+
+    public RevenueCounterId(String scope, String scopeKey, short stripe) {
+        this.scope = scope;
+        this.scopeKey = scopeKey;
+        this.stripe = stripe;
+    }
+
+    public String getScope() { return scope; }
+    public String getScopeKey() { return scopeKey; }
+    public short getStripe() { return stripe; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RevenueCounterId other)) return false;
+        return stripe == other.stripe && Objects.equals(scope, other.scope) && Objects.equals(scopeKey, other.scopeKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scope, scopeKey, stripe);
+    }
+}
@@ -0,0 +1,26 @@
+package com.bigbadmonolith.billing.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "user_daily_hours")
+public class UserDailyHours {
+    @EmbeddedId
+    private UserDailyHoursId id;
+
+    @Column(name = "total_hours", nullable = false, precision = 6, scale = 2)
+    private BigDecimal totalHours;
+
+    public UserDailyHours() {}
+
+    public UserDailyHours(UserDailyHoursId id, BigDecimal totalHours) {
+        this.id = id;
+        this.totalHours = totalHours;
+    }
+
+    public UserDailyHoursId getId() { return id; }
+    public void setId(UserDailyHoursId id) { this.id = id; }
+    public BigDecimal getTotalHours() { return totalHours; }
+    public void setTotalHours(BigDecimal totalHours) { this.totalHours = totalHours; }
+}
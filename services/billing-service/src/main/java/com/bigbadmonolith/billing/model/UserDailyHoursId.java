@@ -0,0 +1,39 @@
+package com.bigbadmonolith.billing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+@Embeddable
+public class UserDailyHoursId implements Serializable {
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "date_logged", nullable = false)
+    private LocalDate dateLogged;
+
+    public UserDailyHoursId() {}
+
+    public UserDailyHoursId(UUID userId, LocalDate dateLogged) {
+        this.userId = userId;
+        this.dateLogged = dateLogged;
+    }
+
+    public UUID getUserId() { return userId; }
+    public LocalDate getDateLogged() { return dateLogged; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserDailyHoursId other)) return false;
+        return Objects.equals(userId, other.userId) && Objects.equals(dateLogged, other.dateLogged);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, dateLogged);
+    }
+}
@@ -0,0 +1,11 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.AccountingPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface AccountingPeriodRepository extends JpaRepository<AccountingPeriod, String>, AccountingPeriodRepositoryCustom {
+
+    List<AccountingPeriod> findAllByOrderByPeriodDesc();
+}
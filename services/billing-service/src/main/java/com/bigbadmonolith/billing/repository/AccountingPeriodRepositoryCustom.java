@@ -0,0 +1,19 @@
+package com.bigbadmonolith.billing.repository;
+
+import java.time.YearMonth;
+import java.util.Collection;
+
+public interface AccountingPeriodRepositoryCustom {
+
+    /**
+     * Takes a transaction-scoped shared lock on each month, in month order, so that a month
+     * cannot be closed until the current transaction has finished changing its billable hours.
+     */
+    void lockShared(Collection<YearMonth> months);
+
+    /**
+     * Takes the transaction-scoped exclusive lock on a month, waiting for every transaction
+     * holding it shared; used to close the month.
+     */
+    void lockExclusive(YearMonth month);
+}
@@ -0,0 +1,52 @@
+package com.bigbadmonolith.billing.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.YearMonth;
+import java.util.Collection;
+
+/**
+ * Period locks are PostgreSQL advisory locks keyed by (LOCK_CLASS, months since year 0), released
+ * at the end of the transaction. H2 (used in tests) has no advisory locks, so they are skipped there.
+ */
+class AccountingPeriodRepositoryImpl implements AccountingPeriodRepositoryCustom {
+
+    private static final int LOCK_CLASS = 0x42505244;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean h2;
+
+    AccountingPeriodRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void lockShared(Collection<YearMonth> months) {
+        if (isH2()) {
+            return;
+        }
+        months.stream().distinct().sorted().forEach(month ->
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock_shared(?, ?)", rs -> {}, LOCK_CLASS, key(month)));
+    }
+
+    @Override
+    public void lockExclusive(YearMonth month) {
+        if (isH2()) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> {}, LOCK_CLASS, key(month));
+    }
+
+    private static int key(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private boolean isH2() {
+        if (h2 == null) {
+            h2 = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().contains("H2"));
+        }
+        return h2;
+    }
+}
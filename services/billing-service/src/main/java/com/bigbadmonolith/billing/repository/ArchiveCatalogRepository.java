@@ -0,0 +1,11 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.ArchiveCatalogEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ArchiveCatalogRepository extends JpaRepository<ArchiveCatalogEntry, String> {
+
+    List<ArchiveCatalogEntry> findAllByOrderByPeriod();
+}
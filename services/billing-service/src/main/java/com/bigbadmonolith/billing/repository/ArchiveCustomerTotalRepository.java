@@ -0,0 +1,25 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.ArchiveCustomerTotal;
+import com.bigbadmonolith.billing.model.ArchiveCustomerTotalId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ArchiveCustomerTotalRepository extends JpaRepository<ArchiveCustomerTotal, ArchiveCustomerTotalId> {
+
+    /**
+     * Customer id, revenue, hours and entry count per customer over every archived month, in the
+     * shape of {@code BillableHourRepository.sumRevenueByCustomer()}.
+     */
+    @Query("SELECT t.id.customerId, SUM(t.revenue), SUM(t.hours), SUM(t.entries) " +
+           "FROM ArchiveCustomerTotal t GROUP BY t.id.customerId")
+    List<Object[]> sumRevenueByCustomer();
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM ArchiveCustomerTotal t WHERE t.id.period = :period")
+    int deletePeriod(@Param("period") String period);
+}
@@ -0,0 +1,43 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.BillableHour;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC-batched inserts for bulk imports. Entries must already carry their id, rate snapshot
+ * and timestamps; nothing goes through the persistence context.
+ */
+@Repository
+public class BillableHourBatchRepository {
+    static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT =
+        "INSERT INTO billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, " +
+        "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BillableHourBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<BillableHour> entries) {
+        jdbcTemplate.batchUpdate(INSERT, entries, BATCH_SIZE, (ps, entry) -> {
+            ps.setObject(1, entry.getId());
+            ps.setObject(2, entry.getCustomerId());
+            ps.setObject(3, entry.getUserId());
+            ps.setObject(4, entry.getCategoryId());
+            ps.setBigDecimal(5, entry.getHours());
+            ps.setBigDecimal(6, entry.getRateSnapshot());
+            ps.setDate(7, Date.valueOf(entry.getDateLogged()));
+            ps.setString(8, entry.getNote());
+            ps.setTimestamp(9, Timestamp.from(entry.getCreatedAt()));
+            ps.setTimestamp(10, Timestamp.from(entry.getUpdatedAt()));
+        });
+    }
+}
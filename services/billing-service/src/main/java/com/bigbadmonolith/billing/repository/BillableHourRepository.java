@@ -1,23 +1,21 @@
 package com.bigbadmonolith.billing.repository;
 
 import com.bigbadmonolith.billing.model.BillableHour;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
-public interface BillableHourRepository extends JpaRepository<BillableHour, UUID> {
-
-    @Query("SELECT COALESCE(SUM(b.hours), 0) FROM BillableHour b WHERE b.userId = :userId AND b.dateLogged = :date AND b.id <> :excludeId")
-    BigDecimal sumHoursForUserOnDate(@Param("userId") UUID userId, @Param("date") LocalDate date, @Param("excludeId") UUID excludeId);
-
-    @Query("SELECT COALESCE(SUM(b.hours), 0) FROM BillableHour b WHERE b.userId = :userId AND b.dateLogged = :date")
-    BigDecimal sumHoursForUserOnDateNew(@Param("userId") UUID userId, @Param("date") LocalDate date);
+public interface BillableHourRepository extends JpaRepository<BillableHour, UUID>, BillableHourRepositoryCustom {
 
     boolean existsByCustomerId(UUID customerId);
     boolean existsByUserId(UUID userId);
@@ -26,21 +24,40 @@ public interface BillableHourRepository extends JpaRepository<BillableHour, UUID
     Page<BillableHour> findByCustomerId(UUID customerId, Pageable pageable);
     Page<BillableHour> findByUserId(UUID userId, Pageable pageable);
 
-    @Query("SELECT b FROM BillableHour b WHERE " +
-           "(:customerId IS NULL OR b.customerId = :customerId) AND " +
-           "(:userId IS NULL OR b.userId = :userId) AND " +
-           "(:categoryId IS NULL OR b.categoryId = :categoryId) AND " +
-           "(:fromDate IS NULL OR b.dateLogged >= :fromDate) AND " +
-           "(:toDate IS NULL OR b.dateLogged <= :toDate)")
-    Page<BillableHour> findFiltered(
-        @Param("customerId") UUID customerId,
-        @Param("userId") UUID userId,
-        @Param("categoryId") UUID categoryId,
-        @Param("fromDate") LocalDate fromDate,
-        @Param("toDate") LocalDate toDate,
-        Pageable pageable
-    );
+    /**
+     * Locks the entries it returns; used to archive a month without any of them changing underneath.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<BillableHour> findByDateLoggedBetween(LocalDate from, LocalDate to);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM BillableHour b WHERE b.dateLogged BETWEEN :from AND :to")
+    int deleteByDateLoggedBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
 
     @Query("SELECT COALESCE(SUM(b.hours * b.rateSnapshot), 0) FROM BillableHour b")
     BigDecimal calculateTotalRevenue();
+
+    /**
+     * Year, month, revenue, hours and entry count per month; a full scan used only to verify
+     * the revenue counters.
+     */
+    @Query("SELECT YEAR(b.dateLogged), MONTH(b.dateLogged), SUM(b.hours * b.rateSnapshot), SUM(b.hours), COUNT(b) " +
+           "FROM BillableHour b GROUP BY YEAR(b.dateLogged), MONTH(b.dateLogged)")
+    List<Object[]> sumRevenueByMonth();
+
+    /**
+     * Customer id, revenue, hours and entry count per customer; used only to verify the
+     * revenue counters.
+     */
+    @Query("SELECT b.customerId, SUM(b.hours * b.rateSnapshot), SUM(b.hours), COUNT(b) " +
+           "FROM BillableHour b GROUP BY b.customerId")
+    List<Object[]> sumRevenueByCustomer();
+
+    /**
+     * Customer id, invoice amount (the sum of line totals rounded to cents), hours and entry
+     * count per customer for a date range; used to close an accounting period.
+     */
+    @Query("SELECT b.customerId, SUM(ROUND(b.hours * b.rateSnapshot, 2)), SUM(b.hours), COUNT(b) " +
+           "FROM BillableHour b WHERE b.dateLogged BETWEEN :from AND :to GROUP BY b.customerId")
+    List<Object[]> sumInvoiceByCustomer(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
@@ -0,0 +1,32 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.BillableHour;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface BillableHourRepositoryCustom {
+
+    /**
+     * Offset page of the entries matching {@code filter}, counting them only when the page does
+     * not already show where the results end.
+     */
+    Page<BillableHour> findFiltered(Filter filter, Pageable pageable);
+
+    /**
+     * Up to {@code limit} entries ordered by (dateLogged, id) in {@code direction}, starting after
+     * ({@code afterDate}, {@code afterId}) or from the beginning when both are null.
+     */
+    List<BillableHour> findSlice(Filter filter, LocalDate afterDate, UUID afterId, Sort.Direction direction, int limit);
+
+    long countFiltered(Filter filter);
+
+    /**
+     * Optional listing filters; null fields are left out of the query entirely.
+     */
+    record Filter(UUID customerId, UUID userId, UUID categoryId, LocalDate fromDate, LocalDate toDate) {}
+}
@@ -0,0 +1,104 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.BillableHour;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Listing queries built from only the filters supplied. A catch-all {@code (:x IS NULL OR b.x = :x)}
+ * query is planned once for every combination and tends to fall back to a sequential scan;
+ * here each combination is its own statement and can seek on the matching
+ * (..., date_logged, id) index.
+ */
+class BillableHourRepositoryImpl implements BillableHourRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<BillableHour> findFiltered(Filter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BillableHour> query = cb.createQuery(BillableHour.class);
+        Root<BillableHour> root = query.from(BillableHour.class);
+        query.where(predicates(cb, root, filter).toArray(Predicate[]::new));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<BillableHour> typed = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typed.getResultList(), pageable, () -> countFiltered(filter));
+    }
+
+    @Override
+    public List<BillableHour> findSlice(Filter filter, LocalDate afterDate, UUID afterId, Sort.Direction direction, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BillableHour> query = cb.createQuery(BillableHour.class);
+        Root<BillableHour> root = query.from(BillableHour.class);
+        Path<LocalDate> dateLogged = root.get("dateLogged");
+        Path<UUID> id = root.get("id");
+
+        List<Predicate> predicates = predicates(cb, root, filter);
+        if (afterDate != null) {
+            // The plain bound on date_logged is implied by the OR but gives the planner a range to seek.
+            predicates.add(direction.isAscending()
+                ? cb.greaterThanOrEqualTo(dateLogged, afterDate)
+                : cb.lessThanOrEqualTo(dateLogged, afterDate));
+            predicates.add(direction.isAscending()
+                ? cb.or(cb.greaterThan(dateLogged, afterDate), cb.and(cb.equal(dateLogged, afterDate), cb.greaterThan(id, afterId)))
+                : cb.or(cb.lessThan(dateLogged, afterDate), cb.and(cb.equal(dateLogged, afterDate), cb.lessThan(id, afterId))));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(direction.isAscending()
+            ? List.of(cb.asc(dateLogged), cb.asc(id))
+            : List.of(cb.desc(dateLogged), cb.desc(id)));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public long countFiltered(Filter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<BillableHour> root = query.from(BillableHour.class);
+        query.select(cb.count(root)).where(predicates(cb, root, filter).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static List<Predicate> predicates(CriteriaBuilder cb, Root<BillableHour> root, Filter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.customerId() != null) {
+            predicates.add(cb.equal(root.get("customerId"), filter.customerId()));
+        }
+        if (filter.userId() != null) {
+            predicates.add(cb.equal(root.get("userId"), filter.userId()));
+        }
+        if (filter.categoryId() != null) {
+            predicates.add(cb.equal(root.get("categoryId"), filter.categoryId()));
+        }
+        if (filter.fromDate() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("dateLogged"), filter.fromDate()));
+        }
+        // Always bounded above so that PostgreSQL can prune the partitions created ahead of time.
+        // Entries cannot be dated in the future; the extra day covers nodes in other time zones.
+        predicates.add(cb.lessThanOrEqualTo(root.get("dateLogged"),
+            filter.toDate() != null ? filter.toDate() : LocalDate.now().plusDays(1)));
+        return predicates;
+    }
+}
@@ -0,0 +1,29 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventRepositoryCustom {
+
+    List<OutboxEvent> findByStatusOrderByIdAsc(String status, Limit limit);
+
+    long countByStatus(String status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error " +
+           "WHERE e.id IN :ids")
+    int scheduleRetry(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") Instant nextAttemptAt,
+                      @Param("error") String error);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.status = 'REJECTED', e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id")
+    int reject(@Param("id") Long id, @Param("error") String error);
+}
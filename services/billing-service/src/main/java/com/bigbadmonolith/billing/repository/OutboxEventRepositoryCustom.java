@@ -0,0 +1,10 @@
+package com.bigbadmonolith.billing.repository;
+
+public interface OutboxEventRepositoryCustom {
+
+    /**
+     * Tries to take the transaction-scoped relay lock without waiting. Returns whether this
+     * transaction holds it, that is, may relay the outbox.
+     */
+    boolean tryLockRelay();
+}
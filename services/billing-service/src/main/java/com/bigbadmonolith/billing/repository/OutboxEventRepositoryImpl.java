@@ -0,0 +1,36 @@
+package com.bigbadmonolith.billing.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The relay lock is a PostgreSQL advisory lock keyed by (LOCK_CLASS, 0), released at the end of
+ * the transaction. H2 (used in tests) has no advisory locks, so it is always granted there.
+ */
+class OutboxEventRepositoryImpl implements OutboxEventRepositoryCustom {
+
+    private static final int LOCK_CLASS = 0x4f555458;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean h2;
+
+    OutboxEventRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean tryLockRelay() {
+        if (isH2()) {
+            return true;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?, 0)", Boolean.class, LOCK_CLASS));
+    }
+
+    private boolean isH2() {
+        if (h2 == null) {
+            h2 = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().contains("H2"));
+        }
+        return h2;
+    }
+}
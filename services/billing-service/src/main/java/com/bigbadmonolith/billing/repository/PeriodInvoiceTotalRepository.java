@@ -0,0 +1,12 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.PeriodInvoiceTotal;
+import com.bigbadmonolith.billing.model.PeriodInvoiceTotalId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface PeriodInvoiceTotalRepository extends JpaRepository<PeriodInvoiceTotal, PeriodInvoiceTotalId> {
+
+    List<PeriodInvoiceTotal> findByIdPeriodOrderByIdCustomerId(String period);
+}
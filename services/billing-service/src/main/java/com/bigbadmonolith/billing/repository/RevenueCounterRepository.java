@@ -0,0 +1,33 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.dto.RevenueTotals;
+import com.bigbadmonolith.billing.model.RevenueCounter;
+import com.bigbadmonolith.billing.model.RevenueCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface RevenueCounterRepository extends JpaRepository<RevenueCounter, RevenueCounterId>, RevenueCounterRepositoryCustom {
+
+    /**
+     * Sums the stripes of every key in [fromKey, toKey] for one scope, e.g. the months of a year.
+     */
+    @Query("SELECT new com.bigbadmonolith.billing.dto.RevenueTotals(" +
+           "COALESCE(SUM(c.revenue), 0), COALESCE(SUM(c.hours), 0), COALESCE(SUM(c.entries), 0)) " +
+           "FROM RevenueCounter c WHERE c.id.scope = :scope AND c.id.scopeKey BETWEEN :fromKey AND :toKey")
+    RevenueTotals sumBetween(@Param("scope") String scope, @Param("fromKey") String fromKey, @Param("toKey") String toKey);
+
+    /**
+     * Per key: scope, key, revenue, hours, entries and the number of stripe rows.
+     */
+    @Query("SELECT c.id.scope, c.id.scopeKey, SUM(c.revenue), SUM(c.hours), SUM(c.entries), COUNT(c) " +
+           "FROM RevenueCounter c GROUP BY c.id.scope, c.id.scopeKey")
+    List<Object[]> sumByKey();
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM RevenueCounter c WHERE c.id.scope = :scope AND c.id.scopeKey = :scopeKey")
+    int deleteKey(@Param("scope") String scope, @Param("scopeKey") String scopeKey);
+}
@@ -0,0 +1,15 @@
+package com.bigbadmonolith.billing.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface RevenueCounterRepositoryCustom {
+
+    /**
+     * Adds each delta to its stripe row, creating the row if needed. Deltas are applied in
+     * list order, so callers sort them to take row locks in a consistent order.
+     */
+    void addAll(List<CounterDelta> deltas);
+
+    record CounterDelta(String scope, String scopeKey, short stripe, BigDecimal revenue, BigDecimal hours, long entries) {}
+}
@@ -0,0 +1,44 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.UserDailyHours;
+import com.bigbadmonolith.billing.model.UserDailyHoursId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserDailyHoursRepository extends JpaRepository<UserDailyHours, UserDailyHoursId>, UserDailyHoursRepositoryCustom {
+
+    /**
+     * Adds {@code delta} to the day's total only if the result stays within {@code limit}.
+     * Returns 1 when applied and 0 when it would exceed the limit. Concurrent callers are
+     * serialized on the row lock, and the condition is re-checked against the committed total.
+     */
+    @Modifying
+    @Query(value = "UPDATE user_daily_hours SET total_hours = total_hours + :delta " +
+                   "WHERE user_id = :userId AND date_logged = :date AND total_hours + :delta <= :limit", nativeQuery = true)
+    int addWithinLimit(@Param("userId") UUID userId, @Param("date") LocalDate date,
+                       @Param("delta") BigDecimal delta, @Param("limit") BigDecimal limit);
+
+    /**
+     * Takes {@code hours} off the day's total. Returns 0, changing nothing, when the day has no
+     * row or less than {@code hours} on it, which means the ledger has drifted from billable_hours.
+     */
+    @Modifying
+    @Query(value = "UPDATE user_daily_hours SET total_hours = total_hours - :hours " +
+                   "WHERE user_id = :userId AND date_logged = :date AND total_hours >= :hours", nativeQuery = true)
+    int subtract(@Param("userId") UUID userId, @Param("date") LocalDate date, @Param("hours") BigDecimal hours);
+
+    @Query("SELECT d FROM UserDailyHours d WHERE d.id.userId IN :userIds AND d.id.dateLogged BETWEEN :from AND :to")
+    List<UserDailyHours> findForUsersBetween(@Param("userIds") Collection<UUID> userIds,
+                                             @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = "SELECT total_hours FROM user_daily_hours WHERE user_id = :userId AND date_logged = :date", nativeQuery = true)
+    BigDecimal findTotal(@Param("userId") UUID userId, @Param("date") LocalDate date);
+}
@@ -0,0 +1,26 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.UserDailyHoursId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserDailyHoursRepositoryCustom {
+
+    /**
+     * Creates the (user, date) ledger row with a zero total if it does not exist yet.
+     * Safe to call concurrently for the same key.
+     */
+    void ensureRow(UUID userId, LocalDate date);
+
+    /** Batched {@link #ensureRow} for many keys. */
+    void ensureRows(List<UserDailyHoursId> ids);
+
+    /**
+     * Batched conditional add: for each key, adds the matching delta only if the day stays
+     * within {@code limit}. Returns one update count per key; 0 means that key was not changed.
+     */
+    int[] addAllWithinLimit(List<UserDailyHoursId> ids, List<BigDecimal> deltas, BigDecimal limit);
+}
@@ -0,0 +1,94 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.UserDailyHoursId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Insert-if-absent needs ON CONFLICT on PostgreSQL; H2 (used in tests) has no ON CONFLICT,
+ * so it gets MERGE ... WHEN NOT MATCHED. Unlike ON CONFLICT, H2's MERGE can still lose the
+ * race against a concurrent insert of the same key; the row then exists, which is all this
+ * method promises, and H2 keeps the transaction usable after the failed statement.
+ */
+class UserDailyHoursRepositoryImpl implements UserDailyHoursRepositoryCustom {
+
+    private static final String PG_ENSURE_ROW =
+        "INSERT INTO user_daily_hours (user_id, date_logged, total_hours) VALUES (?, ?, 0) ON CONFLICT DO NOTHING";
+    private static final String H2_ENSURE_ROW =
+        "MERGE INTO user_daily_hours t USING (VALUES (CAST(? AS UUID), CAST(? AS DATE))) s(user_id, date_logged) " +
+        "ON t.user_id = s.user_id AND t.date_logged = s.date_logged " +
+        "WHEN NOT MATCHED THEN INSERT (user_id, date_logged, total_hours) VALUES (s.user_id, s.date_logged, 0)";
+
+    private static final String ADD_WITHIN_LIMIT =
+        "UPDATE user_daily_hours SET total_hours = total_hours + ? " +
+        "WHERE user_id = ? AND date_logged = ? AND total_hours + ? <= ?";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean h2;
+
+    UserDailyHoursRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void ensureRow(UUID userId, LocalDate date) {
+        if (!isH2()) {
+            jdbcTemplate.update(PG_ENSURE_ROW, userId, date);
+            return;
+        }
+        try {
+            jdbcTemplate.update(H2_ENSURE_ROW, userId, date);
+        } catch (DuplicateKeyException e) {
+            // inserted concurrently by another transaction
+        }
+    }
+
+    @Override
+    public void ensureRows(List<UserDailyHoursId> ids) {
+        if (isH2()) {
+            ids.forEach(id -> ensureRow(id.getUserId(), id.getDateLogged()));
+            return;
+        }
+        jdbcTemplate.batchUpdate(PG_ENSURE_ROW, ids, BATCH_SIZE, (ps, id) -> {
+            ps.setObject(1, id.getUserId());
+            ps.setObject(2, id.getDateLogged());
+        });
+    }
+
+    @Override
+    public int[] addAllWithinLimit(List<UserDailyHoursId> ids, List<BigDecimal> deltas, BigDecimal limit) {
+        return jdbcTemplate.batchUpdate(ADD_WITHIN_LIMIT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setBigDecimal(1, deltas.get(i));
+                ps.setObject(2, ids.get(i).getUserId());
+                ps.setObject(3, ids.get(i).getDateLogged());
+                ps.setBigDecimal(4, deltas.get(i));
+                ps.setBigDecimal(5, limit);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+
+    private boolean isH2() {
+        if (h2 == null) {
+            h2 = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().contains("H2"));
+        }
+        return h2;
+    }
+}
@@ -0,0 +1,216 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.ArchiveStats;
+import com.bigbadmonolith.billing.dto.AccountingPeriodResponse;
+import com.bigbadmonolith.billing.dto.PeriodInvoiceResponse;
+import com.bigbadmonolith.billing.model.AccountingPeriod;
+import com.bigbadmonolith.billing.model.PeriodInvoiceTotal;
+import com.bigbadmonolith.billing.model.PeriodInvoiceTotalId;
+import com.bigbadmonolith.billing.repository.AccountingPeriodRepository;
+import com.bigbadmonolith.billing.repository.BillableHourRepository;
+import com.bigbadmonolith.billing.repository.PeriodInvoiceTotalRepository;
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import com.bigbadmonolith.common.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Closing an accounting period freezes a month: its billable hours can no longer be created,
+ * changed or deleted, and its per-customer invoice totals are computed once and stored. Reads of
+ * a closed month are answered from the stored totals and never change; open months are summed
+ * from the billable hours on every request.
+ * <p>
+ * Writers take a shared lock on the months they touch and closing takes the month's lock
+ * exclusively, so a month is closed only after every transaction changing it has committed.
+ */
+@Service
+@Transactional
+public class AccountingPeriodService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountingPeriodService.class);
+
+    private final AccountingPeriodRepository periodRepository;
+    private final PeriodInvoiceTotalRepository invoiceTotalRepository;
+    private final BillableHourRepository billableHourRepository;
+
+    public AccountingPeriodService(AccountingPeriodRepository periodRepository,
+                                   PeriodInvoiceTotalRepository invoiceTotalRepository,
+                                   BillableHourRepository billableHourRepository) {
+        this.periodRepository = periodRepository;
+        this.invoiceTotalRepository = invoiceTotalRepository;
+        this.billableHourRepository = billableHourRepository;
+    }
+
+    /**
+     * Throws if any of the dates falls in a closed period. Must run in the transaction that
+     * changes the billable hours for those dates.
+     */
+    public void checkOpen(LocalDate... dates) {
+        Set<YearMonth> closed = closedAmong(Arrays.asList(dates));
+        if (!closed.isEmpty()) {
+            throw new BusinessValidationException("Accounting period " + closed.iterator().next() + " is closed");
+        }
+    }
+
+    /**
+     * The closed months among those of the dates, taking the shared period locks like {@link #checkOpen}.
+     */
+    public Set<YearMonth> closedAmong(Collection<LocalDate> dates) {
+        Set<YearMonth> months = dates.stream().map(YearMonth::from).collect(Collectors.toCollection(TreeSet::new));
+        if (months.isEmpty()) {
+            return months;
+        }
+        periodRepository.lockShared(months);
+        return periodRepository.findAllById(months.stream().map(YearMonth::toString).toList()).stream()
+            .map(period -> YearMonth.parse(period.getPeriod()))
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isClosed(int year, int month) {
+        return isClosed(toYearMonth(year, month));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isClosed(YearMonth month) {
+        return periodRepository.existsById(month.toString());
+    }
+
+    /**
+     * Closes a past month, storing its totals and one invoice total per customer.
+     */
+    public AccountingPeriodResponse close(int year, int month) {
+        YearMonth period = toYearMonth(year, month);
+        if (!period.isBefore(YearMonth.now())) {
+            throw new BusinessValidationException("Only months before " + YearMonth.now() + " can be closed");
+        }
+        periodRepository.lockExclusive(period);
+        if (periodRepository.existsById(period.toString())) {
+            throw new BusinessValidationException("Accounting period " + period + " is already closed");
+        }
+
+        List<PeriodInvoiceTotal> invoices = sumInvoices(period).values().stream()
+            .map(totals -> new PeriodInvoiceTotal(new PeriodInvoiceTotalId(period.toString(), totals.customerId()),
+                totals.hours(), totals.amount(), totals.entries()))
+            .toList();
+        AccountingPeriod closed = periodRepository.save(new AccountingPeriod(period.toString(), Instant.now(),
+            sum(invoices, PeriodInvoiceTotal::getHours), sum(invoices, PeriodInvoiceTotal::getAmount),
+            invoices.stream().mapToLong(PeriodInvoiceTotal::getEntries).sum()));
+        invoiceTotalRepository.saveAll(invoices);
+        log.info("Closed accounting period {}: {} invoice(s), {} entries, amount {}",
+            period, invoices.size(), closed.getEntries(), closed.getAmount());
+        return toResponse(closed);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccountingPeriodResponse> findClosed() {
+        return periodRepository.findAllByOrderByPeriodDesc().stream().map(AccountingPeriodService::toResponse).toList();
+    }
+
+    /**
+     * The stored totals of a closed month, or the current totals of an open one.
+     */
+    @Transactional(readOnly = true)
+    public AccountingPeriodResponse find(int year, int month) {
+        YearMonth period = toYearMonth(year, month);
+        return periodRepository.findById(period.toString())
+            .map(AccountingPeriodService::toResponse)
+            .orElseGet(() -> {
+                Collection<InvoiceTotals> invoices = sumInvoices(period).values();
+                return new AccountingPeriodResponse(year, month, false, null,
+                    invoices.stream().map(InvoiceTotals::hours).reduce(BigDecimal.ZERO, BigDecimal::add),
+                    invoices.stream().map(InvoiceTotals::amount).reduce(BigDecimal.ZERO, BigDecimal::add),
+                    invoices.stream().mapToLong(InvoiceTotals::entries).sum());
+            });
+    }
+
+    /**
+     * Invoice totals per customer, stored for a closed month and summed for an open one.
+     */
+    @Transactional(readOnly = true)
+    public List<PeriodInvoiceResponse> invoices(int year, int month) {
+        YearMonth period = toYearMonth(year, month);
+        if (isClosed(period)) {
+            return invoiceTotalRepository.findByIdPeriodOrderByIdCustomerId(period.toString()).stream()
+                .map(total -> toResponse(period, total))
+                .toList();
+        }
+        return sumInvoices(period).values().stream()
+            .map(totals -> new PeriodInvoiceResponse(year, month, totals.customerId(), totals.hours(), totals.amount(), totals.entries()))
+            .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public PeriodInvoiceResponse invoice(int year, int month, UUID customerId) {
+        YearMonth period = toYearMonth(year, month);
+        if (isClosed(period)) {
+            return invoiceTotalRepository.findById(new PeriodInvoiceTotalId(period.toString(), customerId))
+                .map(total -> toResponse(period, total))
+                .orElseThrow(() -> noInvoice(period, customerId));
+        }
+        InvoiceTotals totals = sumInvoices(period).get(customerId);
+        if (totals == null) {
+            throw noInvoice(period, customerId);
+        }
+        return new PeriodInvoiceResponse(year, month, customerId, totals.hours(), totals.amount(), totals.entries());
+    }
+
+    /**
+     * Per-customer totals over the month's billable hours. Only open months are summed, and a
+     * month is closed before it is archived. Amounts are sums of line totals rounded to cents.
+     */
+    private Map<UUID, InvoiceTotals> sumInvoices(YearMonth period) {
+        Map<UUID, InvoiceTotals> totals = new TreeMap<>(ArchiveStats.UUID_ORDER);
+        for (Object[] row : billableHourRepository.sumInvoiceByCustomer(period.atDay(1), period.atEndOfMonth())) {
+            UUID customerId = (UUID) row[0];
+            totals.put(customerId, new InvoiceTotals(customerId, scaled((BigDecimal) row[2]), scaled((BigDecimal) row[1]),
+                ((Number) row[3]).longValue()));
+        }
+        return totals;
+    }
+
+    private static BigDecimal sum(List<PeriodInvoiceTotal> invoices, Function<PeriodInvoiceTotal, BigDecimal> field) {
+        return invoices.stream().map(field).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static BigDecimal scaled(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static YearMonth toYearMonth(int year, int month) {
+        try {
+            return YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            throw new BusinessValidationException("Invalid month: " + year + "-" + month);
+        }
+    }
+
+    private static ResourceNotFoundException noInvoice(YearMonth period, UUID customerId) {
+        return new ResourceNotFoundException("No billable hours for customer " + customerId + " in " + period);
+    }
+
+    private static AccountingPeriodResponse toResponse(AccountingPeriod period) {
+        YearMonth month = YearMonth.parse(period.getPeriod());
+        return new AccountingPeriodResponse(month.getYear(), month.getMonthValue(), true, period.getClosedAt(),
+            period.getHours(), period.getAmount(), period.getEntries());
+    }
+
+    private static PeriodInvoiceResponse toResponse(YearMonth period, PeriodInvoiceTotal total) {
+        return new PeriodInvoiceResponse(period.getYear(), period.getMonthValue(), total.getId().getCustomerId(),
+            total.getHours(), total.getAmount(), total.getEntries());
+    }
+
+    private record InvoiceTotals(UUID customerId, BigDecimal hours, BigDecimal amount, long entries) {}
+}
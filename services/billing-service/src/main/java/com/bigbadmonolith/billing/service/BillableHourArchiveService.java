@@ -0,0 +1,142 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.archive.BillableHourArchive.ArchivedMonth;
+import com.bigbadmonolith.billing.config.CacheConfig;
+import com.bigbadmonolith.billing.dto.ArchivedMonthResponse;
+import com.bigbadmonolith.billing.model.BillableHour;
+import com.bigbadmonolith.billing.repository.AccountingPeriodRepository;
+import com.bigbadmonolith.billing.repository.BillableHourBatchRepository;
+import com.bigbadmonolith.billing.repository.BillableHourRepository;
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import com.bigbadmonolith.common.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DateTimeException;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Archive and restore commands moving whole months between billable_hours and the cold-storage
+ * archive. Archived entries are still billable hours: the revenue counters and the daily hours
+ * ledger keep counting them and no events are sent to reporting, which keeps its own copy.
+ * <p>
+ * Each command is one transaction that moves the entries and changes the month's catalog row
+ * together, so any snapshot, such as the revenue counter verification's, sees a month in exactly
+ * one place on every node. It holds the month's period lock exclusively, so no other node can
+ * archive or restore the same month at the same time.
+ */
+@Service
+public class BillableHourArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(BillableHourArchiveService.class);
+
+    private final BillableHourRepository billableHourRepository;
+    private final BillableHourBatchRepository batchRepository;
+    private final BillableHourPartitions partitions;
+    private final BillableHourArchive archive;
+    private final AccountingPeriodService periodService;
+    private final AccountingPeriodRepository periodRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BillableHourArchiveService(BillableHourRepository billableHourRepository,
+                                      BillableHourBatchRepository batchRepository,
+                                      BillableHourPartitions partitions,
+                                      BillableHourArchive archive,
+                                      AccountingPeriodService periodService,
+                                      AccountingPeriodRepository periodRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.billableHourRepository = billableHourRepository;
+        this.batchRepository = batchRepository;
+        this.partitions = partitions;
+        this.archive = archive;
+        this.periodService = periodService;
+        this.periodRepository = periodRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<ArchivedMonthResponse> list() {
+        return archive.list().stream().map(BillableHourArchiveService::toResponse).toList();
+    }
+
+    /**
+     * Writes a closed month to an archive file, then removes its entries from billable_hours in
+     * the same transaction, so that no entry can change between being archived and being removed.
+     * If the removal fails, or finds a different number of entries, the transaction rolls back and
+     * the file is deleted.
+     */
+    @CacheEvict(cacheNames = CacheConfig.BILLABLE_HOURS, allEntries = true)
+    public ArchivedMonthResponse archive(int year, int month) {
+        YearMonth yearMonth = toYearMonth(year, month);
+        if (!periodService.isClosed(yearMonth)) {
+            throw new BusinessValidationException("Accounting period " + yearMonth + " must be closed before it is archived");
+        }
+        ArchivedMonth archived = transactionTemplate.execute(status -> {
+            periodRepository.lockExclusive(yearMonth);
+            if (archive.isArchived(yearMonth)) {
+                throw new BusinessValidationException("Billable hours for " + yearMonth + " are already archived");
+            }
+            List<BillableHour> entries = billableHourRepository.findByDateLoggedBetween(
+                yearMonth.atDay(1), yearMonth.atEndOfMonth());
+            if (entries.isEmpty()) {
+                throw new BusinessValidationException("No billable hours logged in " + yearMonth);
+            }
+            ArchivedMonth written = archive.write(yearMonth, entries);
+            int removed = partitions.drop(yearMonth).orElseGet(() ->
+                billableHourRepository.deleteByDateLoggedBetween(yearMonth.atDay(1), yearMonth.atEndOfMonth()));
+            if (removed != entries.size()) {
+                throw new IllegalStateException("Billable hours for " + yearMonth + " changed while being archived: "
+                    + entries.size() + " archived, " + removed + " removed");
+            }
+            return written;
+        });
+        log.info("Archived {} billable hours for {} to {}", archived.stats().rows(), yearMonth, archived.file());
+        return toResponse(archived);
+    }
+
+    /**
+     * Puts an archived month back into billable_hours after checking its file against the
+     * checksum; the file is deleted once the transaction has committed.
+     */
+    public ArchivedMonthResponse restore(int year, int month) {
+        YearMonth yearMonth = toYearMonth(year, month);
+        return transactionTemplate.execute(status -> {
+            periodRepository.lockExclusive(yearMonth);
+            ArchivedMonth archived = archive.get(yearMonth)
+                .orElseThrow(() -> new ResourceNotFoundException("No archived billable hours for " + yearMonth));
+            List<BillableHour> entries = archive.read(yearMonth);
+            partitions.create(yearMonth);
+            batchRepository.insertAll(entries);
+            archive.delete(yearMonth);
+            log.info("Restored {} billable hours for {} from {}", entries.size(), yearMonth, archived.file());
+            return toResponse(archived);
+        });
+    }
+
+    private static YearMonth toYearMonth(int year, int month) {
+        try {
+            return YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            throw new BusinessValidationException("Invalid month: " + year + "-" + month);
+        }
+    }
+
+    private static ArchivedMonthResponse toResponse(ArchivedMonth archived) {
+        return new ArchivedMonthResponse(
+            archived.month().getYear(),
+            archived.month().getMonthValue(),
+            archived.file().getFileName().toString(),
+            archived.sha256(),
+            archived.stats().rows(),
+            archived.stats().minDate(),
+            archived.stats().maxDate(),
+            archived.stats().hours(),
+            archived.stats().revenue()
+        );
+    }
+}
@@ -0,0 +1,222 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.dto.BulkBillableHourResponse;
+import com.bigbadmonolith.billing.dto.BulkBillableHourResult;
+import com.bigbadmonolith.billing.dto.BulkImportMode;
+import com.bigbadmonolith.billing.dto.CreateBillableHourRequest;
+import com.bigbadmonolith.billing.event.OutboxWriter;
+import com.bigbadmonolith.billing.model.BillableHour;
+import com.bigbadmonolith.billing.model.BillingCategory;
+import com.bigbadmonolith.billing.model.UserDailyHours;
+import com.bigbadmonolith.billing.model.UserDailyHoursId;
+import com.bigbadmonolith.billing.repository.BillableHourBatchRepository;
+import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
+import com.bigbadmonolith.billing.repository.UserDailyHoursRepository;
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import com.bigbadmonolith.common.id.UuidV7;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Imports many time entries in one transaction with a fixed number of queries: one category
+ * lookup, one ledger read, one batched ledger reservation and batched inserts. Applies the
+ * same rules as {@link BillableHourService#create}, reporting violations per row.
+ */
+@Service
+@Transactional
+public class BillableHourImportService {
+    private final BillingCategoryRepository categoryRepository;
+    private final UserDailyHoursRepository dailyHoursRepository;
+    private final DailyHoursLedger dailyHoursLedger;
+    private final BillableHourBatchRepository batchRepository;
+    private final RevenueCounters revenueCounters;
+    private final OutboxWriter outboxWriter;
+    private final BillableHourArchive archive;
+    private final AccountingPeriodService periodService;
+    private final int maxEntries;
+
+    public BillableHourImportService(BillingCategoryRepository categoryRepository,
+                                     UserDailyHoursRepository dailyHoursRepository,
+                                     DailyHoursLedger dailyHoursLedger,
+                                     BillableHourBatchRepository batchRepository,
+                                     RevenueCounters revenueCounters,
+                                     OutboxWriter outboxWriter,
+                                     BillableHourArchive archive,
+                                     AccountingPeriodService periodService,
+                                     @Value("${billing.import.max-entries:50000}") int maxEntries) {
+        this.categoryRepository = categoryRepository;
+        this.dailyHoursRepository = dailyHoursRepository;
+        this.dailyHoursLedger = dailyHoursLedger;
+        this.batchRepository = batchRepository;
+        this.revenueCounters = revenueCounters;
+        this.outboxWriter = outboxWriter;
+        this.archive = archive;
+        this.periodService = periodService;
+        this.maxEntries = maxEntries;
+    }
+
+    public BulkBillableHourResponse importEntries(List<CreateBillableHourRequest> entries, BulkImportMode requestedMode) {
+        if (entries.size() > maxEntries) {
+            throw new BusinessValidationException("A bulk import accepts at most " + maxEntries + " entries");
+        }
+        BulkImportMode mode = requestedMode != null ? requestedMode : BulkImportMode.BEST_EFFORT;
+        BulkBillableHourResult[] results = new BulkBillableHourResult[entries.size()];
+        LocalDate today = LocalDate.now();
+        Set<YearMonth> closed = periodService.closedAmong(entries.stream()
+            .filter(entry -> entry != null && entry.dateLogged() != null)
+            .map(CreateBillableHourRequest::dateLogged)
+            .toList());
+
+        for (int i = 0; i < entries.size(); i++) {
+            String problem = entries.get(i) == null ? "Entry is required" : TimeEntryRules.validate(entries.get(i), today);
+            if (problem == null && archive.isArchived(YearMonth.from(entries.get(i).dateLogged()))) {
+                problem = "Billable hours for " + YearMonth.from(entries.get(i).dateLogged()) + " are archived";
+            }
+            if (problem == null && closed.contains(YearMonth.from(entries.get(i).dateLogged()))) {
+                problem = "Accounting period " + YearMonth.from(entries.get(i).dateLogged()) + " is closed";
+            }
+            if (problem != null) {
+                results[i] = rejected(i, problem);
+            }
+        }
+
+        Map<UUID, BillingCategory> categories = categoryRepository.findAllById(
+                pending(entries, results).map(CreateBillableHourRequest::categoryId).collect(Collectors.toSet()))
+            .stream().collect(Collectors.toMap(BillingCategory::getId, Function.identity()));
+        for (int i = 0; i < entries.size(); i++) {
+            if (results[i] == null && !categories.containsKey(entries.get(i).categoryId())) {
+                results[i] = rejected(i, "Billing category not found with id: " + entries.get(i).categoryId());
+            }
+        }
+
+        Map<UserDailyHoursId, BigDecimal> acceptedByDay = checkDailyLimit(entries, results);
+
+        if (mode == BulkImportMode.ALL_OR_NOTHING && Arrays.stream(results).anyMatch(Objects::nonNull)) {
+            return abandon(mode, results);
+        }
+
+        Set<UserDailyHoursId> raced = dailyHoursLedger.reserveAll(acceptedByDay);
+        if (!raced.isEmpty()) {
+            for (int i = 0; i < entries.size(); i++) {
+                CreateBillableHourRequest entry = entries.get(i);
+                if (results[i] == null && raced.contains(new UserDailyHoursId(entry.userId(), entry.dateLogged()))) {
+                    results[i] = rejected(i, "Total hours for user on " + entry.dateLogged()
+                        + " would exceed 24 after a concurrent change");
+                }
+            }
+            if (mode == BulkImportMode.ALL_OR_NOTHING) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return abandon(mode, results);
+            }
+        }
+
+        Instant now = Instant.now();
+        List<BillableHour> created = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            CreateBillableHourRequest request = entries.get(i);
+            BillableHour entry = new BillableHour();
+            entry.setId(UuidV7.generate());
+            entry.setCustomerId(request.customerId());
+            entry.setUserId(request.userId());
+            entry.setCategoryId(request.categoryId());
+            entry.setHours(request.hours());
+            entry.setRateSnapshot(categories.get(request.categoryId()).getHourlyRate());
+            entry.setDateLogged(request.dateLogged());
+            entry.setNote(request.note());
+            entry.setCreatedAt(now);
+            entry.setUpdatedAt(now);
+            created.add(entry);
+            results[i] = new BulkBillableHourResult(i, BulkBillableHourResult.CREATED, entry.getId(), null,
+                TimeEntryRules.weekendWarning(request.dateLogged()));
+        }
+        if (!created.isEmpty()) {
+            batchRepository.insertAll(created);
+            revenueCounters.addedAll(created);
+            outboxWriter.billableHoursSaved(created);
+        }
+        return new BulkBillableHourResponse(mode, true, entries.size(), created.size(),
+            entries.size() - created.size(), Arrays.asList(results));
+    }
+
+    /**
+     * Walks the entries in order against the ledger totals (read in one query) and rejects
+     * each entry that would take its user over 24 hours that day. Returns the hours to reserve
+     * per day for the entries that fit.
+     */
+    private Map<UserDailyHoursId, BigDecimal> checkDailyLimit(List<CreateBillableHourRequest> entries,
+                                                              BulkBillableHourResult[] results) {
+        Set<UUID> userIds = new HashSet<>();
+        LocalDate from = null;
+        LocalDate to = null;
+        for (int i = 0; i < entries.size(); i++) {
+            if (results[i] == null) {
+                CreateBillableHourRequest entry = entries.get(i);
+                userIds.add(entry.userId());
+                from = from == null || entry.dateLogged().isBefore(from) ? entry.dateLogged() : from;
+                to = to == null || entry.dateLogged().isAfter(to) ? entry.dateLogged() : to;
+            }
+        }
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UserDailyHoursId, BigDecimal> existing = new HashMap<>();
+        for (UserDailyHours day : dailyHoursRepository.findForUsersBetween(userIds, from, to)) {
+            existing.put(day.getId(), day.getTotalHours());
+        }
+        Map<UserDailyHoursId, BigDecimal> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            CreateBillableHourRequest entry = entries.get(i);
+            UserDailyHoursId day = new UserDailyHoursId(entry.userId(), entry.dateLogged());
+            BigDecimal logged = existing.getOrDefault(day, BigDecimal.ZERO).add(accepted.getOrDefault(day, BigDecimal.ZERO));
+            if (logged.add(entry.hours()).compareTo(DailyHoursLedger.DAILY_LIMIT) > 0) {
+                results[i] = rejected(i, "Total hours for user on " + entry.dateLogged() + " would exceed 24 (existing: "
+                    + logged + ", new: " + entry.hours() + ")");
+            } else {
+                accepted.merge(day, entry.hours(), BigDecimal::add);
+            }
+        }
+        return accepted;
+    }
+
+    private static Stream<CreateBillableHourRequest> pending(List<CreateBillableHourRequest> entries,
+                                                            BulkBillableHourResult[] results) {
+        return IntStream.range(0, entries.size()).filter(i -> results[i] == null).mapToObj(entries::get);
+    }
+
+    private static BulkBillableHourResponse abandon(BulkImportMode mode, BulkBillableHourResult[] results) {
+        int rejected = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = new BulkBillableHourResult(i, BulkBillableHourResult.NOT_WRITTEN, null,
+                    "Not written because other entries were rejected", null);
+            } else if (results[i].rejected()) {
+                rejected++;
+            }
+        }
+        return new BulkBillableHourResponse(mode, false, results.length, 0, rejected, Arrays.asList(results));
+    }
+
+    private static BulkBillableHourResult rejected(int index, String message) {
+        return new BulkBillableHourResult(index, BulkBillableHourResult.REJECTED, null, message, null);
+    }
+}
@@ -0,0 +1,159 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.OptionalInt;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the monthly partitions of billable_hours ahead of the calendar and detaches old ones
+ * for archiving. The partitioning itself (and the SQL functions called here) comes from the V8
+ * migration, so on databases where it did not run, such as H2 in tests, billable_hours is a
+ * plain table and this component does nothing.
+ */
+@Component
+public class BillableHourPartitions implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BillableHourPartitions.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final Duration interval;
+    private volatile Boolean partitioned;
+    private volatile ScheduledExecutorService scheduler;
+
+    public BillableHourPartitions(JdbcTemplate jdbcTemplate,
+                                  @Value("${billing.partitions.enabled:true}") boolean enabled,
+                                  @Value("${billing.partitions.months-ahead:3}") int monthsAhead,
+                                  @Value("${billing.partitions.check-interval:12h}") Duration interval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.interval = interval;
+    }
+
+    public boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().contains("PostgreSQL"))
+                && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('billable_hours'))",
+                    Boolean.class));
+        }
+        return partitioned;
+    }
+
+    /**
+     * Creates any missing partitions from the current month to {@code months-ahead} months
+     * ahead, so that new entries never land in the default partition. Returns how many were created.
+     */
+    public int ensureFuturePartitions() {
+        if (!isPartitioned()) {
+            return 0;
+        }
+        Integer created = jdbcTemplate.queryForObject("SELECT ensure_billable_hours_partitions(?)", Integer.class, monthsAhead);
+        if (created != null && created > 0) {
+            log.info("Created {} billable_hours partition(s) up to {} months ahead", created, monthsAhead);
+        }
+        return created == null ? 0 : created;
+    }
+
+    /**
+     * Detaches a past month's partition from billable_hours and returns the name of the
+     * standalone table it leaves behind. Its rows no longer appear in any billable hour query.
+     */
+    public String detach(YearMonth month) {
+        if (!isPartitioned()) {
+            throw new BusinessValidationException("billable_hours is not partitioned on this database");
+        }
+        if (!month.isBefore(YearMonth.now())) {
+            throw new BusinessValidationException("Only partitions of past months can be detached: " + month);
+        }
+        String table = jdbcTemplate.queryForObject("SELECT detach_billable_hours_partition(?)", String.class,
+            Date.valueOf(month.atDay(1)));
+        if (table == null) {
+            throw new BusinessValidationException("No billable_hours partition for " + month);
+        }
+        log.info("Detached billable_hours partition {} for {}", table, month);
+        return table;
+    }
+
+    /**
+     * Makes sure the partition for a month exists, e.g. before restoring archived entries into it.
+     */
+    public void create(YearMonth month) {
+        if (isPartitioned()) {
+            jdbcTemplate.queryForObject("SELECT create_billable_hours_partition(?)", String.class, Date.valueOf(month.atDay(1)));
+        }
+    }
+
+    /**
+     * Detaches and drops a past month's partition and returns how many entries it held, or empty
+     * when the table is not partitioned or the month has no partition. Used once the month has
+     * been archived; dropping a partition is far cheaper than deleting its rows.
+     */
+    public OptionalInt drop(YearMonth month) {
+        if (!isPartitioned() || !month.isBefore(YearMonth.now())) {
+            return OptionalInt.empty();
+        }
+        String table = jdbcTemplate.queryForObject("SELECT detach_billable_hours_partition(?)", String.class,
+            Date.valueOf(month.atDay(1)));
+        if (table == null) {
+            return OptionalInt.empty();
+        }
+        // The name comes from detach_billable_hours_partition, not from the caller.
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+        jdbcTemplate.execute("DROP TABLE " + table);
+        log.info("Dropped billable_hours partition {} for {}", table, month);
+        return OptionalInt.of(rows == null ? 0 : rows);
+    }
+
+    private void runScheduled() {
+        try {
+            ensureFuturePartitions();
+        } catch (RuntimeException e) {
+            log.warn("Could not create billable_hours partitions, retrying in {}: {}", interval, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "billable-hour-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runScheduled, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = scheduler;
+        if (running == null) {
+            return;
+        }
+        scheduler = null;
+        running.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -1,68 +1,115 @@
 package com.bigbadmonolith.billing.service;
 
+import com.bigbadmonolith.billing.archive.ArchiveStats;
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.config.CacheConfig;
 import com.bigbadmonolith.billing.dto.*;
+import com.bigbadmonolith.billing.event.OutboxWriter;
 import com.bigbadmonolith.billing.model.BillableHour;
-import com.bigbadmonolith.billing.model.BillingCategory;
 import com.bigbadmonolith.billing.repository.BillableHourRepository;
-import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
+import com.bigbadmonolith.billing.repository.BillableHourRepositoryCustom.Filter;
 import com.bigbadmonolith.common.exception.BusinessValidationException;
 import com.bigbadmonolith.common.exception.ResourceNotFoundException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 
 @Service
 @Transactional
 public class BillableHourService {
+    static final int MAX_PAGE_SIZE = 500;
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("dateLogged");
+    private static final Comparator<UUID> UUID_ORDER = ArchiveStats.UUID_ORDER;
+    // Offset pages keep every field listings could be sorted by before keyset paging, each with
+    // its order as PostgreSQL sorts it, for merging in archived entries.
+    private static final Map<String, Comparator<BillableHour>> OFFSET_SORT_FIELDS = Map.of(
+        "dateLogged", Comparator.comparing(BillableHour::getDateLogged),
+        "hours", Comparator.comparing(BillableHour::getHours),
+        "rateSnapshot", Comparator.comparing(BillableHour::getRateSnapshot),
+        "note", Comparator.comparing(BillableHour::getNote, Comparator.nullsLast(Comparator.naturalOrder())),
+        "customerId", Comparator.comparing(BillableHour::getCustomerId, UUID_ORDER),
+        "userId", Comparator.comparing(BillableHour::getUserId, UUID_ORDER),
+        "categoryId", Comparator.comparing(BillableHour::getCategoryId, UUID_ORDER),
+        "createdAt", Comparator.comparing(BillableHour::getCreatedAt),
+        "updatedAt", Comparator.comparing(BillableHour::getUpdatedAt),
+        "id", Comparator.comparing(BillableHour::getId, UUID_ORDER));
+    // The fields whose order an offset page can merge archived entries into: indexed, and compared
+    // here exactly as PostgreSQL compares them. Text sorts by the database collation, not by
+    // String.compareTo, and the others would sort every hot entry in range for each page.
+    private static final Set<String> ARCHIVE_SORT_FIELDS = Set.of("dateLogged", "customerId", "userId", "categoryId", "id");
+
     private final BillableHourRepository billableHourRepository;
-    private final BillingCategoryRepository categoryRepository;
+    private final BillingCategoryService categoryService;
+    private final DailyHoursLedger dailyHoursLedger;
+    private final RevenueCounters revenueCounters;
+    private final OutboxWriter outboxWriter;
+    private final BillableHourArchive archive;
+    private final AccountingPeriodService periodService;
 
     public BillableHourService(BillableHourRepository billableHourRepository,
-                               BillingCategoryRepository categoryRepository) {
+                               BillingCategoryService categoryService,
+                               DailyHoursLedger dailyHoursLedger,
+                               RevenueCounters revenueCounters,
+                               OutboxWriter outboxWriter,
+                               BillableHourArchive archive,
+                               AccountingPeriodService periodService) {
         this.billableHourRepository = billableHourRepository;
-        this.categoryRepository = categoryRepository;
+        this.categoryService = categoryService;
+        this.dailyHoursLedger = dailyHoursLedger;
+        this.revenueCounters = revenueCounters;
+        this.outboxWriter = outboxWriter;
+        this.archive = archive;
+        this.periodService = periodService;
     }
 
     public BillableHourCreateResult create(CreateBillableHourRequest request) {
         if (request.dateLogged().isAfter(LocalDate.now())) {
             throw new BusinessValidationException("Date logged must not be in the future");
         }
+        checkNotArchived(request.dateLogged());
+        periodService.checkOpen(request.dateLogged());
 
-        BillingCategory category = categoryRepository.findById(request.categoryId())
-            .orElseThrow(() -> new ResourceNotFoundException("Billing category not found with id: " + request.categoryId()));
+        // Read past the category cache: a cached copy may predate a rate change and the snapshot
+        // is immutable. Throws ResourceNotFoundException for an unknown id.
+        BigDecimal hourlyRate = categoryService.currentHourlyRate(request.categoryId());
 
-        BigDecimal existingHours = billableHourRepository.sumHoursForUserOnDateNew(request.userId(), request.dateLogged());
-        if (existingHours.add(request.hours()).compareTo(new BigDecimal("24")) > 0) {
-            throw new BusinessValidationException("Total hours for user on " + request.dateLogged() + " would exceed 24 (existing: " + existingHours + ", new: " + request.hours() + ")");
-        }
+        dailyHoursLedger.reserve(request.userId(), request.dateLogged(), request.hours());
 
         BillableHour entry = new BillableHour();
         entry.setCustomerId(request.customerId());
         entry.setUserId(request.userId());
         entry.setCategoryId(request.categoryId());
         entry.setHours(request.hours());
-        entry.setRateSnapshot(category.getHourlyRate());
+        entry.setRateSnapshot(hourlyRate);
         entry.setDateLogged(request.dateLogged());
         entry.setNote(request.note());
 
         BillableHour saved = billableHourRepository.save(entry);
+        revenueCounters.added(saved);
+        outboxWriter.billableHourSaved(saved);
 
-        String warning = null;
-        DayOfWeek day = request.dateLogged().getDayOfWeek();
-        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
-            warning = "Hours logged on a weekend (" + day + ")";
-        }
-
-        return new BillableHourCreateResult(toResponse(saved), warning);
+        return new BillableHourCreateResult(toResponse(saved), TimeEntryRules.weekendWarning(request.dateLogged()));
     }
 
+    @CacheEvict(cacheNames = CacheConfig.BILLABLE_HOURS, key = "#id")
     public BillableHourResponse update(UUID id, UpdateBillableHourRequest request) {
         BillableHour entry = billableHourRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Billable hour entry not found with id: " + id));
@@ -70,11 +117,12 @@ public class BillableHourService {
         if (request.dateLogged().isAfter(LocalDate.now())) {
             throw new BusinessValidationException("Date logged must not be in the future");
         }
+        checkNotArchived(request.dateLogged());
+        periodService.checkOpen(entry.getDateLogged(), request.dateLogged());
 
-        BigDecimal existingHours = billableHourRepository.sumHoursForUserOnDate(request.userId(), request.dateLogged(), id);
-        if (existingHours.add(request.hours()).compareTo(new BigDecimal("24")) > 0) {
-            throw new BusinessValidationException("Total hours for user on " + request.dateLogged() + " would exceed 24 (existing: " + existingHours + ", new: " + request.hours() + ")");
-        }
+        dailyHoursLedger.move(entry.getUserId(), entry.getDateLogged(), entry.getHours(),
+            request.userId(), request.dateLogged(), request.hours());
+        RevenueCounters.Contribution before = RevenueCounters.Contribution.of(entry);
 
         entry.setCustomerId(request.customerId());
         entry.setUserId(request.userId());
@@ -83,27 +131,98 @@ public class BillableHourService {
         entry.setDateLogged(request.dateLogged());
         entry.setNote(request.note());
 
-        return toResponse(billableHourRepository.save(entry));
+        BillableHour saved = billableHourRepository.save(entry);
+        revenueCounters.changed(before, saved);
+        outboxWriter.billableHourSaved(saved);
+        return toResponse(saved);
     }
 
+    /**
+     * Offset page over billable_hours and the archive, sorted by any of {@code OFFSET_SORT_FIELDS}.
+     * When the archive statistics rule out every archived month this is a single query; otherwise
+     * both sides supply their first offset + size entries and the page is cut from the merge, so
+     * deep pages that reach into archived months are best walked with {@link #findAfter} instead.
+     * The archive is kept in date order; for the other {@code ARCHIVE_SORT_FIELDS} every candidate
+     * month is scanned, holding no more than offset + size entries. Any other sort is refused when
+     * archived months are in range.
+     */
     @Transactional(readOnly = true)
     public Page<BillableHourResponse> findAll(UUID customerId, UUID userId, UUID categoryId,
                                                LocalDate fromDate, LocalDate toDate, Pageable pageable) {
-        return billableHourRepository.findFiltered(customerId, userId, categoryId, fromDate, toDate, pageable)
-            .map(this::toResponse);
+        Sort.Order order = checkSortable(pageable.getSort(), OFFSET_SORT_FIELDS.keySet());
+        Sort sort = pageable.getSort().and(Sort.by(order.getDirection(), "id"));
+        Filter filter = new Filter(customerId, userId, categoryId, fromDate, toDate);
+        if (!archive.mayContain(filter)) {
+            return billableHourRepository.findFiltered(filter, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort))
+                .map(this::toResponse);
+        }
+        if (!ARCHIVE_SORT_FIELDS.contains(order.getProperty())) {
+            throw new BusinessValidationException("Billable hours including archived months can only be sorted by one of "
+                + new TreeSet<>(ARCHIVE_SORT_FIELDS));
+        }
+        int window = Math.toIntExact(pageable.getOffset() + pageable.getPageSize());
+        Comparator<BillableHour> listingOrder = listingOrder(order);
+        Page<BillableHour> hot = billableHourRepository.findFiltered(filter, PageRequest.of(0, window, sort));
+        List<BillableHour> archived = order.getProperty().equals("dateLogged")
+            ? archive.find(filter, null, null, order.getDirection(), window)
+            : archive.findFirst(filter, listingOrder, window);
+        List<BillableHour> merged = merge(hot.getContent(), archived, listingOrder, window);
+        List<BillableHourResponse> content = merged.subList(Math.min(merged.size(), (int) pageable.getOffset()), merged.size())
+            .stream().map(this::toResponse).toList();
+        return new PageImpl<>(content, pageable, hot.getTotalElements() + archive.count(filter));
+    }
+
+    /**
+     * Keyset page: seeks past the {@code after} cursor on (dateLogged, id) instead of skipping an
+     * offset, and counts the matching entries only when {@code includeTotal} is set, so every
+     * page of a walk costs the same. Only {@code KEYSET_SORT_FIELDS} can be sorted by, as the
+     * cursor holds the date.
+     */
+    @Transactional(readOnly = true)
+    public BillableHourSlice findAfter(UUID customerId, UUID userId, UUID categoryId, LocalDate fromDate, LocalDate toDate,
+                                       String after, Sort sort, int limit, boolean includeTotal) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BusinessValidationException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Sort.Order order = checkSortable(sort, KEYSET_SORT_FIELDS);
+        Sort.Direction direction = order.getDirection();
+        Filter filter = new Filter(customerId, userId, categoryId, fromDate, toDate);
+        BillableHourCursor cursor = after == null || after.isBlank() ? null : BillableHourCursor.decode(after);
+
+        LocalDate afterDate = cursor == null ? null : cursor.dateLogged();
+        UUID afterId = cursor == null ? null : cursor.id();
+        List<BillableHour> entries = billableHourRepository.findSlice(filter, afterDate, afterId, direction, limit + 1);
+        if (archive.mayContain(filter)) {
+            entries = merge(entries, archive.find(filter, afterDate, afterId, direction, limit + 1), listingOrder(order), limit + 1);
+        }
+
+        String nextCursor = null;
+        if (entries.size() > limit) {
+            entries = entries.subList(0, limit);
+            BillableHour last = entries.get(limit - 1);
+            nextCursor = new BillableHourCursor(last.getDateLogged(), last.getId()).encode();
+        }
+        Long totalItems = includeTotal ? billableHourRepository.countFiltered(filter) + archive.count(filter) : null;
+        return new BillableHourSlice(entries.stream().map(this::toResponse).toList(), nextCursor, totalItems);
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.BILLABLE_HOURS, key = "#id")
     public BillableHourResponse findById(UUID id) {
         return billableHourRepository.findById(id)
             .map(this::toResponse)
             .orElseThrow(() -> new ResourceNotFoundException("Billable hour entry not found with id: " + id));
     }
 
+    @CacheEvict(cacheNames = CacheConfig.BILLABLE_HOURS, key = "#id")
     public void delete(UUID id) {
         BillableHour entry = billableHourRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Billable hour entry not found with id: " + id));
+        periodService.checkOpen(entry.getDateLogged());
         billableHourRepository.delete(entry);
+        dailyHoursLedger.release(entry.getUserId(), entry.getDateLogged(), entry.getHours());
+        revenueCounters.removed(entry);
+        outboxWriter.billableHourDeleted(id);
     }
 
     @Transactional(readOnly = true)
@@ -118,7 +237,51 @@ public class BillableHourService {
 
     @Transactional(readOnly = true)
     public BigDecimal calculateTotalRevenue() {
-        return billableHourRepository.calculateTotalRevenue();
+        return billableHourRepository.calculateTotalRevenue().add(archive.totalRevenue());
+    }
+
+    /**
+     * Listings are ordered by one of the given fields, with id as the tie-breaker. Returns the order.
+     */
+    private static Sort.Order checkSortable(Sort sort, Set<String> fields) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1 || !fields.contains(orders.get(0).getProperty())) {
+            throw new BusinessValidationException("Billable hours can only be sorted by one of " + new TreeSet<>(fields));
+        }
+        return orders.get(0);
+    }
+
+    private static Comparator<BillableHour> listingOrder(Sort.Order order) {
+        Comparator<BillableHour> comparator = OFFSET_SORT_FIELDS.get(order.getProperty())
+            .thenComparing(BillableHour::getId, UUID_ORDER);
+        return order.isDescending() ? comparator.reversed() : comparator;
+    }
+
+    private void checkNotArchived(LocalDate dateLogged) {
+        if (archive.isArchived(YearMonth.from(dateLogged))) {
+            throw new BusinessValidationException("Billable hours for " + YearMonth.from(dateLogged) + " are archived");
+        }
+    }
+
+    /**
+     * Merges two lists that are each in the given listing order, keeping the first {@code limit}.
+     */
+    private static List<BillableHour> merge(List<BillableHour> hot, List<BillableHour> archived, Comparator<BillableHour> order,
+                                            int limit) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<BillableHour> merged = new ArrayList<>(Math.min(limit, hot.size() + archived.size()));
+        int h = 0;
+        int a = 0;
+        while (merged.size() < limit && (h < hot.size() || a < archived.size())) {
+            if (a == archived.size() || (h < hot.size() && order.compare(hot.get(h), archived.get(a)) <= 0)) {
+                merged.add(hot.get(h++));
+            } else {
+                merged.add(archived.get(a++));
+            }
+        }
+        return merged;
     }
 
     private BillableHourResponse toResponse(BillableHour entry) {
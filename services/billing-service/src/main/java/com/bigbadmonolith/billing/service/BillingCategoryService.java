@@ -1,17 +1,22 @@
 package com.bigbadmonolith.billing.service;
 
+import com.bigbadmonolith.billing.config.CacheConfig;
 import com.bigbadmonolith.billing.dto.*;
+import com.bigbadmonolith.billing.event.OutboxWriter;
 import com.bigbadmonolith.billing.model.BillingCategory;
 import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
 import com.bigbadmonolith.billing.repository.BillableHourRepository;
 import com.bigbadmonolith.common.exception.DeletionBlockedException;
 import com.bigbadmonolith.common.exception.DuplicateResourceException;
 import com.bigbadmonolith.common.exception.ResourceNotFoundException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 
 @Service
@@ -19,11 +24,14 @@ import java.util.UUID;
 public class BillingCategoryService {
     private final BillingCategoryRepository categoryRepository;
     private final BillableHourRepository billableHourRepository;
+    private final OutboxWriter outboxWriter;
 
     public BillingCategoryService(BillingCategoryRepository categoryRepository,
-                                  BillableHourRepository billableHourRepository) {
+                                  BillableHourRepository billableHourRepository,
+                                  OutboxWriter outboxWriter) {
         this.categoryRepository = categoryRepository;
         this.billableHourRepository = billableHourRepository;
+        this.outboxWriter = outboxWriter;
     }
 
     public BillingCategoryResponse create(CreateBillingCategoryRequest request) {
@@ -34,7 +42,9 @@ public class BillingCategoryService {
         category.setName(request.name());
         category.setDescription(request.description());
         category.setHourlyRate(request.hourlyRate());
-        return toResponse(categoryRepository.save(category));
+        BillingCategory saved = categoryRepository.save(category);
+        outboxWriter.categorySaved(saved);
+        return toResponse(saved);
     }
 
     @Transactional(readOnly = true)
@@ -43,12 +53,24 @@ public class BillingCategoryService {
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#id")
     public BillingCategoryResponse findById(UUID id) {
         return categoryRepository.findById(id)
             .map(this::toResponse)
             .orElseThrow(() -> new ResourceNotFoundException("Billing category not found with id: " + id));
     }
 
+    /**
+     * The category's rate as committed now, bypassing the cache, for snapshotting into a new entry.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal currentHourlyRate(UUID id) {
+        return categoryRepository.findById(id)
+            .map(BillingCategory::getHourlyRate)
+            .orElseThrow(() -> new ResourceNotFoundException("Billing category not found with id: " + id));
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#id")
     public BillingCategoryResponse update(UUID id, UpdateBillingCategoryRequest request) {
         BillingCategory category = categoryRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Billing category not found with id: " + id));
@@ -60,9 +82,12 @@ public class BillingCategoryService {
         category.setName(request.name());
         category.setDescription(request.description());
         category.setHourlyRate(request.hourlyRate());
-        return toResponse(categoryRepository.save(category));
+        BillingCategory saved = categoryRepository.save(category);
+        outboxWriter.categorySaved(saved);
+        return toResponse(saved);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#id")
     public void delete(UUID id) {
         BillingCategory category = categoryRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Billing category not found with id: " + id));
@@ -72,6 +97,7 @@ public class BillingCategoryService {
         }
 
         categoryRepository.delete(category);
+        outboxWriter.categoryDeleted(id);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,106 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.model.UserDailyHoursId;
+import com.bigbadmonolith.billing.repository.UserDailyHoursRepository;
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Enforces the 24-hour-per-user-per-day rule against the user_daily_hours ledger.
+ * <p>
+ * Each reservation is a single conditional row update, so two concurrent submissions
+ * cannot both pass the check, even on different billing-service nodes. Ledger changes must
+ * be made in the same transaction as the billable hour change they account for.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class DailyHoursLedger {
+    static final BigDecimal DAILY_LIMIT = new BigDecimal("24");
+
+    private static final Comparator<Slot> LOCK_ORDER =
+        Comparator.comparing(Slot::userId).thenComparing(Slot::date);
+
+    private final UserDailyHoursRepository dailyHoursRepository;
+
+    public DailyHoursLedger(UserDailyHoursRepository dailyHoursRepository) {
+        this.dailyHoursRepository = dailyHoursRepository;
+    }
+
+    public void reserve(UUID userId, LocalDate date, BigDecimal hours) {
+        dailyHoursRepository.ensureRow(userId, date);
+        if (dailyHoursRepository.addWithinLimit(userId, date, hours, DAILY_LIMIT) == 0) {
+            BigDecimal existing = dailyHoursRepository.findTotal(userId, date);
+            throw new BusinessValidationException("Total hours for user on " + date + " would exceed 24 (existing: "
+                + existing + ", new: " + hours + ")");
+        }
+    }
+
+    /**
+     * Reserves many days at once with one batched conditional update, taking row locks in a
+     * fixed order. Returns the keys that could not be reserved because they would exceed the
+     * limit; all other keys have been reserved.
+     */
+    public Set<UserDailyHoursId> reserveAll(Map<UserDailyHoursId, BigDecimal> hoursByDay) {
+        List<UserDailyHoursId> keys = new ArrayList<>(hoursByDay.keySet());
+        keys.sort(Comparator.comparing(UserDailyHoursId::getUserId).thenComparing(UserDailyHoursId::getDateLogged));
+        dailyHoursRepository.ensureRows(keys);
+        int[] counts = dailyHoursRepository.addAllWithinLimit(keys, keys.stream().map(hoursByDay::get).toList(), DAILY_LIMIT);
+        Set<UserDailyHoursId> rejected = new HashSet<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (counts[i] == 0) {
+                rejected.add(keys.get(i));
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Gives back hours of a removed or changed entry. A day holding fewer hours than that has
+     * drifted from billable_hours, so the change fails rather than hiding it behind a zero.
+     */
+    public void release(UUID userId, LocalDate date, BigDecimal hours) {
+        if (dailyHoursRepository.subtract(userId, date, hours) == 0) {
+            throw new IllegalStateException("Daily hours ledger for user " + userId + " on " + date
+                + " holds less than the " + hours + " hours released (total: "
+                + dailyHoursRepository.findTotal(userId, date) + ")");
+        }
+    }
+
+    /**
+     * Moves an entry's hours from one user/day to another (or changes them in place). Rows are
+     * locked in a fixed order so two opposite moves cannot deadlock.
+     */
+    public void move(UUID fromUserId, LocalDate fromDate, BigDecimal fromHours,
+                     UUID toUserId, LocalDate toDate, BigDecimal toHours) {
+        Slot from = new Slot(fromUserId, fromDate);
+        Slot to = new Slot(toUserId, toDate);
+        if (from.equals(to)) {
+            BigDecimal delta = toHours.subtract(fromHours);
+            if (delta.signum() > 0) {
+                reserve(toUserId, toDate, delta);
+            } else if (delta.signum() < 0) {
+                release(fromUserId, fromDate, delta.negate());
+            }
+        } else if (LOCK_ORDER.compare(from, to) < 0) {
+            release(fromUserId, fromDate, fromHours);
+            reserve(toUserId, toDate, toHours);
+        } else {
+            reserve(toUserId, toDate, toHours);
+            release(fromUserId, fromDate, fromHours);
+        }
+    }
+
+    private record Slot(UUID userId, LocalDate date) {}
+}
@@ -0,0 +1,200 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.model.RevenueCounter;
+import com.bigbadmonolith.billing.repository.BillableHourRepository;
+import com.bigbadmonolith.billing.repository.RevenueCounterRepository;
+import com.bigbadmonolith.billing.repository.RevenueCounterRepositoryCustom.CounterDelta;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Periodically folds each revenue counter's stripes back into a single row and checks every
+ * counter against a scan of billable_hours plus the archived months, correcting any that drifted.
+ * <p>
+ * The scan and the rewrite run in one REPEATABLE READ transaction, so both sides are compared
+ * as of the same snapshot. A writer that changes a stripe row after the snapshot makes the
+ * rewrite fail with a serialization error instead of losing its delta; the run is then simply
+ * retried at the next interval. Stripe rows created after the snapshot are left untouched.
+ * The archived months' totals come from the archive catalog in the same snapshot, so a month
+ * archived or restored on any node meanwhile is counted exactly once.
+ */
+@Component
+public class RevenueCounterVerifier implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueCounterVerifier.class);
+    private static final Totals NONE = new Totals(BigDecimal.ZERO, BigDecimal.ZERO, 0);
+
+    private final RevenueCounterRepository counterRepository;
+    private final BillableHourRepository billableHourRepository;
+    private final BillableHourArchive archive;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration interval;
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder folds = new LongAdder();
+    private volatile ScheduledExecutorService scheduler;
+
+    public RevenueCounterVerifier(RevenueCounterRepository counterRepository,
+                                  BillableHourRepository billableHourRepository,
+                                  BillableHourArchive archive,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${billing.revenue-counters.verify.enabled:true}") boolean enabled,
+                                  @Value("${billing.revenue-counters.verify.interval:1h}") Duration interval) {
+        this.counterRepository = counterRepository;
+        this.billableHourRepository = billableHourRepository;
+        this.archive = archive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.enabled = enabled;
+        this.interval = interval;
+    }
+
+    public Verification verifyAndFold() {
+        return transactionTemplate.execute(status -> {
+            Map<CounterKey, Totals> expected = expectedTotals();
+            Map<CounterKey, Totals> stored = new HashMap<>();
+            Map<CounterKey, Long> stripeRows = new HashMap<>();
+            for (Object[] row : counterRepository.sumByKey()) {
+                CounterKey key = new CounterKey((String) row[0], (String) row[1]);
+                stored.put(key, new Totals((BigDecimal) row[2], (BigDecimal) row[3], ((Number) row[4]).longValue()));
+                stripeRows.put(key, ((Number) row[5]).longValue());
+            }
+
+            Set<CounterKey> keys = new LinkedHashSet<>(expected.keySet());
+            keys.addAll(stored.keySet());
+            int drifted = 0;
+            int folded = 0;
+            for (CounterKey key : keys) {
+                Totals want = expected.getOrDefault(key, NONE);
+                Totals have = stored.getOrDefault(key, NONE);
+                boolean matches = want.sameAs(have);
+                if (!matches) {
+                    drifted++;
+                    log.warn("Revenue counter {}/{} drifted: counters {} but billable hours {}; correcting",
+                        key.scope(), key.scopeKey(), have, want);
+                }
+                long rows = stripeRows.getOrDefault(key, 0L);
+                boolean fold = rows > 1 || (rows == 1 && want.entries() == 0);
+                if (!matches || fold) {
+                    counterRepository.deleteKey(key.scope(), key.scopeKey());
+                    if (want.entries() > 0) {
+                        counterRepository.addAll(List.of(new CounterDelta(key.scope(), key.scopeKey(), (short) 0,
+                            want.revenue(), want.hours(), want.entries())));
+                    }
+                    folded++;
+                }
+            }
+            mismatches.add(drifted);
+            folds.add(folded);
+            return new Verification(keys.size(), drifted, folded);
+        });
+    }
+
+    private Map<CounterKey, Totals> expectedTotals() {
+        Map<CounterKey, Totals> expected = new HashMap<>();
+        Totals all = NONE;
+        List<Object[]> byMonth = new ArrayList<>(billableHourRepository.sumRevenueByMonth());
+        byMonth.addAll(archive.sumRevenueByMonth());
+        for (Object[] row : byMonth) {
+            YearMonth month = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            Totals totals = new Totals((BigDecimal) row[2], (BigDecimal) row[3], ((Number) row[4]).longValue());
+            expected.merge(new CounterKey(RevenueCounter.SCOPE_MONTH, month.toString()), totals, Totals::plus);
+            all = all.plus(totals);
+        }
+        expected.put(new CounterKey(RevenueCounter.SCOPE_ALL, RevenueCounter.ALL_KEY), all);
+        List<Object[]> byCustomer = new ArrayList<>(billableHourRepository.sumRevenueByCustomer());
+        byCustomer.addAll(archive.sumRevenueByCustomer());
+        for (Object[] row : byCustomer) {
+            expected.merge(new CounterKey(RevenueCounter.SCOPE_CUSTOMER, row[0].toString()),
+                new Totals((BigDecimal) row[1], (BigDecimal) row[2], ((Number) row[3]).longValue()), Totals::plus);
+        }
+        return expected;
+    }
+
+    private void runScheduled() {
+        try {
+            Verification result = verifyAndFold();
+            log.info("Revenue counters verified: {} counters, {} corrected, {} folded",
+                result.counters(), result.mismatches(), result.folded());
+        } catch (RuntimeException e) {
+            log.warn("Revenue counter verification did not complete, retrying in {}: {}", interval, e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("billing.revenue.counters.mismatches", mismatches, LongAdder::sum)
+            .description("Revenue counters found to differ from billable_hours and corrected")
+            .register(registry);
+        FunctionCounter.builder("billing.revenue.counters.folds", folds, LongAdder::sum)
+            .description("Revenue counters whose stripes were folded into one row")
+            .register(registry);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revenue-counter-verifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::runScheduled, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = scheduler;
+        if (running == null) {
+            return;
+        }
+        scheduler = null;
+        running.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    public record Verification(int counters, int mismatches, int folded) {}
+
+    private record CounterKey(String scope, String scopeKey) {}
+
+    private record Totals(BigDecimal revenue, BigDecimal hours, long entries) {
+        boolean sameAs(Totals other) {
+            return revenue.compareTo(other.revenue) == 0 && hours.compareTo(other.hours) == 0 && entries == other.entries;
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(revenue.add(other.revenue), hours.add(other.hours), entries + other.entries);
+        }
+    }
+}
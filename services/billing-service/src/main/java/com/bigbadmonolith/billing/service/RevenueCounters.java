@@ -0,0 +1,122 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.model.BillableHour;
+import com.bigbadmonolith.billing.model.RevenueCounter;
+import com.bigbadmonolith.billing.repository.RevenueCounterRepository;
+import com.bigbadmonolith.billing.repository.RevenueCounterRepositoryCustom.CounterDelta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies billable hour changes to the striped revenue counters (all-time, per month, per
+ * customer). Must be called in the transaction that makes the change. Each call adds its
+ * deltas to one randomly chosen stripe per counter, taking row locks in counter order.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class RevenueCounters {
+    private static final Comparator<CounterKey> LOCK_ORDER =
+        Comparator.comparing(CounterKey::scope).thenComparing(CounterKey::scopeKey);
+
+    private final RevenueCounterRepository counterRepository;
+    private final int stripes;
+
+    public RevenueCounters(RevenueCounterRepository counterRepository,
+                           @Value("${billing.revenue-counters.stripes:16}") int stripes) {
+        this.counterRepository = counterRepository;
+        this.stripes = stripes;
+    }
+
+    public void added(BillableHour entry) {
+        Map<CounterKey, Sum> sums = new TreeMap<>(LOCK_ORDER);
+        accumulate(sums, Contribution.of(entry), 1);
+        apply(sums);
+    }
+
+    public void addedAll(List<BillableHour> entries) {
+        Map<CounterKey, Sum> sums = new TreeMap<>(LOCK_ORDER);
+        for (BillableHour entry : entries) {
+            accumulate(sums, Contribution.of(entry), 1);
+        }
+        apply(sums);
+    }
+
+    public void removed(BillableHour entry) {
+        Map<CounterKey, Sum> sums = new TreeMap<>(LOCK_ORDER);
+        accumulate(sums, Contribution.of(entry), -1);
+        apply(sums);
+    }
+
+    /**
+     * Moves an entry's contribution from its state before an update to its current state.
+     */
+    public void changed(Contribution before, BillableHour after) {
+        Map<CounterKey, Sum> sums = new TreeMap<>(LOCK_ORDER);
+        accumulate(sums, before, -1);
+        accumulate(sums, Contribution.of(after), 1);
+        apply(sums);
+    }
+
+    private static void accumulate(Map<CounterKey, Sum> sums, Contribution contribution, int sign) {
+        for (CounterKey key : List.of(
+                new CounterKey(RevenueCounter.SCOPE_ALL, RevenueCounter.ALL_KEY),
+                new CounterKey(RevenueCounter.SCOPE_MONTH, contribution.month().toString()),
+                new CounterKey(RevenueCounter.SCOPE_CUSTOMER, contribution.customerId().toString()))) {
+            sums.computeIfAbsent(key, k -> new Sum()).add(contribution, sign);
+        }
+    }
+
+    private void apply(Map<CounterKey, Sum> sums) {
+        List<CounterDelta> deltas = new ArrayList<>(sums.size());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        sums.forEach((key, sum) -> {
+            if (!sum.isZero()) {
+                deltas.add(new CounterDelta(key.scope(), key.scopeKey(), (short) random.nextInt(stripes),
+                    sum.revenue, sum.hours, sum.entries));
+            }
+        });
+        if (!deltas.isEmpty()) {
+            counterRepository.addAll(deltas);
+        }
+    }
+
+    /**
+     * What one billable hour entry adds to the counters.
+     */
+    public record Contribution(UUID customerId, YearMonth month, BigDecimal hours, BigDecimal revenue) {
+        public static Contribution of(BillableHour entry) {
+            return new Contribution(entry.getCustomerId(), YearMonth.from(entry.getDateLogged()), entry.getHours(),
+                entry.getHours().multiply(entry.getRateSnapshot()));
+        }
+    }
+
+    private record CounterKey(String scope, String scopeKey) {}
+
+    private static final class Sum {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal hours = BigDecimal.ZERO;
+        private long entries;
+
+        void add(Contribution contribution, int sign) {
+            revenue = sign > 0 ? revenue.add(contribution.revenue()) : revenue.subtract(contribution.revenue());
+            hours = sign > 0 ? hours.add(contribution.hours()) : hours.subtract(contribution.hours());
+            entries += sign;
+        }
+
+        boolean isZero() {
+            return revenue.signum() == 0 && hours.signum() == 0 && entries == 0;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.dto.RevenueSummary;
+import com.bigbadmonolith.billing.dto.RevenueTotals;
+import com.bigbadmonolith.billing.model.RevenueCounter;
+import com.bigbadmonolith.billing.repository.RevenueCounterRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.UUID;
+
+/**
+ * Dashboard figures read from the revenue counters: each is a sum over a bounded number of
+ * stripe rows, independent of the number of billable hours.
+ */
+@Service
+@Transactional(readOnly = true)
+public class RevenueDashboardService {
+    private final RevenueCounterRepository counterRepository;
+
+    public RevenueDashboardService(RevenueCounterRepository counterRepository) {
+        this.counterRepository = counterRepository;
+    }
+
+    public RevenueSummary summary() {
+        LocalDate today = LocalDate.now();
+        String month = YearMonth.from(today).toString();
+        RevenueTotals all = counterRepository.sumBetween(RevenueCounter.SCOPE_ALL, RevenueCounter.ALL_KEY, RevenueCounter.ALL_KEY);
+        RevenueTotals monthToDate = counterRepository.sumBetween(RevenueCounter.SCOPE_MONTH, month, month);
+        RevenueTotals yearToDate = counterRepository.sumBetween(RevenueCounter.SCOPE_MONTH,
+            YearMonth.of(today.getYear(), 1).toString(), month);
+        return new RevenueSummary(all.revenue(), all.hours(), all.entries(),
+            monthToDate.revenue(), monthToDate.hours(), yearToDate.revenue(), yearToDate.hours());
+    }
+
+    public RevenueTotals forCustomer(UUID customerId) {
+        String key = customerId.toString();
+        return counterRepository.sumBetween(RevenueCounter.SCOPE_CUSTOMER, key, key);
+    }
+
+    public RevenueTotals forMonth(YearMonth month) {
+        return counterRepository.sumBetween(RevenueCounter.SCOPE_MONTH, month.toString(), month.toString());
+    }
+}
@@ -0,0 +1,49 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.dto.CreateBillableHourRequest;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Per-entry rules shared by single creates and the bulk and file imports, which validate
+ * rows themselves instead of relying on bean validation of the request.
+ */
+final class TimeEntryRules {
+    static final BigDecimal MIN_HOURS = new BigDecimal("0.01");
+    static final BigDecimal MAX_HOURS = new BigDecimal("24");
+    static final int MAX_NOTE_LENGTH = 500;
+
+    private TimeEntryRules() {}
+
+    /**
+     * Returns the first rule the entry breaks, or null if it is valid. The 24-hour-per-day
+     * rule and the category lookup are checked separately because they need the database.
+     */
+    static String validate(CreateBillableHourRequest request, LocalDate today) {
+        if (request.customerId() == null) return "Customer ID is required";
+        if (request.userId() == null) return "User ID is required";
+        if (request.categoryId() == null) return "Category ID is required";
+        if (request.hours() == null) return "Hours is required";
+        if (request.hours().compareTo(MIN_HOURS) < 0) return "Hours must be at least 0.01";
+        if (request.hours().compareTo(MAX_HOURS) > 0) return "Hours must not exceed 24";
+        if (request.hours().stripTrailingZeros().scale() > 2) {
+            return "Hours must have at most 2 decimal places";
+        }
+        if (request.dateLogged() == null) return "Date logged is required";
+        if (request.dateLogged().isAfter(today)) return "Date logged must not be in the future";
+        if (request.note() != null && request.note().length() > MAX_NOTE_LENGTH) {
+            return "Note must not exceed " + MAX_NOTE_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    static String weekendWarning(LocalDate dateLogged) {
+        DayOfWeek day = dateLogged.getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
+            return "Hours logged on a weekend (" + day + ")";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.dto.TimesheetFormat;
+import com.bigbadmonolith.billing.dto.TimesheetImportProgress;
+import com.bigbadmonolith.billing.dto.TimesheetImportStatus;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one file import, updated by the pipeline threads and read by progress requests.
+ */
+final class TimesheetImportJob {
+    final UUID id = UUID.randomUUID();
+    final TimesheetFormat format;
+    final Path upload;
+    final Path rejects;
+    final Instant submittedAt = Instant.now();
+    final AtomicLong rowsRead = new AtomicLong();
+    final AtomicLong accepted = new AtomicLong();
+    final AtomicLong rejected = new AtomicLong();
+    private volatile TimesheetImportStatus status = TimesheetImportStatus.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    TimesheetImportJob(TimesheetFormat format, Path upload, Path workDir) {
+        this.format = format;
+        this.upload = upload;
+        this.rejects = workDir.resolve("rejects-" + id + ".csv");
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        status = TimesheetImportStatus.RUNNING;
+    }
+
+    // Status is written before finishedAt, and progress() reads them in the opposite order, so a
+    // snapshot with finishedAt set always carries the final status.
+    void completed() {
+        status = TimesheetImportStatus.COMPLETED;
+        finishedAt = Instant.now();
+    }
+
+    void failed(String message) {
+        error = message;
+        status = TimesheetImportStatus.FAILED;
+        finishedAt = Instant.now();
+    }
+
+    boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    TimesheetImportProgress progress() {
+        Instant finished = finishedAt;
+        TimesheetImportStatus current = status;
+        Instant started = startedAt;
+        Instant end = finished != null ? finished : Instant.now();
+        long read = rowsRead.get();
+        double rowsPerSecond = 0;
+        if (started != null) {
+            long millis = Math.max(1, Duration.between(started, end).toMillis());
+            rowsPerSecond = Math.round(read * 10_000.0 / millis) / 10.0;
+        }
+        return new TimesheetImportProgress(id, format, current, read, accepted.get(), rejected.get(), rowsPerSecond,
+            submittedAt, started, finished, error);
+    }
+}
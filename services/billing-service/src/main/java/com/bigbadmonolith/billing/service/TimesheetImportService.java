@@ -0,0 +1,281 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.dto.BulkBillableHourResponse;
+import com.bigbadmonolith.billing.dto.BulkBillableHourResult;
+import com.bigbadmonolith.billing.dto.BulkImportMode;
+import com.bigbadmonolith.billing.dto.CreateBillableHourRequest;
+import com.bigbadmonolith.billing.dto.TimesheetFormat;
+import com.bigbadmonolith.billing.dto.TimesheetImportProgress;
+import com.bigbadmonolith.billing.service.TimesheetReader.Row;
+import com.bigbadmonolith.common.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Imports large CSV or NDJSON timesheet files in the background.
+ * <p>
+ * The upload is spooled to disk, then each job runs as a two-stage pipeline: a parser thread
+ * reads the file line by line into chunks and hands them over a small bounded queue to the
+ * job thread, which persists each chunk through {@link BillableHourImportService} in its own
+ * transaction. When the database falls behind the queue fills up and the parser blocks, so
+ * memory stays at a few chunks whatever the file size. Rows that cannot be parsed or are
+ * rejected by the time-entry rules are appended to a rejects file as the job runs.
+ * <p>
+ * Chunks commit independently: a failed job keeps the rows it had already imported. Jobs are
+ * tracked in memory on the node that accepted the upload.
+ */
+@Service
+public class TimesheetImportService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TimesheetImportService.class);
+    private static final String REJECTS_HEADER = "line,reason,record\n";
+
+    private final BillableHourImportService importService;
+    private final ObjectMapper objectMapper;
+    private final Path workDir;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final Duration retention;
+    private final ExecutorService jobs;
+    private final Map<UUID, TimesheetImportJob> registry = new ConcurrentHashMap<>();
+
+    public TimesheetImportService(BillableHourImportService importService,
+                                  ObjectMapper objectMapper,
+                                  @Value("${billing.import.file.work-dir:}") String workDir,
+                                  @Value("${billing.import.file.chunk-size:1000}") int chunkSize,
+                                  @Value("${billing.import.file.queue-capacity:4}") int queueCapacity,
+                                  @Value("${billing.import.file.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                  @Value("${billing.import.file.retention:24h}") Duration retention) {
+        this.importService = importService;
+        this.objectMapper = objectMapper;
+        this.workDir = workDir.isBlank() ? Path.of(System.getProperty("java.io.tmpdir"), "billing-imports") : Path.of(workDir);
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        this.retention = retention;
+        AtomicInteger threads = new AtomicInteger();
+        this.jobs = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "timesheet-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(this.workDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create import work directory " + this.workDir, e);
+        }
+    }
+
+    /**
+     * Copies the upload to disk and queues the import. Returns as soon as the file is stored.
+     */
+    public TimesheetImportProgress submit(InputStream body, TimesheetFormat format) {
+        purgeExpired();
+        Path upload;
+        try {
+            upload = Files.createTempFile(workDir, "upload-", "." + format.name().toLowerCase());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store timesheet upload", e);
+        }
+        try {
+            Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(upload);
+            throw new UncheckedIOException("Could not store timesheet upload", e);
+        }
+        TimesheetImportJob job = new TimesheetImportJob(format, upload, workDir);
+        registry.put(job.id, job);
+        jobs.execute(() -> run(job));
+        return job.progress();
+    }
+
+    public TimesheetImportProgress progress(UUID id) {
+        return find(id).progress();
+    }
+
+    /**
+     * The rejects file written so far; complete once the job has finished.
+     */
+    public Path rejectsFile(UUID id) {
+        TimesheetImportJob job = find(id);
+        if (!Files.exists(job.rejects)) {
+            throw new ResourceNotFoundException("Rejects file not available yet for timesheet import: " + id);
+        }
+        return job.rejects;
+    }
+
+    private TimesheetImportJob find(UUID id) {
+        TimesheetImportJob job = registry.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Timesheet import not found with id: " + id);
+        }
+        return job;
+    }
+
+    private void run(TimesheetImportJob job) {
+        job.started();
+        BlockingQueue<List<Row>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Exception> parseFailure = new AtomicReference<>();
+        Thread parser = new Thread(() -> parse(job, queue, parseFailure), "timesheet-parser-" + job.id);
+        parser.setDaemon(true);
+        try (Writer rejects = Files.newBufferedWriter(job.rejects, StandardCharsets.UTF_8)) {
+            rejects.write(REJECTS_HEADER);
+            rejects.flush();
+            parser.start();
+            List<Row> chunk;
+            while (!(chunk = queue.take()).isEmpty()) {
+                persist(job, chunk, rejects);
+                rejects.flush();
+            }
+            parser.join();
+            if (parseFailure.get() != null) {
+                job.failed(parseFailure.get().getMessage());
+            } else {
+                job.completed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            parser.interrupt();
+            job.failed("Import interrupted");
+        } catch (Exception e) {
+            parser.interrupt();
+            log.error("Timesheet import {} failed", job.id, e);
+            job.failed(e.getMessage());
+        } finally {
+            deleteQuietly(job.upload);
+        }
+        log.info("Timesheet import {} {}: {} rows read, {} accepted, {} rejected", job.id,
+                job.progress().status(), job.rowsRead.get(), job.accepted.get(), job.rejected.get());
+    }
+
+    /**
+     * Parser stage. Ends the stream with an empty chunk unless the job thread gave up on it.
+     */
+    private void parse(TimesheetImportJob job, BlockingQueue<List<Row>> queue, AtomicReference<Exception> failure) {
+        try {
+            try (BufferedReader in = Files.newBufferedReader(job.upload, StandardCharsets.UTF_8)) {
+                TimesheetReader reader = TimesheetReader.open(job.format, in, objectMapper);
+                List<Row> chunk = new ArrayList<>(chunkSize);
+                Row row;
+                while ((row = reader.next()) != null) {
+                    job.rowsRead.incrementAndGet();
+                    chunk.add(row);
+                    if (chunk.size() == chunkSize) {
+                        queue.put(chunk);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    queue.put(chunk);
+                }
+            } catch (IOException | RuntimeException e) {
+                failure.set(e);
+            }
+            queue.put(List.of());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Persist stage for one chunk: parse errors go straight to the rejects file, the rest are
+     * imported best-effort and their rejections written with the line they came from.
+     */
+    private void persist(TimesheetImportJob job, List<Row> chunk, Writer rejects) throws IOException {
+        List<Row> parsed = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (row.error() != null) {
+                writeReject(rejects, row, row.error());
+            } else {
+                parsed.add(row);
+            }
+        }
+        long rejected = chunk.size() - parsed.size();
+        if (!parsed.isEmpty()) {
+            List<CreateBillableHourRequest> requests = parsed.stream().map(Row::request).toList();
+            BulkBillableHourResponse response = importService.importEntries(requests, BulkImportMode.BEST_EFFORT);
+            for (BulkBillableHourResult result : response.results()) {
+                if (result.rejected()) {
+                    writeReject(rejects, parsed.get(result.index()), result.message());
+                }
+            }
+            job.accepted.addAndGet(response.created());
+            rejected += response.rejected();
+        }
+        job.rejected.addAndGet(rejected);
+    }
+
+    private static void writeReject(Writer rejects, Row row, String reason) throws IOException {
+        rejects.write(Long.toString(row.lineNumber()));
+        rejects.write(',');
+        writeField(rejects, reason);
+        rejects.write(',');
+        writeField(rejects, row.raw());
+        rejects.write('\n');
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        registry.values().removeIf(job -> {
+            if (job.isFinished() && job.finishedAt().isBefore(cutoff)) {
+                deleteQuietly(job.rejects);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        jobs.shutdownNow();
+        jobs.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,190 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.dto.CreateBillableHourRequest;
+import com.bigbadmonolith.billing.dto.TimesheetFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Reads a timesheet file one record per line, so memory use does not depend on file size.
+ * A record that cannot be parsed is returned with an error rather than failing the file.
+ * <p>
+ * CSV files start with a header naming the columns customerId, userId, categoryId, hours,
+ * dateLogged and (optionally) note, in any order and case, with or without underscores.
+ * Quoted fields may contain commas and doubled quotes but not line breaks.
+ */
+abstract class TimesheetReader {
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    private TimesheetReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    static TimesheetReader open(TimesheetFormat format, BufferedReader reader, ObjectMapper objectMapper) throws IOException {
+        return format == TimesheetFormat.CSV ? new Csv(reader) : new Ndjson(reader, objectMapper);
+    }
+
+    /**
+     * Returns the next non-blank record, or null at the end of the file.
+     */
+    Row next() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (!line.isBlank()) {
+                return parse(lineNumber, line);
+            }
+        }
+        return null;
+    }
+
+    abstract Row parse(long lineNumber, String line);
+
+    String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        if (lineNumber++ == 0 && line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+        }
+        return line;
+    }
+
+    /**
+     * One record of the file: either a request or the reason it could not be read.
+     */
+    record Row(long lineNumber, String raw, CreateBillableHourRequest request, String error) {}
+
+    private static final class Csv extends TimesheetReader {
+        private static final List<String> COLUMNS = List.of("customerid", "userid", "categoryid", "hours", "datelogged", "note");
+
+        private final int[] positions = new int[COLUMNS.size()];
+        private final int columnCount;
+
+        Csv(BufferedReader reader) throws IOException {
+            super(reader);
+            String header = readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
+            List<String> names = split(header);
+            if (names == null) {
+                throw new IllegalArgumentException("CSV header has an unterminated quoted field");
+            }
+            columnCount = names.size();
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                positions[i] = -1;
+                for (int j = 0; j < names.size(); j++) {
+                    if (names.get(j).replace("_", "").trim().toLowerCase(Locale.ROOT).equals(COLUMNS.get(i))) {
+                        positions[i] = j;
+                    }
+                }
+                if (positions[i] < 0 && i < COLUMNS.size() - 1) {
+                    throw new IllegalArgumentException("CSV header is missing column " + COLUMNS.get(i));
+                }
+            }
+        }
+
+        @Override
+        Row parse(long lineNumber, String line) {
+            List<String> fields = split(line);
+            if (fields == null) {
+                return new Row(lineNumber, line, null, "Unterminated quoted field");
+            }
+            if (fields.size() != columnCount) {
+                return new Row(lineNumber, line, null, "Expected " + columnCount + " columns but found " + fields.size());
+            }
+            try {
+                CreateBillableHourRequest request = new CreateBillableHourRequest(
+                    field(fields, 0, "customerId", UUID::fromString),
+                    field(fields, 1, "userId", UUID::fromString),
+                    field(fields, 2, "categoryId", UUID::fromString),
+                    field(fields, 3, "hours", BigDecimal::new),
+                    field(fields, 4, "dateLogged", LocalDate::parse),
+                    field(fields, 5, "note", Function.identity()));
+                return new Row(lineNumber, line, request, null);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return new Row(lineNumber, line, null, e.getMessage());
+            }
+        }
+
+        private <T> T field(List<String> fields, int column, String name, Function<String, T> parser) {
+            if (positions[column] < 0) {
+                return null;
+            }
+            String value = fields.get(positions[column]);
+            if (value.isEmpty()) {
+                return null;
+            }
+            try {
+                return parser.apply(column == 5 ? value : value.trim());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid " + name + " '" + value + "'");
+            }
+        }
+
+        /**
+         * Splits one CSV line, or returns null if a quoted field is not closed.
+         */
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class Ndjson extends TimesheetReader {
+        private final ObjectMapper objectMapper;
+
+        Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Row parse(long lineNumber, String line) {
+            try {
+                return new Row(lineNumber, line, objectMapper.readValue(line, CreateBillableHourRequest.class), null);
+            } catch (JsonProcessingException e) {
+                return new Row(lineNumber, line, null, "Malformed JSON record: " + e.getOriginalMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+-- The catalog of months archived to cold-storage files. A month is archived exactly when its row
+-- is here: the row is written in the transaction that removes the month's billable hours and
+-- deleted in the one that restores them, so every node sees the same months archived and a
+-- reader's snapshot never sees a month in both places or in neither. The columns repeat the
+-- file header's statistics, so that queries can rule months out without opening the files.
+CREATE TABLE IF NOT EXISTS archive_catalog (
+    period VARCHAR(7) PRIMARY KEY,
+    file_name VARCHAR(255) NOT NULL,
+    sha256 CHAR(64) NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    entries INTEGER NOT NULL,
+    min_date DATE NOT NULL,
+    max_date DATE NOT NULL,
+    min_customer_id UUID NOT NULL,
+    max_customer_id UUID NOT NULL,
+    min_user_id UUID NOT NULL,
+    max_user_id UUID NOT NULL,
+    min_category_id UUID NOT NULL,
+    max_category_id UUID NOT NULL,
+    hours DECIMAL(14, 2) NOT NULL,
+    revenue DECIMAL(19, 4) NOT NULL
+);
+
+-- Per-customer totals of each archived month, summed like the revenue counters, so that the
+-- counter verification reads them in its own snapshot instead of from the files.
+CREATE TABLE IF NOT EXISTS archive_customer_totals (
+    period VARCHAR(7) NOT NULL REFERENCES archive_catalog(period) ON DELETE CASCADE,
+    customer_id UUID NOT NULL,
+    revenue DECIMAL(19, 4) NOT NULL,
+    hours DECIMAL(14, 2) NOT NULL,
+    entries BIGINT NOT NULL,
+    PRIMARY KEY (period, customer_id)
+);
@@ -0,0 +1,17 @@
+-- Transactional outbox: rows are written in the same transaction as the billing change
+-- and relayed to reporting-service by OutboxRelay. Delivered rows are deleted; rows the
+-- receiver rejected are kept with status REJECTED for inspection.
+CREATE TABLE IF NOT EXISTS event_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    entity VARCHAR(50) NOT NULL,
+    entity_id UUID NOT NULL,
+    action VARCHAR(20) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_event_outbox_pending ON event_outbox(id) WHERE status = 'PENDING';
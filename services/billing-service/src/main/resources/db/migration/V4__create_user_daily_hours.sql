@@ -0,0 +1,25 @@
+-- Running total of hours per user and day, used to enforce the 24-hour rule with a single
+-- conditional row update instead of a SUM over billable_hours on every write.
+CREATE TABLE IF NOT EXISTS user_daily_hours (
+    user_id UUID NOT NULL,
+    date_logged DATE NOT NULL,
+    total_hours DECIMAL(6, 2) NOT NULL DEFAULT 0 CHECK (total_hours >= 0),
+    -- The total of a day that was already over 24 hours when the ledger was created.
+    backfilled_over_limit DECIMAL(6, 2),
+    PRIMARY KEY (user_id, date_logged)
+);
+
+-- The backfill keeps the real totals: the rule was only checked by the application before,
+-- so some days may already be over it. Those are listed by
+--   SELECT * FROM user_daily_hours WHERE backfilled_over_limit IS NOT NULL
+-- for someone to correct.
+INSERT INTO user_daily_hours (user_id, date_logged, total_hours, backfilled_over_limit)
+SELECT user_id, date_logged, SUM(hours), CASE WHEN SUM(hours) > 24 THEN SUM(hours) END
+FROM billable_hours
+GROUP BY user_id, date_logged;
+
+-- A day may not grow past 24 hours, or past its backfilled total if that was already higher,
+-- so entries can still be taken off an over-limit day.
+ALTER TABLE user_daily_hours
+    ADD CONSTRAINT user_daily_hours_within_limit
+    CHECK (total_hours <= COALESCE(backfilled_over_limit, 24));
@@ -0,0 +1,27 @@
+-- Revenue and hours totals (all-time, per month, per customer) kept up to date on every
+-- billable hour change, so the dashboard reads a few rows instead of summing billable_hours.
+-- Each total is spread over several stripe rows that writers pick at random, so concurrent
+-- inserts rarely wait on the same row lock; a total is the sum of its stripes.
+CREATE TABLE IF NOT EXISTS revenue_counters (
+    scope VARCHAR(16) NOT NULL,
+    scope_key VARCHAR(36) NOT NULL,
+    stripe SMALLINT NOT NULL,
+    revenue DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    hours DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    entries BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (scope, scope_key, stripe)
+);
+
+INSERT INTO revenue_counters (scope, scope_key, stripe, revenue, hours, entries)
+SELECT 'ALL', '*', 0, COALESCE(SUM(hours * rate_snapshot), 0), COALESCE(SUM(hours), 0), COUNT(*)
+FROM billable_hours;
+
+INSERT INTO revenue_counters (scope, scope_key, stripe, revenue, hours, entries)
+SELECT 'MONTH', TO_CHAR(date_logged, 'YYYY-MM'), 0, SUM(hours * rate_snapshot), SUM(hours), COUNT(*)
+FROM billable_hours
+GROUP BY TO_CHAR(date_logged, 'YYYY-MM');
+
+INSERT INTO revenue_counters (scope, scope_key, stripe, revenue, hours, entries)
+SELECT 'CUSTOMER', CAST(customer_id AS VARCHAR), 0, SUM(hours * rate_snapshot), SUM(hours), COUNT(*)
+FROM billable_hours
+GROUP BY customer_id;
@@ -0,0 +1,9 @@
+-- Keyset pagination walks (date_logged, id), optionally within one customer or user.
+-- The new indexes cover the single-column ones they replace as a leading prefix.
+CREATE INDEX idx_billable_hours_date_id ON billable_hours(date_logged, id);
+CREATE INDEX idx_billable_hours_customer_date_id ON billable_hours(customer_id, date_logged, id);
+CREATE INDEX idx_billable_hours_user_date_id ON billable_hours(user_id, date_logged, id);
+
+DROP INDEX idx_billable_hours_date_logged;
+DROP INDEX idx_billable_hours_customer_id;
+DROP INDEX idx_billable_hours_user_date;
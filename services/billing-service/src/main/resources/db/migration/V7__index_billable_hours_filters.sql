@@ -0,0 +1,7 @@
+-- Every listing filter (customer, user, category, date range) leads a (..., date_logged, id)
+-- index, so any filtered page is an index range read already in the listing order.
+CREATE INDEX idx_billable_hours_category_date_id ON billable_hours(category_id, date_logged, id);
+
+-- Covered as a prefix by the composites.
+DROP INDEX idx_billable_hours_category_id;
+DROP INDEX idx_billable_hours_user_id;
@@ -0,0 +1,99 @@
+-- Range-partitions billable_hours by month of date_logged. Partitions are named
+-- billable_hours_pYYYYMM; billable_hours_default only catches rows for months that have no
+-- partition yet. The primary key has to include the partition key, so it becomes (id, date_logged);
+-- ids stay unique on their own because they are generated UUIDs.
+
+-- Creates the partition for the month containing month_start (if missing) and returns its name.
+-- Rows for that month already sitting in the default partition are moved into it first, since
+-- PostgreSQL refuses to attach a partition whose range the default partition already holds.
+CREATE OR REPLACE FUNCTION create_billable_hours_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    from_date DATE := date_trunc('month', month_start)::date;
+    to_date DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::date;
+    partition_name TEXT := 'billable_hours_p' || to_char(month_start, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE billable_hours INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    IF to_regclass('billable_hours_default') IS NOT NULL THEN
+        EXECUTE format('WITH moved AS (DELETE FROM billable_hours_default WHERE date_logged >= %L AND date_logged < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM moved', from_date, to_date, partition_name);
+    END IF;
+    EXECUTE format('ALTER TABLE billable_hours ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, from_date, to_date);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Makes sure partitions exist from the current month to months_ahead months ahead; returns how
+-- many it had to create. Called by the service on startup and periodically afterwards.
+CREATE OR REPLACE FUNCTION ensure_billable_hours_partitions(months_ahead INT) RETURNS INT AS $$
+DECLARE
+    created INT := 0;
+    month_start DATE;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        month_start := (date_trunc('month', CURRENT_DATE) + make_interval(months => i))::date;
+        IF to_regclass('billable_hours_p' || to_char(month_start, 'YYYYMM')) IS NULL THEN
+            PERFORM create_billable_hours_partition(month_start);
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches one month's partition, leaving it as a standalone table for archiving; returns its
+-- name, or NULL if that month has no partition.
+CREATE OR REPLACE FUNCTION detach_billable_hours_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    partition_name TEXT := 'billable_hours_p' || to_char(month_start, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        RETURN NULL;
+    END IF;
+    EXECUTE format('ALTER TABLE billable_hours DETACH PARTITION %I', partition_name);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE billable_hours RENAME TO billable_hours_unpartitioned;
+
+CREATE TABLE billable_hours (
+    id UUID NOT NULL,
+    customer_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    category_id UUID NOT NULL REFERENCES billing_categories(id),
+    hours DECIMAL(5, 2) NOT NULL CHECK (hours > 0 AND hours <= 24),
+    rate_snapshot DECIMAL(10, 2) NOT NULL,
+    date_logged DATE NOT NULL,
+    note VARCHAR(500),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+) PARTITION BY RANGE (date_logged);
+
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR month_start IN SELECT DISTINCT date_trunc('month', date_logged)::date FROM billable_hours_unpartitioned LOOP
+        PERFORM create_billable_hours_partition(month_start);
+    END LOOP;
+    PERFORM ensure_billable_hours_partitions(3);
+END $$;
+
+CREATE TABLE billable_hours_default PARTITION OF billable_hours DEFAULT;
+
+INSERT INTO billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at, updated_at)
+SELECT id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at, updated_at
+FROM billable_hours_unpartitioned;
+
+DROP TABLE billable_hours_unpartitioned;
+
+-- Created on the parent, these cascade to every current and future partition.
+ALTER TABLE billable_hours ADD PRIMARY KEY (id, date_logged);
+CREATE INDEX idx_billable_hours_date_id ON billable_hours(date_logged, id);
+CREATE INDEX idx_billable_hours_customer_date_id ON billable_hours(customer_id, date_logged, id);
+CREATE INDEX idx_billable_hours_user_date_id ON billable_hours(user_id, date_logged, id);
+CREATE INDEX idx_billable_hours_category_date_id ON billable_hours(category_id, date_logged, id);
@@ -0,0 +1,30 @@
+-- Closed accounting periods. Once a month is closed its billable hours can no longer change, so
+-- its totals and per-customer invoice totals, computed when it is closed, are kept for good.
+-- Amounts are sums of line totals (hours * rate rounded to cents), as they appear on an invoice.
+CREATE TABLE IF NOT EXISTS accounting_periods (
+    period VARCHAR(7) PRIMARY KEY,
+    closed_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    hours DECIMAL(14, 2) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    entries BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS period_invoice_totals (
+    period VARCHAR(7) NOT NULL REFERENCES accounting_periods(period),
+    customer_id UUID NOT NULL,
+    hours DECIMAL(14, 2) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    entries BIGINT NOT NULL,
+    PRIMARY KEY (period, customer_id)
+);
+
+CREATE OR REPLACE FUNCTION reject_closed_period_change() RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'Rows of % belong to a closed accounting period and cannot be changed', TG_TABLE_NAME;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER accounting_periods_immutable BEFORE UPDATE OR DELETE ON accounting_periods
+    FOR EACH ROW EXECUTE FUNCTION reject_closed_period_change();
+CREATE TRIGGER period_invoice_totals_immutable BEFORE UPDATE OR DELETE ON period_invoice_totals
+    FOR EACH ROW EXECUTE FUNCTION reject_closed_period_change();
@@ -0,0 +1,167 @@
+package com.bigbadmonolith.billing.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs the billing migrations on PostgreSQL over a database that already holds billable hours,
+ * as in production: up to V3 first, then rows are added, then the rest, including the backfill
+ * of user_daily_hours (V4), the partitioning of billable_hours (V8) and the closed-period
+ * triggers (V9).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class BillingMigrationsPostgresTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    private static final String DEVELOPMENT = "f0eebc99-9c0b-4ef8-bb6d-6bb9bd380a66";
+    private static final UUID CUSTOMER = UUID.randomUUID();
+    // Rows added by the tests themselves, after the migration.
+    private static final UUID LATER_CUSTOMER = UUID.randomUUID();
+    private static final UUID OVERWORKED_USER = UUID.randomUUID();
+    private static final LocalDate OVER_LIMIT_DAY = LocalDate.of(2024, 2, 10);
+    private static final String INSERT_HOUR = "INSERT INTO billable_hours " +
+            "(id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged) VALUES (?, ?, ?, ?, ?, 150.00, ?)";
+
+    private static JdbcTemplate jdbc;
+    private static int rowsBefore;
+    private static BigDecimal hoursBefore;
+
+    @BeforeAll
+    static void migrateOverExistingRows() {
+        DataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        flyway(dataSource, "3").migrate();
+
+        for (int month = 1; month <= 3; month++) {
+            insertHour(UUID.randomUUID(), CUSTOMER, UUID.randomUUID(), "7.50", LocalDate.of(2024, month, 5));
+        }
+        // Logged before the 24-hour rule was checked in the database.
+        for (int i = 0; i < 3; i++) {
+            insertHour(UUID.randomUUID(), CUSTOMER, OVERWORKED_USER, "10.00", OVER_LIMIT_DAY);
+        }
+        rowsBefore = jdbc.queryForObject("SELECT COUNT(*) FROM billable_hours", Integer.class);
+        hoursBefore = jdbc.queryForObject("SELECT SUM(hours) FROM billable_hours", BigDecimal.class);
+
+        flyway(dataSource, "latest").migrate();
+    }
+
+    @Test
+    void migrate_shouldMoveExistingRowsIntoMonthlyPartitions() {
+        assertThat(jdbc.queryForObject("SELECT relkind FROM pg_class WHERE relname = 'billable_hours'", String.class))
+                .isEqualTo("p");
+        assertThat(jdbc.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'billable_hours'::regclass", String.class))
+                .contains("billable_hours_p202401", "billable_hours_p202402", "billable_hours_p202403",
+                        "billable_hours_p202501", "billable_hours_default");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM billable_hours WHERE customer_id <> ?", Integer.class, LATER_CUSTOMER))
+                .isEqualTo(rowsBefore);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM billable_hours_default WHERE customer_id <> ?", Integer.class, LATER_CUSTOMER))
+                .isZero();
+        assertThat(jdbc.queryForObject("SELECT to_regclass('billable_hours_unpartitioned')", String.class)).isNull();
+        assertThat(jdbc.queryForList("SELECT a.attname FROM pg_index x " +
+                "JOIN pg_attribute a ON a.attrelid = x.indrelid AND a.attnum = ANY (x.indkey) " +
+                "WHERE x.indrelid = 'billable_hours'::regclass AND x.indisprimary ORDER BY a.attname", String.class))
+                .containsExactly("date_logged", "id");
+    }
+
+    @Test
+    void migrate_shouldBackfillLedgerAndCountersFromExistingRows() {
+        assertThat(jdbc.queryForObject("SELECT total_hours FROM user_daily_hours WHERE user_id = ? AND date_logged = ?",
+                BigDecimal.class, OVERWORKED_USER, OVER_LIMIT_DAY)).isEqualByComparingTo("30.00");
+        assertThat(jdbc.queryForObject("SELECT backfilled_over_limit FROM user_daily_hours WHERE user_id = ? AND date_logged = ?",
+                BigDecimal.class, OVERWORKED_USER, OVER_LIMIT_DAY)).isEqualByComparingTo("30.00");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM user_daily_hours WHERE backfilled_over_limit IS NOT NULL " +
+                "AND date_logged < DATE '2024-03-01'", Integer.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT SUM(hours) FROM revenue_counters WHERE scope = 'ALL'", BigDecimal.class))
+                .isEqualByComparingTo(hoursBefore);
+    }
+
+    @Test
+    void ledgerLimit_shouldLetOverLimitDaysShrinkButNotGrow() {
+        UUID user = UUID.randomUUID();
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        jdbc.update("INSERT INTO user_daily_hours (user_id, date_logged, total_hours, backfilled_over_limit) VALUES (?, ?, 28, 28)",
+                user, day);
+
+        assertThatThrownBy(() -> jdbc.update(
+                "UPDATE user_daily_hours SET total_hours = total_hours + 1 WHERE user_id = ? AND date_logged = ?", user, day))
+                .hasMessageContaining("user_daily_hours_within_limit");
+        jdbc.update("UPDATE user_daily_hours SET total_hours = total_hours - 2 WHERE user_id = ? AND date_logged = ?", user, day);
+        assertThatThrownBy(() -> jdbc.update(
+                "INSERT INTO user_daily_hours (user_id, date_logged, total_hours) VALUES (?, ?, 25)", UUID.randomUUID(), day))
+                .hasMessageContaining("user_daily_hours_within_limit");
+    }
+
+    @Test
+    void createPartition_shouldMoveRowsOutOfDefaultPartition() {
+        UUID id = UUID.randomUUID();
+        LocalDate farAhead = LocalDate.of(2031, 5, 3);
+        insertHour(id, LATER_CUSTOMER, UUID.randomUUID(), "2.00", farAhead);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM billable_hours_default WHERE id = ?", Integer.class, id)).isOne();
+
+        assertThat(jdbc.queryForObject("SELECT create_billable_hours_partition(DATE '2031-05-01')", String.class))
+                .isEqualTo("billable_hours_p203105");
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM billable_hours_p203105 WHERE id = ?", Integer.class, id)).isOne();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM billable_hours_default WHERE id = ?", Integer.class, id)).isZero();
+        assertThat(jdbc.queryForObject("SELECT ensure_billable_hours_partitions(3)", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT detach_billable_hours_partition(DATE '2031-05-01')", String.class))
+                .isEqualTo("billable_hours_p203105");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM billable_hours WHERE id = ?", Integer.class, id)).isZero();
+    }
+
+    @Test
+    void insertOnConflict_shouldArbitrateOnIdAndDateLogged() {
+        // The migration tool's open ON CONFLICT DO NOTHING, run twice over the same row.
+        UUID id = UUID.randomUUID();
+        for (int i = 0; i < 2; i++) {
+            jdbc.update(INSERT_HOUR + " ON CONFLICT DO NOTHING", id, LATER_CUSTOMER, UUID.randomUUID(), UUID.fromString(DEVELOPMENT),
+                    new BigDecimal("1.00"), LocalDate.of(2024, 1, 9));
+        }
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM billable_hours WHERE id = ?", Integer.class, id)).isOne();
+
+        // A date that moved is no conflict on (id, date_logged), which is why a delta pass deletes by
+        // id before it inserts; an UPDATE moves the row across partitions.
+        jdbc.update("UPDATE billable_hours SET date_logged = ? WHERE id = ?", LocalDate.of(2024, 3, 9), id);
+        assertThat(jdbc.queryForList("SELECT tableoid::regclass::text FROM billable_hours WHERE id = ?", String.class, id))
+                .containsExactly("billable_hours_p202403");
+    }
+
+    @Test
+    void closedPeriods_shouldRejectUpdatesAndDeletes() {
+        jdbc.update("INSERT INTO accounting_periods (period, closed_at, hours, amount, entries) VALUES ('2023-12', NOW(), 1, 150, 1)");
+        jdbc.update("INSERT INTO period_invoice_totals (period, customer_id, hours, amount, entries) VALUES ('2023-12', ?, 1, 150, 1)",
+                LATER_CUSTOMER);
+
+        for (String change : List.of("UPDATE accounting_periods SET hours = 2 WHERE period = '2023-12'",
+                "DELETE FROM accounting_periods WHERE period = '2023-12'",
+                "UPDATE period_invoice_totals SET hours = 2 WHERE period = '2023-12'",
+                "DELETE FROM period_invoice_totals WHERE period = '2023-12'")) {
+            assertThatThrownBy(() -> jdbc.update(change)).hasMessageContaining("closed accounting period");
+        }
+    }
+
+    private static void insertHour(UUID id, UUID customerId, UUID userId, String hours, LocalDate dateLogged) {
+        jdbc.update(INSERT_HOUR, id, customerId, userId, UUID.fromString(DEVELOPMENT), new BigDecimal(hours), dateLogged);
+    }
+
+    private static Flyway flyway(DataSource dataSource, String target) {
+        return Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target(target).load();
+    }
+}
@@ -0,0 +1,180 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.billing.model.BillableHour;
+import com.bigbadmonolith.billing.repository.BillableHourRepositoryCustom.Filter;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs every combination of listing filters through both listing queries, captures the SQL that
+ * Hibernate sends and asserts that PostgreSQL can plan it as a seek on one of the billable hour
+ * indexes rather than a scan of the partitions or of a whole index.
+ * <p>
+ * The plans are generic ({@code EXPLAIN (GENERIC_PLAN)}), the plan a prepared statement settles
+ * on after its first five executions, so they cannot depend on the values of the parameters.
+ * Sequential scans are disabled for the transaction: the test data is far too small for a seek
+ * to be cheaper, and the question is whether the query lets one be used at all.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "com.bigbadmonolith.billing.repository.BillableHourQueryPlanPostgresTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BillableHourQueryPlanPostgresTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    private static final Pattern INDEX_SCAN = Pattern.compile("\\b(Index|Index Only|Bitmap Index) Scan\\b");
+    private static final Pattern INDEX_COND = Pattern.compile("\\bIndex Cond: ");
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "dateLogged", "id");
+
+    @Autowired
+    private BillableHourRepository billableHourRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> customers = new ArrayList<>();
+    private final List<UUID> users = new ArrayList<>();
+    private final List<UUID> categories = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 20; i++) {
+            customers.add(UUID.randomUUID());
+            users.add(UUID.randomUUID());
+            categories.add(UUID.randomUUID());
+        }
+        List<BillableHour> entries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            BillableHour entry = new BillableHour();
+            entry.setCustomerId(customers.get(i % 20));
+            entry.setUserId(users.get(i * 7 % 20));
+            entry.setCategoryId(categories.get(i * 3 % 20));
+            entry.setHours(new BigDecimal("1.00"));
+            entry.setRateSnapshot(new BigDecimal("100.00"));
+            entry.setDateLogged(LocalDate.now().minusDays(i % 730));
+            entries.add(entry);
+        }
+        billableHourRepository.saveAllAndFlush(entries);
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    void everyFilterCombination_shouldBePlannedWithAnIndex() {
+        List<String> failures = new ArrayList<>();
+        for (int mask = 0; mask < 32; mask++) {
+            Filter filter = filter(mask);
+            if (mask != 0) {
+                // Without filters an offset page has nothing to seek on; only its order comes from an index.
+                checkPlan(failures, "findFiltered " + filter,
+                    () -> billableHourRepository.findFiltered(filter, PageRequest.of(2, 20, NEWEST_FIRST)));
+            }
+            checkPlan(failures, "findSlice " + filter,
+                () -> billableHourRepository.findSlice(filter, LocalDate.now().minusDays(100), UUID.randomUUID(),
+                    Sort.Direction.DESC, 21));
+        }
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    void catchAllFilter_shouldBeReportedAsScan() {
+        String catchAll = "SELECT * FROM billable_hours b WHERE (CAST(? AS UUID) IS NULL OR b.customer_id = CAST(? AS UUID)) "
+            + "AND (CAST(? AS DATE) IS NULL OR b.date_logged >= CAST(? AS DATE)) ORDER BY b.date_logged DESC, b.id DESC";
+
+        assertThat(seeksIndex(explain(catchAll))).isFalse();
+    }
+
+    // Every partition is scanned through an index with a condition to seek on. An index scan
+    // without one reads the index end to end just for its order, no better than a scan.
+    private static boolean seeksIndex(String plan) {
+        return !plan.contains("Seq Scan") && count(INDEX_SCAN, plan) > 0 && count(INDEX_COND, plan) >= count(INDEX_SCAN, plan);
+    }
+
+    private static long count(Pattern pattern, String plan) {
+        Matcher matcher = pattern.matcher(plan);
+        long count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    private Filter filter(int mask) {
+        return new Filter(
+            (mask & 1) != 0 ? customers.get(3) : null,
+            (mask & 2) != 0 ? users.get(5) : null,
+            (mask & 4) != 0 ? categories.get(7) : null,
+            (mask & 8) != 0 ? LocalDate.now().minusDays(400) : null,
+            (mask & 16) != 0 ? LocalDate.now().minusDays(30) : null);
+    }
+
+    private void checkPlan(List<String> failures, String description, Runnable listing) {
+        CapturingInspector.SQL.clear();
+        listing.run();
+        String select = CapturingInspector.SQL.stream()
+            .filter(sql -> sql.toLowerCase().startsWith("select") && !sql.toLowerCase().startsWith("select count"))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No listing query captured for " + description));
+        String plan = explain(select);
+        if (!seeksIndex(plan)) {
+            failures.add(description + ":\n" + plan);
+        }
+    }
+
+    /**
+     * The generic plan of the statement, with its JDBC placeholders numbered as PostgreSQL's.
+     */
+    private String explain(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class));
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.bigbadmonolith.billing.cache;
+
+import com.bigbadmonolith.billing.config.CacheConfig;
+import com.bigbadmonolith.billing.dto.BillingCategoryResponse;
+import com.bigbadmonolith.billing.dto.CreateBillingCategoryRequest;
+import com.bigbadmonolith.billing.dto.UpdateBillingCategoryRequest;
+import com.bigbadmonolith.billing.event.OutboxWriter;
+import com.bigbadmonolith.billing.service.BillingCategoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs the real services against an in-JVM Redis stand-in. The Spring context is one node; a
+ * second manager built from the same configuration plays another node sharing Redis.
+ */
+@DataJpaTest(properties = "billing.cache.l1.ttl=1m")
+@AutoConfigureCache(cacheProvider = CacheType.REDIS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, RedisAutoConfiguration.class})
+@Import({CacheConfig.class, BillingCategoryService.class, OutboxWriter.class})
+class TwoTierCacheManagerTest {
+
+    private static RedisServer redisServer;
+
+    @Autowired
+    private BillingCategoryService categoryService;
+    @Autowired
+    private TwoTierCacheManager cacheManager;
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TwoTierCacheManager otherNode;
+    private RedisMessageListenerContainer otherNodeListener;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer().start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        redisServer.stop();
+    }
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> redisServer.getHost());
+        registry.add("spring.data.redis.port", () -> redisServer.getBindPort());
+    }
+
+    @BeforeEach
+    void startOtherNode() {
+        otherNode = new CacheConfig().cacheManager(connectionFactory, objectMapper, Duration.ofMinutes(1), 100,
+            Duration.ofMinutes(10), Duration.ofSeconds(30));
+        otherNode.afterPropertiesSet();
+        otherNodeListener = new CacheConfig().cacheInvalidationListener(connectionFactory, otherNode);
+        otherNodeListener.afterPropertiesSet();
+        otherNodeListener.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        otherNodeListener.destroy();
+        jdbcTemplate.update("DELETE FROM event_outbox");
+        jdbcTemplate.update("DELETE FROM billing_categories");
+        // Not Cache.clear(): its tombstone would drop the next test's puts.
+        cacheManager.twoTierCache(CacheConfig.CATEGORIES).evictLocal(TwoTierCache.ALL_KEYS);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+    }
+
+    @Test
+    void findById_shouldServeRepeatReadsFromL1AndShareThroughL2() {
+        UUID id = categoryService.create(new CreateBillingCategoryRequest("Development", new BigDecimal("150.00"), null)).id();
+
+        categoryService.findById(id);
+        BillingCategoryResponse cached = categoryService.findById(id);
+        jdbcTemplate.update("UPDATE billing_categories SET hourly_rate = 999 WHERE id = ?", id);
+
+        assertThat(categoryService.findById(id).hourlyRate()).isEqualByComparingTo("150.00");
+        TwoTierCache local = cacheManager.twoTierCache(CacheConfig.CATEGORIES);
+        assertThat(local.misses.sum()).isEqualTo(1);
+        assertThat(local.localHits.sum()).isEqualTo(2);
+
+        Cache remoteNode = otherNode.getCache(CacheConfig.CATEGORIES);
+        assertThat(remoteNode.get(id, BillingCategoryResponse.class)).isEqualTo(cached);
+        assertThat(otherNode.twoTierCache(CacheConfig.CATEGORIES).remoteHits.sum()).isEqualTo(1);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cacheManager.bindTo(registry);
+        assertThat(registry.get("billing.cache.gets").tags("cache", CacheConfig.CATEGORIES, "result", "l1_hit")
+            .functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("billing.cache.hit.ratio").tags("cache", CacheConfig.CATEGORIES, "tier", "l1")
+            .gauge().value()).isCloseTo(2.0 / 3, within(0.001));
+    }
+
+    @Test
+    void update_shouldEvictBothTiersAndOtherNodesL1AfterCommit() throws InterruptedException {
+        UUID id = categoryService.create(new CreateBillingCategoryRequest("Design", new BigDecimal("120.00"), null)).id();
+        categoryService.findById(id);
+        Cache remoteNode = otherNode.getCache(CacheConfig.CATEGORIES);
+        assertThat(remoteNode.get(id, BillingCategoryResponse.class).hourlyRate()).isEqualByComparingTo("120.00");
+
+        categoryService.update(id, new UpdateBillingCategoryRequest("Design", new BigDecimal("130.00"), null));
+
+        assertThat(categoryService.findById(id).hourlyRate()).isEqualByComparingTo("130.00");
+        awaitTrue(() -> otherNode.twoTierCache(CacheConfig.CATEGORIES).remoteInvalidations.sum() == 1);
+        // The reload is not cached while the eviction's tombstone lasts.
+        assertThat(remoteNode.get(id)).isNull();
+
+        categoryService.delete(id);
+        awaitTrue(() -> otherNode.twoTierCache(CacheConfig.CATEGORIES).remoteInvalidations.sum() == 2);
+        assertThat(remoteNode.get(id)).isNull();
+    }
+
+    @Test
+    void put_shouldDropAStaleValueLoadedBeforeAnEviction() {
+        BillingCategoryResponse beforeUpdate =
+            categoryService.create(new CreateBillingCategoryRequest("Support", new BigDecimal("90.00"), null));
+        UUID id = beforeUpdate.id();
+
+        categoryService.update(id, new UpdateBillingCategoryRequest("Support", new BigDecimal("95.00"), null));
+        // A transaction that read the old row on another node commits after the update's eviction.
+        otherNode.getCache(CacheConfig.CATEGORIES).put(id, beforeUpdate);
+
+        assertThat(otherNode.getCache(CacheConfig.CATEGORIES).get(id)).isNull();
+        assertThat(otherNode.twoTierCache(CacheConfig.CATEGORIES).tombstonedPuts.sum()).isEqualTo(1);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within 10s");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.bigbadmonolith.billing.event;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.dto.CreateBillableHourRequest;
+import com.bigbadmonolith.billing.dto.CreateBillingCategoryRequest;
+import com.bigbadmonolith.billing.dto.UpdateBillableHourRequest;
+import com.bigbadmonolith.billing.model.OutboxEvent;
+import com.bigbadmonolith.billing.repository.OutboxEventRepository;
+import com.bigbadmonolith.billing.service.AccountingPeriodService;
+import com.bigbadmonolith.billing.service.BillableHourService;
+import com.bigbadmonolith.billing.service.BillingCategoryService;
+import com.bigbadmonolith.billing.service.DailyHoursLedger;
+import com.bigbadmonolith.billing.service.RevenueCounters;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.client.RestClientAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Relays real service writes over HTTP to an in-process stand-in for reporting-service's
+ * batch endpoint.
+ */
+@DataJpaTest(properties = "billing.outbox.relay.enabled=false")
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, RestClientAutoConfiguration.class})
+@Import({OutboxWriter.class, OutboxRelay.class, ReportingEventClient.class, BillableHourService.class, BillingCategoryService.class,
+        DailyHoursLedger.class, RevenueCounters.class, BillableHourArchive.class, AccountingPeriodService.class})
+class OutboxRelayTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<JsonNode> received = new CopyOnWriteArrayList<>();
+    private static volatile Function<JsonNode, Integer> responder;
+    private static HttpServer reportingStandIn;
+
+    @Autowired
+    private OutboxRelay relay;
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+    @Autowired
+    private BillableHourService billableHourService;
+    @Autowired
+    private BillingCategoryService categoryService;
+
+    @BeforeAll
+    static void startReportingStandIn() throws IOException {
+        reportingStandIn = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        reportingStandIn.createContext("/internal/events/batch", exchange -> {
+            JsonNode events = MAPPER.readTree(exchange.getRequestBody());
+            received.add(events);
+            int status = responder.apply(events);
+            byte[] body = status == 200 ? acceptAll(events) : new byte[0];
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        reportingStandIn.start();
+    }
+
+    @AfterAll
+    static void stopReportingStandIn() {
+        reportingStandIn.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void reportingUrl(DynamicPropertyRegistry registry) {
+        registry.add("billing.outbox.reporting-url", () -> "http://127.0.0.1:" + reportingStandIn.getAddress().getPort());
+    }
+
+    @BeforeEach
+    void setUp() {
+        received.clear();
+        responder = events -> 200;
+    }
+
+    @Test
+    void relayOnce_shouldDeliverChangesInCommitOrderAndClearOutbox() {
+        UUID categoryId = categoryService.create(
+                new CreateBillingCategoryRequest("Development", new BigDecimal("150.00"), null)).id();
+        UUID customerId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        UUID hourId = billableHourService.create(new CreateBillableHourRequest(
+                customerId, userId, categoryId, new BigDecimal("8.00"), yesterday, "Initial")).response().id();
+        billableHourService.update(hourId, new UpdateBillableHourRequest(
+                customerId, userId, categoryId, new BigDecimal("6.50"), yesterday, null));
+
+        assertThat(relay.relayOnce()).isEqualTo(3);
+
+        assertThat(received).hasSize(1);
+        JsonNode batch = received.get(0);
+        assertThat(batch).extracting(e -> e.get("entity").asText() + ":" + e.get("action").asText())
+                .containsExactly("categories:upsert", "billable-hours:upsert", "billable-hours:upsert");
+        JsonNode latest = batch.get(2).get("payload");
+        assertThat(latest.get("id").asText()).isEqualTo(hourId.toString());
+        assertThat(latest.get("hours").asText()).isEqualTo("6.50");
+        assertThat(latest.get("rateSnapshot").asText()).isEqualTo("150.00");
+        assertThat(latest.has("note")).isFalse();
+        assertThat(outboxRepository.count()).isZero();
+
+        billableHourService.delete(hourId);
+        relay.relayOnce();
+        assertThat(received.get(1).get(0).get("action").asText()).isEqualTo("remove");
+    }
+
+    @Test
+    void relayOnce_shouldKeepBatchAndBackOffWhenReportingIsUnavailable() {
+        responder = events -> 503;
+        categoryService.create(new CreateBillingCategoryRequest("Design", new BigDecimal("120.00"), null));
+
+        assertThat(relay.relayOnce()).isZero();
+
+        OutboxEvent pending = outboxRepository.findAll().get(0);
+        assertThat(pending.getStatus()).isEqualTo(OutboxEvent.PENDING);
+        assertThat(pending.getAttempts()).isEqualTo(1);
+        assertThat(pending.getNextAttemptAt()).isAfter(Instant.now());
+        assertThat(pending.getLastError()).contains("503");
+
+        // Not due yet: nothing is sent until the backoff has elapsed.
+        responder = events -> 200;
+        assertThat(relay.relayOnce()).isZero();
+        assertThat(received).hasSize(1);
+        assertThat(relay.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(relay.backoff(4)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(relay.backoff(30)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void relayOnce_shouldKeepRejectedEventsWithoutBlockingTheRest() {
+        responder = events -> 200;
+        categoryService.create(new CreateBillingCategoryRequest("Support", new BigDecimal("90.00"), null));
+        UUID categoryId = categoryService.create(
+                new CreateBillingCategoryRequest("Rejected", new BigDecimal("95.00"), null)).id();
+
+        relay.relayOnce();
+
+        assertThat(outboxRepository.findAll()).singleElement().satisfies(event -> {
+            assertThat(event.getEntityId()).isEqualTo(categoryId);
+            assertThat(event.getStatus()).isEqualTo(OutboxEvent.REJECTED);
+            assertThat(event.getLastError()).isEqualTo("Rejected by stand-in");
+        });
+        assertThat(outboxRepository.countByStatus(OutboxEvent.PENDING)).isZero();
+    }
+
+    @Test
+    void replayRejected_shouldQueueRejectedEventsBehindThePendingOnes() {
+        UUID rejectedId = categoryService.create(
+                new CreateBillingCategoryRequest("Rejected", new BigDecimal("95.00"), null)).id();
+        relay.relayOnce();
+        UUID pendingId = categoryService.create(
+                new CreateBillingCategoryRequest("Training", new BigDecimal("80.00"), null)).id();
+
+        assertThat(relay.replayRejected()).isEqualTo(1);
+
+        assertThat(outboxRepository.countByStatus(OutboxEvent.REJECTED)).isZero();
+        assertThat(outboxRepository.findByStatusOrderByIdAsc(OutboxEvent.PENDING, Limit.unlimited()))
+                .extracting(OutboxEvent::getEntityId).containsExactly(pendingId, rejectedId);
+        assertThat(relay.replayRejected()).isZero();
+    }
+
+    private static byte[] acceptAll(JsonNode events) {
+        StringBuilder results = new StringBuilder();
+        for (int i = 0; i < events.size(); i++) {
+            JsonNode payload = events.get(i).get("payload");
+            boolean reject = "Rejected".equals(payload.path("name").asText());
+            results.append(i == 0 ? "" : ",")
+                    .append("{\"index\":").append(i)
+                    .append(",\"status\":\"").append(reject ? ReportingEventClient.DeliveryResult.FAILED : "applied").append('"')
+                    .append(reject ? ",\"message\":\"Rejected by stand-in\"" : "")
+                    .append('}');
+        }
+        return ("{\"received\":" + events.size() + ",\"results\":[" + results + "]}").getBytes(StandardCharsets.UTF_8);
+    }
+}
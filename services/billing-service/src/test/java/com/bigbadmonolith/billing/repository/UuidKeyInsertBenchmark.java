@@ -0,0 +1,124 @@
+package com.bigbadmonolith.billing.repository;
+
+import com.bigbadmonolith.common.id.UuidV7;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Inserts the same rows into two copies of billable_hours, one keyed by random (v4) UUIDs and
+ * one by time-ordered (v7) UUIDs, and reports insert throughput and primary key index size.
+ * Uses a file-backed H2 database by default; point it at PostgreSQL for representative index
+ * sizes. Run with:
+ * ./gradlew :services:billing-service:benchmark -Dbenchmark.rows=1000000
+ *     [-Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/billing -Dbenchmark.user=... -Dbenchmark.password=...]
+ */
+@Tag("benchmark")
+class UuidKeyInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int BATCH_SIZE = 1_000;
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void timeOrderedKeys_vsRandomKeys() throws SQLException {
+        String url = System.getProperty("benchmark.jdbc-url", "jdbc:h2:file:" + workDir.resolve("uuid-bench"));
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getProperty("benchmark.user", "sa"), System.getProperty("benchmark.password", ""))) {
+            boolean postgres = connection.getMetaData().getDatabaseProductName().contains("PostgreSQL");
+
+            Result random = run(connection, postgres, "bench_hours_v4", UUID::randomUUID);
+            Result ordered = run(connection, postgres, "bench_hours_v7", UuidV7::generate);
+
+            assertThat(random.rows()).isEqualTo(ordered.rows()).isEqualTo(ROWS);
+        }
+    }
+
+    private Result run(Connection connection, boolean postgres, String table, Supplier<UUID> ids) throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + table);
+            ddl.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, customer_id UUID NOT NULL, user_id UUID NOT NULL, " +
+                "category_id UUID NOT NULL, hours DECIMAL(5, 2) NOT NULL, rate_snapshot DECIMAL(10, 2) NOT NULL, " +
+                "date_logged DATE NOT NULL)");
+        }
+        UUID customerId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Date dateLogged = Date.valueOf(LocalDate.now());
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table +
+                " (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                insert.setObject(1, ids.get());
+                insert.setObject(2, customerId);
+                insert.setObject(3, userId);
+                insert.setObject(4, categoryId);
+                insert.setBigDecimal(5, new BigDecimal("1.50"));
+                insert.setBigDecimal(6, new BigDecimal("150.00"));
+                insert.setDate(7, dateLogged);
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0 || i == ROWS) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        long rows;
+        try (Statement query = connection.createStatement();
+             ResultSet count = query.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            count.next();
+            rows = count.getLong(1);
+        }
+        long bytes = size(connection, postgres, table);
+        System.out.printf("[benchmark] %-16s rows=%,d time=%,d ms rate=%,d rows/s %s=%,d KB%n", table, rows, elapsedMs,
+            rows * 1000 / elapsedMs, postgres ? "pk index" : "table+pk", bytes / 1024);
+        return new Result(rows, elapsedMs, bytes);
+    }
+
+    /**
+     * PostgreSQL reports the primary key index on its own; H2 only reports a table together with
+     * its indexes, which here is the heap plus the primary key.
+     */
+    private static long size(Connection connection, boolean postgres, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                statement.execute("VACUUM ANALYZE " + table);
+            } else {
+                statement.execute("CHECKPOINT SYNC");
+            }
+            String sql = postgres
+                ? "SELECT pg_relation_size('" + table + "_pkey')"
+                : "SELECT DISK_SPACE_USED('" + table.toUpperCase() + "')";
+            try (ResultSet size = statement.executeQuery(sql)) {
+                size.next();
+                return size.getLong(1);
+            }
+        }
+    }
+
+    private record Result(long rows, long elapsedMs, long bytes) {}
+}
@@ -0,0 +1,136 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.dto.AccountingPeriodResponse;
+import com.bigbadmonolith.billing.dto.BillableHourResponse;
+import com.bigbadmonolith.billing.dto.CreateBillableHourRequest;
+import com.bigbadmonolith.billing.dto.PeriodInvoiceResponse;
+import com.bigbadmonolith.billing.dto.UpdateBillableHourRequest;
+import com.bigbadmonolith.billing.event.OutboxWriter;
+import com.bigbadmonolith.billing.model.BillingCategory;
+import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import com.bigbadmonolith.common.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({AccountingPeriodService.class, BillableHourService.class, BillingCategoryService.class, DailyHoursLedger.class,
+        RevenueCounters.class, BillableHourArchive.class, OutboxWriter.class})
+class AccountingPeriodServiceTest {
+
+    @Autowired
+    private AccountingPeriodService periodService;
+    @Autowired
+    private BillableHourService billableHourService;
+    @Autowired
+    private BillingCategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID customerA = UUID.randomUUID();
+    private final UUID customerB = UUID.randomUUID();
+    private final YearMonth lastMonth = YearMonth.now().minusMonths(1);
+    private UUID categoryId;
+    private BillableHourResponse entryA;
+
+    @BeforeEach
+    void setUp() {
+        BillingCategory category = new BillingCategory();
+        category.setName("Consulting");
+        category.setHourlyRate(new BigDecimal("33.33"));
+        categoryId = categoryRepository.save(category).getId();
+
+        // 1.25h at 33.33 is 41.6625, invoiced as 41.66 per line.
+        entryA = create(customerA, lastMonth, 3, "1.25");
+        create(customerA, lastMonth, 4, "1.25");
+        create(customerB, lastMonth, 4, "2.00");
+        create(customerB, lastMonth.minusMonths(1), 4, "8.00");
+    }
+
+    @Test
+    void close_shouldStoreTotalsPerCustomer() {
+        AccountingPeriodResponse closed = periodService.close(lastMonth.getYear(), lastMonth.getMonthValue());
+
+        assertThat(closed.closed()).isTrue();
+        assertThat(closed.closedAt()).isNotNull();
+        assertThat(closed.entries()).isEqualTo(3);
+        assertThat(closed.hours()).isEqualByComparingTo("4.50");
+        assertThat(closed.amount()).isEqualByComparingTo("149.98");
+        assertThat(periodService.invoices(lastMonth.getYear(), lastMonth.getMonthValue()))
+            .extracting(PeriodInvoiceResponse::customerId, invoice -> invoice.amount().toPlainString(), PeriodInvoiceResponse::entries)
+            .containsExactlyInAnyOrder(tuple(customerA, "83.32", 2L), tuple(customerB, "66.66", 1L));
+        assertThat(periodService.findClosed()).extracting(AccountingPeriodResponse::month)
+            .containsExactly(lastMonth.getMonthValue());
+    }
+
+    @Test
+    void closedPeriod_shouldRejectCreateUpdateAndDelete() {
+        periodService.close(lastMonth.getYear(), lastMonth.getMonthValue());
+
+        assertThatThrownBy(() -> create(customerA, lastMonth, 5, "1.00"))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageContaining("is closed");
+        // Moving an entry out of a closed period changes it as much as moving one in.
+        assertThatThrownBy(() -> billableHourService.update(entryA.id(), new UpdateBillableHourRequest(customerA,
+                entryA.userId(), categoryId, new BigDecimal("1.00"), YearMonth.now().atDay(1), null)))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageContaining("is closed");
+        assertThatThrownBy(() -> billableHourService.delete(entryA.id()))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageContaining("is closed");
+
+        YearMonth before = lastMonth.minusMonths(1);
+        assertThatCode(() -> create(customerA, before, 5, "1.00")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void closedPeriod_shouldServeStoredTotalsWhileOpenPeriodIsSummedLive() {
+        YearMonth open = lastMonth.minusMonths(1);
+        periodService.close(lastMonth.getYear(), lastMonth.getMonthValue());
+        // Stands in for a change made behind the service's back; a closed period must not pick it up.
+        jdbcTemplate.update("UPDATE billable_hours SET hours = 9.00");
+
+        assertThat(periodService.invoice(lastMonth.getYear(), lastMonth.getMonthValue(), customerB).amount())
+            .isEqualByComparingTo("66.66");
+        assertThat(periodService.find(lastMonth.getYear(), lastMonth.getMonthValue()).hours()).isEqualByComparingTo("4.50");
+        AccountingPeriodResponse live = periodService.find(open.getYear(), open.getMonthValue());
+        assertThat(live.closed()).isFalse();
+        assertThat(live.hours()).isEqualByComparingTo("9.00");
+        assertThatThrownBy(() -> periodService.invoice(open.getYear(), open.getMonthValue(), customerA))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void close_shouldRejectCurrentAndAlreadyClosedMonths() {
+        YearMonth current = YearMonth.now();
+        assertThatThrownBy(() -> periodService.close(current.getYear(), current.getMonthValue()))
+            .isInstanceOf(BusinessValidationException.class);
+        assertThatThrownBy(() -> periodService.close(2024, 13))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageContaining("Invalid month");
+
+        periodService.close(lastMonth.getYear(), lastMonth.getMonthValue());
+        assertThatThrownBy(() -> periodService.close(lastMonth.getYear(), lastMonth.getMonthValue()))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageContaining("already closed");
+    }
+
+    private BillableHourResponse create(UUID customerId, YearMonth month, int day, String hours) {
+        return billableHourService.create(new CreateBillableHourRequest(customerId, UUID.randomUUID(), categoryId,
+            new BigDecimal(hours), month.atDay(day), null)).response();
+    }
+}
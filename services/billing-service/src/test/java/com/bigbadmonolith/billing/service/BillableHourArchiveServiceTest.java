@@ -0,0 +1,353 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.dto.ArchivedMonthResponse;
+import com.bigbadmonolith.billing.dto.BillableHourResponse;
+import com.bigbadmonolith.billing.dto.BillableHourSlice;
+import com.bigbadmonolith.billing.dto.CreateBillableHourRequest;
+import com.bigbadmonolith.billing.event.OutboxWriter;
+import com.bigbadmonolith.billing.model.BillingCategory;
+import com.bigbadmonolith.billing.repository.ArchiveCatalogRepository;
+import com.bigbadmonolith.billing.repository.ArchiveCustomerTotalRepository;
+import com.bigbadmonolith.billing.repository.BillableHourBatchRepository;
+import com.bigbadmonolith.billing.repository.BillableHourRepository;
+import com.bigbadmonolith.billing.repository.BillableHourRepositoryCustom.Filter;
+import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs without a test transaction so that archive and restore commit the way they do in production.
+ */
+@DataJpaTest(properties = {"billing.revenue-counters.verify.enabled=false", "billing.partitions.enabled=false"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({BillableHourArchiveService.class, BillableHourArchive.class, BillableHourPartitions.class,
+        BillableHourBatchRepository.class, BillableHourService.class, BillingCategoryService.class, DailyHoursLedger.class,
+        RevenueCounters.class, RevenueCounterVerifier.class, AccountingPeriodService.class, OutboxWriter.class})
+class BillableHourArchiveServiceTest {
+
+    private static final Path ARCHIVE_DIR;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "dateLogged");
+
+    static {
+        try {
+            ARCHIVE_DIR = Files.createTempDirectory("billing-archive-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) {
+        registry.add("billing.archive.dir", ARCHIVE_DIR::toString);
+    }
+
+    @Autowired
+    private BillableHourArchiveService archiveService;
+    @Autowired
+    private BillableHourArchive archive;
+    @Autowired
+    private BillableHourService billableHourService;
+    @Autowired
+    private RevenueCounterVerifier verifier;
+    @Autowired
+    private AccountingPeriodService periodService;
+    @Autowired
+    private BillingCategoryRepository categoryRepository;
+    @Autowired
+    private BillableHourRepository billableHourRepository;
+    @Autowired
+    private ArchiveCatalogRepository catalogRepository;
+    @Autowired
+    private ArchiveCustomerTotalRepository customerTotalRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final UUID customerA = UUID.randomUUID();
+    private final UUID customerB = UUID.randomUUID();
+    private final YearMonth archived = YearMonth.now().minusMonths(4);
+    private UUID categoryId;
+
+    @BeforeEach
+    void setUp() {
+        BillingCategory category = new BillingCategory();
+        category.setName("Consulting");
+        category.setHourlyRate(new BigDecimal("150.00"));
+        categoryId = categoryRepository.save(category).getId();
+
+        // Two customers over the archived month, the month after it and the current month.
+        for (int i = 0; i < 30; i++) {
+            LocalDate date = switch (i % 3) {
+                case 0 -> archived.atDay(1 + i % 28);
+                case 1 -> archived.plusMonths(1).atDay(1 + i % 28);
+                default -> LocalDate.now().withDayOfMonth(1);
+            };
+            create(i % 2 == 0 ? customerA : customerB, date, "1.25", i % 4 == 0 ? "note " + i : null);
+        }
+        periodService.close(archived.getYear(), archived.getMonthValue());
+    }
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            archive.list().forEach(month -> archive.delete(month.month())));
+        jdbcTemplate.update("DELETE FROM event_outbox");
+        jdbcTemplate.update("DELETE FROM billable_hours");
+        jdbcTemplate.update("DELETE FROM user_daily_hours");
+        jdbcTemplate.update("DELETE FROM revenue_counters");
+        jdbcTemplate.update("DELETE FROM period_invoice_totals");
+        jdbcTemplate.update("DELETE FROM accounting_periods");
+        jdbcTemplate.update("DELETE FROM billing_categories");
+    }
+
+    @Test
+    void archive_shouldMoveMonthToFileAndKeepListingsAndRevenueUnchanged() {
+        List<BillableHourResponse> before = allPages(null);
+        List<BillableHourResponse> customerBefore = allPages(customerA);
+        BigDecimal revenueBefore = billableHourService.calculateTotalRevenue();
+
+        ArchivedMonthResponse response = archiveService.archive(archived.getYear(), archived.getMonthValue());
+
+        assertThat(response.entries()).isEqualTo(10);
+        assertThat(response.revenue()).isEqualByComparingTo("1875.00");
+        assertThat(hotEntriesIn(archived)).isZero();
+        Path file = ARCHIVE_DIR.resolve(response.file());
+        assertThat(file).exists();
+        assertThat(Files.exists(file.resolveSibling(response.file() + ".sha256"))).isTrue();
+
+        assertThat(allPages(null)).usingRecursiveFieldByFieldElementComparatorIgnoringFields("createdAt", "updatedAt")
+            .containsExactlyElementsOf(before);
+        assertThat(allPages(customerA)).extracting(BillableHourResponse::id)
+            .containsExactlyElementsOf(customerBefore.stream().map(BillableHourResponse::id).toList());
+        assertThat(walk()).containsExactlyElementsOf(before.stream().map(BillableHourResponse::id).toList());
+        assertThat(billableHourService.calculateTotalRevenue()).isEqualByComparingTo(revenueBefore);
+        assertThat(verifier.verifyAndFold().mismatches()).isZero();
+    }
+
+    @Test
+    void archive_shouldBeSeenAtOnceByEveryNode() {
+        // Another billing node, started before the month was archived and sharing the database and archive directory.
+        BillableHourArchive otherNode = new BillableHourArchive(ARCHIVE_DIR.toString(), 12, Duration.ofHours(1),
+            catalogRepository, customerTotalRepository);
+        BigDecimal revenueBefore = billableHourService.calculateTotalRevenue();
+        assertThat(otherNode.list()).isEmpty();
+
+        archiveService.archive(archived.getYear(), archived.getMonthValue());
+
+        assertThat(otherNode.isArchived(archived)).isTrue();
+        assertThat(otherNode.totalRevenue()).isEqualByComparingTo("1875.00");
+        assertThat(otherNode.count(filter(customerA, null, null))).isEqualTo(5);
+        assertThat(otherNode.read(archived)).hasSize(10);
+        assertThat(otherNode.sumRevenueByCustomer()).hasSize(2);
+        assertThat(billableHourService.calculateTotalRevenue()).isEqualByComparingTo(revenueBefore);
+
+        archiveService.restore(archived.getYear(), archived.getMonthValue());
+
+        assertThat(otherNode.isArchived(archived)).isFalse();
+        assertThat(otherNode.sumRevenueByCustomer()).isEmpty();
+        assertThat(verifier.verifyAndFold().mismatches()).isZero();
+    }
+
+    @Test
+    void archive_shouldRejectOpenPeriodsAndEntriesForArchivedMonths() {
+        YearMonth open = archived.plusMonths(1);
+        assertThatThrownBy(() -> archiveService.archive(open.getYear(), open.getMonthValue()))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageContaining("must be closed");
+
+        archiveService.archive(archived.getYear(), archived.getMonthValue());
+
+        assertThatThrownBy(() -> create(customerA, archived.atDay(3), "1.00", null))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageContaining("archived");
+        assertThatThrownBy(() -> archiveService.archive(archived.getYear(), archived.getMonthValue()))
+            .isInstanceOf(BusinessValidationException.class);
+    }
+
+    @Test
+    void statistics_shouldRuleOutArchivedMonthsForOtherFilters() {
+        archiveService.archive(archived.getYear(), archived.getMonthValue());
+
+        assertThat(archive.mayContain(filter(customerA, null, null))).isTrue();
+        // Sorts after every random id, so it lies outside the file's customer range.
+        assertThat(archive.mayContain(filter(new UUID(-1L, -1L), null, null))).isFalse();
+        assertThat(archive.mayContain(filter(null, archived.plusMonths(1).atDay(1), null))).isFalse();
+        assertThat(archive.count(filter(null, archived.atDay(1), archived.atEndOfMonth()))).isEqualTo(10);
+    }
+
+    @Test
+    void restore_shouldPutEntriesBackUnchangedAndDeleteFile() {
+        List<BillableHourResponse> before = allPages(null);
+        ArchivedMonthResponse response = archiveService.archive(archived.getYear(), archived.getMonthValue());
+
+        archiveService.restore(archived.getYear(), archived.getMonthValue());
+
+        assertThat(hotEntriesIn(archived)).isEqualTo(10);
+        assertThat(archive.list()).isEmpty();
+        assertThat(ARCHIVE_DIR.resolve(response.file())).doesNotExist();
+        assertThat(allPages(null)).usingRecursiveFieldByFieldElementComparatorIgnoringFields("createdAt", "updatedAt")
+            .containsExactlyElementsOf(before);
+        assertThat(verifier.verifyAndFold().mismatches()).isZero();
+    }
+
+    @Test
+    void findAll_shouldMergeArchivedEntriesIntoOffsetPagesSortedByAnotherField() {
+        Sort byCustomer = Sort.by(Sort.Direction.DESC, "customerId");
+        List<UUID> before = allPages(null, byCustomer).stream().map(BillableHourResponse::id).toList();
+
+        archiveService.archive(archived.getYear(), archived.getMonthValue());
+
+        assertThat(allPages(null, byCustomer)).extracting(BillableHourResponse::id).containsExactlyElementsOf(before);
+    }
+
+    @Test
+    void findAll_shouldRefuseSortsTheArchiveCannotMergeOnlyWhenArchivedMonthsAreInRange() {
+        archiveService.archive(archived.getYear(), archived.getMonthValue());
+
+        for (String field : List.of("note", "hours", "createdAt")) {
+            assertThatThrownBy(() -> billableHourService.findAll(customerA, null, null, null, null,
+                    PageRequest.of(0, 7, Sort.by(field))))
+                .isInstanceOf(BusinessValidationException.class)
+                .hasMessageContaining("archived months");
+        }
+        LocalDate afterArchive = archived.plusMonths(1).atDay(1);
+        assertThat(billableHourService.findAll(customerA, null, null, afterArchive, null,
+                PageRequest.of(0, 7, Sort.by("note"))).getContent()).isNotEmpty();
+    }
+
+    @Test
+    void write_shouldDeleteTheFilesWhenTheTransactionRollsBack() {
+        List<Path> written = new ArrayList<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Path file = archive.write(archived, billableHourRepository.findByDateLoggedBetween(
+                archived.atDay(1), archived.atEndOfMonth())).file();
+            written.add(file);
+            written.add(file.resolveSibling(file.getFileName() + ".sha256"));
+            assertThat(written).allMatch(Files::exists);
+            status.setRollbackOnly();
+        });
+
+        assertThat(written).hasSize(2).noneMatch(Files::exists);
+        assertThat(archive.isArchived(archived)).isFalse();
+        assertThat(hotEntriesIn(archived)).isEqualTo(10);
+    }
+
+    @Test
+    void startup_shouldDeleteOnlyOldFilesTheCatalogDoesNotReferTo() throws IOException {
+        ArchivedMonthResponse response = archiveService.archive(archived.getYear(), archived.getMonthValue());
+        Path catalogued = ARCHIVE_DIR.resolve(response.file());
+        // Left by an archive that never committed, with its checksum moved into place first.
+        Path uncommitted = Files.writeString(ARCHIVE_DIR.resolve("billable-hours-" + archived + ".1.bha"), "partial");
+        Path checksumOnly = Files.writeString(ARCHIVE_DIR.resolve("billable-hours-" + archived + ".2.bha.sha256"), "0  x");
+        Path temp = Files.writeString(ARCHIVE_DIR.resolve(".archive-1.tmp"), "partial");
+        // Possibly an archive still running on another node.
+        Path recent = Files.writeString(ARCHIVE_DIR.resolve("billable-hours-" + archived + ".3.bha"), "partial");
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofHours(2)));
+        for (Path file : List.of(catalogued, uncommitted, checksumOnly, temp)) {
+            Files.setLastModifiedTime(file, old);
+        }
+
+        new BillableHourArchive(ARCHIVE_DIR.toString(), 12, Duration.ofHours(1), catalogRepository, customerTotalRepository)
+            .afterSingletonsInstantiated();
+
+        assertThat(catalogued).exists();
+        assertThat(catalogued.resolveSibling(response.file() + ".sha256")).exists();
+        assertThat(List.of(uncommitted, checksumOnly, temp)).noneMatch(Files::exists);
+        assertThat(recent).exists();
+        Files.delete(recent);
+        assertThat(archive.read(archived)).hasSize(10);
+    }
+
+    @Test
+    void restore_shouldRefuseFileThatDoesNotMatchItsChecksum() throws IOException {
+        ArchivedMonthResponse response = archiveService.archive(archived.getYear(), archived.getMonthValue());
+        Path file = ARCHIVE_DIR.resolve(response.file());
+        file.toFile().setWritable(true);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(file, bytes);
+
+        assertThatThrownBy(() -> archiveService.restore(archived.getYear(), archived.getMonthValue()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("checksum");
+        assertThat(hotEntriesIn(archived)).isZero();
+    }
+
+    private List<BillableHourResponse> allPages(UUID customerId) {
+        return allPages(customerId, NEWEST_FIRST);
+    }
+
+    private List<BillableHourResponse> allPages(UUID customerId, Sort sort) {
+        List<BillableHourResponse> all = new ArrayList<>();
+        Page<BillableHourResponse> page;
+        int number = 0;
+        do {
+            page = billableHourService.findAll(customerId, null, null, null, null, PageRequest.of(number++, 7, sort));
+            all.addAll(page.getContent());
+        } while (page.hasNext());
+        assertThat(all).hasSize((int) page.getTotalElements());
+        return all;
+    }
+
+    private List<UUID> walk() {
+        List<UUID> walked = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            BillableHourSlice slice = billableHourService.findAfter(null, null, null, null, null, cursor, NEWEST_FIRST, 4, true);
+            assertThat(slice.totalItems()).isEqualTo(30);
+            slice.items().forEach(item -> walked.add(item.id()));
+            cursor = slice.nextCursor();
+        }
+        return walked;
+    }
+
+    private int hotEntriesIn(YearMonth month) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM billable_hours WHERE date_logged BETWEEN ? AND ?",
+            Integer.class, month.atDay(1), month.atEndOfMonth());
+    }
+
+    private static Filter filter(UUID customerId, LocalDate fromDate, LocalDate toDate) {
+        return new Filter(customerId, null, null, fromDate, toDate);
+    }
+
+    private void create(UUID customerId, LocalDate date, String hours, String note) {
+        billableHourService.create(new CreateBillableHourRequest(customerId, UUID.randomUUID(), categoryId,
+            new BigDecimal(hours), date, note));
+    }
+}
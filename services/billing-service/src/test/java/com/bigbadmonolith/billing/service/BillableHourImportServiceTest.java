@@ -0,0 +1,141 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.dto.BulkBillableHourResponse;
+import com.bigbadmonolith.billing.dto.BulkBillableHourResult;
+import com.bigbadmonolith.billing.dto.BulkImportMode;
+import com.bigbadmonolith.billing.dto.CreateBillableHourRequest;
+import com.bigbadmonolith.billing.event.OutboxWriter;
+import com.bigbadmonolith.billing.model.BillingCategory;
+import com.bigbadmonolith.billing.repository.BillableHourBatchRepository;
+import com.bigbadmonolith.billing.repository.BillableHourRepository;
+import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
+import com.bigbadmonolith.billing.repository.OutboxEventRepository;
+import com.bigbadmonolith.billing.repository.UserDailyHoursRepository;
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest(properties = "billing.import.max-entries=100")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({BillableHourImportService.class, BillableHourBatchRepository.class, DailyHoursLedger.class, RevenueCounters.class,
+        BillableHourArchive.class, AccountingPeriodService.class, OutboxWriter.class})
+class BillableHourImportServiceTest {
+
+    @Autowired
+    private BillableHourImportService importService;
+    @Autowired
+    private BillingCategoryRepository categoryRepository;
+    @Autowired
+    private BillableHourRepository billableHourRepository;
+    @Autowired
+    private UserDailyHoursRepository dailyHoursRepository;
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    private final UUID customerId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final LocalDate saturday = LocalDate.now().minusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.SATURDAY));
+    private final LocalDate friday = saturday.minusDays(1);
+    private UUID categoryId;
+
+    @BeforeEach
+    void setUp() {
+        BillingCategory category = new BillingCategory();
+        category.setName("Development");
+        category.setHourlyRate(new BigDecimal("150.00"));
+        categoryId = categoryRepository.save(category).getId();
+    }
+
+    @Test
+    void importEntries_bestEffortShouldWriteValidRowsAndReportTheRest() {
+        UUID unknownCategory = UUID.randomUUID();
+        List<CreateBillableHourRequest> entries = List.of(
+            entry(friday, "10.00", categoryId),
+            entry(friday, "10.00", categoryId),
+            entry(friday, "5.00", categoryId),
+            entry(saturday, "2.00", categoryId),
+            entry(friday, "1.005", categoryId),
+            entry(friday, "1.00", unknownCategory),
+            entry(LocalDate.now().plusDays(1), "1.00", categoryId));
+
+        BulkBillableHourResponse response = importService.importEntries(entries, null);
+
+        assertThat(response.mode()).isEqualTo(BulkImportMode.BEST_EFFORT);
+        assertThat(response.committed()).isTrue();
+        assertThat(response.created()).isEqualTo(3);
+        assertThat(response.rejected()).isEqualTo(4);
+        assertThat(response.results()).extracting(BulkBillableHourResult::status).containsExactly(
+            "created", "created", "rejected", "created", "rejected", "rejected", "rejected");
+        assertThat(response.results().get(2).message()).isEqualTo(
+            "Total hours for user on " + friday + " would exceed 24 (existing: 20.00, new: 5.00)");
+        assertThat(response.results().get(3).warning()).isEqualTo("Hours logged on a weekend (SATURDAY)");
+        assertThat(response.results().get(4).message()).isEqualTo("Hours must have at most 2 decimal places");
+        assertThat(response.results().get(5).message()).isEqualTo("Billing category not found with id: " + unknownCategory);
+        assertThat(response.results().get(6).message()).isEqualTo("Date logged must not be in the future");
+
+        assertThat(billableHourRepository.findById(response.results().get(0).id())).hasValueSatisfying(hour ->
+            assertThat(hour.getRateSnapshot()).isEqualByComparingTo("150.00"));
+        assertThat(billableHourRepository.count()).isEqualTo(3);
+        assertThat(dailyHoursRepository.findTotal(userId, friday)).isEqualByComparingTo("20.00");
+        assertThat(dailyHoursRepository.findTotal(userId, saturday)).isEqualByComparingTo("2.00");
+        assertThat(outboxRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void importEntries_allOrNothingShouldWriteNothingWhenAnyRowIsRejected() {
+        List<CreateBillableHourRequest> entries = List.of(
+            entry(friday, "8.00", categoryId),
+            entry(friday, "0.00", categoryId));
+
+        BulkBillableHourResponse response = importService.importEntries(entries, BulkImportMode.ALL_OR_NOTHING);
+
+        assertThat(response.committed()).isFalse();
+        assertThat(response.created()).isZero();
+        assertThat(response.rejected()).isEqualTo(1);
+        assertThat(response.results()).extracting(BulkBillableHourResult::status)
+            .containsExactly(BulkBillableHourResult.NOT_WRITTEN, BulkBillableHourResult.REJECTED);
+        assertThat(response.rejections()).singleElement().satisfies(problem -> {
+            assertThat(problem.status()).isEqualTo(422);
+            assertThat(problem.detail()).startsWith("entries[1]: ");
+        });
+        assertThat(billableHourRepository.count()).isZero();
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void importEntries_shouldCountExistingLedgerHoursAndLimitBatchSize() {
+        importService.importEntries(List.of(entry(friday, "20.00", categoryId)), BulkImportMode.ALL_OR_NOTHING);
+
+        BulkBillableHourResponse response = importService.importEntries(
+            List.of(entry(friday, "4.00", categoryId), entry(friday, "0.50", categoryId)), BulkImportMode.BEST_EFFORT);
+
+        assertThat(response.results().get(1).message()).contains("(existing: 24.00, new: 0.50)");
+        assertThat(dailyHoursRepository.findTotal(userId, friday)).isEqualByComparingTo("24.00");
+
+        List<CreateBillableHourRequest> tooMany = new ArrayList<>(Collections.nCopies(101, entry(friday, "0.01", categoryId)));
+        assertThatThrownBy(() -> importService.importEntries(tooMany, BulkImportMode.BEST_EFFORT))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessage("A bulk import accepts at most 100 entries");
+    }
+
+    private CreateBillableHourRequest entry(LocalDate date, String hours, UUID category) {
+        return new CreateBillableHourRequest(customerId, userId, category, new BigDecimal(hours), date, null);
+    }
+}
@@ -0,0 +1,137 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.dto.BillableHourResponse;
+import com.bigbadmonolith.billing.dto.BillableHourSlice;
+import com.bigbadmonolith.billing.event.OutboxWriter;
+import com.bigbadmonolith.billing.model.BillableHour;
+import com.bigbadmonolith.billing.repository.BillableHourRepository;
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({BillableHourService.class, BillingCategoryService.class, DailyHoursLedger.class, RevenueCounters.class,
+        BillableHourArchive.class, AccountingPeriodService.class, OutboxWriter.class})
+class BillableHourPagingTest {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "dateLogged");
+
+    @Autowired
+    private BillableHourService billableHourService;
+    @Autowired
+    private BillableHourRepository billableHourRepository;
+
+    private final UUID customerA = UUID.randomUUID();
+    private final UUID customerB = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // Five entries per day so that pages regularly break inside a run of equal dates.
+        List<BillableHour> entries = new ArrayList<>();
+        LocalDate start = LocalDate.now().minusDays(30);
+        for (int i = 0; i < 47; i++) {
+            BillableHour entry = new BillableHour();
+            entry.setCustomerId(i % 3 == 0 ? customerB : customerA);
+            entry.setUserId(UUID.randomUUID());
+            entry.setCategoryId(UUID.randomUUID());
+            entry.setHours(new BigDecimal("1.00"));
+            entry.setRateSnapshot(new BigDecimal("100.00"));
+            entry.setDateLogged(start.plusDays(i / 5));
+            entries.add(entry);
+        }
+        billableHourRepository.saveAll(entries);
+    }
+
+    @Test
+    void findAfter_shouldWalkEveryEntryOnceInOffsetOrder() {
+        List<UUID> expected = billableHourService.findAll(null, null, null, null, null, PageRequest.of(0, 100, NEWEST_FIRST))
+            .map(BillableHourResponse::id).getContent();
+
+        List<UUID> walked = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        while (cursor != null) {
+            BillableHourSlice slice = billableHourService.findAfter(null, null, null, null, null, cursor, NEWEST_FIRST, 10, false);
+            assertThat(slice.totalItems()).isNull();
+            slice.items().forEach(item -> walked.add(item.id()));
+            cursor = slice.nextCursor();
+            pages++;
+        }
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(walked).hasSize(47).doesNotHaveDuplicates().containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void findAfter_shouldApplyFiltersDirectionAndOptionalTotal() {
+        LocalDate from = LocalDate.now().minusDays(28);
+        Sort oldestFirst = Sort.by(Sort.Direction.ASC, "dateLogged");
+
+        BillableHourSlice first = billableHourService.findAfter(customerA, null, null, from, null, "", oldestFirst, 4, true);
+        BillableHourSlice second = billableHourService.findAfter(customerA, null, null, from, null, first.nextCursor(),
+            oldestFirst, 4, false);
+
+        long expectedTotal = billableHourRepository.findAll().stream()
+            .filter(entry -> entry.getCustomerId().equals(customerA) && !entry.getDateLogged().isBefore(from))
+            .count();
+        assertThat(first.totalItems()).isEqualTo(expectedTotal);
+        assertThat(first.items()).hasSize(4).allSatisfy(item -> {
+            assertThat(item.customerId()).isEqualTo(customerA);
+            assertThat(item.dateLogged()).isAfterOrEqualTo(from);
+        });
+        assertThat(second.items().get(0).dateLogged()).isAfterOrEqualTo(first.items().get(3).dateLogged());
+        assertThat(second.items()).extracting(BillableHourResponse::id)
+            .doesNotContainAnyElementsOf(first.items().stream().map(BillableHourResponse::id).toList());
+    }
+
+    @Test
+    void findAll_shouldStillSortOffsetPagesByFieldsOtherThanTheDate() {
+        BillableHour longest = billableHourRepository.findAll().get(20);
+        longest.setHours(new BigDecimal("9.50"));
+        billableHourRepository.save(longest);
+
+        List<BillableHourResponse> byHours = billableHourService.findAll(null, null, null, null, null,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "hours"))).getContent();
+
+        assertThat(byHours).hasSize(10);
+        assertThat(byHours.get(0).id()).isEqualTo(longest.getId());
+        assertThat(billableHourService.findAll(null, null, null, null, null,
+                PageRequest.of(1, 10, Sort.by("note"))).getTotalElements()).isEqualTo(47);
+    }
+
+    @Test
+    void listings_shouldRejectUnindexedSortsAndBadCursors() {
+        assertThatThrownBy(() -> billableHourService.findAll(null, null, null, null, null,
+                PageRequest.of(0, 10, Sort.by("lineTotal"))))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageContaining("hours");
+        assertThatThrownBy(() -> billableHourService.findAfter(null, null, null, null, null, "",
+                Sort.by(Sort.Direction.DESC, "hours"), 10, false))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageEndingWith("[dateLogged]");
+        assertThatThrownBy(() -> billableHourService.findAfter(null, null, null, null, null, "not-a-cursor",
+                NEWEST_FIRST, 10, false))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageStartingWith("Invalid cursor");
+        assertThatThrownBy(() -> billableHourService.findAfter(null, null, null, null, null, "",
+                NEWEST_FIRST, BillableHourService.MAX_PAGE_SIZE + 1, false))
+            .isInstanceOf(BusinessValidationException.class);
+    }
+}
@@ -0,0 +1,35 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The partitioning migration only runs on PostgreSQL; on H2 the component has to stand aside.
+ */
+@DataJpaTest(properties = "billing.partitions.enabled=false")
+@Import(BillableHourPartitions.class)
+class BillableHourPartitionsTest {
+
+    @Autowired
+    private BillableHourPartitions partitions;
+
+    @Test
+    void plainTable_shouldNotBeTreatedAsPartitioned() {
+        assertThat(partitions.isPartitioned()).isFalse();
+        assertThat(partitions.ensureFuturePartitions()).isZero();
+    }
+
+    @Test
+    void detach_shouldBeRejectedWhenNotPartitioned() {
+        assertThatThrownBy(() -> partitions.detach(YearMonth.now().minusMonths(2)))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageContaining("not partitioned");
+    }
+}
@@ -1,10 +1,10 @@
 package com.bigbadmonolith.billing.service;
 
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
 import com.bigbadmonolith.billing.dto.*;
+import com.bigbadmonolith.billing.event.OutboxWriter;
 import com.bigbadmonolith.billing.model.BillableHour;
-import com.bigbadmonolith.billing.model.BillingCategory;
 import com.bigbadmonolith.billing.repository.BillableHourRepository;
-import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
 import com.bigbadmonolith.billing.service.BillableHourService.BillableHourCreateResult;
 import com.bigbadmonolith.common.exception.BusinessValidationException;
 import com.bigbadmonolith.common.exception.ResourceNotFoundException;
@@ -19,6 +19,7 @@ import java.math.BigDecimal;
 import java.time.DayOfWeek;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.temporal.TemporalAdjusters;
 import java.util.Optional;
 import java.util.UUID;
@@ -34,12 +35,27 @@ class BillableHourServiceTest {
     private BillableHourRepository billableHourRepository;
 
     @Mock
-    private BillingCategoryRepository categoryRepository;
+    private BillingCategoryService categoryService;
+
+    @Mock
+    private DailyHoursLedger dailyHoursLedger;
+
+    @Mock
+    private RevenueCounters revenueCounters;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private BillableHourArchive archive;
+
+    @Mock
+    private AccountingPeriodService periodService;
 
     @InjectMocks
     private BillableHourService billableHourService;
 
-    private BillingCategory testCategory;
+    private BillingCategoryResponse testCategory;
     private BillableHour testEntry;
     private UUID testId;
     private UUID customerId;
@@ -53,12 +69,8 @@ class BillableHourServiceTest {
         userId = UUID.randomUUID();
         categoryId = UUID.randomUUID();
 
-        testCategory = new BillingCategory();
-        testCategory.setId(categoryId);
-        testCategory.setName("Consulting");
-        testCategory.setHourlyRate(new BigDecimal("150.00"));
-        testCategory.setCreatedAt(Instant.now());
-        testCategory.setUpdatedAt(Instant.now());
+        testCategory = new BillingCategoryResponse(categoryId, "Consulting", null, new BigDecimal("150.00"),
+            Instant.now(), Instant.now());
 
         testEntry = new BillableHour();
         testEntry.setId(testId);
@@ -78,15 +90,18 @@ class BillableHourServiceTest {
         LocalDate yesterday = LocalDate.now().minusDays(1);
         var request = new CreateBillableHourRequest(customerId, userId, categoryId, new BigDecimal("8.00"), yesterday, "Test");
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(billableHourRepository.sumHoursForUserOnDateNew(userId, yesterday)).thenReturn(BigDecimal.ZERO);
+        when(categoryService.currentHourlyRate(categoryId)).thenReturn(testCategory.hourlyRate());
         when(billableHourRepository.save(any(BillableHour.class))).thenReturn(testEntry);
 
         BillableHourCreateResult result = billableHourService.create(request);
 
+        verify(dailyHoursLedger).reserve(userId, yesterday, new BigDecimal("8.00"));
+
         assertThat(result.response().rateSnapshot()).isEqualByComparingTo(new BigDecimal("150.00"));
         assertThat(result.response().lineTotal()).isEqualByComparingTo(new BigDecimal("1200.00"));
         verify(billableHourRepository).save(any(BillableHour.class));
+        verify(revenueCounters).added(testEntry);
+        verify(outboxWriter).billableHourSaved(testEntry);
     }
 
     @Test
@@ -94,12 +109,14 @@ class BillableHourServiceTest {
         LocalDate yesterday = LocalDate.now().minusDays(1);
         var request = new CreateBillableHourRequest(customerId, userId, categoryId, new BigDecimal("10.00"), yesterday, null);
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(billableHourRepository.sumHoursForUserOnDateNew(userId, yesterday)).thenReturn(new BigDecimal("16.00"));
+        when(categoryService.currentHourlyRate(categoryId)).thenReturn(testCategory.hourlyRate());
+        doThrow(new BusinessValidationException("Total hours for user on " + yesterday + " would exceed 24"))
+            .when(dailyHoursLedger).reserve(userId, yesterday, new BigDecimal("10.00"));
 
         assertThatThrownBy(() -> billableHourService.create(request))
             .isInstanceOf(BusinessValidationException.class)
             .hasMessageContaining("exceed 24");
+        verify(billableHourRepository, never()).save(any(BillableHour.class));
     }
 
     @Test
@@ -107,8 +124,7 @@ class BillableHourServiceTest {
         LocalDate saturday = LocalDate.now().with(TemporalAdjusters.previous(DayOfWeek.SATURDAY));
         var request = new CreateBillableHourRequest(customerId, userId, categoryId, new BigDecimal("4.00"), saturday, null);
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(billableHourRepository.sumHoursForUserOnDateNew(userId, saturday)).thenReturn(BigDecimal.ZERO);
+        when(categoryService.currentHourlyRate(categoryId)).thenReturn(testCategory.hourlyRate());
 
         BillableHour weekendEntry = new BillableHour();
         weekendEntry.setId(UUID.randomUUID());
@@ -144,7 +160,8 @@ class BillableHourServiceTest {
         LocalDate yesterday = LocalDate.now().minusDays(1);
         var request = new CreateBillableHourRequest(customerId, userId, categoryId, new BigDecimal("4.00"), yesterday, null);
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.empty());
+        when(categoryService.currentHourlyRate(categoryId))
+            .thenThrow(new ResourceNotFoundException("Billing category not found with id: " + categoryId));
 
         assertThatThrownBy(() -> billableHourService.create(request))
             .isInstanceOf(ResourceNotFoundException.class);
@@ -156,13 +173,15 @@ class BillableHourServiceTest {
         var request = new UpdateBillableHourRequest(customerId, userId, categoryId, new BigDecimal("6.00"), yesterday, "Updated");
 
         when(billableHourRepository.findById(testId)).thenReturn(Optional.of(testEntry));
-        when(billableHourRepository.sumHoursForUserOnDate(userId, yesterday, testId)).thenReturn(BigDecimal.ZERO);
         when(billableHourRepository.save(any(BillableHour.class))).thenReturn(testEntry);
 
         var result = billableHourService.update(testId, request);
 
         assertThat(result).isNotNull();
+        verify(dailyHoursLedger).move(userId, yesterday, new BigDecimal("8.00"), userId, yesterday, new BigDecimal("6.00"));
         verify(billableHourRepository).save(any(BillableHour.class));
+        verify(revenueCounters).changed(new RevenueCounters.Contribution(customerId, YearMonth.from(yesterday),
+            new BigDecimal("8.00"), new BigDecimal("1200.0000")), testEntry);
     }
 
     @Test
@@ -171,7 +190,8 @@ class BillableHourServiceTest {
         var request = new UpdateBillableHourRequest(customerId, userId, categoryId, new BigDecimal("10.00"), yesterday, null);
 
         when(billableHourRepository.findById(testId)).thenReturn(Optional.of(testEntry));
-        when(billableHourRepository.sumHoursForUserOnDate(userId, yesterday, testId)).thenReturn(new BigDecimal("16.00"));
+        doThrow(new BusinessValidationException("Total hours for user on " + yesterday + " would exceed 24"))
+            .when(dailyHoursLedger).move(userId, yesterday, new BigDecimal("8.00"), userId, yesterday, new BigDecimal("10.00"));
 
         assertThatThrownBy(() -> billableHourService.update(testId, request))
             .isInstanceOf(BusinessValidationException.class)
@@ -185,6 +205,9 @@ class BillableHourServiceTest {
         billableHourService.delete(testId);
 
         verify(billableHourRepository).delete(testEntry);
+        verify(dailyHoursLedger).release(userId, testEntry.getDateLogged(), new BigDecimal("8.00"));
+        verify(revenueCounters).removed(testEntry);
+        verify(outboxWriter).billableHourDeleted(testId);
     }
 
     @Test
@@ -212,6 +235,7 @@ class BillableHourServiceTest {
     @Test
     void calculateTotalRevenue_shouldReturnTotal() {
         when(billableHourRepository.calculateTotalRevenue()).thenReturn(new BigDecimal("5000.00"));
+        when(archive.totalRevenue()).thenReturn(BigDecimal.ZERO);
 
         assertThat(billableHourService.calculateTotalRevenue()).isEqualByComparingTo(new BigDecimal("5000.00"));
     }
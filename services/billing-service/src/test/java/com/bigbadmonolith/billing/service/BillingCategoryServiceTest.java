@@ -1,6 +1,7 @@
 package com.bigbadmonolith.billing.service;
 
 import com.bigbadmonolith.billing.dto.*;
+import com.bigbadmonolith.billing.event.OutboxWriter;
 import com.bigbadmonolith.billing.model.BillingCategory;
 import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
 import com.bigbadmonolith.billing.repository.BillableHourRepository;
@@ -37,6 +38,9 @@ class BillingCategoryServiceTest {
     @Mock
     private BillableHourRepository billableHourRepository;
 
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private BillingCategoryService categoryService;
 
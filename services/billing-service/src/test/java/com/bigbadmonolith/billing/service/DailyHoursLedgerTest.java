@@ -0,0 +1,154 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.dto.CreateBillableHourRequest;
+import com.bigbadmonolith.billing.event.OutboxWriter;
+import com.bigbadmonolith.billing.model.BillingCategory;
+import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
+import com.bigbadmonolith.billing.repository.UserDailyHoursRepository;
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs without a test transaction so concurrent submissions really commit against each other.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({DailyHoursLedger.class, BillableHourService.class, BillingCategoryService.class, RevenueCounters.class,
+        BillableHourArchive.class, AccountingPeriodService.class, OutboxWriter.class})
+class DailyHoursLedgerTest {
+
+    @Autowired
+    private DailyHoursLedger ledger;
+    @Autowired
+    private BillableHourService billableHourService;
+    @Autowired
+    private BillingCategoryRepository categoryRepository;
+    @Autowired
+    private UserDailyHoursRepository dailyHoursRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID userId = UUID.randomUUID();
+    private final LocalDate yesterday = LocalDate.now().minusDays(1);
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM event_outbox");
+        jdbcTemplate.update("DELETE FROM billable_hours");
+        jdbcTemplate.update("DELETE FROM user_daily_hours");
+        jdbcTemplate.update("DELETE FROM billing_categories");
+    }
+
+    @Test
+    void create_shouldNeverExceed24HoursUnderConcurrentSubmissions() throws Exception {
+        BillingCategory category = new BillingCategory();
+        category.setName("Consulting");
+        category.setHourlyRate(new BigDecimal("150.00"));
+        UUID categoryId = categoryRepository.save(category).getId();
+
+        int submissions = 100;
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < submissions; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        billableHourService.create(new CreateBillableHourRequest(
+                            UUID.randomUUID(), userId, categoryId, new BigDecimal("0.75"), yesterday, null));
+                        accepted.incrementAndGet();
+                    } catch (BusinessValidationException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(accepted.get()).isEqualTo(32);
+        assertThat(rejected.get()).isEqualTo(submissions - 32);
+        BigDecimal logged = jdbcTemplate.queryForObject(
+            "SELECT SUM(hours) FROM billable_hours WHERE user_id = ? AND date_logged = ?", BigDecimal.class, userId, yesterday);
+        assertThat(logged).isEqualByComparingTo("24.00");
+        assertThat(dailyHoursRepository.findTotal(userId, yesterday)).isEqualByComparingTo("24.00");
+    }
+
+    @Test
+    void reserve_shouldRejectWhenDayWouldExceedLimit() {
+        inTransaction(() -> ledger.reserve(userId, yesterday, new BigDecimal("20.00")));
+
+        assertThatThrownBy(() -> inTransaction(() -> ledger.reserve(userId, yesterday, new BigDecimal("5.00"))))
+            .isInstanceOf(BusinessValidationException.class)
+            .hasMessageContaining("would exceed 24 (existing: 20.00, new: 5.00)");
+        inTransaction(() -> ledger.reserve(userId, yesterday, new BigDecimal("4.00")));
+
+        assertThat(dailyHoursRepository.findTotal(userId, yesterday)).isEqualByComparingTo("24.00");
+    }
+
+    @Test
+    void move_shouldTransferHoursBetweenDaysAndAdjustInPlace() {
+        LocalDate dayBefore = yesterday.minusDays(1);
+        inTransaction(() -> ledger.reserve(userId, yesterday, new BigDecimal("8.00")));
+
+        inTransaction(() -> ledger.move(userId, yesterday, new BigDecimal("8.00"), userId, dayBefore, new BigDecimal("6.00")));
+        inTransaction(() -> ledger.move(userId, dayBefore, new BigDecimal("6.00"), userId, dayBefore, new BigDecimal("7.50")));
+
+        assertThat(dailyHoursRepository.findTotal(userId, yesterday)).isEqualByComparingTo("0.00");
+        assertThat(dailyHoursRepository.findTotal(userId, dayBefore)).isEqualByComparingTo("7.50");
+
+        inTransaction(() -> ledger.release(userId, dayBefore, new BigDecimal("7.50")));
+        assertThat(dailyHoursRepository.findTotal(userId, dayBefore)).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void release_shouldFailInsteadOfGoingNegativeWhenLedgerHasDrifted() {
+        inTransaction(() -> ledger.reserve(userId, yesterday, new BigDecimal("2.00")));
+
+        assertThatThrownBy(() -> inTransaction(() -> ledger.release(userId, yesterday, new BigDecimal("3.00"))))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("holds less than the 3.00 hours released (total: 2.00)");
+        assertThatThrownBy(() -> inTransaction(() -> ledger.release(userId, yesterday.minusDays(1), BigDecimal.ONE)))
+            .isInstanceOf(IllegalStateException.class);
+
+        assertThat(dailyHoursRepository.findTotal(userId, yesterday)).isEqualByComparingTo("2.00");
+    }
+
+    private void inTransaction(Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+    }
+}
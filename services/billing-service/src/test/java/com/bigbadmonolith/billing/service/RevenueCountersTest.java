@@ -0,0 +1,181 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.dto.BillableHourResponse;
+import com.bigbadmonolith.billing.dto.CreateBillableHourRequest;
+import com.bigbadmonolith.billing.dto.RevenueSummary;
+import com.bigbadmonolith.billing.dto.RevenueTotals;
+import com.bigbadmonolith.billing.dto.UpdateBillableHourRequest;
+import com.bigbadmonolith.billing.event.OutboxWriter;
+import com.bigbadmonolith.billing.model.BillingCategory;
+import com.bigbadmonolith.billing.repository.BillableHourRepository;
+import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs without a test transaction so counter updates from concurrent requests really commit.
+ */
+@DataJpaTest(properties = {"billing.revenue-counters.stripes=4", "billing.revenue-counters.verify.enabled=false"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({BillableHourService.class, BillingCategoryService.class, DailyHoursLedger.class, RevenueCounters.class,
+        BillableHourArchive.class, AccountingPeriodService.class, OutboxWriter.class, RevenueDashboardService.class,
+        RevenueCounterVerifier.class})
+class RevenueCountersTest {
+
+    @Autowired
+    private BillableHourService billableHourService;
+    @Autowired
+    private RevenueDashboardService dashboardService;
+    @Autowired
+    private RevenueCounterVerifier verifier;
+    @Autowired
+    private BillableHourRepository billableHourRepository;
+    @Autowired
+    private BillingCategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID customerA = UUID.randomUUID();
+    private final UUID customerB = UUID.randomUUID();
+    private final LocalDate today = LocalDate.now();
+    private final LocalDate lastMonth = today.minusMonths(1);
+    private UUID categoryId;
+
+    @BeforeEach
+    void setUp() {
+        BillingCategory category = new BillingCategory();
+        category.setName("Consulting");
+        category.setHourlyRate(new BigDecimal("150.00"));
+        categoryId = categoryRepository.save(category).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM event_outbox");
+        jdbcTemplate.update("DELETE FROM billable_hours");
+        jdbcTemplate.update("DELETE FROM user_daily_hours");
+        jdbcTemplate.update("DELETE FROM revenue_counters");
+        jdbcTemplate.update("DELETE FROM billing_categories");
+    }
+
+    @Test
+    void counters_shouldTrackCreateUpdateAndDelete() {
+        UUID userId = UUID.randomUUID();
+        BillableHourResponse kept = create(customerA, userId, "8.00", today);
+        BillableHourResponse moved = create(customerA, userId, "4.00", today);
+        BillableHourResponse deleted = create(customerB, userId, "2.00", lastMonth);
+
+        billableHourService.update(moved.id(),
+            new UpdateBillableHourRequest(customerB, userId, categoryId, new BigDecimal("3.50"), lastMonth, null));
+        billableHourService.delete(deleted.id());
+
+        RevenueSummary summary = dashboardService.summary();
+        assertThat(summary.totalRevenue()).isEqualByComparingTo(billableHourRepository.calculateTotalRevenue());
+        assertThat(summary.totalRevenue()).isEqualByComparingTo("1725.00");
+        assertThat(summary.totalHours()).isEqualByComparingTo("11.50");
+        assertThat(summary.totalEntries()).isEqualTo(2);
+        assertThat(summary.monthToDateRevenue()).isEqualByComparingTo("1200.00");
+        assertThat(summary.monthToDateHours()).isEqualByComparingTo("8.00");
+        assertThat(summary.yearToDateRevenue()).isEqualByComparingTo(lastMonth.getYear() == today.getYear() ? "1725.00" : "1200.00");
+
+        RevenueTotals a = dashboardService.forCustomer(customerA);
+        assertThat(a.revenue()).isEqualByComparingTo(kept.lineTotal());
+        assertThat(a.entries()).isEqualTo(1);
+        RevenueTotals b = dashboardService.forCustomer(customerB);
+        assertThat(b.revenue()).isEqualByComparingTo("525.00");
+        assertThat(b.hours()).isEqualByComparingTo("3.50");
+
+        assertThat(verifier.verifyAndFold().mismatches()).isZero();
+    }
+
+    @Test
+    void counters_shouldStayExactUnderConcurrentWritesAndFoldIntoOneRow() throws Exception {
+        int submissions = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < submissions; i++) {
+                UUID customerId = i % 2 == 0 ? customerA : customerB;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return create(customerId, UUID.randomUUID(), "1.25", today);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(stripeRows("ALL")).isGreaterThan(1);
+        RevenueSummary summary = dashboardService.summary();
+        assertThat(summary.totalEntries()).isEqualTo(submissions);
+        assertThat(summary.totalRevenue()).isEqualByComparingTo(billableHourRepository.calculateTotalRevenue());
+        assertThat(summary.totalHours()).isEqualByComparingTo("250.00");
+
+        RevenueCounterVerifier.Verification verification = verifier.verifyAndFold();
+
+        assertThat(verification.mismatches()).isZero();
+        assertThat(verification.folded()).isPositive();
+        assertThat(stripeRows("ALL")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM (SELECT scope, scope_key FROM revenue_counters GROUP BY scope, scope_key HAVING COUNT(*) > 1) s",
+            Integer.class)).isZero();
+        assertThat(dashboardService.summary()).isEqualTo(summary);
+    }
+
+    @Test
+    void verifyAndFold_shouldCorrectDriftedAndStaleCounters() {
+        create(customerA, UUID.randomUUID(), "6.00", today);
+        jdbcTemplate.update("UPDATE revenue_counters SET revenue = revenue + 100, entries = entries + 1 WHERE scope = 'ALL'");
+        jdbcTemplate.update("INSERT INTO revenue_counters (scope, scope_key, stripe, revenue, hours, entries) VALUES (?, ?, 0, 50, 1, 1)",
+            "CUSTOMER", customerB.toString());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        verifier.bindTo(registry);
+
+        RevenueCounterVerifier.Verification verification = verifier.verifyAndFold();
+
+        assertThat(verification.mismatches()).isEqualTo(2);
+        assertThat(dashboardService.summary().totalRevenue()).isEqualByComparingTo("900.00");
+        assertThat(dashboardService.summary().totalEntries()).isEqualTo(1);
+        assertThat(dashboardService.forCustomer(customerB).entries()).isZero();
+        assertThat(registry.get("billing.revenue.counters.mismatches").functionCounter().count()).isEqualTo(2);
+        assertThat(verifier.verifyAndFold().mismatches()).isZero();
+    }
+
+    private BillableHourResponse create(UUID customerId, UUID userId, String hours, LocalDate date) {
+        return billableHourService.create(
+            new CreateBillableHourRequest(customerId, userId, categoryId, new BigDecimal(hours), date, null)).response();
+    }
+
+    private int stripeRows(String scope) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM revenue_counters WHERE scope = ?", Integer.class, scope);
+    }
+}
@@ -0,0 +1,143 @@
+package com.bigbadmonolith.billing.service;
+
+import com.bigbadmonolith.billing.archive.BillableHourArchive;
+import com.bigbadmonolith.billing.dto.TimesheetFormat;
+import com.bigbadmonolith.billing.dto.TimesheetImportProgress;
+import com.bigbadmonolith.billing.dto.TimesheetImportStatus;
+import com.bigbadmonolith.billing.event.OutboxWriter;
+import com.bigbadmonolith.billing.model.BillingCategory;
+import com.bigbadmonolith.billing.repository.BillableHourBatchRepository;
+import com.bigbadmonolith.billing.repository.BillableHourRepository;
+import com.bigbadmonolith.billing.repository.BillingCategoryRepository;
+import com.bigbadmonolith.billing.repository.UserDailyHoursRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Small chunks and a one-slot queue so the parser has to wait for the persist stage.
+ */
+@DataJpaTest(properties = {"billing.import.file.chunk-size=2", "billing.import.file.queue-capacity=1"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({TimesheetImportService.class, BillableHourImportService.class, BillableHourBatchRepository.class,
+        DailyHoursLedger.class, RevenueCounters.class, BillableHourArchive.class, AccountingPeriodService.class,
+        OutboxWriter.class})
+class TimesheetImportServiceTest {
+
+    @Autowired
+    private TimesheetImportService importService;
+    @Autowired
+    private BillingCategoryRepository categoryRepository;
+    @Autowired
+    private BillableHourRepository billableHourRepository;
+    @Autowired
+    private UserDailyHoursRepository dailyHoursRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID customerId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final LocalDate day = LocalDate.now().minusDays(3);
+    private UUID categoryId;
+
+    @BeforeEach
+    void setUp() {
+        BillingCategory category = new BillingCategory();
+        category.setName("Development");
+        category.setHourlyRate(new BigDecimal("150.00"));
+        categoryId = categoryRepository.save(category).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM event_outbox");
+        jdbcTemplate.update("DELETE FROM billable_hours");
+        jdbcTemplate.update("DELETE FROM user_daily_hours");
+        jdbcTemplate.update("DELETE FROM billing_categories");
+    }
+
+    @Test
+    void submit_shouldImportCsvAndWriteRejectsWithLineNumbers() throws Exception {
+        String csv = String.join("\n",
+            "customer_id,user_id,category_id,hours,date_logged,note",
+            row("8.00", day, "Sprint planning"),
+            row("8.00", day, "\"Review, \"\"final\"\"\""),
+            row("abc", day, ""),
+            "",
+            row("9.00", day, ""),
+            row("1.00", day.minusDays(1), ""),
+            customerId + "," + userId);
+
+        TimesheetImportProgress progress = awaitFinished(submit(csv, TimesheetFormat.CSV));
+
+        assertThat(progress.status()).isEqualTo(TimesheetImportStatus.COMPLETED);
+        assertThat(progress.rowsRead()).isEqualTo(6);
+        assertThat(progress.accepted()).isEqualTo(3);
+        assertThat(progress.rejected()).isEqualTo(3);
+        assertThat(billableHourRepository.count()).isEqualTo(3);
+        assertThat(dailyHoursRepository.findTotal(userId, day)).isEqualByComparingTo("16.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT note FROM billable_hours WHERE hours = 8.00 AND note LIKE 'Review%'",
+            String.class)).isEqualTo("Review, \"final\"");
+
+        List<String> rejects = Files.readAllLines(importService.rejectsFile(progress.id()));
+        assertThat(rejects).hasSize(4);
+        assertThat(rejects.get(0)).isEqualTo("line,reason,record");
+        assertThat(rejects.get(1)).startsWith("4,Invalid hours 'abc',");
+        assertThat(rejects.get(2)).startsWith("6,\"Total hours for user on " + day + " would exceed 24 (existing: 16.00, new: 9.00)\",");
+        assertThat(rejects.get(3)).startsWith("8,Expected 6 columns but found 2,");
+    }
+
+    @Test
+    void submit_shouldImportNdjsonAndFailJobOnUnreadableHeader() throws Exception {
+        String ndjson = "{\"customerId\":\"" + customerId + "\",\"userId\":\"" + userId + "\",\"categoryId\":\"" + categoryId
+            + "\",\"hours\":2.5,\"dateLogged\":\"" + day + "\"}\n{not json}\n";
+
+        TimesheetImportProgress progress = awaitFinished(submit(ndjson, TimesheetFormat.NDJSON));
+
+        assertThat(progress.status()).isEqualTo(TimesheetImportStatus.COMPLETED);
+        assertThat(progress.accepted()).isEqualTo(1);
+        assertThat(progress.rejected()).isEqualTo(1);
+        assertThat(Files.readAllLines(importService.rejectsFile(progress.id())).get(1)).startsWith("2,Malformed JSON record");
+
+        TimesheetImportProgress failed = awaitFinished(submit("customer_id,user_id,hours\n", TimesheetFormat.CSV));
+        assertThat(failed.status()).isEqualTo(TimesheetImportStatus.FAILED);
+        assertThat(failed.error()).isEqualTo("CSV header is missing column categoryid");
+    }
+
+    private TimesheetImportProgress submit(String content, TimesheetFormat format) {
+        return importService.submit(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private TimesheetImportProgress awaitFinished(TimesheetImportProgress submitted) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        TimesheetImportProgress progress = importService.progress(submitted.id());
+        while (progress.finishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            progress = importService.progress(submitted.id());
+        }
+        return progress;
+    }
+
+    private String row(String hours, LocalDate date, String note) {
+        return customerId + "," + userId + "," + categoryId + "," + hours + "," + date + "," + note;
+    }
+}
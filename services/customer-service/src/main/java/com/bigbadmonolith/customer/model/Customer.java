@@ -1,5 +1,6 @@
 package com.bigbadmonolith.customer.model;
 
+import com.bigbadmonolith.common.id.UuidV7;
 import jakarta.persistence.*;
 import java.time.Instant;
 import java.util.UUID;
@@ -29,7 +30,7 @@ public class Customer {
 
     @PrePersist
     protected void onCreate() {
-        if (id == null) id = UUID.randomUUID();
+        if (id == null) id = UuidV7.generate();
         createdAt = Instant.now();
         updatedAt = Instant.now();
     }
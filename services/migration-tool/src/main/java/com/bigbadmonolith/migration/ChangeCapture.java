@@ -0,0 +1,120 @@
+package com.bigbadmonolith.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records which legacy rows change while the monolith keeps running: triggers on the Derby
+ * tables write the table and id of every inserted, updated or deleted row to migration_changes,
+ * numbered in order. A delta pass reads the changed ids and looks the rows up again, so a row
+ * that is gone has been deleted.
+ * <p>
+ * Derby readers wait for uncommitted inserts, so a change numbered below the end of a pass but
+ * committed late is still seen by that pass rather than skipped.
+ */
+final class ChangeCapture {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeCapture.class);
+    private static final List<String> TABLES = List.of("users", "customers", "billing_categories", "billable_hours");
+
+    private ChangeCapture() {
+    }
+
+    /**
+     * Creates the change table and, on Derby, its triggers, unless they already exist. Must run
+     * before the full load starts reading, so that no change made during the load is missed.
+     */
+    static void install(ConnectionSource source) throws SQLException {
+        Connection connection = source.acquire();
+        try (Statement stmt = connection.createStatement()) {
+            if (!installed(connection)) {
+                stmt.executeUpdate("CREATE TABLE migration_changes (" +
+                        "change_id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, " +
+                        "table_name VARCHAR(64) NOT NULL, " +
+                        "row_id BIGINT NOT NULL)");
+                stmt.executeUpdate("CREATE INDEX migration_changes_table ON migration_changes (table_name, change_id)");
+            }
+            if (!connection.getMetaData().getDatabaseProductName().contains("Derby")) {
+                log.warn("Source is not Derby; changes must be written to migration_changes by other means");
+                return;
+            }
+            for (String table : TABLES) {
+                createTrigger(stmt, table, "insert", "AFTER INSERT ON " + table + " REFERENCING NEW AS changed",
+                        "('" + table + "', changed.id)");
+                // Both ids, in case an update changes the key.
+                createTrigger(stmt, table, "update", "AFTER UPDATE ON " + table + " REFERENCING OLD AS old_row NEW AS new_row",
+                        "('" + table + "', old_row.id), ('" + table + "', new_row.id)");
+                createTrigger(stmt, table, "delete", "AFTER DELETE ON " + table + " REFERENCING OLD AS changed",
+                        "('" + table + "', changed.id)");
+            }
+        } finally {
+            source.release(connection);
+        }
+    }
+
+    static boolean installed(Connection connection) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getTables(null, null, "MIGRATION_CHANGES", null)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * The number of the latest change, or 0 if nothing has changed.
+     */
+    static long latest(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(change_id), 0) FROM migration_changes")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * The distinct ids of the table's rows changed after one change number, up to another.
+     */
+    static List<Long> changedIds(Connection connection, String table, long after, long upTo) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT DISTINCT row_id FROM migration_changes " +
+                "WHERE table_name = ? AND change_id > ? AND change_id <= ? ORDER BY row_id")) {
+            stmt.setString(1, table);
+            stmt.setLong(2, after);
+            stmt.setLong(3, upTo);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Drops the changes every target has applied.
+     */
+    static int prune(Connection connection, long upTo) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM migration_changes WHERE change_id <= ?")) {
+            stmt.setLong(1, upTo);
+            return stmt.executeUpdate();
+        }
+    }
+
+    private static void createTrigger(Statement stmt, String table, String operation, String event, String values)
+            throws SQLException {
+        String name = ("migration_" + table + "_" + operation).toUpperCase();
+        try (PreparedStatement exists = stmt.getConnection().prepareStatement(
+                "SELECT 1 FROM SYS.SYSTRIGGERS WHERE TRIGGERNAME = ?")) {
+            exists.setString(1, name);
+            try (ResultSet rs = exists.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+        stmt.executeUpdate("CREATE TRIGGER " + name + " " + event +
+                " FOR EACH ROW INSERT INTO migration_changes (table_name, row_id) VALUES " + values);
+    }
+}
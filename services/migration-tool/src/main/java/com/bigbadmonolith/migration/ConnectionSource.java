@@ -0,0 +1,50 @@
+package com.bigbadmonolith.migration;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Hands out connections to one database. The migration takes a connection for each reader and
+ * writer thread and gives it back when the thread is done with it.
+ */
+public interface ConnectionSource {
+
+    Connection acquire() throws SQLException;
+
+    void release(Connection connection) throws SQLException;
+
+    /**
+     * Opens a new connection per {@link #acquire} and closes it on {@link #release}.
+     */
+    static ConnectionSource of(String url, String username, String password) {
+        return new ConnectionSource() {
+            @Override
+            public Connection acquire() throws SQLException {
+                return DriverManager.getConnection(url, username, password);
+            }
+
+            @Override
+            public void release(Connection connection) throws SQLException {
+                connection.close();
+            }
+        };
+    }
+
+    /**
+     * Always hands out the same connection and leaves it open; only safe when a single thread
+     * uses the database at a time.
+     */
+    static ConnectionSource shared(Connection connection) {
+        return new ConnectionSource() {
+            @Override
+            public Connection acquire() {
+                return connection;
+            }
+
+            @Override
+            public void release(Connection ignored) {
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.bigbadmonolith.migration;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Writes batches with PostgreSQL's COPY protocol. Each batch is encoded straight into a COPY
+ * into a session-local staging table and then merged into the target with one
+ * INSERT ... SELECT ... ON CONFLICT DO NOTHING, so a batch that is written twice still lands
+ * once, as with the batched upsert. The staging table empties itself when the batch commits.
+ */
+final class CopyBatchWriter {
+
+    private final Connection connection;
+    private final CopyManager copyManager;
+    private final CopyTextEncoder encoder;
+    private final String copySql;
+    private final String mergeSql;
+
+    CopyBatchWriter(Connection connection, TableMigration.CopyTarget target, int batchSize) throws SQLException {
+        this.connection = connection;
+        this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        this.encoder = new CopyTextEncoder(batchSize * 160);
+        String stage = "migration_stage_" + target.table();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TEMP TABLE IF NOT EXISTS " + stage + " (LIKE " + target.table() +
+                    " INCLUDING DEFAULTS) ON COMMIT DELETE ROWS");
+        }
+        this.copySql = "COPY " + stage + " (" + target.columns() + ") FROM STDIN";
+        this.mergeSql = "INSERT INTO " + target.table() + " (" + target.columns() + ") SELECT " + target.columns() +
+                " FROM " + stage + " ON CONFLICT DO NOTHING";
+    }
+
+    /**
+     * Loads one batch; the caller commits.
+     */
+    void write(List<Object[]> batch, int[] columns) throws SQLException {
+        encoder.reset();
+        for (Object[] row : batch) {
+            encoder.row(row, columns);
+        }
+        CopyIn copy = copyManager.copyIn(copySql);
+        try {
+            copy.writeToCopy(encoder.buffer(), 0, encoder.size());
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(mergeSql);
+        }
+    }
+
+    static boolean supports(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().contains("PostgreSQL");
+    }
+}
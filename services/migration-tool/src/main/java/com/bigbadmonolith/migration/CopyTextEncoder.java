@@ -0,0 +1,157 @@
+package com.bigbadmonolith.migration;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Encodes rows in PostgreSQL's COPY text format (tab-separated, {@code \N} for null, backslash
+ * escapes) into one reusable byte buffer, without building a string per row.
+ * <p>
+ * Timestamps are written as UTC instants, the same point in time that
+ * {@code PreparedStatement.setTimestamp} sends.
+ */
+final class CopyTextEncoder {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private byte[] buffer;
+    private int size;
+
+    CopyTextEncoder(int initialCapacity) {
+        this.buffer = new byte[Math.max(64, initialCapacity)];
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends one row: the values at {@code columns}, or all of them when {@code columns} is null.
+     */
+    void row(Object[] values, int[] columns) {
+        int count = columns == null ? values.length : columns.length;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                append((byte) '\t');
+            }
+            value(values[columns == null ? i : columns[i]]);
+        }
+        append((byte) '\n');
+    }
+
+    private void value(Object value) {
+        switch (value) {
+            case null -> {
+                append((byte) '\\');
+                append((byte) 'N');
+            }
+            case UUID uuid -> uuid(uuid);
+            case BigDecimal decimal -> ascii(decimal.toPlainString());
+            case Timestamp timestamp -> ascii(timestamp.toInstant().toString());
+            case String text -> text(text);
+            // java.sql.Date prints as yyyy-mm-dd; numbers need no escaping either
+            default -> ascii(value.toString());
+        }
+    }
+
+    private void uuid(UUID uuid) {
+        ensure(36);
+        hex(uuid.getMostSignificantBits() >>> 32, 8);
+        buffer[size++] = '-';
+        hex(uuid.getMostSignificantBits() >>> 16, 4);
+        buffer[size++] = '-';
+        hex(uuid.getMostSignificantBits(), 4);
+        buffer[size++] = '-';
+        hex(uuid.getLeastSignificantBits() >>> 48, 4);
+        buffer[size++] = '-';
+        hex(uuid.getLeastSignificantBits(), 12);
+    }
+
+    private void hex(long bits, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[size + i] = HEX[(int) (bits & 0xF)];
+            bits >>>= 4;
+        }
+        size += digits;
+    }
+
+    private void ascii(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[size++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * UTF-8 with COPY's backslash escapes for the characters that would end a field or a row.
+     */
+    private void text(String text) {
+        ensure(text.length() * 2);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> escape((byte) '\\');
+                case '\t' -> escape((byte) 't');
+                case '\n' -> escape((byte) 'n');
+                case '\r' -> escape((byte) 'r');
+                default -> {
+                    if (c < 0x80) {
+                        append((byte) c);
+                    } else {
+                        int codePoint = text.codePointAt(i);
+                        if (Character.isSupplementaryCodePoint(codePoint)) {
+                            i++;
+                        }
+                        if (Character.isSurrogate(c) && codePoint == c) {
+                            // A lone surrogate has no UTF-8 encoding; PostgreSQL would reject the whole batch.
+                            append((byte) '?');
+                        } else {
+                            utf8(codePoint);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void escape(byte code) {
+        append((byte) '\\');
+        append(code);
+    }
+
+    private void utf8(int codePoint) {
+        ensure(4);
+        if (codePoint < 0x800) {
+            buffer[size++] = (byte) (0xC0 | codePoint >> 6);
+        } else if (codePoint < 0x10000) {
+            buffer[size++] = (byte) (0xE0 | codePoint >> 12);
+            buffer[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        } else {
+            buffer[size++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            buffer[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        }
+        buffer[size++] = (byte) (0x80 | codePoint & 0x3F);
+    }
+
+    private void append(byte b) {
+        ensure(1);
+        buffer[size++] = b;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.bigbadmonolith.migration;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Applies the changes {@link ChangeCapture} recorded for one table since the targets' watermarks:
+ * the changed rows are read from Derby again and written over the migrated ones, and the rows
+ * that are gone are deleted. Parents have to be written before their children but deleted
+ * after them, so a pass runs {@link #upsert} over all tables and then {@link #delete} in reverse;
+ * the watermarks move with the deletes. Both steps can be repeated, so a failed pass is simply
+ * run again.
+ */
+class DeltaMigration {
+
+    private final MigrationSettings settings;
+
+    DeltaMigration(MigrationSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Writes the table's changed rows that still exist to both targets, one transaction per batch
+     * and target, and returns the changes, with the rows that no longer exist as deleted.
+     */
+    Changes upsert(TableMigration table, MigrationEndpoints endpoints, long upTo) throws SQLException {
+        return upsert(table, endpoints, upTo, null);
+    }
+
+    /**
+     * As {@link #upsert(TableMigration, MigrationEndpoints, long)}, adding to {@code touched} the
+     * derived keys of every changed row, as it is in the targets before the pass and as written.
+     */
+    Changes upsert(TableMigration table, MigrationEndpoints endpoints, long upTo, DerivedTables.Touched touched)
+            throws SQLException {
+        ConnectionSource serviceTarget = endpoints.target(table.target());
+        long after = Math.min(
+                MigrationCheckpoints.watermark(serviceTarget, table.table(), MigrationCheckpoints.SERVICE),
+                MigrationCheckpoints.watermark(endpoints.reporting(), table.table(), MigrationCheckpoints.REPORTING));
+        TableMigration.Delta delta = table.delta();
+        int upserted = 0;
+        List<UUID> deleted = new ArrayList<>();
+
+        Connection derby = endpoints.source().acquire();
+        try {
+            List<Long> ids = ChangeCapture.changedIds(derby, table.table(), after, upTo);
+            for (int from = 0; from < ids.size(); from += settings.batchSize()) {
+                List<Long> batch = ids.subList(from, Math.min(ids.size(), from + settings.batchSize()));
+                List<Object[]> rows = new ArrayList<>(batch.size());
+                Set<Long> found = read(derby, table, batch, rows);
+                for (long legacyId : batch) {
+                    if (!found.contains(legacyId)) {
+                        deleted.add(delta.newId().apply(legacyId));
+                    }
+                }
+                if (touched != null) {
+                    List<UUID> newIds = batch.stream().map(legacyId -> delta.newId().apply(legacyId)).toList();
+                    Connection service = serviceTarget.acquire();
+                    Connection reporting = endpoints.reporting().acquire();
+                    try {
+                        touched.addCurrent(service, reporting, newIds);
+                    } finally {
+                        endpoints.reporting().release(reporting);
+                        serviceTarget.release(service);
+                    }
+                    touched.addWritten(rows);
+                }
+                if (!rows.isEmpty()) {
+                    transaction(serviceTarget, connection -> write(connection, delta.serviceTable(), delta.serviceUpdatePg(),
+                            table.serviceUpsertPg(), table.serviceUpsertH2(), null, rows));
+                    transaction(endpoints.reporting(), connection -> write(connection, delta.reportTable(), delta.reportUpdatePg(),
+                            table.reportUpsertPg(), table.reportUpsertH2(), table.reportColumns(), rows));
+                    upserted += rows.size();
+                }
+            }
+        } finally {
+            endpoints.source().release(derby);
+        }
+        return new Changes(upserted, deleted);
+    }
+
+    /**
+     * Deletes the table's deleted rows from both targets and moves each target's watermark to
+     * {@code upTo} in the same transaction.
+     */
+    void delete(TableMigration table, MigrationEndpoints endpoints, Changes changes, long upTo) throws SQLException {
+        transaction(endpoints.target(table.target()), connection -> {
+            deleteById(connection, table.delta().serviceTable(), changes.deleted());
+            MigrationCheckpoints.recordWatermark(connection, table.table(), MigrationCheckpoints.SERVICE, upTo);
+        });
+        transaction(endpoints.reporting(), connection -> {
+            deleteById(connection, table.delta().reportTable(), changes.deleted());
+            MigrationCheckpoints.recordWatermark(connection, table.table(), MigrationCheckpoints.REPORTING, upTo);
+        });
+    }
+
+    /**
+     * Reads the rows with the given legacy ids into {@code rows}, leaving out those the table's
+     * reader skips, and returns the ids found.
+     */
+    private static Set<Long> read(Connection derby, TableMigration table, List<Long> ids, List<Object[]> rows)
+            throws SQLException {
+        Set<Long> found = new HashSet<>();
+        try (PreparedStatement stmt = derby.prepareStatement(
+                table.selectSql() + " WHERE id IN (" + "?, ".repeat(ids.size() - 1) + "?)")) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setLong(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    found.add(rs.getLong("id"));
+                    Object[] row = table.reader().read(rs);
+                    if (row != null) {
+                        rows.add(row);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static void write(Connection connection, String table, String updatePg, String insertPg, String h2Sql,
+                              int[] columns, List<Object[]> rows) throws SQLException {
+        if (updatePg == null) {
+            // The new id comes first in the values of both targets.
+            deleteById(connection, table, rows.stream().map(row -> (UUID) row[0]).toList());
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                MigrationService.upsertSql(connection, updatePg != null ? updatePg : insertPg, h2Sql))) {
+            for (Object[] row : rows) {
+                MigrationPipeline.bind(stmt, row, columns);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void deleteById(Connection connection, String table, List<UUID> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+            for (UUID id : ids) {
+                stmt.setObject(1, id);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void transaction(ConnectionSource target, Work work) throws SQLException {
+        Connection connection = target.acquire();
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            connection.setAutoCommit(false);
+            try {
+                work.run(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } finally {
+            try {
+                connection.setAutoCommit(autoCommit);
+            } finally {
+                target.release(connection);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Work {
+        void run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * What one pass found for a table: the rows written and the migrated ids of the rows deleted.
+     */
+    record Changes(int upserted, List<UUID> deleted) {
+        int applied() {
+            return upserted + deleted.size();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.bigbadmonolith.migration;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs named tasks on a fixed number of threads, starting each one only once every task it
+ * depends on has completed; used to copy tables in foreign key order while tables that do not
+ * depend on each other are copied at the same time. The first failure cancels the tasks that
+ * are still running and is rethrown.
+ */
+final class DependencyScheduler {
+
+    @FunctionalInterface
+    interface Task {
+        void run() throws Exception;
+    }
+
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+    DependencyScheduler add(String name, Task task, String... dependsOn) {
+        if (tasks.putIfAbsent(name, task) != null) {
+            throw new IllegalArgumentException("Task " + name + " is already scheduled");
+        }
+        dependencies.put(name, Set.of(dependsOn));
+        return this;
+    }
+
+    void run(int parallelism) throws SQLException {
+        checkAcyclic();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "migration-table-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<String> completion = new ExecutorCompletionService<>(executor);
+        Set<String> done = new HashSet<>();
+        Set<String> started = new HashSet<>();
+        try {
+            while (done.size() < tasks.size()) {
+                for (Map.Entry<String, Task> entry : tasks.entrySet()) {
+                    String name = entry.getKey();
+                    if (!started.contains(name) && done.containsAll(dependencies.get(name))) {
+                        started.add(name);
+                        Task task = entry.getValue();
+                        completion.submit(() -> {
+                            task.run();
+                            return name;
+                        });
+                    }
+                }
+                done.add(completion.take().get());
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sql) {
+                throw sql;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for migration tasks", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fails on a dependency that is not scheduled or on a cycle, either of which would otherwise
+     * leave {@link #run} waiting forever.
+     */
+    private void checkAcyclic() {
+        Set<String> resolved = new HashSet<>();
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+                for (String dependency : entry.getValue()) {
+                    if (!tasks.containsKey(dependency)) {
+                        throw new IllegalArgumentException("Task " + entry.getKey() + " depends on unknown task " + dependency);
+                    }
+                }
+                if (!resolved.contains(entry.getKey()) && resolved.containsAll(entry.getValue())) {
+                    resolved.add(entry.getKey());
+                    progress = true;
+                }
+            }
+        }
+        if (resolved.size() < tasks.size()) {
+            Set<String> cyclic = new TreeSet<>(tasks.keySet());
+            cyclic.removeAll(resolved);
+            throw new IllegalArgumentException("Tasks depend on each other in a cycle: " + cyclic);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.bigbadmonolith.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The tables the services derive from the hours and keep up to date on every write: the
+ * per-user daily ledger and the revenue counters in billing, and the monthly rollups in
+ * reporting. The migration writes the hour tables directly, so after the full load these are
+ * rebuilt from the migrated hours, with the same queries as the Flyway migrations that created
+ * them, and a delta pass recomputes only the keys its changes touched (see {@link Touched}).
+ * A target without one of the tables (an older schema) is left as it is.
+ * <p>
+ * Months billing has archived are no longer in billable_hours: their revenue counter totals come
+ * from the archive catalog, as the billing service's counter verification expects, and their
+ * ledger days are kept as they are.
+ * <p>
+ * The reporting service's in-memory columnar store, when enabled, is not a table; it is loaded
+ * when a reporting node starts, so nodes running during the migration have to be restarted.
+ */
+final class DerivedTables {
+
+    private static final Logger log = LoggerFactory.getLogger(DerivedTables.class);
+
+    static final String DAILY_HOURS = "user_daily_hours";
+    static final String REVENUE_COUNTERS = "revenue_counters";
+    static final String MONTHLY_ROLLUPS = "report_monthly_rollups";
+    static final String ARCHIVE_CATALOG = "archive_catalog";
+    static final String ARCHIVE_CUSTOMER_TOTALS = "archive_customer_totals";
+
+    private static final String DAILY_HOURS_SELECT =
+            "SELECT user_id, date_logged, SUM(hours), CASE WHEN SUM(hours) > 24 THEN SUM(hours) END FROM billable_hours ";
+    private static final String INSERT_DAILY_HOURS =
+            "INSERT INTO user_daily_hours (user_id, date_logged, total_hours, backfilled_over_limit) ";
+    private static final String INSERT_COUNTER =
+            "INSERT INTO revenue_counters (scope, scope_key, stripe, revenue, hours, entries) ";
+    private static final String INSERT_ROLLUPS =
+            "INSERT INTO report_monthly_rollups " +
+            "(customer_id, category_id, user_id, period_year, period_month, total_hours, total_revenue, entry_count) " +
+            "SELECT customer_id, category_id, user_id, EXTRACT(YEAR FROM date_logged), EXTRACT(MONTH FROM date_logged), " +
+            "SUM(hours), SUM(hours * rate_snapshot), COUNT(*) FROM report_billable_hours ";
+    private static final String GROUP_ROLLUPS =
+            "GROUP BY customer_id, category_id, user_id, EXTRACT(YEAR FROM date_logged), EXTRACT(MONTH FROM date_logged)";
+
+    private DerivedTables() {
+    }
+
+    /**
+     * Rebuilds every derived table the targets have, one transaction per table, so readers see
+     * either the old or the new contents. Reads every hour; run once, after the full load.
+     */
+    static void refresh(MigrationEndpoints endpoints) throws SQLException {
+        rebuild(endpoints.billing(), DAILY_HOURS, (connection, archive) -> {
+            // Archived days have no hours left to rebuild them from.
+            String deleteSql = "DELETE FROM user_daily_hours" + (archive
+                    ? " WHERE TO_CHAR(date_logged, 'YYYY-MM') NOT IN (SELECT period FROM archive_catalog)" : "");
+            return update(connection, deleteSql)
+                    + update(connection, INSERT_DAILY_HOURS + DAILY_HOURS_SELECT + "GROUP BY user_id, date_logged");
+        });
+        rebuild(endpoints.billing(), REVENUE_COUNTERS, (connection, archive) -> {
+            update(connection, "DELETE FROM revenue_counters");
+            return update(connection, INSERT_COUNTER +
+                    "SELECT 'ALL', '*', 0, COALESCE(SUM(revenue), 0), COALESCE(SUM(hours), 0), COALESCE(SUM(entries), 0) FROM (" +
+                    "SELECT SUM(hours * rate_snapshot) AS revenue, SUM(hours) AS hours, COUNT(*) AS entries FROM billable_hours" +
+                    (archive ? " UNION ALL SELECT revenue, hours, entries FROM archive_catalog" : "") + ") t")
+                    + update(connection, INSERT_COUNTER + "SELECT 'MONTH', scope_key, 0, SUM(revenue), SUM(hours), SUM(entries) FROM (" +
+                    "SELECT TO_CHAR(date_logged, 'YYYY-MM') AS scope_key, hours * rate_snapshot AS revenue, hours, 1 AS entries " +
+                    "FROM billable_hours" +
+                    (archive ? " UNION ALL SELECT period, revenue, hours, entries FROM archive_catalog" : "") +
+                    ") t GROUP BY scope_key")
+                    + update(connection, INSERT_COUNTER + "SELECT 'CUSTOMER', scope_key, 0, SUM(revenue), SUM(hours), SUM(entries) FROM (" +
+                    "SELECT CAST(customer_id AS VARCHAR) AS scope_key, hours * rate_snapshot AS revenue, hours, 1 AS entries " +
+                    "FROM billable_hours" +
+                    (archive ? " UNION ALL SELECT CAST(customer_id AS VARCHAR), revenue, hours, entries FROM archive_customer_totals" : "") +
+                    ") t GROUP BY scope_key");
+        });
+        rebuild(endpoints.reporting(), MONTHLY_ROLLUPS, (connection, archive) ->
+                update(connection, "DELETE FROM report_monthly_rollups") + update(connection, INSERT_ROLLUPS + GROUP_ROLLUPS));
+    }
+
+    /**
+     * Recomputes the derived rows of the keys a delta pass touched, one transaction per table:
+     * each touched ledger day, month and customer counter and customer month of rollups is
+     * deleted and summed again from the hours it covers, and the all-time counter from the
+     * month counters. The cost follows the size of the delta, not of the tables.
+     */
+    static void refresh(MigrationEndpoints endpoints, Touched touched) throws SQLException {
+        if (touched.isEmpty()) {
+            return;
+        }
+        rebuild(endpoints.billing(), DAILY_HOURS, (connection, archive) -> {
+            int rows = 0;
+            for (UserDay day : touched.userDays) {
+                update(connection, "DELETE FROM user_daily_hours WHERE user_id = ? AND date_logged = ?", day.userId(), day.date());
+                rows += update(connection, INSERT_DAILY_HOURS + DAILY_HOURS_SELECT +
+                        "WHERE user_id = ? AND date_logged = ? GROUP BY user_id, date_logged", day.userId(), day.date());
+            }
+            return rows;
+        });
+        rebuild(endpoints.billing(), REVENUE_COUNTERS, (connection, archive) -> {
+            int rows = 0;
+            for (YearMonth month : touched.months) {
+                update(connection, "DELETE FROM revenue_counters WHERE scope = 'MONTH' AND scope_key = ?", month.toString());
+                rows += update(connection, INSERT_COUNTER + "SELECT 'MONTH', ?, 0, SUM(revenue), SUM(hours), SUM(entries) FROM (" +
+                        "SELECT SUM(hours * rate_snapshot) AS revenue, SUM(hours) AS hours, COUNT(*) AS entries " +
+                        "FROM billable_hours WHERE date_logged BETWEEN ? AND ?" +
+                        (archive ? " UNION ALL SELECT revenue, hours, entries FROM archive_catalog WHERE period = ?" : "") +
+                        ") t HAVING SUM(entries) > 0", archive
+                        ? new Object[] {month.toString(), month.atDay(1), month.atEndOfMonth(), month.toString()}
+                        : new Object[] {month.toString(), month.atDay(1), month.atEndOfMonth()});
+            }
+            for (UUID customerId : touched.customers) {
+                update(connection, "DELETE FROM revenue_counters WHERE scope = 'CUSTOMER' AND scope_key = ?", customerId.toString());
+                rows += update(connection, INSERT_COUNTER + "SELECT 'CUSTOMER', ?, 0, SUM(revenue), SUM(hours), SUM(entries) FROM (" +
+                        "SELECT SUM(hours * rate_snapshot) AS revenue, SUM(hours) AS hours, COUNT(*) AS entries " +
+                        "FROM billable_hours WHERE customer_id = ?" +
+                        (archive ? " UNION ALL SELECT revenue, hours, entries FROM archive_customer_totals WHERE customer_id = ?" : "") +
+                        ") t HAVING SUM(entries) > 0", archive
+                        ? new Object[] {customerId.toString(), customerId, customerId}
+                        : new Object[] {customerId.toString(), customerId});
+            }
+            // Every hour is in exactly one month, so the all-time total is the sum of the month counters.
+            update(connection, "DELETE FROM revenue_counters WHERE scope = 'ALL'");
+            return rows + update(connection, INSERT_COUNTER + "SELECT 'ALL', '*', 0, COALESCE(SUM(revenue), 0), " +
+                    "COALESCE(SUM(hours), 0), COALESCE(SUM(entries), 0) FROM revenue_counters WHERE scope = 'MONTH'");
+        });
+        rebuild(endpoints.reporting(), MONTHLY_ROLLUPS, (connection, archive) -> {
+            int rows = 0;
+            for (CustomerMonth key : touched.rollups) {
+                update(connection, "DELETE FROM report_monthly_rollups WHERE customer_id = ? AND period_year = ? AND period_month = ?",
+                        key.customerId(), key.month().getYear(), key.month().getMonthValue());
+                rows += update(connection, INSERT_ROLLUPS + "WHERE customer_id = ? AND date_logged BETWEEN ? AND ? " + GROUP_ROLLUPS,
+                        key.customerId(), key.month().atDay(1), key.month().atEndOfMonth());
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Whether the connection's current schema has the table.
+     */
+    static boolean exists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+        try (ResultSet rs = metaData.getTables(null, connection.getSchema(), name, null)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Whether the billing schema has the archive catalog, that is, may have archived months.
+     */
+    static boolean hasArchive(Connection billing) throws SQLException {
+        return exists(billing, ARCHIVE_CATALOG) && exists(billing, ARCHIVE_CUSTOMER_TOTALS);
+    }
+
+    private static void rebuild(ConnectionSource target, String table, Rebuild work) throws SQLException {
+        Connection connection = target.acquire();
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            if (!exists(connection, table)) {
+                log.debug("No {} in the target; nothing to refresh", table);
+                return;
+            }
+            boolean archive = hasArchive(connection);
+            connection.setAutoCommit(false);
+            int rows;
+            try {
+                rows = work.run(connection, archive);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+            log.info("Refreshed {} with {} row(s)", table, rows);
+        } finally {
+            try {
+                connection.setAutoCommit(autoCommit);
+            } finally {
+                target.release(connection);
+            }
+        }
+    }
+
+    private static int update(Connection connection, String sql, Object... params) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            return stmt.executeUpdate();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Rebuild {
+        /**
+         * Rewrites the table over the connection, in its transaction, and returns the rows written.
+         */
+        int run(Connection connection, boolean archive) throws SQLException;
+    }
+
+    /**
+     * The keys of the derived tables that a delta pass's hour changes touched: those of each
+     * changed hour as it was in the targets before the pass, and as it is written by the pass.
+     */
+    static final class Touched {
+
+        private final Set<UserDay> userDays = new HashSet<>();
+        private final Set<YearMonth> months = new HashSet<>();
+        private final Set<UUID> customers = new HashSet<>();
+        private final Set<CustomerMonth> rollups = new HashSet<>();
+
+        /**
+         * Adds the keys of the hours with the given ids as they are in the billing and reporting
+         * targets now, before the pass writes or deletes them.
+         */
+        void addCurrent(Connection billing, Connection reporting, List<UUID> ids) throws SQLException {
+            if (ids.isEmpty()) {
+                return;
+            }
+            String in = " WHERE id IN (" + "?, ".repeat(ids.size() - 1) + "?)";
+            try (PreparedStatement stmt = billing.prepareStatement(
+                    "SELECT customer_id, user_id, date_logged FROM billable_hours" + in)) {
+                bind(stmt, ids);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        addHour(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getDate(3).toLocalDate());
+                    }
+                }
+            }
+            try (PreparedStatement stmt = reporting.prepareStatement(
+                    "SELECT customer_id, date_logged FROM report_billable_hours" + in)) {
+                bind(stmt, ids);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rollups.add(new CustomerMonth(rs.getObject(1, UUID.class), YearMonth.from(rs.getDate(2).toLocalDate())));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds the keys of hours the pass writes, as the values of the billable_hours upsert.
+         */
+        void addWritten(List<Object[]> rows) {
+            for (Object[] row : rows) {
+                LocalDate date = ((java.sql.Date) row[6]).toLocalDate();
+                addHour((UUID) row[1], (UUID) row[2], date);
+                rollups.add(new CustomerMonth((UUID) row[1], YearMonth.from(date)));
+            }
+        }
+
+        boolean isEmpty() {
+            return userDays.isEmpty() && rollups.isEmpty();
+        }
+
+        private void addHour(UUID customerId, UUID userId, LocalDate date) {
+            userDays.add(new UserDay(userId, date));
+            months.add(YearMonth.from(date));
+            customers.add(customerId);
+        }
+
+        private static void bind(PreparedStatement stmt, List<UUID> ids) throws SQLException {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setObject(i + 1, ids.get(i));
+            }
+        }
+    }
+
+    private record UserDay(UUID userId, LocalDate date) {}
+
+    private record CustomerMonth(UUID customerId, YearMonth month) {}
+}
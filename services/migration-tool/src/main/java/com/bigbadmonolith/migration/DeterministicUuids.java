@@ -0,0 +1,88 @@
+package com.bigbadmonolith.migration;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * Derives the migrated ids of one legacy entity type: the name-based (version 3) UUID of
+ * "type:legacyId", equal to {@code UUID.nameUUIDFromBytes} over that string in UTF-8. The name
+ * is written into a buffer instead of being built as a string, and each thread reuses its own
+ * MD5 digest and buffers, so deriving an id allocates only the UUID.
+ */
+final class DeterministicUuids {
+
+    private static final ThreadLocal<Hasher> HASHERS = ThreadLocal.withInitial(Hasher::new);
+
+    private final byte[] prefix;
+
+    DeterministicUuids(String entityType) {
+        this.prefix = (entityType + ":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    UUID of(long legacyId) {
+        return HASHERS.get().uuid(prefix, legacyId);
+    }
+
+    private static final class Hasher {
+        private final MessageDigest md5;
+        private byte[] name = new byte[64];
+        private final byte[] hash = new byte[16];
+
+        Hasher() {
+            try {
+                md5 = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new InternalError("MD5 not supported", e);
+            }
+        }
+
+        UUID uuid(byte[] prefix, long legacyId) {
+            if (name.length < prefix.length + 20) {
+                name = new byte[prefix.length + 20];
+            }
+            System.arraycopy(prefix, 0, name, 0, prefix.length);
+            int length = prefix.length + writeDecimal(legacyId, prefix.length);
+            md5.update(name, 0, length);
+            try {
+                md5.digest(hash, 0, hash.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            hash[6] = (byte) (hash[6] & 0x0f | 0x30);  // version 3
+            hash[8] = (byte) (hash[8] & 0x3f | 0x80);  // IETF variant
+            return new UUID(bigEndian(0), bigEndian(8));
+        }
+
+        /**
+         * Writes the value as {@link Long#toString} would and returns the number of bytes written.
+         */
+        private int writeDecimal(long value, int offset) {
+            int digits = 1;
+            // Counts and divides on the negative value, which also covers Long.MIN_VALUE.
+            long negative = value < 0 ? value : -value;
+            for (long rest = negative / 10; rest != 0; rest /= 10) {
+                digits++;
+            }
+            int length = value < 0 ? digits + 1 : digits;
+            if (value < 0) {
+                name[offset] = '-';
+            }
+            for (int i = offset + length - 1; i >= offset + length - digits; i--) {
+                name[i] = (byte) ('0' - negative % 10);
+                negative /= 10;
+            }
+            return length;
+        }
+
+        private long bigEndian(int offset) {
+            long bits = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                bits = bits << 8 | hash[i] & 0xff;
+            }
+            return bits;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.bigbadmonolith.migration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A map from primitive long keys, with open addressing and linear probing, so that lookups
+ * neither box the key nor allocate. Not thread-safe: the migration fills it before the reader
+ * threads that look keys up are started.
+ */
+final class LongKeyMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    LongKeyMap() {
+        this(16);
+    }
+
+    LongKeyMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        // At most half full, so probe sequences stay short.
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * A boxed copy, for tests and validation.
+     */
+    @SuppressWarnings("unchecked")
+    Map<Long, V> toMap() {
+        Map<Long, V> map = new HashMap<>(size * 2);
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                map.put(keys[i], (V) values[i]);
+            }
+        }
+        return map;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = slot(oldKeys[j], mask);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        // Fibonacci hashing spreads sequential legacy ids over the table.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
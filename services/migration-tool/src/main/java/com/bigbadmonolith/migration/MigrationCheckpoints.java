@@ -0,0 +1,133 @@
+package com.bigbadmonolith.migration;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The chunks of each legacy table that a target database has fully committed, kept in a
+ * migration_checkpoints table in that database. A chunk is recorded by the writer that commits
+ * its last batch, right after that commit, so a crash in between only means the chunk is copied
+ * again on the next run.
+ * <p>
+ * Each target also keeps, per legacy table, the last {@link ChangeCapture} change it has applied
+ * in migration_watermarks, where the next delta pass starts.
+ */
+final class MigrationCheckpoints {
+
+    static final String SERVICE = "service";
+    static final String REPORTING = "reporting";
+
+    private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS migration_checkpoints (" +
+            "source_table VARCHAR(64) NOT NULL, " +
+            "target VARCHAR(16) NOT NULL, " +
+            "first_id BIGINT NOT NULL, " +
+            "last_id BIGINT NOT NULL, " +
+            "rows_copied INTEGER NOT NULL, " +
+            "completed_at TIMESTAMP WITH TIME ZONE NOT NULL, " +
+            "PRIMARY KEY (source_table, target, first_id))";
+    private static final String CREATE_WATERMARKS_SQL = "CREATE TABLE IF NOT EXISTS migration_watermarks (" +
+            "source_table VARCHAR(64) NOT NULL, " +
+            "target VARCHAR(16) NOT NULL, " +
+            "change_id BIGINT NOT NULL, " +
+            "applied_at TIMESTAMP WITH TIME ZONE NOT NULL, " +
+            "PRIMARY KEY (source_table, target))";
+    private static final String RECORD_PG = "INSERT INTO migration_checkpoints " +
+            "(source_table, target, first_id, last_id, rows_copied, completed_at) VALUES (?, ?, ?, ?, ?, NOW()) " +
+            "ON CONFLICT (source_table, target, first_id) DO UPDATE SET last_id = EXCLUDED.last_id, " +
+            "rows_copied = EXCLUDED.rows_copied, completed_at = EXCLUDED.completed_at";
+    private static final String RECORD_H2 = "MERGE INTO migration_checkpoints " +
+            "(source_table, target, first_id, last_id, rows_copied, completed_at) KEY (source_table, target, first_id) " +
+            "VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+    private static final String WATERMARK_PG = "INSERT INTO migration_watermarks (source_table, target, change_id, applied_at) " +
+            "VALUES (?, ?, ?, NOW()) ON CONFLICT (source_table, target) DO UPDATE SET change_id = EXCLUDED.change_id, " +
+            "applied_at = EXCLUDED.applied_at";
+    private static final String WATERMARK_H2 = "MERGE INTO migration_watermarks (source_table, target, change_id, applied_at) " +
+            "KEY (source_table, target) VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
+
+    private MigrationCheckpoints() {
+    }
+
+    /**
+     * Creates the bookkeeping tables in every target database that lacks them.
+     */
+    static void createTables(MigrationEndpoints endpoints) throws SQLException {
+        for (ConnectionSource target : List.of(endpoints.users(), endpoints.customers(), endpoints.billing(), endpoints.reporting())) {
+            Connection connection = target.acquire();
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(CREATE_SQL);
+                stmt.execute(CREATE_WATERMARKS_SQL);
+            } finally {
+                target.release(connection);
+            }
+        }
+    }
+
+    /**
+     * The rows copied per completed chunk of the table. A chunk only counts with the same bounds
+     * it was recorded with, so a changed chunk size or a grown last chunk is copied again.
+     */
+    static Map<MigrationPipeline.IdRange, Integer> completed(ConnectionSource target, String table, String side)
+            throws SQLException {
+        Map<MigrationPipeline.IdRange, Integer> chunks = new HashMap<>();
+        Connection connection = target.acquire();
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT first_id, last_id, rows_copied " +
+                "FROM migration_checkpoints WHERE source_table = ? AND target = ?")) {
+            stmt.setString(1, table);
+            stmt.setString(2, side);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    chunks.put(new MigrationPipeline.IdRange(rs.getLong(1), rs.getLong(2)), rs.getInt(3));
+                }
+            }
+        } finally {
+            target.release(connection);
+        }
+        return chunks;
+    }
+
+    /**
+     * Records a chunk as complete in the connection's current transaction.
+     */
+    static void record(Connection connection, String table, String side, MigrationPipeline.IdRange chunk, int rows)
+            throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(MigrationService.upsertSql(connection, RECORD_PG, RECORD_H2))) {
+            stmt.setString(1, table);
+            stmt.setString(2, side);
+            stmt.setLong(3, chunk.from());
+            stmt.setLong(4, chunk.to());
+            stmt.setInt(5, rows);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * The last change of the table the target has applied, or 0 before the first delta pass.
+     */
+    static long watermark(ConnectionSource target, String table, String side) throws SQLException {
+        Connection connection = target.acquire();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT change_id FROM migration_watermarks WHERE source_table = ? AND target = ?")) {
+            stmt.setString(1, table);
+            stmt.setString(2, side);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } finally {
+            target.release(connection);
+        }
+    }
+
+    /**
+     * Moves the table's watermark in the connection's current transaction.
+     */
+    static void recordWatermark(Connection connection, String table, String side, long changeId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(MigrationService.upsertSql(connection, WATERMARK_PG, WATERMARK_H2))) {
+            stmt.setString(1, table);
+            stmt.setString(2, side);
+            stmt.setLong(3, changeId);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.bigbadmonolith.migration;
+
+import java.sql.Connection;
+
+/**
+ * The legacy Derby database and the four PostgreSQL service schemas a migration copies into.
+ */
+public record MigrationEndpoints(ConnectionSource source, ConnectionSource users, ConnectionSource customers,
+                                 ConnectionSource billing, ConnectionSource reporting) {
+
+    /**
+     * Endpoints over already open connections, for a run that uses one thread per database.
+     */
+    public static MigrationEndpoints shared(Connection source, Connection users, Connection customers,
+                                            Connection billing, Connection reporting) {
+        return new MigrationEndpoints(ConnectionSource.shared(source), ConnectionSource.shared(users),
+                ConnectionSource.shared(customers), ConnectionSource.shared(billing), ConnectionSource.shared(reporting));
+    }
+
+    ConnectionSource target(TableMigration.Target target) {
+        return switch (target) {
+            case USERS -> users;
+            case CUSTOMERS -> customers;
+            case BILLING -> billing;
+        };
+    }
+}
@@ -0,0 +1,340 @@
+package com.bigbadmonolith.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copies one table: reader threads take chunks of legacy ids in order and hand batches of rows
+ * through a bounded queue per target to writer threads, which apply each batch to the service
+ * schema or the reporting schema as one JDBC batch (or one COPY, in COPY mode) and commit it.
+ * The service and reporting writes therefore run concurrently, and a slow target holds the
+ * readers back instead of the rows piling up in memory.
+ * <p>
+ * Once every batch of a chunk is committed, the chunk is recorded in {@link MigrationCheckpoints}.
+ * A chunk that both targets have recorded is skipped, so a rerun after a failure resumes with
+ * the first incomplete chunk.
+ * <p>
+ * The end-of-rows batch tells a writer that the readers are done. The first failure stops
+ * every thread of the table and is rethrown.
+ */
+class MigrationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(MigrationPipeline.class);
+    private static final long POLL_MILLIS = 100;
+    private static final Batch END_OF_ROWS = new Batch(null, List.of(), true);
+
+    private final MigrationSettings settings;
+
+    MigrationPipeline(MigrationSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Copies the chunks of the table that are not complete yet with up to the given number of
+     * readers, and returns the number of rows copied, counting those of the skipped chunks.
+     */
+    int run(TableMigration table, MigrationEndpoints endpoints, int readers) throws SQLException {
+        ConnectionSource serviceTarget = endpoints.target(table.target());
+        Map<IdRange, Integer> serviceDone = MigrationCheckpoints.completed(serviceTarget, table.table(), MigrationCheckpoints.SERVICE);
+        Map<IdRange, Integer> reportDone = MigrationCheckpoints.completed(endpoints.reporting(), table.table(), MigrationCheckpoints.REPORTING);
+        List<IdRange> chunks = chunks(table, endpoints.source());
+        Queue<IdRange> pending = new ConcurrentLinkedQueue<>();
+        AtomicInteger migrated = new AtomicInteger();
+        for (IdRange chunk : chunks) {
+            if (serviceDone.containsKey(chunk) && reportDone.containsKey(chunk)) {
+                migrated.addAndGet(serviceDone.get(chunk));
+            } else {
+                pending.add(chunk);
+            }
+        }
+        if (pending.size() < chunks.size()) {
+            log.info("Resuming {}: {} of {} chunk(s) already complete", table.table(), chunks.size() - pending.size(), chunks.size());
+        }
+
+        int readerThreads = Math.min(readers, pending.size());
+        int writers = settings.writers();
+        BlockingQueue<Batch> serviceQueue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        BlockingQueue<Batch> reportQueue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(readerThreads + 2 * writers, runnable -> {
+            Thread thread = new Thread(runnable, "migration-" + table.table() + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        try {
+            for (int i = 0; i < writers; i++) {
+                completion.submit(guarded(failure, () -> write(table.table(), MigrationCheckpoints.SERVICE, serviceTarget,
+                        table.serviceUpsertPg(), table.serviceUpsertH2(), table.serviceCopy(), null, serviceQueue, failure)));
+                completion.submit(guarded(failure, () -> write(table.table(), MigrationCheckpoints.REPORTING, endpoints.reporting(),
+                        table.reportUpsertPg(), table.reportUpsertH2(), table.reportCopy(), table.reportColumns(), reportQueue, failure)));
+            }
+            List<Future<Void>> readerFutures = new ArrayList<>();
+            for (int i = 0; i < readerThreads; i++) {
+                readerFutures.add(completion.submit(guarded(failure, () ->
+                        read(table, endpoints.source(), pending, serviceQueue, reportQueue, migrated, failure))));
+            }
+
+            int readersLeft = readerThreads;
+            if (readersLeft == 0) {
+                endOfRows(serviceQueue, reportQueue, writers, failure);
+            }
+            for (int finished = 0; finished < readerThreads + 2 * writers; finished++) {
+                Future<Void> future = completion.take();
+                future.get();
+                if (readerFutures.contains(future) && --readersLeft == 0) {
+                    endOfRows(serviceQueue, reportQueue, writers, failure);
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = failure.get() != null ? failure.get() : e.getCause();
+            if (cause instanceof SQLException sql) {
+                throw sql;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Migration of " + table.table() + " failed: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while migrating " + table.table(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return migrated.get();
+    }
+
+    private void read(TableMigration table, ConnectionSource source, Queue<IdRange> pending,
+                      BlockingQueue<Batch> serviceQueue, BlockingQueue<Batch> reportQueue,
+                      AtomicInteger migrated, AtomicReference<Throwable> failure) throws SQLException, InterruptedException {
+        Connection connection = source.acquire();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                table.selectSql() + " WHERE id BETWEEN ? AND ? ORDER BY id")) {
+            stmt.setFetchSize(settings.batchSize());
+            IdRange chunk;
+            while ((chunk = pending.poll()) != null) {
+                ChunkProgress serviceProgress = new ChunkProgress(chunk);
+                ChunkProgress reportProgress = new ChunkProgress(chunk);
+                stmt.setLong(1, chunk.from());
+                stmt.setLong(2, chunk.to());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    List<Object[]> batch = new ArrayList<>(settings.batchSize());
+                    while (rs.next()) {
+                        Object[] row = table.reader().read(rs);
+                        if (row == null) {
+                            continue;
+                        }
+                        batch.add(row);
+                        if (batch.size() == settings.batchSize()) {
+                            // Both writers only read the batch, so they can share it.
+                            put(serviceQueue, serviceProgress.next(batch, false), failure);
+                            put(reportQueue, reportProgress.next(batch, false), failure);
+                            migrated.addAndGet(batch.size());
+                            batch = new ArrayList<>(settings.batchSize());
+                        }
+                    }
+                    // Sent even when empty, so that an empty chunk is recorded as well.
+                    put(serviceQueue, serviceProgress.next(batch, true), failure);
+                    put(reportQueue, reportProgress.next(batch, true), failure);
+                    migrated.addAndGet(batch.size());
+                }
+            }
+        } finally {
+            source.release(connection);
+        }
+    }
+
+    private void write(String table, String side, ConnectionSource target, String pgSql, String h2Sql,
+                       TableMigration.CopyTarget copyTarget, int[] columns, BlockingQueue<Batch> queue,
+                       AtomicReference<Throwable> failure) throws SQLException, InterruptedException {
+        Connection connection = target.acquire();
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(MigrationService.upsertSql(connection, pgSql, h2Sql))) {
+                CopyBatchWriter copy = settings.writeMode() == MigrationSettings.WriteMode.COPY && copyTarget != null
+                        && CopyBatchWriter.supports(connection) ? new CopyBatchWriter(connection, copyTarget, settings.batchSize()) : null;
+                Batch batch;
+                while ((batch = take(queue, failure)) != END_OF_ROWS) {
+                    if (!batch.rows().isEmpty()) {
+                        if (copy != null) {
+                            copy.write(batch.rows(), columns);
+                        } else {
+                            for (Object[] row : batch.rows()) {
+                                bind(stmt, row, columns);
+                                stmt.addBatch();
+                            }
+                            stmt.executeBatch();
+                        }
+                        connection.commit();
+                    }
+                    if (batch.progress().committed(batch.rows().size(), batch.last())) {
+                        MigrationCheckpoints.record(connection, table, side, batch.progress().chunk(), batch.progress().rows());
+                        connection.commit();
+                    }
+                }
+            } catch (SQLException | RuntimeException | InterruptedException e) {
+                connection.rollback();
+                throw e;
+            }
+        } finally {
+            try {
+                connection.setAutoCommit(autoCommit);
+            } finally {
+                target.release(connection);
+            }
+        }
+    }
+
+    static void bind(PreparedStatement stmt, Object[] row, int[] columns) throws SQLException {
+        if (columns == null) {
+            for (int i = 0; i < row.length; i++) {
+                stmt.setObject(i + 1, row[i]);
+            }
+        } else {
+            for (int i = 0; i < columns.length; i++) {
+                stmt.setObject(i + 1, row[columns[i]]);
+            }
+        }
+    }
+
+    /**
+     * The table's legacy ids in chunks of the configured size, aligned to multiples of it so that
+     * the same chunks come out on every run; the last chunk ends at the highest id.
+     */
+    private List<IdRange> chunks(TableMigration table, ConnectionSource source) throws SQLException {
+        long min;
+        long max;
+        Connection connection = source.acquire();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(id), MAX(id) FROM " + table.table())) {
+            rs.next();
+            min = rs.getLong(1);
+            if (rs.wasNull()) {
+                return List.of();
+            }
+            max = rs.getLong(2);
+        } finally {
+            source.release(connection);
+        }
+        long size = settings.chunkSize();
+        List<IdRange> chunks = new ArrayList<>();
+        for (long from = Math.floorDiv(min, size) * size; ; from += size) {
+            long to = max - from < size ? max : from + size - 1;
+            chunks.add(new IdRange(from, to));
+            if (to == max) {
+                break;
+            }
+        }
+        log.debug("Reading {} ids {}..{} in {} chunk(s)", table.table(), min, max, chunks.size());
+        return chunks;
+    }
+
+    private static void endOfRows(BlockingQueue<Batch> serviceQueue, BlockingQueue<Batch> reportQueue,
+                                  int writers, AtomicReference<Throwable> failure) throws InterruptedException {
+        for (int i = 0; i < writers; i++) {
+            put(serviceQueue, END_OF_ROWS, failure);
+            put(reportQueue, END_OF_ROWS, failure);
+        }
+    }
+
+    /**
+     * Waits for room in the queue, giving up once any thread of the table has failed so that
+     * no thread blocks forever on a writer that has stopped taking.
+     */
+    private static void put(BlockingQueue<Batch> queue, Batch batch, AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            abortIfFailed(failure);
+        }
+    }
+
+    private static Batch take(BlockingQueue<Batch> queue, AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        Batch batch;
+        while ((batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            abortIfFailed(failure);
+        }
+        return batch;
+    }
+
+    private static void abortIfFailed(AtomicReference<Throwable> failure) {
+        if (failure.get() != null) {
+            throw new CancellationException("Stopped after another migration thread failed");
+        }
+    }
+
+    /**
+     * Records the first failure of any thread before it ends, so the other threads stop waiting.
+     */
+    private static Callable<Void> guarded(AtomicReference<Throwable> failure, DependencyScheduler.Task task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (CancellationException e) {
+                throw e;
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+                throw e;
+            }
+            return null;
+        };
+    }
+
+    /**
+     * A chunk of legacy ids, both ends included.
+     */
+    record IdRange(long from, long to) {}
+
+    /**
+     * Rows for one target, from one chunk; the last batch of a chunk may be empty.
+     */
+    private record Batch(ChunkProgress progress, List<Object[]> rows, boolean last) {}
+
+    /**
+     * Counts the batches of a chunk that one target has yet to commit. The count starts at one
+     * for the reader, which only lets go of it with the last batch, so it cannot reach zero while
+     * the chunk is still being read.
+     */
+    private static final class ChunkProgress {
+        private final IdRange chunk;
+        private final AtomicInteger uncommitted = new AtomicInteger(1);
+        private final AtomicInteger rows = new AtomicInteger();
+
+        ChunkProgress(IdRange chunk) {
+            this.chunk = chunk;
+        }
+
+        IdRange chunk() {
+            return chunk;
+        }
+
+        int rows() {
+            return rows.get();
+        }
+
+        Batch next(List<Object[]> batch, boolean last) {
+            uncommitted.incrementAndGet();
+            return new Batch(this, batch, last);
+        }
+
+        /**
+         * Counts a committed batch and tells whether it was the chunk's last one to commit.
+         */
+        boolean committed(int batchRows, boolean last) {
+            rows.addAndGet(batchRows);
+            return uncommitted.addAndGet(last ? -2 : -1) == 0;
+        }
+    }
+}
@@ -8,13 +8,24 @@ import org.springframework.stereotype.Component;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
 
 /**
  * CLI entry point for the Derby → PostgreSQL migration tool.
  * Run with: java -jar migration-tool.jar
  * 
  * Connects to source Derby and all 4 target PostgreSQL schemas,
- * runs migration, then validates parity.
+ * runs migration, then validates parity. A failed attempt is retried from the last
+ * checkpoints, and so is a restart of the tool.
+ * <p>
+ * For a cutover without a long freeze, run a FULL migration and then DELTA passes while the
+ * monolith keeps running, with strict validation off since the source keeps changing; then
+ * freeze it and run one last DELTA pass with strict validation.
+ * <p>
+ * Every run rebuilds the tables the services derive from the hours (daily ledger, revenue
+ * counters, monthly rollups) and validation checks them. Reporting nodes with the columnar store
+ * enabled load it at startup, so they have to be restarted after the last pass.
  */
 @Component
 public class MigrationRunner implements CommandLineRunner {
@@ -31,6 +42,17 @@ public class MigrationRunner implements CommandLineRunner {
     @Value("${migration.source.password}")
     private String derbyPassword;
 
+    public enum Mode { FULL, DELTA }
+
+    @Value("${migration.mode:FULL}")
+    private Mode mode;
+    @Value("${migration.strict-validation:true}")
+    private boolean strictValidation;
+    @Value("${migration.attempts:3}")
+    private int attempts;
+    @Value("${migration.retry-delay:30s}")
+    private Duration retryDelay;
+
     @Value("${migration.target.user-service.url}")
     private String pgUserUrl;
     @Value("${migration.target.user-service.username}")
@@ -66,28 +88,45 @@ public class MigrationRunner implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
-        log.info("=== Derby → PostgreSQL Migration Tool ===");
+        log.info("=== Derby → PostgreSQL Migration Tool ({}) ===", mode);
         log.info("Source: {}", derbyUrl);
         log.info("Target User Service: {}", pgUserUrl);
         log.info("Target Customer Service: {}", pgCustomerUrl);
         log.info("Target Billing Service: {}", pgBillingUrl);
         log.info("Target Reporting Service: {}", pgReportingUrl);
 
+        // Step 1: Migrate data; every reader and writer thread opens its own connection
+        MigrationEndpoints endpoints = new MigrationEndpoints(
+                ConnectionSource.of(derbyUrl, derbyUser, derbyPassword),
+                ConnectionSource.of(pgUserUrl, pgUserUser, pgUserPassword),
+                ConnectionSource.of(pgCustomerUrl, pgCustomerUser, pgCustomerPassword),
+                ConnectionSource.of(pgBillingUrl, pgBillingUser, pgBillingPassword),
+                ConnectionSource.of(pgReportingUrl, pgReportingUser, pgReportingPassword));
+        MigrationResult result = null;
+        for (int attempt = 1; result == null; attempt++) {
+            try {
+                result = mode == Mode.FULL ? migrationService.migrate(endpoints) : migrationService.migrateChanges(endpoints);
+            } catch (SQLException e) {
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                log.warn("Migration attempt {} of {} failed: {}; resuming from the last checkpoints in {}",
+                        attempt, attempts, e.getMessage(), retryDelay);
+                Thread.sleep(retryDelay.toMillis());
+            }
+        }
+        log.info("Migration complete: {}", result);
+
         try (Connection derbyConn = DriverManager.getConnection(derbyUrl, derbyUser, derbyPassword);
              Connection pgUserConn = DriverManager.getConnection(pgUserUrl, pgUserUser, pgUserPassword);
              Connection pgCustomerConn = DriverManager.getConnection(pgCustomerUrl, pgCustomerUser, pgCustomerPassword);
              Connection pgBillingConn = DriverManager.getConnection(pgBillingUrl, pgBillingUser, pgBillingPassword);
              Connection pgReportingConn = DriverManager.getConnection(pgReportingUrl, pgReportingUser, pgReportingPassword)) {
 
-            // Step 1: Migrate data
-            MigrationResult result = migrationService.migrate(derbyConn, pgUserConn,
-                    pgCustomerConn, pgBillingConn, pgReportingConn);
-            log.info("Migration complete: {}", result);
-
             // Step 2: Validate parity
             log.info("Running post-migration validation...");
             ValidationResult validation = migrationValidator.validate(derbyConn, pgUserConn,
-                    pgCustomerConn, pgBillingConn);
+                    pgCustomerConn, pgBillingConn, pgReportingConn);
 
             if (validation.isValid()) {
                 log.info("✅ Migration PASSED all validation checks");
@@ -96,6 +135,7 @@ public class MigrationRunner implements CommandLineRunner {
                         validation.isRevenueMatch(), validation.getSourceRevenue(), validation.getTargetRevenue());
                 log.info("  FK integrity: {} (orphaned hours={})",
                         validation.isFkIntegrity(), validation.getOrphanedHours());
+                log.info("  Derived tables fresh: {}", validation.isDerivedDataFresh());
             } else {
                 log.error("❌ Migration FAILED validation");
                 if (!validation.isRowCountMatch()) {
@@ -112,7 +152,14 @@ public class MigrationRunner implements CommandLineRunner {
                 if (!validation.isFkIntegrity()) {
                     log.error("  FK integrity: {} orphaned billable hours", validation.getOrphanedHours());
                 }
-                throw new RuntimeException("Migration validation failed: " + validation);
+                if (!validation.isDerivedDataFresh()) {
+                    log.error("  Stale derived data: {} daily ledger row(s), {} revenue counter(s), {} rollup row(s)",
+                            validation.getStaleDailyHours(), validation.getStaleRevenueCounters(), validation.getStaleRollups());
+                }
+                if (strictValidation) {
+                    throw new RuntimeException("Migration validation failed: " + validation);
+                }
+                log.warn("Strict validation is off; expected while the monolith is still writing");
             }
         }
     }
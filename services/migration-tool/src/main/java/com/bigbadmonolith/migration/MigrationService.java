@@ -2,267 +2,314 @@ package com.bigbadmonolith.migration;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 /**
  * Migrates data from legacy Derby database to PostgreSQL microservice schemas.
  * Handles integer→UUID key mapping, rateSnapshot backfill, and idempotent upserts.
+ * Each table is copied by a {@link MigrationPipeline}; a {@link DependencyScheduler} keeps
+ * the tables in foreign key order.
  */
 @Service
 public class MigrationService {
 
     private static final Logger log = LoggerFactory.getLogger(MigrationService.class);
+    // Both hour tables are keyed by (id, date_logged) since they were partitioned by month, so
+    // their upserts leave the conflict target open.
+    private static final String HOUR_COLUMNS = "id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at";
 
-    // Maps legacy BIGINT IDs to new UUIDs for cross-table FK resolution
-    private final Map<String, Map<Long, UUID>> idMappings = new HashMap<>();
+    private static final DeterministicUuids USER_IDS = new DeterministicUuids("user");
+    private static final DeterministicUuids CUSTOMER_IDS = new DeterministicUuids("customer");
+    private static final DeterministicUuids CATEGORY_IDS = new DeterministicUuids("category");
+    private static final DeterministicUuids HOUR_IDS = new DeterministicUuids("billable_hour");
+
+    // Maps legacy BIGINT IDs to new UUIDs for cross-table FK resolution; filled before billable_hours is read
+    private final Map<String, LongKeyMap<UUID>> idMappings = new HashMap<>();
+    private final MigrationSettings settings;
 
     public MigrationService() {
-        idMappings.put("users", new HashMap<>());
-        idMappings.put("customers", new HashMap<>());
-        idMappings.put("billing_categories", new HashMap<>());
-        idMappings.put("billable_hours", new HashMap<>());
+        this(new MigrationSettings(1000, 4, 4, 8, 3, MigrationSettings.DEFAULT_CHUNK_SIZE, MigrationSettings.WriteMode.COPY));
+    }
+
+    @Autowired
+    public MigrationService(@Value("${migration.batch-size:1000}") int batchSize,
+                            @Value("${migration.readers:4}") int readers,
+                            @Value("${migration.writers:4}") int writers,
+                            @Value("${migration.queue-capacity:8}") int queueCapacity,
+                            @Value("${migration.table-parallelism:3}") int tableParallelism,
+                            @Value("${migration.chunk-size:50000}") long chunkSize,
+                            @Value("${migration.write-mode:COPY}") MigrationSettings.WriteMode writeMode) {
+        this(new MigrationSettings(batchSize, readers, writers, queueCapacity, tableParallelism, chunkSize, writeMode));
+    }
+
+    MigrationService(MigrationSettings settings) {
+        this.settings = settings;
+        idMappings.put("users", new LongKeyMap<>());
+        idMappings.put("customers", new LongKeyMap<>());
+        idMappings.put("billing_categories", new LongKeyMap<>());
     }
 
     /**
-     * Runs the full migration: users, customers, billing_categories, billable_hours.
-     * Order matters for FK resolution.
+     * Runs the full migration over already open connections, one table after another with one
+     * reader and one writer per target: users, customers, billing_categories, billable_hours.
      */
     public MigrationResult migrate(Connection derbyConn, Connection pgUserConn,
                                     Connection pgCustomerConn, Connection pgBillingConn,
                                     Connection pgReportingConn) throws SQLException {
-        MigrationResult result = new MigrationResult();
-
-        log.info("Starting Derby → PostgreSQL migration...");
-
-        int users = migrateUsers(derbyConn, pgUserConn, pgReportingConn);
-        result.setUsersMigrated(users);
-        log.info("Migrated {} users", users);
-
-        int customers = migrateCustomers(derbyConn, pgCustomerConn, pgReportingConn);
-        result.setCustomersMigrated(customers);
-        log.info("Migrated {} customers", customers);
+        return migrate(MigrationEndpoints.shared(derbyConn, pgUserConn, pgCustomerConn, pgBillingConn, pgReportingConn),
+                MigrationSettings.sequential(settings.batchSize(), settings.chunkSize(), settings.writeMode()));
+    }
 
-        int categories = migrateBillingCategories(derbyConn, pgBillingConn, pgReportingConn);
-        result.setCategoriesMigrated(categories);
-        log.info("Migrated {} billing categories", categories);
+    public MigrationResult migrate(MigrationEndpoints endpoints) throws SQLException {
+        return migrate(endpoints, settings);
+    }
 
-        int hours = migrateBillableHours(derbyConn, pgBillingConn, pgReportingConn);
-        result.setHoursMigrated(hours);
-        log.info("Migrated {} billable hours", hours);
+    /**
+     * Runs the full migration as a pipeline per table. Users, customers and billing_categories
+     * do not depend on each other and are copied concurrently; billable_hours needs all three
+     * mapped first and is read in parallel chunks. Chunks completed by an earlier run are skipped.
+     * Change capture is installed in Derby before anything is read, for the delta passes that follow.
+     * The tables the services derive from the hours are rebuilt at the end, see {@link DerivedTables}.
+     */
+    public MigrationResult migrate(MigrationEndpoints endpoints, MigrationSettings settings) throws SQLException {
+        MigrationResult result = new MigrationResult();
+        MigrationPipeline pipeline = new MigrationPipeline(settings);
+
+        log.info("Starting Derby → PostgreSQL migration with {}...", settings);
+        ChangeCapture.install(endpoints.source());
+        MigrationCheckpoints.createTables(endpoints);
+
+        new DependencyScheduler()
+                .add("users", () -> {
+                    int users = pipeline.run(usersTable(), endpoints, 1);
+                    result.setUsersMigrated(users);
+                    log.info("Migrated {} users", users);
+                })
+                .add("customers", () -> {
+                    int customers = pipeline.run(customersTable(), endpoints, 1);
+                    result.setCustomersMigrated(customers);
+                    log.info("Migrated {} customers", customers);
+                })
+                .add("billing_categories", () -> {
+                    int categories = pipeline.run(billingCategoriesTable(), endpoints, 1);
+                    result.setCategoriesMigrated(categories);
+                    log.info("Migrated {} billing categories", categories);
+                })
+                .add("billable_hours", () -> {
+                    int hours = pipeline.run(billableHoursTable(endpoints.source()), endpoints, settings.readers());
+                    result.setHoursMigrated(hours);
+                    log.info("Migrated {} billable hours", hours);
+                }, "users", "customers", "billing_categories")
+                .run(settings.tableParallelism());
+        DerivedTables.refresh(endpoints);
 
         log.info("Migration complete: {} users, {} customers, {} categories, {} hours",
-                users, customers, categories, hours);
+                result.getUsersMigrated(), result.getCustomersMigrated(),
+                result.getCategoriesMigrated(), result.getHoursMigrated());
 
         return result;
     }
 
-    int migrateUsers(Connection derby, Connection pgUser, Connection pgReporting) throws SQLException {
-        int count = 0;
-        String selectSql = "SELECT id, email, name FROM users ORDER BY id";
-        String upsertUserSql = upsertSql(pgUser,
-                "INSERT INTO users (id, name, email, created_at, updated_at) VALUES (?, ?, ?, NOW(), NOW()) ON CONFLICT (id) DO NOTHING",
-                "MERGE INTO users (id, name, email, created_at, updated_at) KEY (id) VALUES (?, ?, ?, NOW(), NOW())");
-        String upsertReportSql = upsertSql(pgReporting,
-                "INSERT INTO report_users (id, name, email) VALUES (?, ?, ?) ON CONFLICT (id) DO NOTHING",
-                "MERGE INTO report_users (id, name, email) KEY (id) VALUES (?, ?, ?)");
-
-        try (Statement stmt = derby.createStatement();
-             ResultSet rs = stmt.executeQuery(selectSql);
-             PreparedStatement pgStmt = pgUser.prepareStatement(upsertUserSql);
-             PreparedStatement reportStmt = pgReporting.prepareStatement(upsertReportSql)) {
-
-            while (rs.next()) {
-                long legacyId = rs.getLong("id");
-                String email = rs.getString("email");
-                String name = rs.getString("name");
-                UUID newId = generateDeterministicUuid("user", legacyId);
+    public MigrationResult migrateChanges(MigrationEndpoints endpoints) throws SQLException {
+        return migrateChanges(endpoints, settings);
+    }
 
-                idMappings.get("users").put(legacyId, newId);
+    /**
+     * Runs one delta pass after a full load: applies every change captured in Derby since the
+     * last pass to all targets, deleting the rows that are gone, then drops the applied changes
+     * and recomputes the derived rows of the hours it changed, see {@link DerivedTables}. The
+     * result counts the rows written or deleted per table.
+     */
+    public MigrationResult migrateChanges(MigrationEndpoints endpoints, MigrationSettings settings) throws SQLException {
+        long upTo;
+        Connection derby = endpoints.source().acquire();
+        try {
+            if (!ChangeCapture.installed(derby)) {
+                throw new IllegalStateException("No change capture in the source database; run a full migration first");
+            }
+            upTo = ChangeCapture.latest(derby);
+        } finally {
+            endpoints.source().release(derby);
+        }
+        log.info("Starting delta pass up to change {}...", upTo);
+        MigrationCheckpoints.createTables(endpoints);
+
+        DeltaMigration delta = new DeltaMigration(settings);
+        List<TableMigration> tables = List.of(usersTable(), customersTable(), billingCategoriesTable(),
+                billableHoursTable(endpoints.source()));
+        List<DeltaMigration.Changes> changes = new ArrayList<>();
+        DerivedTables.Touched touched = new DerivedTables.Touched();
+        for (TableMigration table : tables) {
+            // Only the hours feed the derived tables.
+            changes.add(delta.upsert(table, endpoints, upTo, table.table().equals("billable_hours") ? touched : null));
+        }
+        for (int i = tables.size() - 1; i >= 0; i--) {
+            delta.delete(tables.get(i), endpoints, changes.get(i), upTo);
+            log.info("Applied {} changed and {} deleted {}", changes.get(i).upserted(), changes.get(i).deleted().size(),
+                    tables.get(i).table());
+        }
 
-                pgStmt.setObject(1, newId);
-                pgStmt.setString(2, name);
-                pgStmt.setString(3, email);
-                pgStmt.executeUpdate();
+        derby = endpoints.source().acquire();
+        try {
+            log.debug("Pruned {} applied change(s)", ChangeCapture.prune(derby, upTo));
+        } finally {
+            endpoints.source().release(derby);
+        }
+        DerivedTables.refresh(endpoints, touched);
 
-                reportStmt.setObject(1, newId);
-                reportStmt.setString(2, name);
-                reportStmt.setString(3, email);
-                reportStmt.executeUpdate();
+        MigrationResult result = new MigrationResult();
+        result.setUsersMigrated(changes.get(0).applied());
+        result.setCustomersMigrated(changes.get(1).applied());
+        result.setCategoriesMigrated(changes.get(2).applied());
+        result.setHoursMigrated(changes.get(3).applied());
+        log.info("Delta pass complete: {}", result);
+        return result;
+    }
 
-                count++;
-            }
-        }
-        return count;
+    TableMigration usersTable() {
+        return new TableMigration("users", TableMigration.Target.USERS,
+                "SELECT id, email, name FROM users",
+                "INSERT INTO users (id, name, email, created_at, updated_at) VALUES (?, ?, ?, NOW(), NOW()) ON CONFLICT (id) DO NOTHING",
+                "MERGE INTO users (id, name, email, created_at, updated_at) KEY (id) VALUES (?, ?, ?, NOW(), NOW())",
+                "INSERT INTO report_users (id, name, email) VALUES (?, ?, ?) ON CONFLICT (id) DO NOTHING",
+                "MERGE INTO report_users (id, name, email) KEY (id) VALUES (?, ?, ?)",
+                new int[] {0, 1, 2},
+                rs -> {
+                    UUID newId = USER_IDS.of(rs.getLong("id"));
+                    return new Object[] {newId, rs.getString("name"), rs.getString("email")};
+                }, null, null,
+                new TableMigration.Delta("users", "report_users",
+                        "INSERT INTO users (id, name, email, created_at, updated_at) VALUES (?, ?, ?, NOW(), NOW()) " +
+                                "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email, updated_at = NOW()",
+                        "INSERT INTO report_users (id, name, email) VALUES (?, ?, ?) " +
+                                "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email",
+                        USER_IDS::of));
     }
 
-    int migrateCustomers(Connection derby, Connection pgCustomer, Connection pgReporting) throws SQLException {
-        int count = 0;
-        String selectSql = "SELECT id, name, email, address, created_at FROM customers ORDER BY id";
-        String upsertCustSql = upsertSql(pgCustomer,
+    TableMigration customersTable() {
+        return new TableMigration("customers", TableMigration.Target.CUSTOMERS,
+                "SELECT id, name, email, address, created_at FROM customers",
                 "INSERT INTO customers (id, name, email, address, created_at, updated_at) VALUES (?, ?, ?, ?, ?, NOW()) ON CONFLICT (id) DO NOTHING",
-                "MERGE INTO customers (id, name, email, address, created_at, updated_at) KEY (id) VALUES (?, ?, ?, ?, ?, NOW())");
-        String upsertReportSql = upsertSql(pgReporting,
+                "MERGE INTO customers (id, name, email, address, created_at, updated_at) KEY (id) VALUES (?, ?, ?, ?, ?, NOW())",
                 "INSERT INTO report_customers (id, name, email, address) VALUES (?, ?, ?, ?) ON CONFLICT (id) DO NOTHING",
-                "MERGE INTO report_customers (id, name, email, address) KEY (id) VALUES (?, ?, ?, ?)");
-
-        try (Statement stmt = derby.createStatement();
-             ResultSet rs = stmt.executeQuery(selectSql);
-             PreparedStatement pgStmt = pgCustomer.prepareStatement(upsertCustSql);
-             PreparedStatement reportStmt = pgReporting.prepareStatement(upsertReportSql)) {
-
-            while (rs.next()) {
-                long legacyId = rs.getLong("id");
-                String name = rs.getString("name");
-                String email = rs.getString("email");
-                String address = rs.getString("address");
-                Timestamp createdAt = rs.getTimestamp("created_at");
-                UUID newId = generateDeterministicUuid("customer", legacyId);
-
-                idMappings.get("customers").put(legacyId, newId);
-
-                pgStmt.setObject(1, newId);
-                pgStmt.setString(2, name);
-                pgStmt.setString(3, email);
-                pgStmt.setString(4, address);
-                pgStmt.setTimestamp(5, createdAt);
-                pgStmt.executeUpdate();
-
-                reportStmt.setObject(1, newId);
-                reportStmt.setString(2, name);
-                reportStmt.setString(3, email);
-                reportStmt.setString(4, address);
-                reportStmt.executeUpdate();
-
-                count++;
-            }
-        }
-        return count;
+                "MERGE INTO report_customers (id, name, email, address) KEY (id) VALUES (?, ?, ?, ?)",
+                new int[] {0, 1, 2, 3},
+                rs -> {
+                    UUID newId = CUSTOMER_IDS.of(rs.getLong("id"));
+                    return new Object[] {newId, rs.getString("name"), rs.getString("email"),
+                            rs.getString("address"), rs.getTimestamp("created_at")};
+                }, null, null,
+                new TableMigration.Delta("customers", "report_customers",
+                        "INSERT INTO customers (id, name, email, address, created_at, updated_at) VALUES (?, ?, ?, ?, ?, NOW()) " +
+                                "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email, " +
+                                "address = EXCLUDED.address, updated_at = NOW()",
+                        "INSERT INTO report_customers (id, name, email, address) VALUES (?, ?, ?, ?) " +
+                                "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email, address = EXCLUDED.address",
+                        CUSTOMER_IDS::of));
     }
 
-    int migrateBillingCategories(Connection derby, Connection pgBilling, Connection pgReporting) throws SQLException {
-        int count = 0;
-        String selectSql = "SELECT id, name, description, hourly_rate FROM billing_categories ORDER BY id";
-        String upsertCatSql = upsertSql(pgBilling,
+    TableMigration billingCategoriesTable() {
+        return new TableMigration("billing_categories", TableMigration.Target.BILLING,
+                "SELECT id, name, description, hourly_rate FROM billing_categories",
                 "INSERT INTO billing_categories (id, name, description, hourly_rate, created_at, updated_at) VALUES (?, ?, ?, ?, NOW(), NOW()) ON CONFLICT (id) DO NOTHING",
-                "MERGE INTO billing_categories (id, name, description, hourly_rate, created_at, updated_at) KEY (id) VALUES (?, ?, ?, ?, NOW(), NOW())");
-        String upsertReportSql = upsertSql(pgReporting,
+                "MERGE INTO billing_categories (id, name, description, hourly_rate, created_at, updated_at) KEY (id) VALUES (?, ?, ?, ?, NOW(), NOW())",
                 "INSERT INTO report_billing_categories (id, name, hourly_rate) VALUES (?, ?, ?) ON CONFLICT (id) DO NOTHING",
-                "MERGE INTO report_billing_categories (id, name, hourly_rate) KEY (id) VALUES (?, ?, ?)");
-
-        try (Statement stmt = derby.createStatement();
-             ResultSet rs = stmt.executeQuery(selectSql);
-             PreparedStatement pgStmt = pgBilling.prepareStatement(upsertCatSql);
-             PreparedStatement reportStmt = pgReporting.prepareStatement(upsertReportSql)) {
-
-            while (rs.next()) {
-                long legacyId = rs.getLong("id");
-                String name = rs.getString("name");
-                String description = rs.getString("description");
-                BigDecimal hourlyRate = rs.getBigDecimal("hourly_rate");
-                UUID newId = generateDeterministicUuid("category", legacyId);
-
-                idMappings.get("billing_categories").put(legacyId, newId);
-
-                pgStmt.setObject(1, newId);
-                pgStmt.setString(2, name);
-                pgStmt.setString(3, description);
-                pgStmt.setBigDecimal(4, hourlyRate);
-                pgStmt.executeUpdate();
-
-                reportStmt.setObject(1, newId);
-                reportStmt.setString(2, name);
-                reportStmt.setBigDecimal(3, hourlyRate);
-                reportStmt.executeUpdate();
-
-                count++;
-            }
-        }
-        return count;
+                "MERGE INTO report_billing_categories (id, name, hourly_rate) KEY (id) VALUES (?, ?, ?)",
+                new int[] {0, 1, 3},
+                rs -> {
+                    UUID newId = CATEGORY_IDS.of(rs.getLong("id"));
+                    return new Object[] {newId, rs.getString("name"), rs.getString("description"), rs.getBigDecimal("hourly_rate")};
+                }, null, null,
+                new TableMigration.Delta("billing_categories", "report_billing_categories",
+                        "INSERT INTO billing_categories (id, name, description, hourly_rate, created_at, updated_at) VALUES (?, ?, ?, ?, NOW(), NOW()) " +
+                                "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, description = EXCLUDED.description, " +
+                                "hourly_rate = EXCLUDED.hourly_rate, updated_at = NOW()",
+                        "INSERT INTO report_billing_categories (id, name, hourly_rate) VALUES (?, ?, ?) " +
+                                "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, hourly_rate = EXCLUDED.hourly_rate",
+                        CATEGORY_IDS::of));
     }
 
-    int migrateBillableHours(Connection derby, Connection pgBilling, Connection pgReporting) throws SQLException {
-        int count = 0;
-
+    TableMigration billableHoursTable(ConnectionSource source) throws SQLException {
         // Build a lookup for category hourly rates for rateSnapshot backfill
-        Map<Long, BigDecimal> categoryRates = new HashMap<>();
+        LongKeyMap<BigDecimal> categoryRates = new LongKeyMap<>();
+        Connection derby = source.acquire();
         try (Statement stmt = derby.createStatement();
              ResultSet rs = stmt.executeQuery("SELECT id, hourly_rate FROM billing_categories")) {
             while (rs.next()) {
                 categoryRates.put(rs.getLong("id"), rs.getBigDecimal("hourly_rate"));
             }
+            // Mapped here rather than while the parent tables are read, since a resumed run
+            // skips their completed chunks.
+            mapLegacyIds(derby, "users", USER_IDS);
+            mapLegacyIds(derby, "customers", CUSTOMER_IDS);
+            mapLegacyIds(derby, "billing_categories", CATEGORY_IDS);
+        } finally {
+            source.release(derby);
         }
+        LongKeyMap<UUID> users = idMappings.get("users");
+        LongKeyMap<UUID> customers = idMappings.get("customers");
+        LongKeyMap<UUID> categories = idMappings.get("billing_categories");
+
+        return new TableMigration("billable_hours", TableMigration.Target.BILLING,
+                "SELECT id, customer_id, user_id, category_id, hours, note, date_logged, created_at FROM billable_hours",
+                "INSERT INTO billable_hours (" + HOUR_COLUMNS + ", updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW()) ON CONFLICT DO NOTHING",
+                "MERGE INTO billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at, updated_at) KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())",
+                "INSERT INTO report_billable_hours (" + HOUR_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING",
+                "MERGE INTO report_billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at) KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8},
+                rs -> {
+                    long legacyId = rs.getLong("id");
+                    long customerId = rs.getLong("customer_id");
+                    long userId = rs.getLong("user_id");
+                    long categoryId = rs.getLong("category_id");
+
+                    UUID newCustomerId = customers.get(customerId);
+                    UUID newUserId = users.get(userId);
+                    UUID newCategoryId = categories.get(categoryId);
+
+                    if (newCustomerId == null || newUserId == null || newCategoryId == null) {
+                        log.warn("Skipping billable hour {} — missing FK mapping (customer={}, user={}, category={})",
+                                legacyId, customerId, userId, categoryId);
+                        return null;
+                    }
+
+                    // rateSnapshot backfill: use the category's current hourly rate
+                    BigDecimal rateSnapshot = categoryRates.get(categoryId);
+                    if (rateSnapshot == null) {
+                        rateSnapshot = BigDecimal.ZERO;
+                    }
+
+                    return new Object[] {HOUR_IDS.of(legacyId), newCustomerId, newUserId,
+                            newCategoryId, rs.getBigDecimal("hours"), rateSnapshot, rs.getDate("date_logged"),
+                            rs.getString("note"), rs.getTimestamp("created_at")};
+                }, new TableMigration.CopyTarget("billable_hours", HOUR_COLUMNS),
+                new TableMigration.CopyTarget("report_billable_hours", HOUR_COLUMNS),
+                // date_logged is part of the key and picks the partition, so changed hours are re-inserted.
+                new TableMigration.Delta("billable_hours", "report_billable_hours", null, null,
+                        HOUR_IDS::of));
+    }
 
-        String selectSql = "SELECT id, customer_id, user_id, category_id, hours, note, date_logged, created_at " +
-                "FROM billable_hours ORDER BY id";
-        String upsertHourSql = upsertSql(pgBilling,
-                "INSERT INTO billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW()) ON CONFLICT (id) DO NOTHING",
-                "MERGE INTO billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at, updated_at) KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())");
-        String upsertReportSql = upsertSql(pgReporting,
-                "INSERT INTO report_billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING",
-                "MERGE INTO report_billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at) KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
-
+    private void mapLegacyIds(Connection derby, String table, DeterministicUuids ids) throws SQLException {
+        LongKeyMap<UUID> mapping = idMappings.get(table);
         try (Statement stmt = derby.createStatement();
-             ResultSet rs = stmt.executeQuery(selectSql);
-             PreparedStatement pgStmt = pgBilling.prepareStatement(upsertHourSql);
-             PreparedStatement reportStmt = pgReporting.prepareStatement(upsertReportSql)) {
-
+             ResultSet rs = stmt.executeQuery("SELECT id FROM " + table)) {
             while (rs.next()) {
-                long legacyId = rs.getLong("id");
-                long customerId = rs.getLong("customer_id");
-                long userId = rs.getLong("user_id");
-                long categoryId = rs.getLong("category_id");
-                BigDecimal hours = rs.getBigDecimal("hours");
-                String note = rs.getString("note");
-                Date dateLogged = rs.getDate("date_logged");
-                Timestamp createdAt = rs.getTimestamp("created_at");
-
-                UUID newId = generateDeterministicUuid("billable_hour", legacyId);
-                UUID newCustomerId = idMappings.get("customers").get(customerId);
-                UUID newUserId = idMappings.get("users").get(userId);
-                UUID newCategoryId = idMappings.get("billing_categories").get(categoryId);
-
-                if (newCustomerId == null || newUserId == null || newCategoryId == null) {
-                    log.warn("Skipping billable hour {} — missing FK mapping (customer={}, user={}, category={})",
-                            legacyId, customerId, userId, categoryId);
-                    continue;
+                long legacyId = rs.getLong(1);
+                if (!mapping.containsKey(legacyId)) {
+                    mapping.put(legacyId, ids.of(legacyId));
                 }
-
-                // rateSnapshot backfill: use the category's current hourly rate
-                BigDecimal rateSnapshot = categoryRates.getOrDefault(categoryId, BigDecimal.ZERO);
-
-                pgStmt.setObject(1, newId);
-                pgStmt.setObject(2, newCustomerId);
-                pgStmt.setObject(3, newUserId);
-                pgStmt.setObject(4, newCategoryId);
-                pgStmt.setBigDecimal(5, hours);
-                pgStmt.setBigDecimal(6, rateSnapshot);
-                pgStmt.setDate(7, dateLogged);
-                pgStmt.setString(8, note);
-                pgStmt.setTimestamp(9, createdAt);
-                pgStmt.executeUpdate();
-
-                reportStmt.setObject(1, newId);
-                reportStmt.setObject(2, newCustomerId);
-                reportStmt.setObject(3, newUserId);
-                reportStmt.setObject(4, newCategoryId);
-                reportStmt.setBigDecimal(5, hours);
-                reportStmt.setBigDecimal(6, rateSnapshot);
-                reportStmt.setDate(7, dateLogged);
-                reportStmt.setString(8, note);
-                reportStmt.setTimestamp(9, createdAt);
-                reportStmt.executeUpdate();
-
-                count++;
             }
         }
-        return count;
     }
 
     /**
@@ -270,14 +317,14 @@ public class MigrationService {
      * Ensures idempotent migrations — same input always produces same UUID.
      */
     UUID generateDeterministicUuid(String entityType, long legacyId) {
-        return UUID.nameUUIDFromBytes((entityType + ":" + legacyId).getBytes(StandardCharsets.UTF_8));
+        return new DeterministicUuids(entityType).of(legacyId);
     }
 
     /**
      * Selects SQL dialect based on the target connection type.
      * Uses PostgreSQL ON CONFLICT syntax for PostgreSQL, MERGE INTO for H2 (tests).
      */
-    private static String upsertSql(Connection conn, String pgSql, String h2Sql) throws SQLException {
+    static String upsertSql(Connection conn, String pgSql, String h2Sql) throws SQLException {
         String dbProduct = conn.getMetaData().getDatabaseProductName();
         return dbProduct.contains("H2") ? h2Sql : pgSql;
     }
@@ -286,6 +333,7 @@ public class MigrationService {
      * Returns the ID mapping for a given table (for testing/validation).
      */
     public Map<Long, UUID> getIdMapping(String table) {
-        return idMappings.getOrDefault(table, Map.of());
+        LongKeyMap<UUID> mapping = idMappings.get(table);
+        return mapping == null ? Map.of() : mapping.toMap();
     }
 }
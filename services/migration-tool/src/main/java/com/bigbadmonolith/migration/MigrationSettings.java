@@ -0,0 +1,48 @@
+package com.bigbadmonolith.migration;
+
+/**
+ * Tuning for a pipelined migration run.
+ *
+ * @param batchSize        rows per JDBC batch, which is also the unit handed from readers to writers
+ * @param readers          reader threads for billable_hours, each reading one chunk at a time
+ * @param writers          writer threads per target schema and table
+ * @param queueCapacity    batches buffered between the readers and the writers of one target
+ * @param tableParallelism tables copied at the same time once their dependencies are done
+ * @param chunkSize        legacy ids per chunk, the unit a rerun resumes from
+ * @param writeMode        how writers load a batch into PostgreSQL
+ */
+public record MigrationSettings(int batchSize, int readers, int writers, int queueCapacity, int tableParallelism,
+                                long chunkSize, WriteMode writeMode) {
+
+    public static final long DEFAULT_CHUNK_SIZE = 50_000;
+
+    public enum WriteMode {
+        /** One batched INSERT ... ON CONFLICT DO NOTHING per batch. */
+        INSERT,
+        /**
+         * COPY into a staging table plus one merge per batch, for the tables that support it;
+         * other tables, and H2 targets, fall back to {@link #INSERT}.
+         */
+        COPY
+    }
+
+    public MigrationSettings {
+        if (batchSize < 1 || readers < 1 || writers < 1 || queueCapacity < 1 || tableParallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Migration settings must all be at least 1: " + this);
+        }
+        if (writeMode == null) {
+            throw new IllegalArgumentException("Migration write mode is required");
+        }
+    }
+
+    public MigrationSettings(int batchSize, int readers, int writers, int queueCapacity, int tableParallelism) {
+        this(batchSize, readers, writers, queueCapacity, tableParallelism, DEFAULT_CHUNK_SIZE, WriteMode.INSERT);
+    }
+
+    /**
+     * One thread per database at a time, as required by {@link ConnectionSource#shared} endpoints.
+     */
+    public static MigrationSettings sequential(int batchSize, long chunkSize, WriteMode writeMode) {
+        return new MigrationSettings(batchSize, 1, 1, 4, 1, chunkSize, writeMode);
+    }
+}
@@ -9,18 +9,61 @@ import java.sql.*;
 
 /**
  * Validates migration parity between Derby source and PostgreSQL targets.
- * Checks row counts, FK integrity, and revenue parity.
+ * Checks row counts, FK integrity, and revenue parity, and that the tables the services derive
+ * from the hours agree with them (see {@link DerivedTables}).
  */
 @Service
 public class MigrationValidator {
 
     private static final Logger log = LoggerFactory.getLogger(MigrationValidator.class);
 
+    // Each counts the keys whose derived totals differ from those of the hours: the hours are added
+    // and the derived totals subtracted per key, and any key not summing to zero is stale. A ledger
+    // day at zero hours is the same as no ledger row. Months billing has archived count with the
+    // totals of the archive catalog, and their ledger days are not checked, see DerivedTables.
+    private static String staleDailyHours(boolean archive) {
+        return "SELECT COUNT(*) FROM (SELECT user_id, date_logged FROM (" +
+                "SELECT user_id, date_logged, hours FROM billable_hours " +
+                "UNION ALL SELECT user_id, date_logged, -total_hours FROM user_daily_hours" +
+                (archive ? " WHERE TO_CHAR(date_logged, 'YYYY-MM') NOT IN (SELECT period FROM archive_catalog)" : "") + ") d " +
+                "GROUP BY user_id, date_logged HAVING SUM(hours) <> 0) s";
+    }
+
+    private static String staleRevenueCounters(boolean archive) {
+        return "SELECT COUNT(*) FROM (SELECT scope, scope_key FROM (" +
+                "SELECT 'ALL' AS scope, '*' AS scope_key, hours * rate_snapshot AS revenue, hours, 1 AS entries FROM billable_hours " +
+                "UNION ALL SELECT 'MONTH', TO_CHAR(date_logged, 'YYYY-MM'), hours * rate_snapshot, hours, 1 FROM billable_hours " +
+                "UNION ALL SELECT 'CUSTOMER', CAST(customer_id AS VARCHAR), hours * rate_snapshot, hours, 1 FROM billable_hours " +
+                (archive ? "UNION ALL SELECT 'ALL', '*', revenue, hours, entries FROM archive_catalog " +
+                        "UNION ALL SELECT 'MONTH', period, revenue, hours, entries FROM archive_catalog " +
+                        "UNION ALL SELECT 'CUSTOMER', CAST(customer_id AS VARCHAR), revenue, hours, entries FROM archive_customer_totals " : "") +
+                "UNION ALL SELECT scope, scope_key, -revenue, -hours, -entries FROM revenue_counters) d " +
+                "GROUP BY scope, scope_key HAVING SUM(revenue) <> 0 OR SUM(hours) <> 0 OR SUM(entries) <> 0) s";
+    }
+
+    private static final String STALE_ROLLUPS =
+            "SELECT COUNT(*) FROM (SELECT customer_id FROM (" +
+            "SELECT customer_id, category_id, user_id, EXTRACT(YEAR FROM date_logged) AS period_year, " +
+            "EXTRACT(MONTH FROM date_logged) AS period_month, hours, hours * rate_snapshot AS revenue, 1 AS entries " +
+            "FROM report_billable_hours " +
+            "UNION ALL SELECT customer_id, category_id, user_id, period_year, period_month, " +
+            "-total_hours, -total_revenue, -entry_count FROM report_monthly_rollups) d " +
+            "GROUP BY customer_id, category_id, user_id, period_year, period_month " +
+            "HAVING SUM(hours) <> 0 OR SUM(revenue) <> 0 OR SUM(entries) <> 0) s";
+
     /**
-     * Runs all validation checks and returns a summary.
+     * Runs all validation checks but the reporting rollups and returns a summary.
      */
     public ValidationResult validate(Connection derbyConn, Connection pgUserConn,
                                       Connection pgCustomerConn, Connection pgBillingConn) throws SQLException {
+        return validate(derbyConn, pgUserConn, pgCustomerConn, pgBillingConn, null);
+    }
+
+    /**
+     * Runs all validation checks and returns a summary.
+     */
+    public ValidationResult validate(Connection derbyConn, Connection pgUserConn, Connection pgCustomerConn,
+                                      Connection pgBillingConn, Connection pgReportingConn) throws SQLException {
         ValidationResult result = new ValidationResult();
 
         // Row count parity
@@ -40,6 +83,14 @@ public class MigrationValidator {
         // FK integrity in target
         result.setOrphanedHours(countOrphanedHours(pgBillingConn));
 
+        // Derived tables, where the target has them
+        boolean archive = DerivedTables.hasArchive(pgBillingConn);
+        result.setStaleDailyHours(countStale(pgBillingConn, DerivedTables.DAILY_HOURS, staleDailyHours(archive)));
+        result.setStaleRevenueCounters(countStale(pgBillingConn, DerivedTables.REVENUE_COUNTERS, staleRevenueCounters(archive)));
+        if (pgReportingConn != null) {
+            result.setStaleRollups(countStale(pgReportingConn, DerivedTables.MONTHLY_ROLLUPS, STALE_ROLLUPS));
+        }
+
         log.info("Validation results: {}", result);
         return result;
     }
@@ -79,6 +130,20 @@ public class MigrationValidator {
         }
     }
 
+    /**
+     * Runs one of the stale key counts, or returns 0 if the target does not have the table.
+     */
+    private long countStale(Connection conn, String table, String sql) throws SQLException {
+        if (!DerivedTables.exists(conn, table)) {
+            return 0;
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
     /**
      * Checks for billable_hours referencing non-existent categories (FK integrity).
      */
@@ -0,0 +1,46 @@
+package com.bigbadmonolith.migration;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.function.LongFunction;
+
+/**
+ * How one legacy table is copied: the Derby query, the upsert into the owning service's schema
+ * and the upsert into the reporting read model, which takes a subset of the same values.
+ *
+ * @param selectSql     selects the columns the reader needs; a legacy id range and ordering are appended
+ * @param reportColumns positions, among the service upsert's values, of the reporting upsert's values
+ * @param serviceCopy   where COPY mode loads the service values, or null to always upsert
+ * @param reportCopy    where COPY mode loads the reporting values, or null to always upsert
+ * @param delta         how a delta pass applies changed and deleted rows
+ */
+record TableMigration(String table, Target target, String selectSql,
+                      String serviceUpsertPg, String serviceUpsertH2,
+                      String reportUpsertPg, String reportUpsertH2,
+                      int[] reportColumns, RowReader reader,
+                      CopyTarget serviceCopy, CopyTarget reportCopy, Delta delta) {
+
+    enum Target { USERS, CUSTOMERS, BILLING }
+
+    /**
+     * A target table and its columns, in the order of the upsert's values.
+     */
+    record CopyTarget(String table, String columns) {}
+
+    /**
+     * The target tables, and PostgreSQL upserts that overwrite an existing row (the H2 MERGE
+     * upserts already do). A null upsert means a changed row is deleted and inserted again, for a
+     * table keyed by a column that can change. {@code newId} maps a legacy id to the migrated one.
+     */
+    record Delta(String serviceTable, String reportTable, String serviceUpdatePg, String reportUpdatePg,
+                 LongFunction<UUID> newId) {}
+
+    @FunctionalInterface
+    interface RowReader {
+        /**
+         * The service upsert's values for the current row, or null to skip it.
+         */
+        Object[] read(ResultSet rs) throws SQLException;
+    }
+}
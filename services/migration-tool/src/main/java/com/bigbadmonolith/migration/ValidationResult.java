@@ -17,6 +17,9 @@ public class ValidationResult {
     private BigDecimal sourceRevenue = BigDecimal.ZERO;
     private BigDecimal targetRevenue = BigDecimal.ZERO;
     private long orphanedHours;
+    private long staleDailyHours;
+    private long staleRevenueCounters;
+    private long staleRollups;
 
     public boolean isRowCountMatch() {
         return sourceUserCount == targetUserCount
@@ -33,8 +36,12 @@ public class ValidationResult {
         return orphanedHours == 0;
     }
 
+    public boolean isDerivedDataFresh() {
+        return staleDailyHours == 0 && staleRevenueCounters == 0 && staleRollups == 0;
+    }
+
     public boolean isValid() {
-        return isRowCountMatch() && isRevenueMatch() && isFkIntegrity();
+        return isRowCountMatch() && isRevenueMatch() && isFkIntegrity() && isDerivedDataFresh();
     }
 
     // Getters and setters
@@ -60,10 +67,18 @@ public class ValidationResult {
     public void setTargetRevenue(BigDecimal v) { this.targetRevenue = v; }
     public long getOrphanedHours() { return orphanedHours; }
     public void setOrphanedHours(long v) { this.orphanedHours = v; }
+    public long getStaleDailyHours() { return staleDailyHours; }
+    public void setStaleDailyHours(long v) { this.staleDailyHours = v; }
+    public long getStaleRevenueCounters() { return staleRevenueCounters; }
+    public void setStaleRevenueCounters(long v) { this.staleRevenueCounters = v; }
+    public long getStaleRollups() { return staleRollups; }
+    public void setStaleRollups(long v) { this.staleRollups = v; }
 
     @Override
     public String toString() {
-        return String.format("ValidationResult{rowMatch=%s, revenueMatch=%s (src=%s, tgt=%s), fkIntegrity=%s, orphaned=%d}",
-                isRowCountMatch(), isRevenueMatch(), sourceRevenue, targetRevenue, isFkIntegrity(), orphanedHours);
+        return String.format("ValidationResult{rowMatch=%s, revenueMatch=%s (src=%s, tgt=%s), fkIntegrity=%s, orphaned=%d, " +
+                        "derivedFresh=%s (stale daily hours=%d, revenue counters=%d, rollups=%d)}",
+                isRowCountMatch(), isRevenueMatch(), sourceRevenue, targetRevenue, isFkIntegrity(), orphanedHours,
+                isDerivedDataFresh(), staleDailyHours, staleRevenueCounters, staleRollups);
     }
 }
@@ -0,0 +1,183 @@
+package com.bigbadmonolith.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Migrates from an in-memory Derby database into the real service schemas, created by each service's own Flyway migrations on
+ * PostgreSQL, where billable_hours and report_billable_hours are partitioned by month and keyed
+ * on (id, date_logged). The open ON CONFLICT DO NOTHING of both write modes then has to keep
+ * a re-copied chunk from landing twice, and a delta pass has to move an entry whose date changed
+ * to another partition rather than add a second row. After each pass the tables the services
+ * derive from the hours have to agree with them.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestMethodOrder(OrderAnnotation.class)
+class MigrationPostgresTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    private static final int HOURS = 30;
+
+    private static Connection source;
+    private static Connection users;
+    private static Connection customers;
+    private static Connection billing;
+    private static Connection reporting;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        source = DriverManager.getConnection("jdbc:derby:memory:pg_source;create=true");
+        createSource(source);
+        users = schema("user_svc", "user-service");
+        customers = schema("customer_svc", "customer-service");
+        billing = schema("billing_svc", "billing-service");
+        reporting = schema("reporting_svc", "reporting-service");
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        for (Connection connection : new Connection[] {source, users, customers, billing, reporting}) {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    @Test
+    @Order(1)
+    void migrate_shouldCopyEachEntryOnceInBothWriteModes() throws SQLException {
+        MigrationEndpoints endpoints = MigrationEndpoints.shared(source, users, customers, billing, reporting);
+
+        MigrationResult inserted = new MigrationService().migrate(endpoints,
+                MigrationSettings.sequential(7, 10, MigrationSettings.WriteMode.INSERT));
+        assertThat(inserted.getHoursMigrated()).isEqualTo(HOURS);
+
+        // Forget the checkpoints so that every chunk is copied again, this time with COPY.
+        for (Connection target : List.of(users, customers, billing, reporting)) {
+            execute(target, "DELETE FROM migration_checkpoints");
+        }
+        MigrationResult copied = new MigrationService().migrate(endpoints,
+                MigrationSettings.sequential(7, 10, MigrationSettings.WriteMode.COPY));
+        assertThat(copied.getHoursMigrated()).isEqualTo(HOURS);
+
+        for (String table : List.of("billable_hours", "report_billable_hours")) {
+            Connection target = table.equals("billable_hours") ? billing : reporting;
+            assertThat(count(target, "SELECT COUNT(*) FROM " + table)).isEqualTo(HOURS + seeded(target, table));
+            assertThat(count(target, "SELECT COUNT(*) - COUNT(DISTINCT id) FROM " + table)).isZero();
+            assertThat(count(target, "SELECT COUNT(*) FROM " + table + "_p202401")).isEqualTo(10);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void migrateChanges_shouldMoveEntryWhoseDateChangedToItsNewPartition() throws SQLException {
+        // Recorded by the change capture triggers the full load installed.
+        execute(source, "UPDATE billable_hours SET date_logged = '2024-03-28' WHERE id = 1");
+        UUID id = new MigrationService().generateDeterministicUuid("billable_hour", 1);
+
+        new MigrationService().migrateChanges(MigrationEndpoints.shared(source, users, customers, billing, reporting),
+                MigrationSettings.sequential(7, 10, MigrationSettings.WriteMode.INSERT));
+
+        for (Connection target : List.of(billing, reporting)) {
+            String table = target == billing ? "billable_hours" : "report_billable_hours";
+            assertThat(partitionsOf(target, table, id)).containsExactly(table + "_p202403");
+        }
+    }
+
+    @Test
+    @Order(3)
+    void migrateChanges_shouldLeaveTheDerivedTablesInStepWithTheHours() throws SQLException {
+        execute(source, "UPDATE billable_hours SET hours = 7.50 WHERE id = 2");
+        new MigrationService().migrateChanges(MigrationEndpoints.shared(source, users, customers, billing, reporting),
+                MigrationSettings.sequential(7, 10, MigrationSettings.WriteMode.INSERT));
+
+        ValidationResult validation = new MigrationValidator().validate(source, users, customers, billing, reporting);
+        assertThat(validation.isDerivedDataFresh()).as(validation.toString()).isTrue();
+        assertThat(count(billing, "SELECT COUNT(*) FROM user_daily_hours")).isPositive();
+        assertThat(count(billing, "SELECT COUNT(*) FROM revenue_counters WHERE scope = 'MONTH'")).isPositive();
+        assertThat(count(reporting, "SELECT COUNT(*) FROM report_monthly_rollups WHERE period_year = 2024")).isPositive();
+    }
+
+    private static Connection schema(String schema, String service) throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .schemas(schema)
+                .locations("filesystem:../" + service + "/src/main/resources/db/migration")
+                .load()
+                .migrate();
+        return DriverManager.getConnection(postgres.getJdbcUrl() + "&currentSchema=" + schema,
+                postgres.getUsername(), postgres.getPassword());
+    }
+
+    private static void createSource(Connection connection) throws SQLException {
+        execute(connection, "CREATE TABLE users (id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, email VARCHAR(255) NOT NULL, " +
+                "name VARCHAR(255) NOT NULL)");
+        execute(connection, "CREATE TABLE customers (id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name VARCHAR(255) NOT NULL, " +
+                "email VARCHAR(255) NOT NULL, address VARCHAR(500), created_at TIMESTAMP NOT NULL)");
+        execute(connection, "CREATE TABLE billing_categories (id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name VARCHAR(255) NOT NULL, " +
+                "description VARCHAR(500), hourly_rate DECIMAL(10,2) NOT NULL)");
+        execute(connection, "CREATE TABLE billable_hours (id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, customer_id BIGINT NOT NULL, " +
+                "user_id BIGINT NOT NULL, category_id BIGINT NOT NULL, hours DECIMAL(8,2) NOT NULL, note VARCHAR(1000), " +
+                "date_logged DATE NOT NULL, created_at TIMESTAMP NOT NULL)");
+
+        // Names and emails the services' seed data does not use, since those are unique there.
+        execute(connection, "INSERT INTO users (email, name) VALUES ('legacy.one@example.com', 'Legacy One'), " +
+                "('legacy.two@example.com', 'Legacy Two')");
+        execute(connection, "INSERT INTO customers (name, email, created_at) VALUES " +
+                "('Legacy Customer A', 'a@legacy.example.com', CURRENT_TIMESTAMP), " +
+                "('Legacy Customer B', 'b@legacy.example.com', CURRENT_TIMESTAMP)");
+        execute(connection, "INSERT INTO billing_categories (name, hourly_rate) VALUES ('Legacy Development', 120.00)");
+        for (int i = 0; i < HOURS; i++) {
+            execute(connection, "INSERT INTO billable_hours (customer_id, user_id, category_id, hours, date_logged, created_at) " +
+                    "VALUES (" + (1 + i % 2) + ", " + (1 + i % 2) + ", 1, 1.50, '2024-0" + (1 + i % 3) + "-" + (10 + i / 3) +
+                    "', CURRENT_TIMESTAMP)");
+        }
+    }
+
+    /**
+     * The rows the service's own seed migration put into the table.
+     */
+    private static int seeded(Connection connection, String table) throws SQLException {
+        return count(connection, "SELECT COUNT(*) FROM " + table + " WHERE date_logged >= DATE '2025-01-01'");
+    }
+
+    private static List<String> partitionsOf(Connection connection, String table, UUID id) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT tableoid::regclass::text FROM " + table + " WHERE id = ?")) {
+            stmt.setObject(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    partitions.add(rs.getString(1).replaceFirst("^.*\\.", ""));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private static int count(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.bigbadmonolith.migration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Loads the same billable hour rows into two copies of billable_hours, once with batched
+ * INSERT ... ON CONFLICT DO NOTHING and once with COPY through a staging table, one transaction
+ * per batch as the migration does, and reports rows per second for each. COPY needs PostgreSQL,
+ * so the benchmark is skipped without one. Run with:
+ * ./gradlew :services:migration-tool:benchmark -Dbenchmark.rows=1000000
+ *     -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/postgres -Dbenchmark.user=... -Dbenchmark.password=...
+ */
+@Tag("benchmark")
+class CopyLoadBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int BATCH_SIZE = Integer.getInteger("benchmark.batch-size", 1_000);
+    private static final String COLUMNS = "id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at";
+
+    @Test
+    void copy_vsBatchedInsert() throws SQLException {
+        String url = System.getProperty("benchmark.jdbc-url", "");
+        assumeTrue(url.startsWith("jdbc:postgresql:"), "COPY benchmark needs -Dbenchmark.jdbc-url pointing at PostgreSQL");
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getProperty("benchmark.user", "postgres"), System.getProperty("benchmark.password", ""))) {
+            List<List<Object[]>> batches = generate();
+
+            long insertRows = run(connection, "bench_insert_hours", batches, false);
+            long copyRows = run(connection, "bench_copy_hours", batches, true);
+
+            assertThat(insertRows).isEqualTo(copyRows).isEqualTo(ROWS);
+        }
+    }
+
+    private long run(Connection connection, String table, List<List<Object[]>> batches, boolean copy) throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + table);
+            ddl.execute("CREATE TABLE " + table + " (id UUID NOT NULL, customer_id UUID NOT NULL, user_id UUID NOT NULL, " +
+                    "category_id UUID NOT NULL, hours DECIMAL(5, 2) NOT NULL, rate_snapshot DECIMAL(10, 2) NOT NULL, " +
+                    "date_logged DATE NOT NULL, note VARCHAR(500), created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(), " +
+                    "updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(), PRIMARY KEY (id, date_logged))");
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table + " (" + COLUMNS +
+                ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING")) {
+            CopyBatchWriter writer = copy
+                    ? new CopyBatchWriter(connection, new TableMigration.CopyTarget(table, COLUMNS), BATCH_SIZE) : null;
+            for (List<Object[]> batch : batches) {
+                if (writer != null) {
+                    writer.write(batch, null);
+                } else {
+                    for (Object[] row : batch) {
+                        for (int i = 0; i < row.length; i++) {
+                            insert.setObject(i + 1, row[i]);
+                        }
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                connection.commit();
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        long rows;
+        try (Statement query = connection.createStatement();
+             ResultSet count = query.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            count.next();
+            rows = count.getLong(1);
+        }
+        System.out.printf("[benchmark] %-6s rows=%,d batch=%,d time=%,d ms rate=%,d rows/s%n",
+                copy ? "COPY" : "INSERT", rows, BATCH_SIZE, elapsedMs, rows * 1000 / elapsedMs);
+        return rows;
+    }
+
+    private static List<List<Object[]>> generate() {
+        UUID[] customers = {UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()};
+        UUID userId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        BigDecimal rate = new BigDecimal("150.00");
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        LocalDate start = LocalDate.of(2020, 1, 1);
+
+        List<List<Object[]>> batches = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new Object[] {UUID.randomUUID(), customers[i % customers.length], userId, categoryId,
+                    BigDecimal.valueOf(25 + i % 700, 2), rate, Date.valueOf(start.plusDays(i % 1800)),
+                    i % 4 == 0 ? null : "Generated entry " + i, createdAt});
+            if (batch.size() == BATCH_SIZE) {
+                batches.add(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,52 @@
+package com.bigbadmonolith.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CopyTextEncoderTest {
+
+    @Test
+    void row_shouldWriteCopyTextFormat() {
+        UUID id = UUID.fromString("0192f0c4-7a1e-7c3d-8f00-00000000abcd");
+        Object[] row = {id, new BigDecimal("1.50"), Date.valueOf(LocalDate.of(2025, 1, 15)),
+                Timestamp.from(Instant.parse("2025-01-15T09:30:00Z")), null, "plain"};
+
+        assertThat(encode(row, null))
+                .isEqualTo("0192f0c4-7a1e-7c3d-8f00-00000000abcd\t1.50\t2025-01-15\t2025-01-15T09:30:00Z\t\\N\tplain\n");
+        assertThat(encode(row, new int[] {5, 0})).isEqualTo("plain\t0192f0c4-7a1e-7c3d-8f00-00000000abcd\n");
+    }
+
+    @Test
+    void row_shouldEscapeSeparatorsAndKeepUnicode() {
+        Object[] row = {"tab\there\nnew line\\ back\rslash", "Café 😀 \uD800"};
+
+        assertThat(encode(row, null)).isEqualTo("tab\\there\\nnew line\\\\ back\\rslash\tCafé 😀 ?\n");
+    }
+
+    @Test
+    void row_shouldGrowBufferAndRestartAfterReset() {
+        CopyTextEncoder encoder = new CopyTextEncoder(8);
+        String note = "x".repeat(1000);
+        encoder.row(new Object[] {note}, null);
+        assertThat(encoder.size()).isEqualTo(1001);
+
+        encoder.reset();
+        encoder.row(new Object[] {UUID.randomUUID(), 42L}, null);
+        assertThat(new String(encoder.buffer(), 0, encoder.size(), StandardCharsets.UTF_8)).matches("[0-9a-f-]{36}\t42\n");
+    }
+
+    private static String encode(Object[] row, int[] columns) {
+        CopyTextEncoder encoder = new CopyTextEncoder(16);
+        encoder.row(row, columns);
+        return new String(encoder.buffer(), 0, encoder.size(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,38 @@
+package com.bigbadmonolith.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DeterministicUuidsTest {
+
+    @Test
+    void of_shouldMatchNameBasedUuidOfTypeAndId() {
+        DeterministicUuids ids = new DeterministicUuids("billable_hour");
+        long[] edges = {0, 1, 9, 10, 99, 100, -1, -10, 123_456_789, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long legacyId : edges) {
+            assertThat(ids.of(legacyId)).as("id %d", legacyId).isEqualTo(nameUuid("billable_hour", legacyId));
+        }
+        for (int i = 0; i < 1000; i++) {
+            long legacyId = ThreadLocalRandom.current().nextLong();
+            assertThat(ids.of(legacyId)).as("id %d", legacyId).isEqualTo(nameUuid("billable_hour", legacyId));
+        }
+    }
+
+    @Test
+    void of_shouldKeepPrefixesOfDifferentTypesApart() {
+        UUID user = new DeterministicUuids("user").of(42);
+        UUID customer = new DeterministicUuids("customer").of(42);
+
+        assertThat(user).isEqualTo(nameUuid("user", 42)).isNotEqualTo(customer);
+        assertThat(user.version()).isEqualTo(3);
+    }
+
+    private static UUID nameUuid(String entityType, long legacyId) {
+        return UUID.nameUUIDFromBytes((entityType + ":" + legacyId).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.bigbadmonolith.migration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Per-row cost of mapping a legacy billable hour: deriving its UUID and looking up the UUIDs of
+ * its user, customer and category. Compares the boxed HashMap and UUID.nameUUIDFromBytes over a
+ * concatenated string with LongKeyMap and DeterministicUuids, in time and bytes allocated per row.
+ * Run with: ./gradlew :services:migration-tool:benchmark -Dbenchmark.rows=10000000
+ */
+@Tag("benchmark")
+class LegacyIdMappingBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000_000);
+    private static final int USERS = 1_000;
+    private static final int CUSTOMERS = 5_000;
+    private static final int CATEGORIES = 20;
+
+    @Test
+    void primitiveMapAndReusedDigest_vsBoxedMapAndNameUuid() {
+        Map<Long, UUID> users = new HashMap<>();
+        Map<Long, UUID> customers = new HashMap<>();
+        Map<Long, UUID> categories = new HashMap<>();
+        LongKeyMap<UUID> userIds = new LongKeyMap<>();
+        LongKeyMap<UUID> customerIds = new LongKeyMap<>();
+        LongKeyMap<UUID> categoryIds = new LongKeyMap<>();
+        fill(users, userIds, "user", USERS);
+        fill(customers, customerIds, "customer", CUSTOMERS);
+        fill(categories, categoryIds, "category", CATEGORIES);
+        DeterministicUuids hourIds = new DeterministicUuids("billable_hour");
+
+        RowMapper before = legacyId -> {
+            UUID id = UUID.nameUUIDFromBytes(("billable_hour:" + legacyId).getBytes(StandardCharsets.UTF_8));
+            return id.hashCode() ^ users.get(1 + legacyId % USERS).hashCode()
+                    ^ customers.get(1 + legacyId % CUSTOMERS).hashCode() ^ categories.get(1 + legacyId % CATEGORIES).hashCode();
+        };
+        RowMapper after = legacyId -> hourIds.of(legacyId).hashCode() ^ userIds.get(1 + legacyId % USERS).hashCode()
+                ^ customerIds.get(1 + legacyId % CUSTOMERS).hashCode() ^ categoryIds.get(1 + legacyId % CATEGORIES).hashCode();
+
+        assertThat(run("warm-up before", before, ROWS / 10)).isEqualTo(run("warm-up after", after, ROWS / 10));
+        assertThat(run("before", before, ROWS)).isEqualTo(run("after", after, ROWS));
+    }
+
+    private static void fill(Map<Long, UUID> boxed, LongKeyMap<UUID> primitive, String entityType, int count) {
+        for (long legacyId = 1; legacyId <= count; legacyId++) {
+            UUID id = UUID.nameUUIDFromBytes((entityType + ":" + legacyId).getBytes(StandardCharsets.UTF_8));
+            boxed.put(legacyId, id);
+            primitive.put(legacyId, id);
+        }
+    }
+
+    private static int run(String label, RowMapper mapper, int rows) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        int sink = 0;
+        for (long legacyId = 1; legacyId <= rows; legacyId++) {
+            sink ^= mapper.map(legacyId);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        System.out.printf("[benchmark] %-14s rows=%,d time=%,d ms cost=%.1f ns/row alloc=%.1f B/row%n",
+                label, rows, elapsed / 1_000_000, (double) elapsed / rows, (double) allocated / rows);
+        return sink;
+    }
+
+    @FunctionalInterface
+    private interface RowMapper {
+        int map(long legacyId);
+    }
+}
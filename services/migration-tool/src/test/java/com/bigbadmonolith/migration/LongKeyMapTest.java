@@ -0,0 +1,42 @@
+package com.bigbadmonolith.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LongKeyMapTest {
+
+    @Test
+    void put_shouldGrowAndKeepEveryKey() {
+        LongKeyMap<String> map = new LongKeyMap<>(2);
+        Map<Long, String> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            // Sequential ids, like legacy keys, mixed with arbitrary ones including 0 and negatives.
+            long key = i % 3 == 0 ? random.nextLong() : i - 100;
+            map.put(key, "v" + key);
+            expected.put(key, "v" + key);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        assertThat(map.toMap()).isEqualTo(expected);
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+        assertThat(map.get(1_000_000)).isNull();
+        assertThat(map.containsKey(0)).isTrue();
+    }
+
+    @Test
+    void put_shouldReplaceTheValueOfAnExistingKey() {
+        LongKeyMap<String> map = new LongKeyMap<>();
+        map.put(5, "old");
+        map.put(5, "new");
+
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(5)).isEqualTo("new");
+        assertThatThrownBy(() -> map.put(6, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
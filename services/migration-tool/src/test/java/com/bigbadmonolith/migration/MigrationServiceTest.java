@@ -5,6 +5,10 @@ import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -164,8 +168,367 @@ class MigrationServiceTest {
         assertThat(result.isValid()).isTrue();
     }
 
+    @Test
+    @Order(8)
+    void migrate_pipelined_shouldCopyEveryRowWithParallelReadersAndWriters() throws SQLException {
+        String source = "jdbc:h2:mem:pipelined_source;DB_CLOSE_DELAY=-1";
+        try (Connection conn = DriverManager.getConnection(source)) {
+            createSourceSchema(conn);
+            insertSourceData(conn);
+            insertGeneratedHours(conn, 997);
+        }
+        MigrationEndpoints endpoints = pipelinedTargets(source, "pipelined");
+
+        MigrationService service = new MigrationService();
+        MigrationResult result = service.migrate(endpoints,
+                new MigrationSettings(25, 3, 2, 2, 3, 100, MigrationSettings.WriteMode.INSERT));
+
+        assertThat(result.getHoursMigrated()).isEqualTo(1001);
+        try (Connection billing = endpoints.billing().acquire();
+             Connection reporting = endpoints.reporting().acquire()) {
+            assertThat(countRows(billing, "billable_hours")).isEqualTo(1001);
+            assertThat(countRows(reporting, "report_billable_hours")).isEqualTo(1001);
+            assertThat(countRows(reporting, "report_users")).isEqualTo(2);
+        }
+        assertThat(service.getIdMapping("customers")).hasSize(3);
+    }
+
+    @Test
+    @Order(9)
+    void migrate_pipelined_shouldStopAllThreadsWhenAWriterFails() throws SQLException {
+        String source = "jdbc:h2:mem:failing_source;DB_CLOSE_DELAY=-1";
+        try (Connection conn = DriverManager.getConnection(source)) {
+            createSourceSchema(conn);
+            insertSourceData(conn);
+            insertGeneratedHours(conn, 500);
+        }
+        MigrationEndpoints endpoints = pipelinedTargets(source, "failing");
+        try (Connection reporting = endpoints.reporting().acquire(); Statement stmt = reporting.createStatement()) {
+            stmt.executeUpdate("DROP TABLE report_billable_hours");
+        }
+
+        assertThatThrownBy(() -> new MigrationService().migrate(endpoints, new MigrationSettings(10, 2, 2, 1, 3)))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("REPORT_BILLABLE_HOURS");
+    }
+
+    @Test
+    @Order(10)
+    void dependencyScheduler_shouldStartTasksOnlyAfterTheirDependencies() throws SQLException {
+        List<String> finished = Collections.synchronizedList(new ArrayList<>());
+        new DependencyScheduler()
+                .add("hours", () -> finished.add("hours"), "users", "categories")
+                .add("users", () -> {
+                    Thread.sleep(50);
+                    finished.add("users");
+                })
+                .add("categories", () -> finished.add("categories"))
+                .run(3);
+
+        assertThat(finished).hasSize(3).endsWith("hours");
+        assertThatThrownBy(() -> new DependencyScheduler().add("a", () -> {}, "b").add("b", () -> {}, "a").run(1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cycle");
+    }
+
+    @Test
+    @Order(11)
+    void migrate_shouldResumeFromTheFirstIncompleteChunkAfterAFailure() throws SQLException {
+        String source = "jdbc:h2:mem:resumed_source;DB_CLOSE_DELAY=-1";
+        try (Connection conn = DriverManager.getConnection(source)) {
+            createSourceSchema(conn);
+            insertSourceData(conn);
+            insertGeneratedHours(conn, 500);
+        }
+        MigrationEndpoints endpoints = pipelinedTargets(source, "resumed");
+        MigrationSettings settings = new MigrationSettings(30, 2, 2, 2, 3, 100, MigrationSettings.WriteMode.INSERT);
+        try (Connection reporting = endpoints.reporting().acquire(); Statement stmt = reporting.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE report_billable_hours ADD CONSTRAINT no_200s " +
+                    "CHECK (note IS NULL OR note NOT LIKE 'Generated 2__')");
+        }
+
+        // The reporting side rejects the rows generated as 201..299, ids 206..304.
+        assertThatThrownBy(() -> new MigrationService().migrate(endpoints, settings))
+                .isInstanceOf(SQLException.class);
+        try (Connection billing = endpoints.billing().acquire();
+             Connection reporting = endpoints.reporting().acquire();
+             Statement stmt = reporting.createStatement()) {
+            assertThat(countCheckpoints(reporting, "users")).isEqualTo(1);
+            assertThat(countCheckpoints(reporting, "billable_hours")).isLessThan(6);
+            stmt.executeUpdate("ALTER TABLE report_billable_hours DROP CONSTRAINT no_200s");
+        }
+
+        MigrationResult resumed = new MigrationService().migrate(endpoints, settings);
+
+        assertThat(resumed.getUsersMigrated()).isEqualTo(2);
+        assertThat(resumed.getHoursMigrated()).isEqualTo(504);
+        try (Connection billing = endpoints.billing().acquire();
+             Connection reporting = endpoints.reporting().acquire();
+             Statement stmt = billing.createStatement()) {
+            assertThat(countRows(reporting, "report_billable_hours")).isEqualTo(504);
+            assertThat(countCheckpoints(billing, "billable_hours")).isEqualTo(6);
+            assertThat(countCheckpoints(reporting, "billable_hours")).isEqualTo(6);
+
+            // Only the chunk that is no longer checkpointed is copied again.
+            stmt.executeUpdate("DELETE FROM billable_hours");
+            stmt.executeUpdate("DELETE FROM migration_checkpoints WHERE source_table = 'billable_hours' AND first_id = 300");
+            new MigrationService().migrate(endpoints, settings);
+            assertThat(countRows(billing, "billable_hours")).isEqualTo(100);
+        }
+    }
+
+    @Test
+    @Order(12)
+    void migrateChanges_shouldApplyInsertsUpdatesAndDeletesSinceTheLastPass() throws SQLException {
+        String source = "jdbc:h2:mem:delta_source;DB_CLOSE_DELAY=-1";
+        MigrationEndpoints endpoints = pipelinedTargets(source, "delta");
+        try (Connection conn = DriverManager.getConnection(source)) {
+            createSourceSchema(conn);
+            insertSourceData(conn);
+            insertGeneratedHours(conn, 20);
+        }
+        MigrationSettings settings = new MigrationSettings(5, 2, 2, 2, 3, 10, MigrationSettings.WriteMode.INSERT);
+        new MigrationService().migrate(endpoints, settings);
+
+        // H2 has no SQL triggers, so the changes the Derby triggers would capture are recorded by hand.
+        try (Connection conn = DriverManager.getConnection(source); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE users SET name = 'John Q. Doe' WHERE id = 1");
+            stmt.executeUpdate("INSERT INTO customers (name, email, address, created_at) VALUES " +
+                    "('Newco', 'ap@newco.com', '1 New St', CURRENT_TIMESTAMP)");
+            stmt.executeUpdate("INSERT INTO billable_hours (customer_id, user_id, category_id, hours, note, date_logged, created_at) " +
+                    "VALUES (4, 1, 1, 2.00, 'First Newco job', '2025-03-03', CURRENT_TIMESTAMP)");
+            stmt.executeUpdate("UPDATE billable_hours SET hours = 5.00, date_logged = '2025-03-04' WHERE id = 1");
+            capture(conn, "users", 1);
+            capture(conn, "customers", 4);
+            capture(conn, "billable_hours", 1, 25);
+
+            // A category can only go once its hours are gone; the pass has to delete them in that order too.
+            try (ResultSet rs = stmt.executeQuery("SELECT id FROM billable_hours WHERE category_id = 3")) {
+                List<Long> hours = new ArrayList<>();
+                while (rs.next()) {
+                    hours.add(rs.getLong(1));
+                }
+                capture(conn, "billable_hours", hours.stream().mapToLong(Long::longValue).toArray());
+            }
+            stmt.executeUpdate("DELETE FROM billable_hours WHERE category_id = 3");
+            stmt.executeUpdate("DELETE FROM billing_categories WHERE id = 3");
+            capture(conn, "billing_categories", 3);
+        }
+
+        MigrationService service = new MigrationService();
+        MigrationResult pass = service.migrateChanges(endpoints, settings);
+
+        assertThat(pass.getUsersMigrated()).isEqualTo(1);
+        assertThat(pass.getCustomersMigrated()).isEqualTo(1);
+        assertThat(pass.getCategoriesMigrated()).isEqualTo(1);
+        try (Connection derby = endpoints.source().acquire();
+             Connection users = endpoints.users().acquire();
+             Connection customers = endpoints.customers().acquire();
+             Connection billing = endpoints.billing().acquire();
+             Connection reporting = endpoints.reporting().acquire();
+             Statement stmt = billing.createStatement()) {
+            ValidationResult validation = new MigrationValidator().validate(derby, users, customers, billing);
+            assertThat(validation.isValid()).isTrue();
+            assertThat(countRows(reporting, "report_billable_hours")).isEqualTo(countRows(derby, "billable_hours"));
+            assertThat(countRows(reporting, "report_billing_categories")).isEqualTo(2);
+            assertThat(countRows(derby, "migration_changes")).isZero();
+
+            try (ResultSet rs = stmt.executeQuery("SELECT hours, date_logged FROM billable_hours WHERE id = '" +
+                    service.generateDeterministicUuid("billable_hour", 1) + "'")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getBigDecimal(1)).isEqualByComparingTo("5.00");
+                assertThat(rs.getDate(2).toLocalDate()).isEqualTo(LocalDate.of(2025, 3, 4));
+            }
+            try (Statement query = reporting.createStatement();
+                 ResultSet rs = query.executeQuery("SELECT name FROM report_users WHERE id = '" +
+                         service.generateDeterministicUuid("user", 1) + "'")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).isEqualTo("John Q. Doe");
+            }
+        }
+
+        assertThat(new MigrationService().migrateChanges(endpoints, settings).totalRecords()).isZero();
+    }
+
+    @Test
+    @Order(13)
+    void migrateAndMigrateChanges_shouldRebuildTheDerivedTablesFromTheMigratedHours() throws SQLException {
+        String source = "jdbc:h2:mem:derived_source;DB_CLOSE_DELAY=-1";
+        MigrationEndpoints endpoints = pipelinedTargets(source, "derived");
+        try (Connection conn = DriverManager.getConnection(source)) {
+            createSourceSchema(conn);
+            insertSourceData(conn);
+            insertGeneratedHours(conn, 20);
+        }
+        try (Connection billing = endpoints.billing().acquire();
+             Connection reporting = endpoints.reporting().acquire()) {
+            createDerivedTables(billing, reporting);
+            // Left over from before the load; the rebuild drops it.
+            try (Statement stmt = reporting.createStatement()) {
+                stmt.executeUpdate("INSERT INTO report_monthly_rollups VALUES ('" + UUID.randomUUID() + "', '" +
+                        UUID.randomUUID() + "', '" + UUID.randomUUID() + "', 2024, 1, 1.00, 150.0000, 1)");
+            }
+        }
+        MigrationSettings settings = new MigrationSettings(5, 2, 2, 2, 3, 10, MigrationSettings.WriteMode.INSERT);
+        MigrationService service = new MigrationService();
+        service.migrate(endpoints, settings);
+        assertThat(validate(endpoints).isDerivedDataFresh()).isTrue();
+
+        try (Connection conn = DriverManager.getConnection(source); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE billable_hours SET hours = 5.00, date_logged = '2025-03-04' WHERE id = 1");
+            capture(conn, "billable_hours", 1);
+        }
+        service.migrateChanges(endpoints, settings);
+
+        ValidationResult validation = validate(endpoints);
+        assertThat(validation.isValid()).isTrue();
+        try (Connection billing = endpoints.billing().acquire();
+             Connection reporting = endpoints.reporting().acquire();
+             Statement stmt = billing.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT total_hours FROM user_daily_hours WHERE user_id = '" +
+                    service.generateDeterministicUuid("user", 1) + "' AND date_logged = DATE '2025-03-04'")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getBigDecimal(1)).isEqualByComparingTo("5.00");
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT hours, entries FROM revenue_counters WHERE scope = 'MONTH' " +
+                    "AND scope_key = '2025-03'")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getBigDecimal(1)).isEqualByComparingTo("5.00");
+                assertThat(rs.getLong(2)).isEqualTo(1);
+            }
+            assertThat(countRows(reporting, "report_monthly_rollups WHERE period_year = 2024")).isZero();
+
+            try (Statement update = reporting.createStatement()) {
+                update.executeUpdate("UPDATE report_monthly_rollups SET total_hours = total_hours + 1 " +
+                        "WHERE period_year = 2025 AND period_month = 3");
+            }
+        }
+        validation = validate(endpoints);
+        assertThat(validation.getStaleRollups()).isEqualTo(1);
+        assertThat(validation.getStaleDailyHours()).isZero();
+        assertThat(validation.getStaleRevenueCounters()).isZero();
+        assertThat(validation.isValid()).isFalse();
+    }
+
+    @Test
+    @Order(14)
+    void migrateChanges_shouldRefreshOnlyTheTouchedKeysAndCountTheArchivedMonths() throws SQLException {
+        String source = "jdbc:h2:mem:touched_source;DB_CLOSE_DELAY=-1";
+        MigrationEndpoints endpoints = pipelinedTargets(source, "touched");
+        try (Connection conn = DriverManager.getConnection(source)) {
+            createSourceSchema(conn);
+            insertSourceData(conn);
+        }
+        MigrationService service = new MigrationService();
+        String customerId = service.generateDeterministicUuid("customer", 1).toString();
+        String userId = service.generateDeterministicUuid("user", 1).toString();
+        try (Connection billing = endpoints.billing().acquire();
+             Connection reporting = endpoints.reporting().acquire()) {
+            createDerivedTables(billing, reporting);
+            createArchiveTables(billing);
+            // June 2019 was archived: its hours are gone, its totals are in the catalog.
+            try (Statement stmt = billing.createStatement()) {
+                stmt.executeUpdate("INSERT INTO archive_catalog VALUES ('2019-06', 300.0000, 2.00, 2)");
+                stmt.executeUpdate("INSERT INTO archive_customer_totals VALUES ('2019-06', '" + customerId + "', 300.0000, 2.00, 2)");
+                stmt.executeUpdate("INSERT INTO user_daily_hours VALUES ('" + userId + "', DATE '2019-06-03', 2.00, NULL)");
+            }
+        }
+        MigrationSettings settings = new MigrationSettings(5, 2, 2, 2, 3, 10, MigrationSettings.WriteMode.INSERT);
+        service.migrate(endpoints, settings);
+        assertThat(validate(endpoints).isDerivedDataFresh()).isTrue();
+        try (Connection billing = endpoints.billing().acquire();
+             Connection reporting = endpoints.reporting().acquire();
+             Statement stmt = billing.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT revenue, entries FROM revenue_counters WHERE scope = 'MONTH' " +
+                    "AND scope_key = '2019-06'")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getBigDecimal(1)).isEqualByComparingTo("300.0000");
+                assertThat(rs.getLong(2)).isEqualTo(2);
+            }
+            assertThat(countRows(billing, "user_daily_hours WHERE date_logged = DATE '2019-06-03'")).isEqualTo(1);
+
+            // Keys the delta pass does not touch: user 2 on 2025-01-16 and customer 3's January.
+            stmt.executeUpdate("UPDATE user_daily_hours SET total_hours = total_hours + 1 WHERE user_id = '" +
+                    service.generateDeterministicUuid("user", 2) + "' AND date_logged = DATE '2025-01-16'");
+            try (Statement update = reporting.createStatement()) {
+                update.executeUpdate("UPDATE report_monthly_rollups SET total_hours = total_hours + 1 WHERE customer_id = '" +
+                        service.generateDeterministicUuid("customer", 3) + "'");
+            }
+        }
+
+        try (Connection conn = DriverManager.getConnection(source); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE billable_hours SET hours = 5.00, date_logged = '2025-03-04' WHERE id = 1");
+            capture(conn, "billable_hours", 1);
+        }
+        service.migrateChanges(endpoints, settings);
+
+        ValidationResult validation = validate(endpoints);
+        assertThat(validation.getStaleDailyHours()).isEqualTo(1);
+        assertThat(validation.getStaleRollups()).isEqualTo(1);
+        assertThat(validation.getStaleRevenueCounters()).isZero();
+        try (Connection billing = endpoints.billing().acquire(); Statement stmt = billing.createStatement()) {
+            assertThat(countRows(billing, "user_daily_hours WHERE user_id = '" + userId + "' AND date_logged = DATE '2025-01-15'")).isZero();
+            try (ResultSet rs = stmt.executeQuery("SELECT hours, entries FROM revenue_counters WHERE scope = 'CUSTOMER' " +
+                    "AND scope_key = '" + customerId + "'")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getBigDecimal(1)).isEqualByComparingTo("11.00");
+                assertThat(rs.getLong(2)).isEqualTo(4);
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT entries FROM revenue_counters WHERE scope = 'ALL'")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getLong(1)).isEqualTo(6);
+            }
+        }
+    }
+
     // --- Helper methods ---
 
+    private static ValidationResult validate(MigrationEndpoints endpoints) throws SQLException {
+        try (Connection derby = endpoints.source().acquire();
+             Connection users = endpoints.users().acquire();
+             Connection customers = endpoints.customers().acquire();
+             Connection billing = endpoints.billing().acquire();
+             Connection reporting = endpoints.reporting().acquire()) {
+            return new MigrationValidator().validate(derby, users, customers, billing, reporting);
+        }
+    }
+
+    private static MigrationEndpoints pipelinedTargets(String sourceUrl, String prefix) throws SQLException {
+        String options = ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+        MigrationEndpoints endpoints = new MigrationEndpoints(
+                ConnectionSource.of(sourceUrl, "", ""),
+                ConnectionSource.of("jdbc:h2:mem:" + prefix + "_user" + options, "", ""),
+                ConnectionSource.of("jdbc:h2:mem:" + prefix + "_customer" + options, "", ""),
+                ConnectionSource.of("jdbc:h2:mem:" + prefix + "_billing" + options, "", ""),
+                ConnectionSource.of("jdbc:h2:mem:" + prefix + "_reporting" + options, "", ""));
+        try (Connection users = endpoints.users().acquire();
+             Connection customers = endpoints.customers().acquire();
+             Connection billing = endpoints.billing().acquire();
+             Connection reporting = endpoints.reporting().acquire()) {
+            createTargetUserSchema(users);
+            createTargetCustomerSchema(customers);
+            createTargetBillingSchema(billing);
+            createTargetReportingSchema(reporting);
+        }
+        return endpoints;
+    }
+
+    private static void insertGeneratedHours(Connection conn, int count) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO billable_hours " +
+                "(customer_id, user_id, category_id, hours, note, date_logged, created_at) VALUES (?, ?, ?, 1.50, ?, ?, CURRENT_TIMESTAMP)")) {
+            for (int i = 0; i < count; i++) {
+                stmt.setLong(1, 1 + i % 3);
+                stmt.setLong(2, 1 + i % 2);
+                stmt.setLong(3, 1 + i % 3);
+                stmt.setString(4, i % 5 == 0 ? null : "Generated " + i);
+                stmt.setDate(5, Date.valueOf(LocalDate.of(2025, 2, 1).plusDays(i % 28)));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+
     private long countRows(Connection conn, String table) throws SQLException {
         try (Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
@@ -174,6 +537,76 @@ class MigrationServiceTest {
         }
     }
 
+    private static void capture(Connection conn, String table, long... ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO migration_changes (table_name, row_id) VALUES (?, ?)")) {
+            for (long id : ids) {
+                stmt.setString(1, table);
+                stmt.setLong(2, id);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private long countCheckpoints(Connection conn, String table) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM migration_checkpoints WHERE source_table = ?")) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static void createDerivedTables(Connection billing, Connection reporting) throws SQLException {
+        try (Statement stmt = billing.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE user_daily_hours (" +
+                    "user_id UUID NOT NULL, " +
+                    "date_logged DATE NOT NULL, " +
+                    "total_hours DECIMAL(6,2) NOT NULL DEFAULT 0 CHECK (total_hours >= 0), " +
+                    "backfilled_over_limit DECIMAL(6,2), " +
+                    "PRIMARY KEY (user_id, date_logged), " +
+                    "CHECK (total_hours <= COALESCE(backfilled_over_limit, 24)))");
+            stmt.executeUpdate("CREATE TABLE revenue_counters (" +
+                    "scope VARCHAR(16) NOT NULL, " +
+                    "scope_key VARCHAR(36) NOT NULL, " +
+                    "stripe SMALLINT NOT NULL, " +
+                    "revenue DECIMAL(19,4) NOT NULL DEFAULT 0, " +
+                    "hours DECIMAL(14,2) NOT NULL DEFAULT 0, " +
+                    "entries BIGINT NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (scope, scope_key, stripe))");
+        }
+        try (Statement stmt = reporting.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE report_monthly_rollups (" +
+                    "customer_id UUID NOT NULL, " +
+                    "category_id UUID NOT NULL, " +
+                    "user_id UUID NOT NULL, " +
+                    "period_year INTEGER NOT NULL, " +
+                    "period_month INTEGER NOT NULL, " +
+                    "total_hours DECIMAL(14,2) NOT NULL, " +
+                    "total_revenue DECIMAL(19,4) NOT NULL, " +
+                    "entry_count BIGINT NOT NULL, " +
+                    "PRIMARY KEY (customer_id, category_id, user_id, period_year, period_month))");
+        }
+    }
+
+    private static void createArchiveTables(Connection billing) throws SQLException {
+        try (Statement stmt = billing.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE archive_catalog (" +
+                    "period VARCHAR(7) PRIMARY KEY, " +
+                    "revenue DECIMAL(19,4) NOT NULL, " +
+                    "hours DECIMAL(14,2) NOT NULL, " +
+                    "entries INTEGER NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE archive_customer_totals (" +
+                    "period VARCHAR(7) NOT NULL REFERENCES archive_catalog (period) ON DELETE CASCADE, " +
+                    "customer_id UUID NOT NULL, " +
+                    "revenue DECIMAL(19,4) NOT NULL, " +
+                    "hours DECIMAL(14,2) NOT NULL, " +
+                    "entries INTEGER NOT NULL, " +
+                    "PRIMARY KEY (period, customer_id))");
+        }
+    }
+
     private static void createSourceSchema(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
             stmt.executeUpdate("CREATE TABLE users (" +
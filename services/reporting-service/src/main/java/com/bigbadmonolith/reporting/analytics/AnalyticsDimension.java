@@ -0,0 +1,20 @@
+package com.bigbadmonolith.reporting.analytics;
+
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+
+public enum AnalyticsDimension {
+    NONE,
+    CUSTOMER,
+    USER,
+    CATEGORY,
+    MONTH;
+
+    public static AnalyticsDimension fromParameter(String value) {
+        for (AnalyticsDimension dimension : values()) {
+            if (dimension.name().equalsIgnoreCase(value)) {
+                return dimension;
+            }
+        }
+        throw new BusinessValidationException("Unsupported groupBy '" + value + "' (expected none, customer, user, category or month)");
+    }
+}
@@ -0,0 +1,19 @@
+package com.bigbadmonolith.reporting.analytics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.UUID;
+
+/**
+ * Optional restrictions for a columnar scan; null fields match everything and the date range is inclusive.
+ */
+public record AnalyticsFilter(LocalDate from, LocalDate to, UUID customerId, UUID userId, UUID categoryId) {
+
+    public static AnalyticsFilter all() {
+        return new AnalyticsFilter(null, null, null, null, null);
+    }
+
+    public static AnalyticsFilter forMonth(YearMonth month) {
+        return new AnalyticsFilter(month.atDay(1), month.atEndOfMonth(), null, null, null);
+    }
+}
@@ -0,0 +1,552 @@
+package com.bigbadmonolith.reporting.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory columnar copy of report_billable_hours for ad-hoc aggregation.
+ * <p>
+ * Each fact is one slot across a set of primitive arrays: dictionary-encoded ints for the
+ * customer, user and category UUIDs, the epoch day and year*12+month of date_logged, and
+ * fixed-point longs for hours and rate (hundredths). Revenue is computed as hours * rate in
+ * ten-thousandths. Rows are kept dense by moving the last row into a removed slot, and fact
+ * ids are located through an open-addressing index over the id columns rather than a map of
+ * boxed UUIDs.
+ * <p>
+ * Writes made in a transaction are collected and applied once it has committed, so a rolled back
+ * write never reaches the store. Writes committed while {@link #reload} is reading the table are
+ * queued and replayed on top of the fresh copy before any read sees it.
+ * <p>
+ * Off by default: the store holds every fact in the heap of every node. The revenue summaries
+ * use the monthly rollups when it is off; only ad-hoc aggregation needs it.
+ */
+@Component
+public class ColumnarBillableHourStore implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarBillableHourStore.class);
+
+    static final int SCAN_SPLIT_THRESHOLD = 1 << 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int LOAD_FETCH_SIZE = 10_000;
+    private static final int ANY = -1;
+    private static final int NO_MATCH = -2;
+
+    private static final String LOAD_SQL =
+            "SELECT id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged FROM report_billable_hours";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object reloadQueueLock = new Object();
+    private boolean reloading;
+    private List<Write> writtenDuringReload = new ArrayList<>();
+
+    private final Dictionary customers = new Dictionary();
+    private final Dictionary users = new Dictionary();
+    private final Dictionary categories = new Dictionary();
+
+    private int size;
+    private long[] idHi;
+    private long[] idLo;
+    private int[] customer;
+    private int[] user;
+    private int[] category;
+    private int[] epochDay;
+    private int[] month;
+    private long[] hours;
+    private long[] rate;
+    private int minMonth;
+    private int maxMonth;
+
+    /** Slot holds row + 1, 0 means empty. Kept at most half full. */
+    private int[] index;
+
+    public ColumnarBillableHourStore(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${reporting.columnar.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        clear();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the columns with a fresh copy of report_billable_hours, then applies the writes
+     * committed meanwhile. The copy may or may not include such a write already; applying it
+     * again leaves the same row.
+     */
+    public void reload() {
+        lock.writeLock().lock();
+        synchronized (reloadQueueLock) {
+            reloading = true;
+        }
+        try {
+            long start = System.nanoTime();
+            clear();
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(LOAD_SQL);
+                statement.setFetchSize(LOAD_FETCH_SIZE);
+                return statement;
+            }, rs -> {
+                put(rs.getObject("id", UUID.class), rs.getObject("customer_id", UUID.class),
+                        rs.getObject("user_id", UUID.class), rs.getObject("category_id", UUID.class),
+                        rs.getBigDecimal("hours"), rs.getBigDecimal("rate_snapshot"),
+                        rs.getObject("date_logged", LocalDate.class));
+            }));
+            log.info("Loaded {} billable hours into the columnar store in {} ms", size, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            try {
+                List<Write> replay;
+                synchronized (reloadQueueLock) {
+                    replay = writtenDuringReload;
+                    writtenDuringReload = new ArrayList<>();
+                    reloading = false;
+                }
+                replay.forEach(this::applyLocked);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void upsert(UUID id, UUID customerId, UUID userId, UUID categoryId,
+                       BigDecimal hoursValue, BigDecimal rateValue, LocalDate dateLogged) {
+        if (!enabled) {
+            return;
+        }
+        write(new Write(id, false, customerId, userId, categoryId, hoursValue, rateValue, dateLogged));
+    }
+
+    public void remove(UUID id) {
+        if (!enabled) {
+            return;
+        }
+        write(new Write(id, true, null, null, null, null, null, null));
+    }
+
+    /**
+     * Applies the write once the current transaction has committed, or now outside of one.
+     */
+    private void write(Write write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(List.of(write));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Write> pending = (List<Write>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Write> writes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, writes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(writes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ColumnarBillableHourStore.this);
+                }
+            });
+            pending = writes;
+        }
+        pending.add(write);
+    }
+
+    private void apply(List<Write> writes) {
+        synchronized (reloadQueueLock) {
+            if (reloading) {
+                writtenDuringReload.addAll(writes);
+                return;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            writes.forEach(this::applyLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(Write write) {
+        if (write.remove()) {
+            delete(write.id());
+        } else {
+            put(write.id(), write.customerId(), write.userId(), write.categoryId(), write.hours(), write.rate(), write.dateLogged());
+        }
+    }
+
+    public ColumnarTotals sum(AnalyticsFilter filter) {
+        return sumBy(AnalyticsDimension.NONE, filter).values().stream().findFirst()
+                .orElse(new ColumnarTotals(BigDecimal.ZERO.setScale(2), BigDecimal.ZERO.setScale(4), 0));
+    }
+
+    /**
+     * Aggregates matching rows grouped by a UUID dimension. Groups with no matching rows are omitted.
+     */
+    public Map<UUID, ColumnarTotals> sumBy(AnalyticsDimension dimension, AnalyticsFilter filter) {
+        if (dimension == AnalyticsDimension.MONTH) {
+            throw new IllegalArgumentException("Use sumByMonth for month grouping");
+        }
+        lock.readLock().lock();
+        try {
+            Dictionary dictionary = switch (dimension) {
+                case CUSTOMER -> customers;
+                case USER -> users;
+                case CATEGORY -> categories;
+                default -> null;
+            };
+            int[] keys = switch (dimension) {
+                case CUSTOMER -> customer;
+                case USER -> user;
+                case CATEGORY -> category;
+                default -> null;
+            };
+            int groups = dictionary != null ? dictionary.size() : 1;
+            long[] acc = scan(filter, keys, 0, groups);
+
+            Map<UUID, ColumnarTotals> result = new LinkedHashMap<>();
+            for (int g = 0; g < groups; g++) {
+                if (acc[g * 3 + 2] > 0) {
+                    result.put(dictionary != null ? dictionary.valueOf(g) : null, totals(acc, g));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<YearMonth, ColumnarTotals> sumByMonth(AnalyticsFilter filter) {
+        lock.readLock().lock();
+        try {
+            if (size == 0) {
+                return Map.of();
+            }
+            int groups = maxMonth - minMonth + 1;
+            long[] acc = scan(filter, month, minMonth, groups);
+
+            Map<YearMonth, ColumnarTotals> result = new LinkedHashMap<>();
+            for (int g = 0; g < groups; g++) {
+                if (acc[g * 3 + 2] > 0) {
+                    int key = minMonth + g;
+                    result.put(YearMonth.of(key / 12, key % 12 + 1), totals(acc, g));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] scan(AnalyticsFilter filter, int[] keys, int keyOffset, int groups) {
+        Predicate predicate = new Predicate(
+                filter.from() != null ? (int) filter.from().toEpochDay() : Integer.MIN_VALUE,
+                filter.to() != null ? (int) filter.to().toEpochDay() : Integer.MAX_VALUE,
+                lookup(customers, filter.customerId()),
+                lookup(users, filter.userId()),
+                lookup(categories, filter.categoryId()));
+        if (size == 0 || predicate.customer == NO_MATCH || predicate.user == NO_MATCH || predicate.category == NO_MATCH) {
+            return new long[groups * 3];
+        }
+        return ForkJoinPool.commonPool().invoke(new ScanTask(this, predicate, keys, keyOffset, groups, 0, size));
+    }
+
+    private static int lookup(Dictionary dictionary, UUID value) {
+        if (value == null) {
+            return ANY;
+        }
+        int code = dictionary.find(value);
+        return code >= 0 ? code : NO_MATCH;
+    }
+
+    private static ColumnarTotals totals(long[] acc, int group) {
+        return new ColumnarTotals(
+                BigDecimal.valueOf(acc[group * 3], 2),
+                BigDecimal.valueOf(acc[group * 3 + 1], 4),
+                acc[group * 3 + 2]);
+    }
+
+    // --- row storage, callers hold the write lock ---
+
+    private void delete(UUID id) {
+        int slot = findSlot(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slot < 0) {
+            return;
+        }
+        int row = index[slot] - 1;
+        deleteSlot(slot);
+        int last = --size;
+        if (row != last) {
+            index[findSlot(idHi[last], idLo[last])] = row + 1;
+            idHi[row] = idHi[last];
+            idLo[row] = idLo[last];
+            customer[row] = customer[last];
+            user[row] = user[last];
+            category[row] = category[last];
+            epochDay[row] = epochDay[last];
+            month[row] = month[last];
+            hours[row] = hours[last];
+            rate[row] = rate[last];
+        }
+    }
+
+    private void clear() {
+        size = 0;
+        idHi = new long[INITIAL_CAPACITY];
+        idLo = new long[INITIAL_CAPACITY];
+        customer = new int[INITIAL_CAPACITY];
+        user = new int[INITIAL_CAPACITY];
+        category = new int[INITIAL_CAPACITY];
+        epochDay = new int[INITIAL_CAPACITY];
+        month = new int[INITIAL_CAPACITY];
+        hours = new long[INITIAL_CAPACITY];
+        rate = new long[INITIAL_CAPACITY];
+        index = new int[INITIAL_CAPACITY * 2];
+        minMonth = Integer.MAX_VALUE;
+        maxMonth = Integer.MIN_VALUE;
+    }
+
+    private void put(UUID id, UUID customerId, UUID userId, UUID categoryId,
+                     BigDecimal hoursValue, BigDecimal rateValue, LocalDate dateLogged) {
+        long hi = id.getMostSignificantBits();
+        long lo = id.getLeastSignificantBits();
+        int slot = findSlot(hi, lo);
+        int row;
+        if (slot >= 0) {
+            row = index[slot] - 1;
+        } else {
+            if (size == idHi.length) {
+                grow();
+            }
+            row = size++;
+            idHi[row] = hi;
+            idLo[row] = lo;
+            insertSlot(row);
+        }
+        customer[row] = customers.encode(customerId);
+        user[row] = users.encode(userId);
+        category[row] = categories.encode(categoryId);
+        epochDay[row] = (int) dateLogged.toEpochDay();
+        int monthKey = dateLogged.getYear() * 12 + dateLogged.getMonthValue() - 1;
+        month[row] = monthKey;
+        minMonth = Math.min(minMonth, monthKey);
+        maxMonth = Math.max(maxMonth, monthKey);
+        hours[row] = toHundredths(hoursValue);
+        rate[row] = toHundredths(rateValue);
+    }
+
+    private static long toHundredths(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private void grow() {
+        int capacity = idHi.length * 2;
+        idHi = Arrays.copyOf(idHi, capacity);
+        idLo = Arrays.copyOf(idLo, capacity);
+        customer = Arrays.copyOf(customer, capacity);
+        user = Arrays.copyOf(user, capacity);
+        category = Arrays.copyOf(category, capacity);
+        epochDay = Arrays.copyOf(epochDay, capacity);
+        month = Arrays.copyOf(month, capacity);
+        hours = Arrays.copyOf(hours, capacity);
+        rate = Arrays.copyOf(rate, capacity);
+        index = new int[capacity * 2];
+        for (int row = 0; row < size; row++) {
+            insertSlot(row);
+        }
+    }
+
+    private int home(long hi, long lo) {
+        long h = (hi ^ lo) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (index.length - 1);
+    }
+
+    private int findSlot(long hi, long lo) {
+        int mask = index.length - 1;
+        for (int slot = home(hi, lo); index[slot] != 0; slot = (slot + 1) & mask) {
+            int row = index[slot] - 1;
+            if (idHi[row] == hi && idLo[row] == lo) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insertSlot(int row) {
+        int mask = index.length - 1;
+        int slot = home(idHi[row], idLo[row]);
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = row + 1;
+    }
+
+    /** Backward-shift deletion so probe chains stay unbroken without tombstones. */
+    private void deleteSlot(int slot) {
+        int mask = index.length - 1;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (index[next] == 0) {
+                break;
+            }
+            int row = index[next] - 1;
+            int home = home(idHi[row], idLo[row]);
+            boolean reachableWithoutHole = hole <= next
+                    ? hole < home && home <= next
+                    : hole < home || home <= next;
+            if (!reachableWithoutHole) {
+                index[hole] = index[next];
+                hole = next;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    /**
+     * One upsert or removal waiting for its transaction to commit or for a reload to finish.
+     */
+    private record Write(UUID id, boolean remove, UUID customerId, UUID userId, UUID categoryId,
+                         BigDecimal hours, BigDecimal rate, LocalDate dateLogged) {}
+
+    private record Predicate(int fromDay, int toDay, int customer, int user, int category) {}
+
+    private static final class ScanTask extends RecursiveTask<long[]> {
+
+        private final ColumnarBillableHourStore store;
+        private final Predicate predicate;
+        private final int[] keys;
+        private final int keyOffset;
+        private final int groups;
+        private final int from;
+        private final int to;
+
+        ScanTask(ColumnarBillableHourStore store, Predicate predicate, int[] keys, int keyOffset,
+                 int groups, int from, int to) {
+            this.store = store;
+            this.predicate = predicate;
+            this.keys = keys;
+            this.keyOffset = keyOffset;
+            this.groups = groups;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= SCAN_SPLIT_THRESHOLD) {
+                return scanRange();
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(store, predicate, keys, keyOffset, groups, from, middle);
+            ScanTask right = new ScanTask(store, predicate, keys, keyOffset, groups, middle, to);
+            left.fork();
+            long[] acc = right.compute();
+            long[] other = left.join();
+            for (int i = 0; i < acc.length; i++) {
+                acc[i] = Math.addExact(acc[i], other[i]);
+            }
+            return acc;
+        }
+
+        private long[] scanRange() {
+            int[] days = store.epochDay;
+            int[] customerCol = store.customer;
+            int[] userCol = store.user;
+            int[] categoryCol = store.category;
+            long[] hoursCol = store.hours;
+            long[] rateCol = store.rate;
+            Predicate p = predicate;
+            long[] acc = new long[groups * 3];
+            for (int row = from; row < to; row++) {
+                int day = days[row];
+                if (day < p.fromDay || day > p.toDay
+                        || (p.customer != ANY && customerCol[row] != p.customer)
+                        || (p.user != ANY && userCol[row] != p.user)
+                        || (p.category != ANY && categoryCol[row] != p.category)) {
+                    continue;
+                }
+                int g = keys != null ? (keys[row] - keyOffset) * 3 : 0;
+                acc[g] += hoursCol[row];
+                acc[g + 1] = Math.addExact(acc[g + 1], hoursCol[row] * rateCol[row]);
+                acc[g + 2]++;
+            }
+            return acc;
+        }
+    }
+
+    /** Append-only UUID to dense int code mapping. */
+    private static final class Dictionary {
+        private final Map<UUID, Integer> codes = new HashMap<>();
+        private final List<UUID> values = new ArrayList<>();
+
+        int encode(UUID value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int find(UUID value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        UUID valueOf(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.bigbadmonolith.reporting.analytics;
+
+import java.math.BigDecimal;
+
+public record ColumnarTotals(BigDecimal totalHours, BigDecimal totalRevenue, long entryCount) {}
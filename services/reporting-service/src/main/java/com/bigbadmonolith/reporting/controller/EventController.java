@@ -1,11 +1,20 @@
 package com.bigbadmonolith.reporting.controller;
 
+import com.bigbadmonolith.reporting.dto.BatchEvent;
+import com.bigbadmonolith.reporting.dto.BatchEventResponse;
+import com.bigbadmonolith.reporting.service.BatchEventService;
 import com.bigbadmonolith.reporting.service.EventHandlerService;
+import com.bigbadmonolith.reporting.service.WriteBehindEventBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -13,14 +22,29 @@ import java.util.UUID;
 @RequestMapping("/internal/events")
 public class EventController {
 
+    private static final Logger log = LoggerFactory.getLogger(EventController.class);
+
     private final EventHandlerService eventHandlerService;
+    private final BatchEventService batchEventService;
+    private final WriteBehindEventBuffer writeBehindBuffer;
 
-    public EventController(EventHandlerService eventHandlerService) {
+    public EventController(EventHandlerService eventHandlerService, BatchEventService batchEventService,
+                           WriteBehindEventBuffer writeBehindBuffer) {
         this.eventHandlerService = eventHandlerService;
+        this.batchEventService = batchEventService;
+        this.writeBehindBuffer = writeBehindBuffer;
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchEventResponse> processBatch(@RequestBody List<BatchEvent> events) {
+        return ResponseEntity.ok(batchEventService.process(events));
     }
 
     @PostMapping("/users")
     public ResponseEntity<Map<String, String>> syncUser(@RequestBody Map<String, String> payload) {
+        if (writeBehindBuffer.offer(BatchEventService.USERS, "upsert", payload)) {
+            return queued();
+        }
         eventHandlerService.syncUser(
                 UUID.fromString(payload.get("id")),
                 payload.get("name"),
@@ -31,6 +55,9 @@ public class EventController {
 
     @PostMapping("/customers")
     public ResponseEntity<Map<String, String>> syncCustomer(@RequestBody Map<String, String> payload) {
+        if (writeBehindBuffer.offer(BatchEventService.CUSTOMERS, "upsert", payload)) {
+            return queued();
+        }
         eventHandlerService.syncCustomer(
                 UUID.fromString(payload.get("id")),
                 payload.get("name"),
@@ -42,6 +69,9 @@ public class EventController {
 
     @PostMapping("/categories")
     public ResponseEntity<Map<String, String>> syncCategory(@RequestBody Map<String, String> payload) {
+        if (writeBehindBuffer.offer(BatchEventService.CATEGORIES, "upsert", payload)) {
+            return queued();
+        }
         eventHandlerService.syncCategory(
                 UUID.fromString(payload.get("id")),
                 payload.get("name"),
@@ -52,6 +82,9 @@ public class EventController {
 
     @PostMapping("/billable-hours")
     public ResponseEntity<Map<String, String>> syncBillableHour(@RequestBody Map<String, String> payload) {
+        if (writeBehindBuffer.offer(BatchEventService.BILLABLE_HOURS, "upsert", payload)) {
+            return queued();
+        }
         eventHandlerService.syncBillableHour(
                 UUID.fromString(payload.get("id")),
                 UUID.fromString(payload.get("customerId")),
@@ -67,25 +100,51 @@ public class EventController {
 
     @DeleteMapping("/users/{id}")
     public ResponseEntity<Map<String, String>> removeUser(@PathVariable UUID id) {
+        if (writeBehindBuffer.offer(BatchEventService.USERS, "remove", Map.of("id", id.toString()))) {
+            return queued();
+        }
         eventHandlerService.removeUser(id);
         return ResponseEntity.ok(Map.of("status", "removed"));
     }
 
     @DeleteMapping("/customers/{id}")
     public ResponseEntity<Map<String, String>> removeCustomer(@PathVariable UUID id) {
+        if (writeBehindBuffer.offer(BatchEventService.CUSTOMERS, "remove", Map.of("id", id.toString()))) {
+            return queued();
+        }
         eventHandlerService.removeCustomer(id);
         return ResponseEntity.ok(Map.of("status", "removed"));
     }
 
     @DeleteMapping("/categories/{id}")
     public ResponseEntity<Map<String, String>> removeCategory(@PathVariable UUID id) {
+        if (writeBehindBuffer.offer(BatchEventService.CATEGORIES, "remove", Map.of("id", id.toString()))) {
+            return queued();
+        }
         eventHandlerService.removeCategory(id);
         return ResponseEntity.ok(Map.of("status", "removed"));
     }
 
     @DeleteMapping("/billable-hours/{id}")
     public ResponseEntity<Map<String, String>> removeBillableHour(@PathVariable UUID id) {
+        if (writeBehindBuffer.offer(BatchEventService.BILLABLE_HOURS, "remove", Map.of("id", id.toString()))) {
+            return queued();
+        }
         eventHandlerService.removeBillableHour(id);
         return ResponseEntity.ok(Map.of("status", "removed"));
     }
+
+    /**
+     * The database, and with it the write-behind journal, is unavailable: nothing was stored, so
+     * the caller should send the event again later.
+     */
+    @ExceptionHandler(DataAccessException.class)
+    public ResponseEntity<Map<String, String>> unavailable(DataAccessException e) {
+        log.warn("Could not store event: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("status", "unavailable"));
+    }
+
+    private static ResponseEntity<Map<String, String>> queued() {
+        return ResponseEntity.accepted().body(Map.of("status", "queued"));
+    }
 }
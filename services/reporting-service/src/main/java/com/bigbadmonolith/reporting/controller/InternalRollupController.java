@@ -0,0 +1,32 @@
+package com.bigbadmonolith.reporting.controller;
+
+import com.bigbadmonolith.reporting.service.MonthlyRollupService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/internal/rollups")
+public class InternalRollupController {
+
+    private final MonthlyRollupService rollupService;
+
+    public InternalRollupController(MonthlyRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        int rows = rollupService.rebuild();
+        return ResponseEntity.ok(Map.of("status", "rebuilt", "rows", rows));
+    }
+
+    @GetMapping("/verify")
+    public ResponseEntity<Map<String, Object>> verify() {
+        List<UUID> drifted = rollupService.findDriftedCustomers();
+        return ResponseEntity.ok(Map.of("status", drifted.isEmpty() ? "consistent" : "drifted", "customers", drifted));
+    }
+}
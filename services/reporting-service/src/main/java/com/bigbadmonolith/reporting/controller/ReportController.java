@@ -1,15 +1,28 @@
 package com.bigbadmonolith.reporting.controller;
 
 import com.bigbadmonolith.common.dto.ApiResponse;
+import com.bigbadmonolith.reporting.analytics.AnalyticsDimension;
+import com.bigbadmonolith.reporting.analytics.AnalyticsFilter;
+import com.bigbadmonolith.reporting.dto.AggregateRow;
+import com.bigbadmonolith.reporting.dto.CustomerBillPageResponse;
 import com.bigbadmonolith.reporting.dto.CustomerBillResponse;
+import com.bigbadmonolith.reporting.dto.ExportFormat;
 import com.bigbadmonolith.reporting.dto.MonthlySummaryResponse;
 import com.bigbadmonolith.reporting.dto.RevenueSummaryResponse;
+import com.bigbadmonolith.reporting.service.AnalyticsService;
+import com.bigbadmonolith.reporting.service.CustomerBillExportService;
 import com.bigbadmonolith.reporting.service.CustomerBillService;
 import com.bigbadmonolith.reporting.service.MonthlySummaryService;
 import com.bigbadmonolith.reporting.service.RevenueSummaryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -17,15 +30,21 @@ import java.util.UUID;
 public class ReportController {
 
     private final CustomerBillService customerBillService;
+    private final CustomerBillExportService customerBillExportService;
     private final MonthlySummaryService monthlySummaryService;
     private final RevenueSummaryService revenueSummaryService;
+    private final AnalyticsService analyticsService;
 
     public ReportController(CustomerBillService customerBillService,
+                            CustomerBillExportService customerBillExportService,
                             MonthlySummaryService monthlySummaryService,
-                            RevenueSummaryService revenueSummaryService) {
+                            RevenueSummaryService revenueSummaryService,
+                            AnalyticsService analyticsService) {
         this.customerBillService = customerBillService;
+        this.customerBillExportService = customerBillExportService;
         this.monthlySummaryService = monthlySummaryService;
         this.revenueSummaryService = revenueSummaryService;
+        this.analyticsService = analyticsService;
     }
 
     @GetMapping("/customer-bill")
@@ -33,6 +52,27 @@ public class ReportController {
         return ResponseEntity.ok(ApiResponse.success(customerBillService.getCustomerBill(customerId)));
     }
 
+    @GetMapping("/customer-bill/page")
+    public ResponseEntity<ApiResponse<CustomerBillPageResponse>> getCustomerBillPage(
+            @RequestParam UUID customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(customerBillService.getCustomerBillPage(customerId, cursor, limit)));
+    }
+
+    @GetMapping("/customer-bill/export")
+    public ResponseEntity<StreamingResponseBody> exportCustomerBill(
+            @RequestParam UUID customerId, @RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        String customerName = customerBillExportService.getCustomerName(customerId);
+        StreamingResponseBody body = out -> customerBillExportService.export(customerId, customerName, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"customer-bill-" + customerId + "." + exportFormat.fileExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/monthly-summary")
     public ResponseEntity<ApiResponse<MonthlySummaryResponse>> getMonthlySummary(
             @RequestParam int year, @RequestParam int month) {
@@ -43,4 +83,17 @@ public class ReportController {
     public ResponseEntity<ApiResponse<RevenueSummaryResponse>> getRevenueSummary() {
         return ResponseEntity.ok(ApiResponse.success(revenueSummaryService.getRevenueSummary()));
     }
+
+    @GetMapping("/aggregate")
+    public ResponseEntity<ApiResponse<List<AggregateRow>>> aggregate(
+            @RequestParam(defaultValue = "none") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) UUID customerId,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) UUID categoryId) {
+        AnalyticsFilter filter = new AnalyticsFilter(from, to, customerId, userId, categoryId);
+        return ResponseEntity.ok(ApiResponse.success(
+                analyticsService.aggregate(AnalyticsDimension.fromParameter(groupBy), filter)));
+    }
 }
@@ -0,0 +1,11 @@
+package com.bigbadmonolith.reporting.dto;
+
+import java.math.BigDecimal;
+
+public record AggregateRow(
+    String key,
+    String label,
+    BigDecimal totalHours,
+    BigDecimal totalRevenue,
+    long entryCount
+) {}
@@ -0,0 +1,14 @@
+package com.bigbadmonolith.reporting.dto;
+
+import java.util.Map;
+
+/**
+ * One entry of a /internal/events/batch request. {@code entity} is users, customers, categories
+ * or billable-hours, {@code action} is upsert or remove, and {@code payload} carries the same
+ * fields as the single-entity endpoint (only {@code id} for removes).
+ */
+public record BatchEvent(
+    String entity,
+    String action,
+    Map<String, String> payload
+) {}
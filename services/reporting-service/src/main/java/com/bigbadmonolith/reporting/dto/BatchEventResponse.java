@@ -0,0 +1,10 @@
+package com.bigbadmonolith.reporting.dto;
+
+import java.util.List;
+
+public record BatchEventResponse(
+    int received,
+    int applied,
+    int failed,
+    List<BatchEventResult> results
+) {}
@@ -0,0 +1,18 @@
+package com.bigbadmonolith.reporting.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchEventResult(
+    int index,
+    String entity,
+    String id,
+    String status,
+    String message
+) {
+    public static final String APPLIED = "applied";
+    public static final String REMOVED = "removed";
+    /** A later event in the same batch for the same entity and id was applied instead. */
+    public static final String SUPERSEDED = "superseded";
+    public static final String FAILED = "failed";
+}
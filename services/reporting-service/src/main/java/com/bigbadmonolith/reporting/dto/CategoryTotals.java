@@ -0,0 +1,10 @@
+package com.bigbadmonolith.reporting.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record CategoryTotals(
+    UUID categoryId,
+    BigDecimal totalHours,
+    BigDecimal totalRevenue
+) {}
@@ -0,0 +1,34 @@
+package com.bigbadmonolith.reporting.dto;
+
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque seek position on (date_logged DESC, id DESC) for paging through a customer bill.
+ */
+public record CustomerBillCursor(LocalDate dateLogged, UUID id) {
+
+    public String encode() {
+        String raw = dateLogged + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CustomerBillCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new BusinessValidationException("Invalid cursor: " + cursor);
+            }
+            return new CustomerBillCursor(LocalDate.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessValidationException("Invalid cursor: " + cursor);
+        }
+    }
+}
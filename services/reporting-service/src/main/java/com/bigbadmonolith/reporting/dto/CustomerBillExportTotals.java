@@ -0,0 +1,12 @@
+package com.bigbadmonolith.reporting.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record CustomerBillExportTotals(
+    UUID customerId,
+    String customerName,
+    long lineItemCount,
+    BigDecimal totalHours,
+    BigDecimal totalRevenue
+) {}
@@ -0,0 +1,14 @@
+package com.bigbadmonolith.reporting.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+public record CustomerBillPageResponse(
+    UUID customerId,
+    String customerName,
+    List<CustomerBillLineItem> lineItems,
+    BigDecimal totalHours,
+    BigDecimal totalRevenue,
+    String nextCursor
+) {}
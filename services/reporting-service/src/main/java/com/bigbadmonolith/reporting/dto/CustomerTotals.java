@@ -0,0 +1,10 @@
+package com.bigbadmonolith.reporting.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record CustomerTotals(
+    UUID customerId,
+    BigDecimal totalHours,
+    BigDecimal totalRevenue
+) {}
@@ -0,0 +1,28 @@
+package com.bigbadmonolith.reporting.dto;
+
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String contentType() { return contentType; }
+    public String fileExtension() { return fileExtension; }
+
+    public static ExportFormat fromParameter(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BusinessValidationException("Unsupported export format '" + value + "' (expected csv or ndjson)");
+    }
+}
@@ -0,0 +1,63 @@
+package com.bigbadmonolith.reporting.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "report_event_journal")
+public class ReportEventJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String node;
+
+    @Column(nullable = false, length = 50)
+    private String entity;
+
+    @Column(name = "entity_id", nullable = false)
+    private UUID entityId;
+
+    @Column(nullable = false, length = 20)
+    private String action;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+
+    @Column(name = "dead_at")
+    private Instant deadAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public ReportEventJournalEntry() {}
+
+    public ReportEventJournalEntry(String node, String entity, UUID entityId, String action, String payload) {
+        this.node = node;
+        this.entity = entity;
+        this.entityId = entityId;
+        this.action = action;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        receivedAt = Instant.now();
+    }
+
+    public Long getId() { return id; }
+    public String getNode() { return node; }
+    public String getEntity() { return entity; }
+    public UUID getEntityId() { return entityId; }
+    public String getAction() { return action; }
+    public String getPayload() { return payload; }
+    public Instant getReceivedAt() { return receivedAt; }
+    public Instant getDeadAt() { return deadAt; }
+    public String getLastError() { return lastError; }
+}
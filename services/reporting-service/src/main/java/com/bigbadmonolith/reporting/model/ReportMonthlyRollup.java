@@ -0,0 +1,39 @@
+package com.bigbadmonolith.reporting.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "report_monthly_rollups")
+public class ReportMonthlyRollup {
+
+    @EmbeddedId
+    private ReportMonthlyRollupId id;
+
+    @Column(name = "total_hours", precision = 14, scale = 2)
+    private BigDecimal totalHours;
+
+    @Column(name = "total_revenue", precision = 19, scale = 4)
+    private BigDecimal totalRevenue;
+
+    @Column(name = "entry_count")
+    private long entryCount;
+
+    public ReportMonthlyRollup() {}
+
+    public ReportMonthlyRollup(ReportMonthlyRollupId id, BigDecimal totalHours, BigDecimal totalRevenue, long entryCount) {
+        this.id = id;
+        this.totalHours = totalHours;
+        this.totalRevenue = totalRevenue;
+        this.entryCount = entryCount;
+    }
+
+    public ReportMonthlyRollupId getId() { return id; }
+    public void setId(ReportMonthlyRollupId id) { this.id = id; }
+    public BigDecimal getTotalHours() { return totalHours; }
+    public void setTotalHours(BigDecimal totalHours) { this.totalHours = totalHours; }
+    public BigDecimal getTotalRevenue() { return totalRevenue; }
+    public void setTotalRevenue(BigDecimal totalRevenue) { this.totalRevenue = totalRevenue; }
+    public long getEntryCount() { return entryCount; }
+    public void setEntryCount(long entryCount) { this.entryCount = entryCount; }
+}
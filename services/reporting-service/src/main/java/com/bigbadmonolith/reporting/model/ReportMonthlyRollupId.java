@@ -0,0 +1,68 @@
+package com.bigbadmonolith.reporting.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+@Embeddable
+public class ReportMonthlyRollupId implements Serializable {
+
+    @Column(name = "customer_id")
+    private UUID customerId;
+
+    @Column(name = "category_id")
+    private UUID categoryId;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "period_year")
+    private int periodYear;
+
+    @Column(name = "period_month")
+    private int periodMonth;
+
+    public ReportMonthlyRollupId() {}
+
+    public ReportMonthlyRollupId(UUID customerId, UUID categoryId, UUID userId, int periodYear, int periodMonth) {
+        this.customerId = customerId;
+        this.categoryId = categoryId;
+        this.userId = userId;
+        this.periodYear = periodYear;
+        this.periodMonth = periodMonth;
+    }
+
+    public static ReportMonthlyRollupId of(ReportBillableHour hour) {
+        return new ReportMonthlyRollupId(
+                hour.getCustomerId(),
+                hour.getCategoryId(),
+                hour.getUserId(),
+                hour.getDateLogged().getYear(),
+                hour.getDateLogged().getMonthValue()
+        );
+    }
+
+    public UUID getCustomerId() { return customerId; }
+    public UUID getCategoryId() { return categoryId; }
+    public UUID getUserId() { return userId; }
+    public int getPeriodYear() { return periodYear; }
+    public int getPeriodMonth() { return periodMonth; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ReportMonthlyRollupId that)) return false;
+        return periodYear == that.periodYear
+                && periodMonth == that.periodMonth
+                && Objects.equals(customerId, that.customerId)
+                && Objects.equals(categoryId, that.categoryId)
+                && Objects.equals(userId, that.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(customerId, categoryId, userId, periodYear, periodMonth);
+    }
+}
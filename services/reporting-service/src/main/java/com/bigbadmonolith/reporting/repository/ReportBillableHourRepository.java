@@ -1,6 +1,9 @@
 package com.bigbadmonolith.reporting.repository;
 
+import com.bigbadmonolith.reporting.dto.CategoryTotals;
+import com.bigbadmonolith.reporting.dto.CustomerTotals;
 import com.bigbadmonolith.reporting.model.ReportBillableHour;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +16,24 @@ public interface ReportBillableHourRepository extends JpaRepository<ReportBillab
 
     List<ReportBillableHour> findByCustomerIdOrderByDateLoggedDesc(UUID customerId);
 
+    @Query("SELECT b FROM ReportBillableHour b WHERE b.customerId = :customerId ORDER BY b.dateLogged DESC, b.id DESC")
+    List<ReportBillableHour> findFirstBillPage(@Param("customerId") UUID customerId, Limit limit);
+
+    @Query("SELECT b FROM ReportBillableHour b WHERE b.customerId = :customerId " +
+           "AND b.dateLogged <= :dateLogged AND (b.dateLogged < :dateLogged OR (b.dateLogged = :dateLogged AND b.id < :id)) " +
+           "ORDER BY b.dateLogged DESC, b.id DESC")
+    List<ReportBillableHour> findBillPageAfter(@Param("customerId") UUID customerId,
+                                               @Param("dateLogged") LocalDate dateLogged,
+                                               @Param("id") UUID id, Limit limit);
+
     @Query("SELECT b FROM ReportBillableHour b WHERE b.dateLogged >= :startDate AND b.dateLogged <= :endDate ORDER BY b.dateLogged DESC")
     List<ReportBillableHour> findByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new com.bigbadmonolith.reporting.dto.CustomerTotals(b.customerId, SUM(b.hours), SUM(b.hours * b.rateSnapshot)) " +
+           "FROM ReportBillableHour b GROUP BY b.customerId")
+    List<CustomerTotals> sumByCustomer();
+
+    @Query("SELECT new com.bigbadmonolith.reporting.dto.CategoryTotals(b.categoryId, SUM(b.hours), SUM(b.hours * b.rateSnapshot)) " +
+           "FROM ReportBillableHour b GROUP BY b.categoryId")
+    List<CategoryTotals> sumByCategory();
 }
@@ -0,0 +1,226 @@
+package com.bigbadmonolith.reporting.repository;
+
+import com.bigbadmonolith.reporting.model.ReportBillableHour;
+import com.bigbadmonolith.reporting.model.ReportBillingCategory;
+import com.bigbadmonolith.reporting.model.ReportCustomer;
+import com.bigbadmonolith.reporting.model.ReportUser;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC-batched native upserts and deletes for bulk event ingestion. Uses PostgreSQL
+ * ON CONFLICT syntax, or standard MERGE ... USING on H2 (tests), so that created_at
+ * survives an update on both.
+ */
+@Repository
+public class ReportEventBatchRepository {
+
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    private static final String PG_UPSERT_USER =
+            "INSERT INTO report_users (id, name, email) VALUES (?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email";
+    private static final String H2_UPSERT_USER =
+            "MERGE INTO report_users t USING (VALUES (CAST(? AS UUID), CAST(? AS VARCHAR), CAST(? AS VARCHAR))) s(id, name, email) " +
+            "ON t.id = s.id WHEN MATCHED THEN UPDATE SET name = s.name, email = s.email " +
+            "WHEN NOT MATCHED THEN INSERT (id, name, email) VALUES (s.id, s.name, s.email)";
+
+    private static final String PG_UPSERT_CUSTOMER =
+            "INSERT INTO report_customers (id, name, email, address) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email, address = EXCLUDED.address";
+    private static final String H2_UPSERT_CUSTOMER =
+            "MERGE INTO report_customers t USING (VALUES (CAST(? AS UUID), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR))) " +
+            "s(id, name, email, address) ON t.id = s.id " +
+            "WHEN MATCHED THEN UPDATE SET name = s.name, email = s.email, address = s.address " +
+            "WHEN NOT MATCHED THEN INSERT (id, name, email, address) VALUES (s.id, s.name, s.email, s.address)";
+
+    private static final String PG_UPSERT_CATEGORY =
+            "INSERT INTO report_billing_categories (id, name, hourly_rate) VALUES (?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, hourly_rate = EXCLUDED.hourly_rate";
+    private static final String H2_UPSERT_CATEGORY =
+            "MERGE INTO report_billing_categories t USING (VALUES (CAST(? AS UUID), CAST(? AS VARCHAR), CAST(? AS DECIMAL(10, 2)))) " +
+            "s(id, name, hourly_rate) ON t.id = s.id " +
+            "WHEN MATCHED THEN UPDATE SET name = s.name, hourly_rate = s.hourly_rate " +
+            "WHEN NOT MATCHED THEN INSERT (id, name, hourly_rate) VALUES (s.id, s.name, s.hourly_rate)";
+
+    // report_billable_hours is partitioned by month on PostgreSQL, so its key is (id, date_logged) and
+    // an entry whose date moved would not conflict with its old row. Existing entries are therefore
+    // updated by id first (PostgreSQL moves the row between partitions) and only the rest inserted.
+    private static final String PG_UPDATE_HOUR =
+            "UPDATE report_billable_hours SET customer_id = ?, user_id = ?, category_id = ?, hours = ?, rate_snapshot = ?, " +
+            "date_logged = ?, note = ? WHERE id = ?";
+    private static final String PG_UPSERT_HOUR =
+            "INSERT INTO report_billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id, date_logged) DO UPDATE SET customer_id = EXCLUDED.customer_id, " +
+            "user_id = EXCLUDED.user_id, category_id = EXCLUDED.category_id, hours = EXCLUDED.hours, " +
+            "rate_snapshot = EXCLUDED.rate_snapshot, date_logged = EXCLUDED.date_logged, note = EXCLUDED.note";
+    private static final String H2_UPSERT_HOUR =
+            "MERGE INTO report_billable_hours t USING (VALUES (CAST(? AS UUID), CAST(? AS UUID), CAST(? AS UUID), CAST(? AS UUID), " +
+            "CAST(? AS DECIMAL(5, 2)), CAST(? AS DECIMAL(10, 2)), CAST(? AS DATE), CAST(? AS VARCHAR), CAST(? AS TIMESTAMP WITH TIME ZONE))) " +
+            "s(id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at) ON t.id = s.id " +
+            "WHEN MATCHED THEN UPDATE SET customer_id = s.customer_id, user_id = s.user_id, category_id = s.category_id, " +
+            "hours = s.hours, rate_snapshot = s.rate_snapshot, date_logged = s.date_logged, note = s.note " +
+            "WHEN NOT MATCHED THEN INSERT (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at) " +
+            "VALUES (s.id, s.customer_id, s.user_id, s.category_id, s.hours, s.rate_snapshot, s.date_logged, s.note, s.created_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean h2;
+
+    public ReportEventBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void upsertUsers(List<ReportUser> users) {
+        jdbcTemplate.batchUpdate(isH2() ? H2_UPSERT_USER : PG_UPSERT_USER, users, users.size(), (ps, user) -> {
+            ps.setObject(1, user.getId());
+            ps.setString(2, user.getName());
+            ps.setString(3, user.getEmail());
+        });
+    }
+
+    public void upsertCustomers(List<ReportCustomer> customers) {
+        jdbcTemplate.batchUpdate(isH2() ? H2_UPSERT_CUSTOMER : PG_UPSERT_CUSTOMER, customers, customers.size(), (ps, customer) -> {
+            ps.setObject(1, customer.getId());
+            ps.setString(2, customer.getName());
+            ps.setString(3, customer.getEmail());
+            ps.setString(4, customer.getAddress());
+        });
+    }
+
+    public void upsertCategories(List<ReportBillingCategory> categories) {
+        jdbcTemplate.batchUpdate(isH2() ? H2_UPSERT_CATEGORY : PG_UPSERT_CATEGORY, categories, categories.size(), (ps, category) -> {
+            ps.setObject(1, category.getId());
+            ps.setString(2, category.getName());
+            ps.setBigDecimal(3, category.getHourlyRate());
+        });
+    }
+
+    public void upsertBillableHours(List<ReportBillableHour> hours) {
+        List<ReportBillableHour> inserts = isH2() ? hours : updateBillableHours(hours);
+        if (inserts.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(isH2() ? H2_UPSERT_HOUR : PG_UPSERT_HOUR, inserts, inserts.size(), (ps, hour) -> {
+            ps.setObject(1, hour.getId());
+            ps.setObject(2, hour.getCustomerId());
+            ps.setObject(3, hour.getUserId());
+            ps.setObject(4, hour.getCategoryId());
+            ps.setBigDecimal(5, hour.getHours());
+            ps.setBigDecimal(6, hour.getRateSnapshot());
+            ps.setDate(7, Date.valueOf(hour.getDateLogged()));
+            ps.setString(8, hour.getNote());
+            ps.setTimestamp(9, now);
+        });
+    }
+
+    /**
+     * Updates the billable hours that already exist and returns the ones that do not.
+     */
+    private List<ReportBillableHour> updateBillableHours(List<ReportBillableHour> hours) {
+        int[][] counts = jdbcTemplate.batchUpdate(PG_UPDATE_HOUR, hours, hours.size(), (ps, hour) -> {
+            ps.setObject(1, hour.getCustomerId());
+            ps.setObject(2, hour.getUserId());
+            ps.setObject(3, hour.getCategoryId());
+            ps.setBigDecimal(4, hour.getHours());
+            ps.setBigDecimal(5, hour.getRateSnapshot());
+            ps.setDate(6, Date.valueOf(hour.getDateLogged()));
+            ps.setString(7, hour.getNote());
+            ps.setObject(8, hour.getId());
+        });
+        List<ReportBillableHour> missing = new ArrayList<>();
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(hours.get(i));
+                }
+                i++;
+            }
+        }
+        return missing;
+    }
+
+    public void deleteBillableHours(Collection<UUID> ids) {
+        List<UUID> list = List.copyOf(ids);
+        jdbcTemplate.batchUpdate("DELETE FROM report_billable_hours WHERE id = ?", list, list.size(),
+                (ps, id) -> ps.setObject(1, id));
+    }
+
+    /**
+     * Loads the current version of the given billable hours, keyed by id. Ids that do not exist are absent.
+     */
+    public Map<UUID, ReportBillableHour> findBillableHours(Collection<UUID> ids) {
+        Map<UUID, ReportBillableHour> found = new HashMap<>();
+        for (List<UUID> chunk : chunks(ids)) {
+            jdbcTemplate.query("SELECT id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged " +
+                    "FROM report_billable_hours WHERE id IN (" + placeholders(chunk.size()) + ")", rs -> {
+                ReportBillableHour hour = new ReportBillableHour();
+                hour.setId(rs.getObject("id", UUID.class));
+                hour.setCustomerId(rs.getObject("customer_id", UUID.class));
+                hour.setUserId(rs.getObject("user_id", UUID.class));
+                hour.setCategoryId(rs.getObject("category_id", UUID.class));
+                hour.setHours(rs.getBigDecimal("hours"));
+                hour.setRateSnapshot(rs.getBigDecimal("rate_snapshot"));
+                hour.setDateLogged(rs.getObject("date_logged", LocalDate.class));
+                found.put(hour.getId(), hour);
+            }, chunk.toArray());
+        }
+        return found;
+    }
+
+    /**
+     * Returns which of the given ids exist in a dimension table (report_users, report_customers
+     * or report_billing_categories).
+     */
+    public Set<UUID> findExistingIds(String table, Collection<UUID> ids) {
+        if (!Set.of("report_users", "report_customers", "report_billing_categories").contains(table)) {
+            throw new IllegalArgumentException("Not a dimension table: " + table);
+        }
+        Set<UUID> existing = new HashSet<>();
+        for (List<UUID> chunk : chunks(ids)) {
+            existing.addAll(jdbcTemplate.queryForList(
+                    "SELECT id FROM " + table + " WHERE id IN (" + placeholders(chunk.size()) + ")", UUID.class, chunk.toArray()));
+        }
+        return existing;
+    }
+
+    private boolean isH2() {
+        if (h2 == null) {
+            h2 = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().contains("H2"));
+        }
+        return h2;
+    }
+
+    private static List<List<UUID>> chunks(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<UUID> list = List.copyOf(ids);
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += IN_CLAUSE_CHUNK) {
+            chunks.add(list.subList(i, Math.min(list.size(), i + IN_CLAUSE_CHUNK)));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
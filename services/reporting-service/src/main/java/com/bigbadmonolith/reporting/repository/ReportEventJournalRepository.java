@@ -0,0 +1,21 @@
+package com.bigbadmonolith.reporting.repository;
+
+import com.bigbadmonolith.reporting.model.ReportEventJournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ReportEventJournalRepository extends JpaRepository<ReportEventJournalEntry, Long> {
+
+    List<ReportEventJournalEntry> findByNodeAndDeadAtIsNullOrderByIdAsc(String node);
+
+    long countByDeadAtIsNotNull();
+
+    @Modifying
+    @Query("UPDATE ReportEventJournalEntry e SET e.deadAt = :deadAt, e.lastError = :error WHERE e.id = :id")
+    int deadLetter(@Param("id") Long id, @Param("deadAt") Instant deadAt, @Param("error") String error);
+}
@@ -0,0 +1,56 @@
+package com.bigbadmonolith.reporting.repository;
+
+import com.bigbadmonolith.reporting.dto.CategoryTotals;
+import com.bigbadmonolith.reporting.dto.CustomerTotals;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollup;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReportMonthlyRollupRepository extends JpaRepository<ReportMonthlyRollup, ReportMonthlyRollupId>,
+        ReportMonthlyRollupRepositoryCustom {
+
+    @Query("SELECT r FROM ReportMonthlyRollup r WHERE r.id.periodYear = :year AND r.id.periodMonth = :month")
+    List<ReportMonthlyRollup> findByPeriod(@Param("year") int year, @Param("month") int month);
+
+    @Query("SELECT new com.bigbadmonolith.reporting.dto.CustomerTotals(r.id.customerId, SUM(r.totalHours), SUM(r.totalRevenue)) " +
+           "FROM ReportMonthlyRollup r GROUP BY r.id.customerId")
+    List<CustomerTotals> sumByCustomer();
+
+    @Query("SELECT new com.bigbadmonolith.reporting.dto.CustomerTotals(r.id.customerId, SUM(r.totalHours), SUM(r.totalRevenue)) " +
+           "FROM ReportMonthlyRollup r WHERE r.id.customerId = :customerId GROUP BY r.id.customerId")
+    Optional<CustomerTotals> sumForCustomer(@Param("customerId") UUID customerId);
+
+    @Query("SELECT new com.bigbadmonolith.reporting.dto.CategoryTotals(r.id.categoryId, SUM(r.totalHours), SUM(r.totalRevenue)) " +
+           "FROM ReportMonthlyRollup r GROUP BY r.id.categoryId")
+    List<CategoryTotals> sumByCategory();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ReportMonthlyRollup r SET r.totalHours = r.totalHours + :hours, " +
+           "r.totalRevenue = r.totalRevenue + :revenue, r.entryCount = r.entryCount + :entries " +
+           "WHERE r.id = :id")
+    int applyDelta(@Param("id") ReportMonthlyRollupId id, @Param("hours") BigDecimal hours,
+                   @Param("revenue") BigDecimal revenue, @Param("entries") long entries);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ReportMonthlyRollup r WHERE r.id = :id AND r.entryCount <= 0")
+    int deleteIfEmpty(@Param("id") ReportMonthlyRollupId id);
+
+    @Modifying
+    @Query(value = "INSERT INTO report_monthly_rollups " +
+                   "(customer_id, category_id, user_id, period_year, period_month, total_hours, total_revenue, entry_count) " +
+                   "SELECT customer_id, category_id, user_id, " +
+                   "EXTRACT(YEAR FROM date_logged), EXTRACT(MONTH FROM date_logged), " +
+                   "SUM(hours), SUM(hours * rate_snapshot), COUNT(*) " +
+                   "FROM report_billable_hours " +
+                   "GROUP BY customer_id, category_id, user_id, EXTRACT(YEAR FROM date_logged), EXTRACT(MONTH FROM date_logged)",
+           nativeQuery = true)
+    int rebuildFromBillableHours();
+}
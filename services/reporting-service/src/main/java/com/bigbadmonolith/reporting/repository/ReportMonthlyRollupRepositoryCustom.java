@@ -0,0 +1,26 @@
+package com.bigbadmonolith.reporting.repository;
+
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollupId;
+
+import java.math.BigDecimal;
+
+public interface ReportMonthlyRollupRepositoryCustom {
+
+    /**
+     * Adds the delta to the rollup row, creating the row if it does not exist yet, in one
+     * statement so that concurrent first entries of a bucket cannot both insert it.
+     */
+    void addDelta(ReportMonthlyRollupId id, BigDecimal hours, BigDecimal revenue, long entries);
+
+    /**
+     * Takes the rollup lock in shared mode until the end of the transaction: deltas run
+     * alongside each other but not alongside a rebuild.
+     */
+    void lockForDelta();
+
+    /**
+     * Takes the rollup lock exclusively until the end of the transaction, waiting for the
+     * transactions that applied deltas to finish first.
+     */
+    void lockForRebuild();
+}
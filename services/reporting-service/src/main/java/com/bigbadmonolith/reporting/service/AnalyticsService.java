@@ -0,0 +1,69 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import com.bigbadmonolith.reporting.analytics.AnalyticsDimension;
+import com.bigbadmonolith.reporting.analytics.AnalyticsFilter;
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.analytics.ColumnarTotals;
+import com.bigbadmonolith.reporting.dto.AggregateRow;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@Transactional(readOnly = true)
+public class AnalyticsService {
+
+    private final ColumnarBillableHourStore columnarStore;
+    private final DimensionCache dimensionCache;
+
+    public AnalyticsService(ColumnarBillableHourStore columnarStore, DimensionCache dimensionCache) {
+        this.columnarStore = columnarStore;
+        this.dimensionCache = dimensionCache;
+    }
+
+    public List<AggregateRow> aggregate(AnalyticsDimension groupBy, AnalyticsFilter filter) {
+        if (!columnarStore.isEnabled()) {
+            throw new BusinessValidationException("Ad-hoc aggregation requires reporting.columnar.enabled=true");
+        }
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new BusinessValidationException("from must not be after to");
+        }
+
+        return switch (groupBy) {
+            case NONE -> {
+                ColumnarTotals totals = columnarStore.sum(filter);
+                yield List.of(row("all", "All", totals));
+            }
+            case MONTH -> columnarStore.sumByMonth(filter).entrySet().stream()
+                    .map(e -> row(e.getKey().toString(), e.getKey().toString(), e.getValue()))
+                    .toList();
+            default -> {
+                Map<UUID, ColumnarTotals> totals = columnarStore.sumBy(groupBy, filter);
+                Map<UUID, String> names = names(groupBy, totals.keySet());
+                yield totals.entrySet().stream()
+                        .map(e -> row(e.getKey().toString(), names.getOrDefault(e.getKey(), "Unknown"), e.getValue()))
+                        .sorted(Comparator.comparing(AggregateRow::totalRevenue).reversed())
+                        .toList();
+            }
+        };
+    }
+
+    private Map<UUID, String> names(AnalyticsDimension dimension, Set<UUID> ids) {
+        return switch (dimension) {
+            case CUSTOMER -> dimensionCache.customerNames(ids);
+            case USER -> dimensionCache.userNames(ids);
+            case CATEGORY -> dimensionCache.categoryNames(ids);
+            default -> Map.of();
+        };
+    }
+
+    private static AggregateRow row(String key, String label, ColumnarTotals totals) {
+        return new AggregateRow(key, label, totals.totalHours(), totals.totalRevenue(), totals.entryCount());
+    }
+}
@@ -0,0 +1,326 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.dto.BatchEvent;
+import com.bigbadmonolith.reporting.dto.BatchEventResponse;
+import com.bigbadmonolith.reporting.dto.BatchEventResult;
+import com.bigbadmonolith.reporting.model.ReportBillableHour;
+import com.bigbadmonolith.reporting.model.ReportBillingCategory;
+import com.bigbadmonolith.reporting.model.ReportCustomer;
+import com.bigbadmonolith.reporting.model.ReportUser;
+import com.bigbadmonolith.reporting.repository.ReportEventBatchRepository;
+import com.bigbadmonolith.reporting.service.MonthlyRollupService.Change;
+import com.bigbadmonolith.reporting.service.MonthlyRollupService.Contribution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies a mixed batch of sync events with JDBC-batched native upserts.
+ * <p>
+ * Events are coalesced per entity id (the last one in the batch wins) and then applied in
+ * dependency order: user, customer and category upserts, billable hour upserts, billable hour
+ * removes, and finally category, customer and user removes. Each group is written in chunks of
+ * {@code reporting.events.batch-chunk-size}, one transaction per chunk, so a failing chunk only
+ * fails its own events. Rollups, the columnar store and the dimension cache are maintained the
+ * same way as for single events.
+ */
+@Service
+public class BatchEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchEventService.class);
+
+    public static final String USERS = "users";
+    public static final String CUSTOMERS = "customers";
+    public static final String CATEGORIES = "categories";
+    public static final String BILLABLE_HOURS = "billable-hours";
+
+    private final ReportEventBatchRepository batchRepository;
+    private final MonthlyRollupService rollupService;
+    private final ColumnarBillableHourStore columnarStore;
+    private final DimensionCache dimensionCache;
+    private final EventHandlerService eventHandlerService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public BatchEventService(ReportEventBatchRepository batchRepository,
+                             MonthlyRollupService rollupService,
+                             ColumnarBillableHourStore columnarStore,
+                             DimensionCache dimensionCache,
+                             EventHandlerService eventHandlerService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${reporting.events.batch-chunk-size:5000}") int chunkSize) {
+        this.batchRepository = batchRepository;
+        this.rollupService = rollupService;
+        this.columnarStore = columnarStore;
+        this.dimensionCache = dimensionCache;
+        this.eventHandlerService = eventHandlerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchEventResponse process(List<BatchEvent> events) {
+        long start = System.nanoTime();
+        BatchEventResult[] results = new BatchEventResult[events.size()];
+
+        Map<String, Map<UUID, Pending>> upserts = new HashMap<>();
+        Map<String, Map<UUID, Pending>> removes = new HashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            BatchEvent event = events.get(i);
+            Pending pending;
+            try {
+                pending = parse(i, event);
+            } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+                results[i] = new BatchEventResult(i, event.entity(), idOf(event), BatchEventResult.FAILED, e.getMessage());
+                continue;
+            }
+            Pending superseded = coalesce(pending.remove() ? removes : upserts, pending.remove() ? upserts : removes, pending);
+            if (superseded != null) {
+                results[superseded.index()] = result(superseded, BatchEventResult.SUPERSEDED, "Replaced by event " + i);
+            }
+        }
+
+        applyInChunks(pendingFor(upserts, USERS), results, BatchEventResult.APPLIED, chunk -> {
+            List<ReportUser> users = values(chunk, ReportUser.class);
+            batchRepository.upsertUsers(users);
+            users.forEach(user -> dimensionCache.invalidateUser(user.getId()));
+        });
+        applyInChunks(pendingFor(upserts, CUSTOMERS), results, BatchEventResult.APPLIED, chunk -> {
+            List<ReportCustomer> customers = values(chunk, ReportCustomer.class);
+            batchRepository.upsertCustomers(customers);
+            customers.forEach(customer -> dimensionCache.invalidateCustomer(customer.getId()));
+        });
+        applyInChunks(pendingFor(upserts, CATEGORIES), results, BatchEventResult.APPLIED, chunk -> {
+            List<ReportBillingCategory> categories = values(chunk, ReportBillingCategory.class);
+            batchRepository.upsertCategories(categories);
+            categories.forEach(category -> dimensionCache.invalidateCategory(category.getId()));
+        });
+
+        List<Pending> hourUpserts = rejectUnknownDimensions(pendingFor(upserts, BILLABLE_HOURS), results);
+        applyInChunks(hourUpserts, results, BatchEventResult.APPLIED, this::upsertBillableHours);
+        applyInChunks(pendingFor(removes, BILLABLE_HOURS), results, BatchEventResult.REMOVED, this::removeBillableHours);
+
+        removeDimensions(pendingFor(removes, CATEGORIES), results, eventHandlerService::removeCategory);
+        removeDimensions(pendingFor(removes, CUSTOMERS), results, eventHandlerService::removeCustomer);
+        removeDimensions(pendingFor(removes, USERS), results, eventHandlerService::removeUser);
+
+        int applied = 0;
+        int failed = 0;
+        for (BatchEventResult result : results) {
+            if (BatchEventResult.FAILED.equals(result.status())) {
+                failed++;
+            } else if (!BatchEventResult.SUPERSEDED.equals(result.status())) {
+                applied++;
+            }
+        }
+        log.info("Processed event batch of {} ({} applied, {} failed) in {} ms",
+                events.size(), applied, failed, (System.nanoTime() - start) / 1_000_000);
+        return new BatchEventResponse(events.size(), applied, failed, Arrays.asList(results));
+    }
+
+    /**
+     * Checks an event the way {@link #process} parses it, for callers that acknowledge events
+     * before processing them.
+     */
+    public void validate(BatchEvent event) {
+        try {
+            parse(0, event);
+        } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+            throw new BusinessValidationException(e.getMessage());
+        }
+    }
+
+    private void upsertBillableHours(List<Pending> chunk) {
+        List<ReportBillableHour> hours = values(chunk, ReportBillableHour.class);
+        Map<UUID, ReportBillableHour> previous = batchRepository.findBillableHours(
+                hours.stream().map(ReportBillableHour::getId).toList());
+        batchRepository.upsertBillableHours(hours);
+
+        List<Change> changes = new ArrayList<>(hours.size());
+        for (ReportBillableHour hour : hours) {
+            ReportBillableHour before = previous.get(hour.getId());
+            changes.add(new Change(before != null ? Contribution.of(before) : null, Contribution.of(hour)));
+        }
+        rollupService.applyChanges(changes);
+        for (ReportBillableHour hour : hours) {
+            columnarStore.upsert(hour.getId(), hour.getCustomerId(), hour.getUserId(), hour.getCategoryId(),
+                    hour.getHours(), hour.getRateSnapshot(), hour.getDateLogged());
+        }
+    }
+
+    private void removeBillableHours(List<Pending> chunk) {
+        Map<UUID, ReportBillableHour> previous = batchRepository.findBillableHours(
+                chunk.stream().map(Pending::id).toList());
+        batchRepository.deleteBillableHours(previous.keySet());
+        rollupService.applyChanges(previous.values().stream()
+                .map(hour -> new Change(Contribution.of(hour), null))
+                .toList());
+        previous.keySet().forEach(columnarStore::remove);
+    }
+
+    private List<Pending> rejectUnknownDimensions(List<Pending> hours, BatchEventResult[] results) {
+        Set<UUID> users = knownIds(hours, results, ReportBillableHour::getUserId, USERS, "report_users");
+        Set<UUID> customers = knownIds(hours, results, ReportBillableHour::getCustomerId, CUSTOMERS, "report_customers");
+        Set<UUID> categories = knownIds(hours, results, ReportBillableHour::getCategoryId, CATEGORIES, "report_billing_categories");
+
+        List<Pending> valid = new ArrayList<>(hours.size());
+        for (Pending pending : hours) {
+            ReportBillableHour hour = (ReportBillableHour) pending.value();
+            String problem = !customers.contains(hour.getCustomerId()) ? "Unknown customer " + hour.getCustomerId()
+                    : !users.contains(hour.getUserId()) ? "Unknown user " + hour.getUserId()
+                    : !categories.contains(hour.getCategoryId()) ? "Unknown category " + hour.getCategoryId()
+                    : null;
+            if (problem != null) {
+                results[pending.index()] = result(pending, BatchEventResult.FAILED, problem);
+            } else {
+                valid.add(pending);
+            }
+        }
+        return valid;
+    }
+
+    private Set<UUID> knownIds(List<Pending> hours, BatchEventResult[] results,
+                               Function<ReportBillableHour, UUID> reference, String entity, String table) {
+        Set<UUID> referenced = new HashSet<>();
+        for (Pending pending : hours) {
+            referenced.add(reference.apply((ReportBillableHour) pending.value()));
+        }
+        Set<UUID> known = new HashSet<>();
+        for (BatchEventResult result : results) {
+            if (result != null && entity.equals(result.entity()) && BatchEventResult.APPLIED.equals(result.status())) {
+                known.add(UUID.fromString(result.id()));
+            }
+        }
+        referenced.removeAll(known);
+        known.addAll(batchRepository.findExistingIds(table, referenced));
+        return known;
+    }
+
+    private void applyInChunks(List<Pending> pending, BatchEventResult[] results, String status,
+                               Consumer<List<Pending>> work) {
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<Pending> chunk = pending.subList(from, Math.min(pending.size(), from + chunkSize));
+            try {
+                transactionTemplate.executeWithoutResult(tx -> work.accept(chunk));
+                chunk.forEach(p -> results[p.index()] = result(p, status, null));
+            } catch (RuntimeException e) {
+                String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                log.warn("Event batch chunk of {} {} failed: {}", chunk.size(), chunk.get(0).entity(), message);
+                chunk.forEach(p -> results[p.index()] = result(p, BatchEventResult.FAILED, message));
+            }
+        }
+    }
+
+    private void removeDimensions(List<Pending> pending, BatchEventResult[] results, Consumer<UUID> remove) {
+        for (Pending p : pending) {
+            try {
+                remove.accept(p.id());
+                results[p.index()] = result(p, BatchEventResult.REMOVED, null);
+            } catch (RuntimeException e) {
+                results[p.index()] = result(p, BatchEventResult.FAILED, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    private static Pending coalesce(Map<String, Map<UUID, Pending>> target, Map<String, Map<UUID, Pending>> opposite,
+                                    Pending pending) {
+        Map<UUID, Pending> oppositeForEntity = opposite.get(pending.entity());
+        Pending superseded = oppositeForEntity != null ? oppositeForEntity.remove(pending.id()) : null;
+        Pending previous = target.computeIfAbsent(pending.entity(), e -> new LinkedHashMap<>()).put(pending.id(), pending);
+        return previous != null ? previous : superseded;
+    }
+
+    private static List<Pending> pendingFor(Map<String, Map<UUID, Pending>> byEntity, String entity) {
+        Map<UUID, Pending> pending = byEntity.get(entity);
+        return pending != null ? new ArrayList<>(pending.values()) : List.of();
+    }
+
+    private static <T> List<T> values(List<Pending> chunk, Class<T> type) {
+        return chunk.stream().map(p -> type.cast(p.value())).toList();
+    }
+
+    private static BatchEventResult result(Pending pending, String status, String message) {
+        return new BatchEventResult(pending.index(), pending.entity(), pending.id().toString(), status, message);
+    }
+
+    private static String idOf(BatchEvent event) {
+        return event.payload() != null ? event.payload().get("id") : null;
+    }
+
+    private static Pending parse(int index, BatchEvent event) {
+        if (event.entity() == null || event.action() == null || event.payload() == null) {
+            throw new IllegalArgumentException("entity, action and payload are required");
+        }
+        String entity = event.entity();
+        if (!Set.of(USERS, CUSTOMERS, CATEGORIES, BILLABLE_HOURS).contains(entity)) {
+            throw new IllegalArgumentException("Unknown entity '" + entity + "'");
+        }
+        Map<String, String> payload = event.payload();
+        UUID id = UUID.fromString(required(payload, "id"));
+        if ("remove".equals(event.action())) {
+            return new Pending(index, entity, true, id, null);
+        }
+        if (!"upsert".equals(event.action())) {
+            throw new IllegalArgumentException("Unknown action '" + event.action() + "'");
+        }
+        Object value = switch (entity) {
+            case USERS -> {
+                ReportUser user = new ReportUser();
+                user.setId(id);
+                user.setName(required(payload, "name"));
+                user.setEmail(payload.get("email"));
+                yield user;
+            }
+            case CUSTOMERS -> {
+                ReportCustomer customer = new ReportCustomer();
+                customer.setId(id);
+                customer.setName(required(payload, "name"));
+                customer.setEmail(payload.get("email"));
+                customer.setAddress(payload.get("address"));
+                yield customer;
+            }
+            case CATEGORIES -> {
+                ReportBillingCategory category = new ReportBillingCategory();
+                category.setId(id);
+                category.setName(required(payload, "name"));
+                category.setHourlyRate(new BigDecimal(required(payload, "hourlyRate")));
+                yield category;
+            }
+            default -> {
+                ReportBillableHour hour = new ReportBillableHour();
+                hour.setId(id);
+                hour.setCustomerId(UUID.fromString(required(payload, "customerId")));
+                hour.setUserId(UUID.fromString(required(payload, "userId")));
+                hour.setCategoryId(UUID.fromString(required(payload, "categoryId")));
+                hour.setHours(new BigDecimal(required(payload, "hours")));
+                hour.setRateSnapshot(new BigDecimal(required(payload, "rateSnapshot")));
+                hour.setDateLogged(LocalDate.parse(required(payload, "dateLogged")));
+                hour.setNote(payload.get("note"));
+                yield hour;
+            }
+        };
+        return new Pending(index, entity, false, id, value);
+    }
+
+    private static String required(Map<String, String> payload, String field) {
+        String value = payload.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field '" + field + "'");
+        }
+        return value;
+    }
+
+    private record Pending(int index, String entity, boolean remove, UUID id, Object value) {}
+}
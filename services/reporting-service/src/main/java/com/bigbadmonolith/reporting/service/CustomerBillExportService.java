@@ -0,0 +1,208 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.common.exception.ResourceNotFoundException;
+import com.bigbadmonolith.reporting.dto.CustomerBillExportTotals;
+import com.bigbadmonolith.reporting.dto.CustomerBillLineItem;
+import com.bigbadmonolith.reporting.dto.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streams a customer's line items straight from a forward-only JDBC cursor so the
+ * export never holds more than one fetch window of rows in memory.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CustomerBillExportService {
+
+    private static final String LINE_ITEMS_SQL =
+            "SELECT id, user_id, category_id, hours, rate_snapshot, date_logged, note " +
+            "FROM report_billable_hours WHERE customer_id = ? ORDER BY date_logged DESC, id";
+
+    private static final String CSV_HEADER = "id,date_logged,user,category,hours,rate,line_total,note";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final DimensionCache dimensionCache;
+    private final int fetchSize;
+
+    public CustomerBillExportService(JdbcTemplate jdbcTemplate,
+                                     ObjectMapper objectMapper,
+                                     DimensionCache dimensionCache,
+                                     @Value("${reporting.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.dimensionCache = dimensionCache;
+        this.fetchSize = fetchSize;
+    }
+
+    public String getCustomerName(UUID customerId) {
+        return dimensionCache.customerName(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + customerId));
+    }
+
+    public CustomerBillExportTotals export(UUID customerId, String customerName, ExportFormat format,
+                                           OutputStream out) throws IOException {
+        // Per-export memo in front of the shared cache; a bill touches only a handful of users and categories
+        Map<UUID, String> userNames = new HashMap<>();
+        Map<UUID, String> categoryNames = new HashMap<>();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        LineItemSink sink = format == ExportFormat.CSV ? new CsvSink(writer) : new NdjsonSink(writer);
+        RunningTotals running = new RunningTotals();
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    LINE_ITEMS_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setObject(1, customerId);
+            return statement;
+        }, (ResultSet rs) -> {
+            CustomerBillLineItem item = toLineItem(rs,
+                    userNames.computeIfAbsent(rs.getObject("user_id", UUID.class),
+                            id -> dimensionCache.userName(id).orElse("Unknown")),
+                    categoryNames.computeIfAbsent(rs.getObject("category_id", UUID.class),
+                            id -> dimensionCache.categoryName(id).orElse("Unknown")));
+            running.add(item);
+            sink.write(item);
+        });
+
+        CustomerBillExportTotals totals = new CustomerBillExportTotals(
+                customerId, customerName, running.count, running.hours, running.revenue);
+        sink.writeTotals(totals);
+        writer.flush();
+        return totals;
+    }
+
+    private static CustomerBillLineItem toLineItem(ResultSet rs, String userName, String categoryName) throws SQLException {
+        BigDecimal hours = rs.getBigDecimal("hours");
+        BigDecimal rate = rs.getBigDecimal("rate_snapshot");
+        return new CustomerBillLineItem(
+                rs.getObject("id", UUID.class),
+                userName,
+                categoryName,
+                hours,
+                rate,
+                hours.multiply(rate),
+                rs.getObject("date_logged", LocalDate.class),
+                rs.getString("note")
+        );
+    }
+
+    private static final class RunningTotals {
+        private long count;
+        private BigDecimal hours = BigDecimal.ZERO;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        void add(CustomerBillLineItem item) {
+            count++;
+            hours = hours.add(item.hours());
+            revenue = revenue.add(item.lineTotal());
+        }
+    }
+
+    private interface LineItemSink {
+        void write(CustomerBillLineItem item);
+
+        void writeTotals(CustomerBillExportTotals totals) throws IOException;
+    }
+
+    private static final class CsvSink implements LineItemSink {
+        private final Writer writer;
+
+        CsvSink(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(CustomerBillLineItem item) {
+            try {
+                writer.write(item.id().toString());
+                writer.write(',');
+                writer.write(item.dateLogged().toString());
+                writer.write(',');
+                writeField(item.userName());
+                writer.write(',');
+                writeField(item.categoryName());
+                writer.write(',');
+                writer.write(item.hours().toPlainString());
+                writer.write(',');
+                writer.write(item.rate().toPlainString());
+                writer.write(',');
+                writer.write(item.lineTotal().toPlainString());
+                writer.write(',');
+                writeField(item.note());
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void writeTotals(CustomerBillExportTotals totals) throws IOException {
+            writer.write("TOTAL,,,," + totals.totalHours().toPlainString() + ",,"
+                    + totals.totalRevenue().toPlainString() + "," + totals.lineItemCount() + " line items\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private final class NdjsonSink implements LineItemSink {
+        private final Writer writer;
+        private final SequenceWriter sequence;
+
+        NdjsonSink(Writer writer) throws IOException {
+            this.writer = writer;
+            this.sequence = objectMapper.writer().withRootValueSeparator("\n").writeValues(writer);
+        }
+
+        @Override
+        public void write(CustomerBillLineItem item) {
+            try {
+                sequence.write(item);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void writeTotals(CustomerBillExportTotals totals) throws IOException {
+            sequence.write(Map.of("totals", totals));
+            sequence.flush();
+            writer.write('\n');
+        }
+    }
+}
@@ -1,16 +1,16 @@
 package com.bigbadmonolith.reporting.service;
 
+import com.bigbadmonolith.common.exception.BusinessValidationException;
 import com.bigbadmonolith.common.exception.ResourceNotFoundException;
+import com.bigbadmonolith.reporting.dto.CustomerBillCursor;
 import com.bigbadmonolith.reporting.dto.CustomerBillLineItem;
+import com.bigbadmonolith.reporting.dto.CustomerBillPageResponse;
 import com.bigbadmonolith.reporting.dto.CustomerBillResponse;
+import com.bigbadmonolith.reporting.dto.CustomerTotals;
 import com.bigbadmonolith.reporting.model.ReportBillableHour;
-import com.bigbadmonolith.reporting.model.ReportBillingCategory;
-import com.bigbadmonolith.reporting.model.ReportCustomer;
-import com.bigbadmonolith.reporting.model.ReportUser;
 import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
-import com.bigbadmonolith.reporting.repository.ReportBillingCategoryRepository;
-import com.bigbadmonolith.reporting.repository.ReportCustomerRepository;
-import com.bigbadmonolith.reporting.repository.ReportUserRepository;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,51 +18,105 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class CustomerBillService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
     private final ReportBillableHourRepository billableHourRepository;
-    private final ReportCustomerRepository customerRepository;
-    private final ReportUserRepository userRepository;
-    private final ReportBillingCategoryRepository categoryRepository;
+    private final ReportMonthlyRollupRepository rollupRepository;
+    private final DimensionCache dimensionCache;
 
     public CustomerBillService(ReportBillableHourRepository billableHourRepository,
-                               ReportCustomerRepository customerRepository,
-                               ReportUserRepository userRepository,
-                               ReportBillingCategoryRepository categoryRepository) {
+                               ReportMonthlyRollupRepository rollupRepository,
+                               DimensionCache dimensionCache) {
         this.billableHourRepository = billableHourRepository;
-        this.customerRepository = customerRepository;
-        this.userRepository = userRepository;
-        this.categoryRepository = categoryRepository;
+        this.rollupRepository = rollupRepository;
+        this.dimensionCache = dimensionCache;
     }
 
     public CustomerBillResponse getCustomerBill(UUID customerId) {
-        ReportCustomer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + customerId));
+        String customerName = findCustomerName(customerId);
 
         List<ReportBillableHour> hours = billableHourRepository.findByCustomerIdOrderByDateLoggedDesc(customerId);
+        List<CustomerBillLineItem> lineItems = toLineItems(hours);
+
+        BigDecimal totalHours = lineItems.stream()
+                .map(CustomerBillLineItem::hours)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        BigDecimal totalRevenue = lineItems.stream()
+                .map(CustomerBillLineItem::lineTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return new CustomerBillResponse(
+                customerId,
+                customerName,
+                lineItems,
+                totalHours,
+                totalRevenue
+        );
+    }
+
+    /**
+     * Returns one page of line items seeking past {@code cursor} on (date_logged, id), with
+     * totals for the whole bill taken from the monthly rollups rather than from the page.
+     */
+    public CustomerBillPageResponse getCustomerBillPage(UUID customerId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BusinessValidationException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String customerName = findCustomerName(customerId);
+
+        Limit fetch = Limit.of(limit + 1);
+        List<ReportBillableHour> hours = cursor == null || cursor.isBlank()
+                ? billableHourRepository.findFirstBillPage(customerId, fetch)
+                : seekPastCursor(customerId, CustomerBillCursor.decode(cursor), fetch);
+
+        String nextCursor = null;
+        if (hours.size() > limit) {
+            hours = hours.subList(0, limit);
+            ReportBillableHour last = hours.get(limit - 1);
+            nextCursor = new CustomerBillCursor(last.getDateLogged(), last.getId()).encode();
+        }
+
+        CustomerTotals totals = rollupRepository.sumForCustomer(customerId)
+                .orElse(new CustomerTotals(customerId, BigDecimal.ZERO, BigDecimal.ZERO));
 
-        Map<UUID, ReportUser> usersMap = userRepository.findAllById(
-                hours.stream().map(ReportBillableHour::getUserId).distinct().toList()
-        ).stream().collect(Collectors.toMap(ReportUser::getId, Function.identity()));
+        return new CustomerBillPageResponse(
+                customerId,
+                customerName,
+                toLineItems(hours),
+                totals.totalHours(),
+                totals.totalRevenue(),
+                nextCursor
+        );
+    }
+
+    private List<ReportBillableHour> seekPastCursor(UUID customerId, CustomerBillCursor cursor, Limit fetch) {
+        return billableHourRepository.findBillPageAfter(customerId, cursor.dateLogged(), cursor.id(), fetch);
+    }
 
-        Map<UUID, ReportBillingCategory> categoriesMap = categoryRepository.findAllById(
-                hours.stream().map(ReportBillableHour::getCategoryId).distinct().toList()
-        ).stream().collect(Collectors.toMap(ReportBillingCategory::getId, Function.identity()));
+    private String findCustomerName(UUID customerId) {
+        return dimensionCache.customerName(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + customerId));
+    }
 
-        List<CustomerBillLineItem> lineItems = hours.stream()
+    private List<CustomerBillLineItem> toLineItems(List<ReportBillableHour> hours) {
+        Map<UUID, String> userNames = dimensionCache.userNames(
+                hours.stream().map(ReportBillableHour::getUserId).distinct().toList());
+        Map<UUID, String> categoryNames = dimensionCache.categoryNames(
+                hours.stream().map(ReportBillableHour::getCategoryId).distinct().toList());
+
+        return hours.stream()
                 .map(h -> {
-                    ReportUser user = usersMap.get(h.getUserId());
-                    ReportBillingCategory category = categoriesMap.get(h.getCategoryId());
                     BigDecimal lineTotal = h.getHours().multiply(h.getRateSnapshot());
                     return new CustomerBillLineItem(
                             h.getId(),
-                            user != null ? user.getName() : "Unknown",
-                            category != null ? category.getName() : "Unknown",
+                            userNames.getOrDefault(h.getUserId(), "Unknown"),
+                            categoryNames.getOrDefault(h.getCategoryId(), "Unknown"),
                             h.getHours(),
                             h.getRateSnapshot(),
                             lineTotal,
@@ -71,21 +125,5 @@ public class CustomerBillService {
                     );
                 })
                 .toList();
-
-        BigDecimal totalHours = lineItems.stream()
-                .map(CustomerBillLineItem::hours)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalRevenue = lineItems.stream()
-                .map(CustomerBillLineItem::lineTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return new CustomerBillResponse(
-                customer.getId(),
-                customer.getName(),
-                lineItems,
-                totalHours,
-                totalRevenue
-        );
     }
 }
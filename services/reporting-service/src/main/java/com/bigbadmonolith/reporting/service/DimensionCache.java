@@ -0,0 +1,171 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.reporting.model.ReportBillingCategory;
+import com.bigbadmonolith.reporting.model.ReportCustomer;
+import com.bigbadmonolith.reporting.model.ReportUser;
+import com.bigbadmonolith.reporting.repository.ReportBillingCategoryRepository;
+import com.bigbadmonolith.reporting.repository.ReportCustomerRepository;
+import com.bigbadmonolith.reporting.repository.ReportUserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of user, customer and category names used to label reports.
+ * Loaded at startup and invalidated per id by {@link EventHandlerService} when a sync or
+ * remove event arrives. Each event reaches one node only, so entries also expire after
+ * {@code reporting.dimension-cache.expire-after-write}; that bounds how long the other nodes
+ * label reports with an old name. Hit/miss counts and sizes are published as cache.* meters.
+ */
+@Component
+public class DimensionCache implements SmartInitializingSingleton, MeterBinder {
+
+    private final Dimension<ReportUser> users;
+    private final Dimension<ReportCustomer> customers;
+    private final Dimension<ReportBillingCategory> categories;
+
+    public DimensionCache(ReportUserRepository userRepository,
+                          ReportCustomerRepository customerRepository,
+                          ReportBillingCategoryRepository categoryRepository,
+                          @Value("${reporting.dimension-cache.maximum-size:10000}") int maximumSize,
+                          @Value("${reporting.dimension-cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.users = new Dimension<>("reportUsers", userRepository, ReportUser::getId, ReportUser::getName,
+                maximumSize, expireAfterWrite);
+        this.customers = new Dimension<>("reportCustomers", customerRepository, ReportCustomer::getId, ReportCustomer::getName,
+                maximumSize, expireAfterWrite);
+        this.categories = new Dimension<>("reportCategories", categoryRepository,
+                ReportBillingCategory::getId, ReportBillingCategory::getName, maximumSize, expireAfterWrite);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        users.warm();
+        customers.warm();
+        categories.warm();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        users.bindTo(registry);
+        customers.bindTo(registry);
+        categories.bindTo(registry);
+    }
+
+    public Optional<String> customerName(UUID id) {
+        return customers.name(id);
+    }
+
+    public Map<UUID, String> customerNames(Collection<UUID> ids) {
+        return customers.names(ids);
+    }
+
+    public Optional<String> userName(UUID id) {
+        return users.name(id);
+    }
+
+    public Map<UUID, String> userNames(Collection<UUID> ids) {
+        return users.names(ids);
+    }
+
+    public Optional<String> categoryName(UUID id) {
+        return categories.name(id);
+    }
+
+    public Map<UUID, String> categoryNames(Collection<UUID> ids) {
+        return categories.names(ids);
+    }
+
+    public void invalidateUser(UUID id) {
+        users.invalidate(id);
+    }
+
+    public void invalidateCustomer(UUID id) {
+        customers.invalidate(id);
+    }
+
+    public void invalidateCategory(UUID id) {
+        categories.invalidate(id);
+    }
+
+    private static final class Dimension<E> {
+
+        private final String cacheName;
+        private final JpaRepository<E, UUID> repository;
+        private final Function<E, UUID> idOf;
+        private final Function<E, String> nameOf;
+        private final int maximumSize;
+        private final Cache<UUID, String> cache;
+
+        Dimension(String cacheName, JpaRepository<E, UUID> repository, Function<E, UUID> idOf,
+                  Function<E, String> nameOf, int maximumSize, Duration expireAfterWrite) {
+            this.cacheName = cacheName;
+            this.repository = repository;
+            this.idOf = idOf;
+            this.nameOf = nameOf;
+            this.maximumSize = maximumSize;
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(expireAfterWrite)
+                    .recordStats()
+                    .build();
+        }
+
+        void warm() {
+            for (E entity : repository.findAll(PageRequest.of(0, maximumSize))) {
+                cache.put(idOf.apply(entity), nameOf.apply(entity));
+            }
+        }
+
+        void bindTo(MeterRegistry registry) {
+            CaffeineCacheMetrics.monitor(registry, cache, cacheName);
+        }
+
+        Optional<String> name(UUID id) {
+            return Optional.ofNullable(cache.get(id, key -> repository.findById(key).map(nameOf).orElse(null)));
+        }
+
+        Map<UUID, String> names(Collection<UUID> ids) {
+            return cache.getAll(ids, missing -> {
+                Map<UUID, String> loaded = new HashMap<>();
+                for (E entity : repository.findAllById(List.copyOf(missing))) {
+                    loaded.put(idOf.apply(entity), nameOf.apply(entity));
+                }
+                return loaded;
+            });
+        }
+
+        /**
+         * Evicts now and again once the surrounding transaction commits, so a concurrent
+         * report cannot re-cache the pre-commit name in between.
+         */
+        void invalidate(UUID id) {
+            cache.invalidate(id);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache.invalidate(id);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.bigbadmonolith.reporting.service;
 
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
 import com.bigbadmonolith.reporting.model.ReportBillableHour;
 import com.bigbadmonolith.reporting.model.ReportBillingCategory;
 import com.bigbadmonolith.reporting.model.ReportCustomer;
@@ -8,6 +9,7 @@ import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
 import com.bigbadmonolith.reporting.repository.ReportBillingCategoryRepository;
 import com.bigbadmonolith.reporting.repository.ReportCustomerRepository;
 import com.bigbadmonolith.reporting.repository.ReportUserRepository;
+import com.bigbadmonolith.reporting.service.MonthlyRollupService.Contribution;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,15 +25,24 @@ public class EventHandlerService {
     private final ReportCustomerRepository customerRepository;
     private final ReportBillingCategoryRepository categoryRepository;
     private final ReportBillableHourRepository billableHourRepository;
+    private final MonthlyRollupService rollupService;
+    private final ColumnarBillableHourStore columnarStore;
+    private final DimensionCache dimensionCache;
 
     public EventHandlerService(ReportUserRepository userRepository,
                                ReportCustomerRepository customerRepository,
                                ReportBillingCategoryRepository categoryRepository,
-                               ReportBillableHourRepository billableHourRepository) {
+                               ReportBillableHourRepository billableHourRepository,
+                               MonthlyRollupService rollupService,
+                               ColumnarBillableHourStore columnarStore,
+                               DimensionCache dimensionCache) {
         this.userRepository = userRepository;
         this.customerRepository = customerRepository;
         this.categoryRepository = categoryRepository;
         this.billableHourRepository = billableHourRepository;
+        this.rollupService = rollupService;
+        this.columnarStore = columnarStore;
+        this.dimensionCache = dimensionCache;
     }
 
     public void syncUser(UUID id, String name, String email) {
@@ -40,6 +51,7 @@ public class EventHandlerService {
         user.setName(name);
         user.setEmail(email);
         userRepository.save(user);
+        dimensionCache.invalidateUser(id);
     }
 
     public void syncCustomer(UUID id, String name, String email, String address) {
@@ -49,6 +61,7 @@ public class EventHandlerService {
         customer.setEmail(email);
         customer.setAddress(address);
         customerRepository.save(customer);
+        dimensionCache.invalidateCustomer(id);
     }
 
     public void syncCategory(UUID id, String name, BigDecimal hourlyRate) {
@@ -57,11 +70,14 @@ public class EventHandlerService {
         category.setName(name);
         category.setHourlyRate(hourlyRate);
         categoryRepository.save(category);
+        dimensionCache.invalidateCategory(id);
     }
 
     public void syncBillableHour(UUID id, UUID customerId, UUID userId, UUID categoryId,
                                   BigDecimal hours, BigDecimal rateSnapshot, LocalDate dateLogged, String note) {
         ReportBillableHour billableHour = billableHourRepository.findById(id).orElse(new ReportBillableHour());
+        // Snapshot the previous version before mutating the managed entity
+        Contribution before = billableHour.getId() != null ? Contribution.of(billableHour) : null;
         billableHour.setId(id);
         billableHour.setCustomerId(customerId);
         billableHour.setUserId(userId);
@@ -71,21 +87,30 @@ public class EventHandlerService {
         billableHour.setDateLogged(dateLogged);
         billableHour.setNote(note);
         billableHourRepository.save(billableHour);
+        rollupService.applyChange(before, Contribution.of(billableHour));
+        columnarStore.upsert(id, customerId, userId, categoryId, hours, rateSnapshot, dateLogged);
     }
 
     public void removeUser(UUID id) {
         userRepository.deleteById(id);
+        dimensionCache.invalidateUser(id);
     }
 
     public void removeCustomer(UUID id) {
         customerRepository.deleteById(id);
+        dimensionCache.invalidateCustomer(id);
     }
 
     public void removeCategory(UUID id) {
         categoryRepository.deleteById(id);
+        dimensionCache.invalidateCategory(id);
     }
 
     public void removeBillableHour(UUID id) {
-        billableHourRepository.deleteById(id);
+        billableHourRepository.findById(id).ifPresent(billableHour -> {
+            rollupService.applyChange(Contribution.of(billableHour), null);
+            billableHourRepository.delete(billableHour);
+            columnarStore.remove(id);
+        });
     }
 }
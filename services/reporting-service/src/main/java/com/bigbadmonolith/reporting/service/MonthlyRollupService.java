@@ -0,0 +1,162 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.reporting.dto.CustomerTotals;
+import com.bigbadmonolith.reporting.model.ReportBillableHour;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollupId;
+import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class MonthlyRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthlyRollupService.class);
+
+    private final ReportMonthlyRollupRepository rollupRepository;
+    private final ReportBillableHourRepository billableHourRepository;
+
+    public MonthlyRollupService(ReportMonthlyRollupRepository rollupRepository,
+                                ReportBillableHourRepository billableHourRepository) {
+        this.rollupRepository = rollupRepository;
+        this.billableHourRepository = billableHourRepository;
+    }
+
+    /**
+     * Applies the difference between two versions of a billable hour to the rollups.
+     * Either side may be null (insert or delete). When the entry moved to another
+     * customer, category, user or month, the old bucket is debited and the new one credited.
+     */
+    public void applyChange(Contribution before, Contribution after) {
+        rollupRepository.lockForDelta();
+        if (before != null && after != null && before.key().equals(after.key())) {
+            applyDelta(after.key(), after.hours().subtract(before.hours()), after.revenue().subtract(before.revenue()), 0);
+            return;
+        }
+        if (before != null) {
+            applyDelta(before.key(), before.hours().negate(), before.revenue().negate(), -1);
+        }
+        if (after != null) {
+            applyDelta(after.key(), after.hours(), after.revenue(), 1);
+        }
+    }
+
+    /**
+     * Batch form of {@link #applyChange}: nets every change per rollup bucket first so each
+     * bucket is touched once, however many entries in the batch land in it.
+     */
+    public void applyChanges(List<Change> changes) {
+        rollupRepository.lockForDelta();
+        Map<ReportMonthlyRollupId, Delta> deltas = new HashMap<>();
+        for (Change change : changes) {
+            if (change.before() != null) {
+                deltas.computeIfAbsent(change.before().key(), k -> new Delta()).subtract(change.before());
+            }
+            if (change.after() != null) {
+                deltas.computeIfAbsent(change.after().key(), k -> new Delta()).add(change.after());
+            }
+        }
+        deltas.forEach((key, delta) -> {
+            if (delta.entries != 0 || delta.hours.signum() != 0 || delta.revenue.signum() != 0) {
+                applyDelta(key, delta.hours, delta.revenue, delta.entries);
+            }
+        });
+    }
+
+    /**
+     * Replaces the rollups with a fresh aggregation of report_billable_hours. Takes the rollup
+     * lock exclusively, so deltas committed before it are in the aggregation and deltas waiting
+     * for it are applied on top of the result instead of to rows about to be deleted.
+     */
+    public int rebuild() {
+        rollupRepository.lockForRebuild();
+        rollupRepository.deleteAllInBatch();
+        int rows = rollupRepository.rebuildFromBillableHours();
+        log.info("Rebuilt {} monthly rollup rows from report_billable_hours", rows);
+        return rows;
+    }
+
+    /**
+     * Compares per-customer rollup totals with a GROUP BY over the fact table and
+     * returns the customers whose totals have drifted. Empty means the rollups are sound.
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> findDriftedCustomers() {
+        Map<UUID, CustomerTotals> expected = billableHourRepository.sumByCustomer().stream()
+                .collect(Collectors.toMap(CustomerTotals::customerId, Function.identity()));
+        Map<UUID, CustomerTotals> actual = rollupRepository.sumByCustomer().stream()
+                .collect(Collectors.toMap(CustomerTotals::customerId, Function.identity()));
+
+        List<UUID> drifted = new ArrayList<>();
+        expected.forEach((customerId, totals) -> {
+            CustomerTotals rolledUp = actual.remove(customerId);
+            if (rolledUp == null
+                    || rolledUp.totalHours().compareTo(totals.totalHours()) != 0
+                    || rolledUp.totalRevenue().compareTo(totals.totalRevenue()) != 0) {
+                drifted.add(customerId);
+            }
+        });
+        drifted.addAll(actual.keySet());
+        return drifted;
+    }
+
+    /**
+     * A delta that adds entries creates its bucket if needed, atomically, since two entries may
+     * be the first of a bucket at once. Any other delta needs the bucket to exist already.
+     */
+    private void applyDelta(ReportMonthlyRollupId key, BigDecimal hours, BigDecimal revenue, long entries) {
+        if (entries > 0) {
+            rollupRepository.addDelta(key, hours, revenue, entries);
+            return;
+        }
+        int updated = rollupRepository.applyDelta(key, hours, revenue, entries);
+        if (updated == 0) {
+            log.warn("No monthly rollup found for {}-{} customer {}; rollups are out of date and should be rebuilt",
+                    key.getPeriodYear(), key.getPeriodMonth(), key.getCustomerId());
+        } else if (entries < 0) {
+            rollupRepository.deleteIfEmpty(key);
+        }
+    }
+
+    public record Change(Contribution before, Contribution after) {}
+
+    private static final class Delta {
+        private BigDecimal hours = BigDecimal.ZERO;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long entries;
+
+        void add(Contribution contribution) {
+            hours = hours.add(contribution.hours());
+            revenue = revenue.add(contribution.revenue());
+            entries++;
+        }
+
+        void subtract(Contribution contribution) {
+            hours = hours.subtract(contribution.hours());
+            revenue = revenue.subtract(contribution.revenue());
+            entries--;
+        }
+    }
+
+    public record Contribution(ReportMonthlyRollupId key, BigDecimal hours, BigDecimal revenue) {
+        public static Contribution of(ReportBillableHour hour) {
+            return new Contribution(
+                    ReportMonthlyRollupId.of(hour),
+                    hour.getHours(),
+                    hour.getHours().multiply(hour.getRateSnapshot())
+            );
+        }
+    }
+}
@@ -1,69 +1,52 @@
 package com.bigbadmonolith.reporting.service;
 
+import com.bigbadmonolith.reporting.analytics.AnalyticsDimension;
+import com.bigbadmonolith.reporting.analytics.AnalyticsFilter;
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.dto.CustomerTotals;
 import com.bigbadmonolith.reporting.dto.MonthlySummaryResponse;
 import com.bigbadmonolith.reporting.dto.MonthlySummaryRow;
-import com.bigbadmonolith.reporting.model.ReportBillableHour;
-import com.bigbadmonolith.reporting.model.ReportCustomer;
-import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
-import com.bigbadmonolith.reporting.repository.ReportCustomerRepository;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollup;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class MonthlySummaryService {
 
-    private final ReportBillableHourRepository billableHourRepository;
-    private final ReportCustomerRepository customerRepository;
+    private final ReportMonthlyRollupRepository rollupRepository;
+    private final ColumnarBillableHourStore columnarStore;
+    private final DimensionCache dimensionCache;
 
-    public MonthlySummaryService(ReportBillableHourRepository billableHourRepository,
-                                 ReportCustomerRepository customerRepository) {
-        this.billableHourRepository = billableHourRepository;
-        this.customerRepository = customerRepository;
+    public MonthlySummaryService(ReportMonthlyRollupRepository rollupRepository,
+                                 ColumnarBillableHourStore columnarStore,
+                                 DimensionCache dimensionCache) {
+        this.rollupRepository = rollupRepository;
+        this.columnarStore = columnarStore;
+        this.dimensionCache = dimensionCache;
     }
 
     public MonthlySummaryResponse getMonthlySummary(int year, int month) {
         YearMonth yearMonth = YearMonth.of(year, month);
-        LocalDate startDate = yearMonth.atDay(1);
-        LocalDate endDate = yearMonth.atEndOfMonth();
 
-        List<ReportBillableHour> hours = billableHourRepository.findByDateRange(startDate, endDate);
+        Map<UUID, CustomerTotals> byCustomer = columnarStore.isEnabled()
+                ? totalsFromColumnarStore(yearMonth)
+                : totalsFromRollups(yearMonth);
 
-        Map<UUID, List<ReportBillableHour>> byCustomer = hours.stream()
-                .collect(Collectors.groupingBy(ReportBillableHour::getCustomerId));
+        Map<UUID, String> customerNames = dimensionCache.customerNames(byCustomer.keySet());
 
-        Set<UUID> customerIds = byCustomer.keySet();
-        Map<UUID, ReportCustomer> customersMap = customerRepository.findAllById(customerIds).stream()
-                .collect(Collectors.toMap(ReportCustomer::getId, Function.identity()));
-
-        List<MonthlySummaryRow> rows = byCustomer.entrySet().stream()
-                .map(entry -> {
-                    UUID customerId = entry.getKey();
-                    List<ReportBillableHour> customerHours = entry.getValue();
-                    ReportCustomer customer = customersMap.get(customerId);
-
-                    BigDecimal totalHours = customerHours.stream()
-                            .map(ReportBillableHour::getHours)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    BigDecimal totalRevenue = customerHours.stream()
-                            .map(h -> h.getHours().multiply(h.getRateSnapshot()))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    return new MonthlySummaryRow(
-                            customerId,
-                            customer != null ? customer.getName() : "Unknown",
-                            totalHours,
-                            totalRevenue
-                    );
-                })
+        List<MonthlySummaryRow> rows = byCustomer.values().stream()
+                .map(totals -> new MonthlySummaryRow(
+                        totals.customerId(),
+                        customerNames.getOrDefault(totals.customerId(), "Unknown"),
+                        totals.totalHours(),
+                        totals.totalRevenue()
+                ))
                 .sorted(Comparator.comparing(MonthlySummaryRow::totalRevenue).reversed())
                 .toList();
 
@@ -77,4 +60,23 @@ public class MonthlySummaryService {
 
         return new MonthlySummaryResponse(year, month, rows, grandTotalHours, grandTotalRevenue);
     }
+
+    private Map<UUID, CustomerTotals> totalsFromColumnarStore(YearMonth yearMonth) {
+        Map<UUID, CustomerTotals> byCustomer = new HashMap<>();
+        columnarStore.sumBy(AnalyticsDimension.CUSTOMER, AnalyticsFilter.forMonth(yearMonth))
+                .forEach((customerId, totals) -> byCustomer.put(customerId,
+                        new CustomerTotals(customerId, totals.totalHours(), totals.totalRevenue())));
+        return byCustomer;
+    }
+
+    private Map<UUID, CustomerTotals> totalsFromRollups(YearMonth yearMonth) {
+        Map<UUID, CustomerTotals> byCustomer = new HashMap<>();
+        for (ReportMonthlyRollup rollup : rollupRepository.findByPeriod(yearMonth.getYear(), yearMonth.getMonthValue())) {
+            byCustomer.merge(rollup.getId().getCustomerId(),
+                    new CustomerTotals(rollup.getId().getCustomerId(), rollup.getTotalHours(), rollup.getTotalRevenue()),
+                    (a, b) -> new CustomerTotals(a.customerId(), a.totalHours().add(b.totalHours()),
+                            a.totalRevenue().add(b.totalRevenue())));
+        }
+        return byCustomer;
+    }
 }
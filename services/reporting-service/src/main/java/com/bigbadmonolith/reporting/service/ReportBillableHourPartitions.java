@@ -0,0 +1,103 @@
+package com.bigbadmonolith.reporting.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the monthly partitions of report_billable_hours ahead of the calendar. The partitioning
+ * comes from the V5 migration; on H2 the table is a plain one and this component does nothing.
+ */
+@Component
+public class ReportBillableHourPartitions implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportBillableHourPartitions.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final Duration interval;
+    private volatile Boolean partitioned;
+    private volatile ScheduledExecutorService scheduler;
+
+    public ReportBillableHourPartitions(JdbcTemplate jdbcTemplate,
+                                        @Value("${reporting.partitions.enabled:true}") boolean enabled,
+                                        @Value("${reporting.partitions.months-ahead:3}") int monthsAhead,
+                                        @Value("${reporting.partitions.check-interval:12h}") Duration interval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.interval = interval;
+    }
+
+    public boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().contains("PostgreSQL"))
+                && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('report_billable_hours'))",
+                    Boolean.class));
+        }
+        return partitioned;
+    }
+
+    /**
+     * Creates any missing partitions from the current month to {@code months-ahead} months
+     * ahead, so that new entries never land in the default partition. Returns how many were created.
+     */
+    public int ensureFuturePartitions() {
+        if (!isPartitioned()) {
+            return 0;
+        }
+        Integer created = jdbcTemplate.queryForObject("SELECT ensure_report_billable_hours_partitions(?)", Integer.class, monthsAhead);
+        if (created != null && created > 0) {
+            log.info("Created {} report_billable_hours partition(s) up to {} months ahead", created, monthsAhead);
+        }
+        return created == null ? 0 : created;
+    }
+
+    private void runScheduled() {
+        try {
+            ensureFuturePartitions();
+        } catch (RuntimeException e) {
+            log.warn("Could not create report_billable_hours partitions, retrying in {}: {}", interval, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "report-billable-hour-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runScheduled, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = scheduler;
+        if (running == null) {
+            return;
+        }
+        scheduler = null;
+        running.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -1,59 +1,75 @@
 package com.bigbadmonolith.reporting.service;
 
+import com.bigbadmonolith.reporting.analytics.AnalyticsDimension;
+import com.bigbadmonolith.reporting.analytics.AnalyticsFilter;
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.dto.CategoryTotals;
+import com.bigbadmonolith.reporting.dto.CustomerTotals;
 import com.bigbadmonolith.reporting.dto.RevenueSummaryByCategory;
 import com.bigbadmonolith.reporting.dto.RevenueSummaryByCustomer;
 import com.bigbadmonolith.reporting.dto.RevenueSummaryResponse;
-import com.bigbadmonolith.reporting.model.ReportBillableHour;
 import com.bigbadmonolith.reporting.model.ReportBillingCategory;
 import com.bigbadmonolith.reporting.model.ReportCustomer;
-import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
 import com.bigbadmonolith.reporting.repository.ReportBillingCategoryRepository;
 import com.bigbadmonolith.reporting.repository.ReportCustomerRepository;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class RevenueSummaryService {
 
-    private final ReportBillableHourRepository billableHourRepository;
+    private final ReportMonthlyRollupRepository rollupRepository;
     private final ReportCustomerRepository customerRepository;
     private final ReportBillingCategoryRepository categoryRepository;
+    private final ColumnarBillableHourStore columnarStore;
 
-    public RevenueSummaryService(ReportBillableHourRepository billableHourRepository,
+    public RevenueSummaryService(ReportMonthlyRollupRepository rollupRepository,
                                  ReportCustomerRepository customerRepository,
-                                 ReportBillingCategoryRepository categoryRepository) {
-        this.billableHourRepository = billableHourRepository;
+                                 ReportBillingCategoryRepository categoryRepository,
+                                 ColumnarBillableHourStore columnarStore) {
+        this.rollupRepository = rollupRepository;
         this.customerRepository = customerRepository;
         this.categoryRepository = categoryRepository;
+        this.columnarStore = columnarStore;
     }
 
     public RevenueSummaryResponse getRevenueSummary() {
-        List<ReportBillableHour> allHours = billableHourRepository.findAll();
+        Map<UUID, CustomerTotals> totalsByCustomer;
+        Map<UUID, CategoryTotals> totalsByCategory;
+        if (columnarStore.isEnabled()) {
+            totalsByCustomer = new HashMap<>();
+            columnarStore.sumBy(AnalyticsDimension.CUSTOMER, AnalyticsFilter.all()).forEach((id, totals) ->
+                    totalsByCustomer.put(id, new CustomerTotals(id, totals.totalHours(), totals.totalRevenue())));
+            totalsByCategory = new HashMap<>();
+            columnarStore.sumBy(AnalyticsDimension.CATEGORY, AnalyticsFilter.all()).forEach((id, totals) ->
+                    totalsByCategory.put(id, new CategoryTotals(id, totals.totalHours(), totals.totalRevenue())));
+        } else {
+            // One row per customer / category, grouped in the database
+            totalsByCustomer = rollupRepository.sumByCustomer().stream()
+                    .collect(Collectors.toMap(CustomerTotals::customerId, Function.identity()));
+            totalsByCategory = rollupRepository.sumByCategory().stream()
+                    .collect(Collectors.toMap(CategoryTotals::categoryId, Function.identity()));
+        }
+
         List<ReportCustomer> allCustomers = customerRepository.findAll();
         List<ReportBillingCategory> allCategories = categoryRepository.findAll();
 
-        Map<UUID, List<ReportBillableHour>> hoursByCustomer = allHours.stream()
-                .collect(Collectors.groupingBy(ReportBillableHour::getCustomerId));
-
         List<RevenueSummaryByCustomer> byCustomer = allCustomers.stream()
                 .map(customer -> {
-                    List<ReportBillableHour> customerHours = hoursByCustomer.getOrDefault(customer.getId(), List.of());
-
-                    BigDecimal totalHours = customerHours.stream()
-                            .map(ReportBillableHour::getHours)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    BigDecimal totalRevenue = customerHours.stream()
-                            .map(h -> h.getHours().multiply(h.getRateSnapshot()))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+                    CustomerTotals totals = totalsByCustomer.get(customer.getId());
+                    BigDecimal totalHours = totals != null ? totals.totalHours() : BigDecimal.ZERO;
+                    BigDecimal totalRevenue = totals != null ? totals.totalRevenue() : BigDecimal.ZERO;
 
                     BigDecimal averageRate = totalHours.compareTo(BigDecimal.ZERO) > 0
                             ? totalRevenue.divide(totalHours, 2, RoundingMode.HALF_UP)
@@ -69,27 +85,15 @@ public class RevenueSummaryService {
                 })
                 .toList();
 
-        Map<UUID, List<ReportBillableHour>> hoursByCategory = allHours.stream()
-                .collect(Collectors.groupingBy(ReportBillableHour::getCategoryId));
-
         List<RevenueSummaryByCategory> byCategory = allCategories.stream()
                 .map(category -> {
-                    List<ReportBillableHour> categoryHours = hoursByCategory.getOrDefault(category.getId(), List.of());
-
-                    BigDecimal totalHours = categoryHours.stream()
-                            .map(ReportBillableHour::getHours)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    BigDecimal totalRevenue = categoryHours.stream()
-                            .map(h -> h.getHours().multiply(h.getRateSnapshot()))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
+                    CategoryTotals totals = totalsByCategory.get(category.getId());
                     return new RevenueSummaryByCategory(
                             category.getId(),
                             category.getName(),
                             category.getHourlyRate(),
-                            totalHours,
-                            totalRevenue
+                            totals != null ? totals.totalHours() : BigDecimal.ZERO,
+                            totals != null ? totals.totalRevenue() : BigDecimal.ZERO
                     );
                 })
                 .toList();
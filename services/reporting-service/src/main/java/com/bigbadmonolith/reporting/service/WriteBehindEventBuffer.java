@@ -0,0 +1,441 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.reporting.dto.BatchEvent;
+import com.bigbadmonolith.reporting.dto.BatchEventResponse;
+import com.bigbadmonolith.reporting.dto.BatchEventResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind mode for the single-event sync endpoints.
+ * <p>
+ * Events are coalesced by entity and id in a lock-striped buffer so only the latest version of
+ * each record is written. The buffer is flushed through {@link BatchEventService} every
+ * {@code flush-interval}, as soon as it holds {@code flush-size} records, and synchronously
+ * by the caller once it reaches {@code max-size}. Stopping the application context drains the
+ * buffer after the web server has stopped accepting requests.
+ * <p>
+ * An event is validated and appended to the {@link WriteBehindJournal} before the caller is told
+ * it is queued; when the journal cannot take it the caller gets the error instead. Journal rows
+ * are deleted once their event, or a newer version of the record, has been written, and a node
+ * replays its remaining rows when it starts, so a crash loses nothing that was acknowledged.
+ * <p>
+ * The events of a failed flush go back into the buffer unless a newer version of the record has
+ * been queued meanwhile. The scheduled flushes then back off, doubling from
+ * {@code flush-interval} up to {@code retry-max-backoff}, and after {@code max-attempts} failed
+ * writes an event is marked dead in the journal, where it stays for inspection.
+ */
+@Component
+public class WriteBehindEventBuffer implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindEventBuffer.class);
+
+    private final BatchEventService batchEventService;
+    private final WriteBehindJournal journal;
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int flushSize;
+    private final int maxSize;
+    private final int maxAttempts;
+    private final Duration retryMaxBackoff;
+    private final Stripe[] stripes;
+
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong requeued = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Timer.Builder flushTimerBuilder = Timer.builder("reporting.events.buffer.flush")
+            .description("Time taken to write one write-behind flush");
+    private volatile Timer flushTimer;
+    private volatile ScheduledExecutorService scheduler;
+    private volatile long retryAtNanos;
+    private Duration backoff = Duration.ZERO;
+
+    public WriteBehindEventBuffer(BatchEventService batchEventService,
+                                  WriteBehindJournal journal,
+                                  @Value("${reporting.events.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${reporting.events.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                  @Value("${reporting.events.write-behind.flush-size:1000}") int flushSize,
+                                  @Value("${reporting.events.write-behind.max-size:50000}") int maxSize,
+                                  @Value("${reporting.events.write-behind.stripes:16}") int stripes,
+                                  @Value("${reporting.events.write-behind.max-attempts:10}") int maxAttempts,
+                                  @Value("${reporting.events.write-behind.retry-max-backoff:30s}") Duration retryMaxBackoff) {
+        this.batchEventService = batchEventService;
+        this.journal = journal;
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.flushSize = flushSize;
+        this.maxSize = maxSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryMaxBackoff = retryMaxBackoff;
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, stripes))];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Validates and journals an event, then queues it for the next flush, replacing any queued
+     * event for the same record. Returns false without queueing when write-behind is disabled;
+     * throws when the event is invalid or the journal cannot store it.
+     */
+    public boolean offer(String entity, String action, Map<String, String> payload) {
+        if (!enabled) {
+            return false;
+        }
+        BatchEvent event = new BatchEvent(entity, action, payload);
+        batchEventService.validate(event);
+        long journalId = journal.append(event);
+        received.incrementAndGet();
+        if (!queue(event, List.of(journalId))) {
+            coalesced.incrementAndGet();
+            return true;
+        }
+        int size = depth.incrementAndGet();
+        if (size >= maxSize) {
+            flush();
+        } else if (size >= flushSize && scheduler != null && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::scheduledFlush);
+        }
+        return true;
+    }
+
+    /**
+     * Puts the event into its stripe, replacing the queued version of the record and taking over
+     * its journal ids. Returns whether the record was not queued yet.
+     */
+    private boolean queue(BatchEvent event, List<Long> journalIds) {
+        Key key = keyOf(event);
+        Stripe stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+        stripe.lock.lock();
+        try {
+            Queued replaced = stripe.events.get(key);
+            stripe.events.put(key, new Queued(event, 0, replaced == null ? journalIds : concat(replaced.journalIds(), journalIds)));
+            return replaced == null;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public int depth() {
+        return depth.get();
+    }
+
+    /**
+     * Writes everything currently buffered. Flushes are serialized so an older version of a
+     * record can never be written after a newer one.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushScheduled.set(false);
+            List<Queued> queued = drain();
+            if (queued.isEmpty()) {
+                return;
+            }
+            List<BatchEvent> events = new ArrayList<>(queued.size());
+            queued.forEach(q -> events.add(q.event()));
+            long start = System.nanoTime();
+            try {
+                BatchEventResponse response = batchEventService.process(events);
+                List<Failure> failed = new ArrayList<>(response.failed());
+                Set<Integer> failedIndexes = new HashSet<>();
+                for (BatchEventResult result : response.results()) {
+                    if (BatchEventResult.FAILED.equals(result.status())) {
+                        log.warn("Write-behind {} {} failed: {}", result.entity(), result.id(), result.message());
+                        failed.add(new Failure(queued.get(result.index()), result.message()));
+                        failedIndexes.add(result.index());
+                    }
+                }
+                List<Long> written = new ArrayList<>();
+                for (int i = 0; i < queued.size(); i++) {
+                    if (!failedIndexes.contains(i)) {
+                        written.addAll(queued.get(i).journalIds());
+                    }
+                }
+                forget(written);
+                if (!failed.isEmpty()) {
+                    flushFailures.addAndGet(failed.size());
+                    requeue(failed);
+                } else {
+                    backoff = Duration.ZERO;
+                    retryAtNanos = 0;
+                }
+            } catch (RuntimeException e) {
+                flushFailures.addAndGet(events.size());
+                log.error("Write-behind flush of {} events failed", events.size(), e);
+                requeue(queued.stream().map(q -> new Failure(q, e.getMessage())).toList());
+            } finally {
+                Timer timer = flushTimer;
+                if (timer != null) {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * The flush run by the scheduler, which waits out the backoff after a failed flush.
+     */
+    private void scheduledFlush() {
+        if (retryAtNanos != 0 && System.nanoTime() - retryAtNanos < 0) {
+            flushScheduled.set(false);
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Puts the events of a failed flush back, unless the record has been queued again since
+     * the drain, and pushes the next scheduled flush back. An event out of attempts is marked
+     * dead in the journal instead. Called under the flush lock.
+     */
+    private void requeue(List<Failure> failed) {
+        int added = 0;
+        for (Failure failure : failed) {
+            Queued q = failure.queued();
+            Key key = keyOf(q.event());
+            Stripe stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+            boolean newer;
+            stripe.lock.lock();
+            try {
+                Queued current = stripe.events.get(key);
+                newer = current != null;
+                if (newer) {
+                    // The newer version takes over the failed one's journal rows.
+                    stripe.events.put(key, new Queued(current.event(), current.attempts(),
+                            concat(q.journalIds(), current.journalIds())));
+                } else if (q.attempts() + 1 < maxAttempts) {
+                    stripe.events.put(key, new Queued(q.event(), q.attempts() + 1, q.journalIds()));
+                    added++;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            if (!newer && q.attempts() + 1 >= maxAttempts) {
+                deadLetter(q, failure.error());
+            }
+        }
+        depth.addAndGet(added);
+        requeued.addAndGet(added);
+        backoff = backoff.isZero() ? flushInterval : backoff.multipliedBy(2);
+        if (backoff.compareTo(retryMaxBackoff) > 0) {
+            backoff = retryMaxBackoff;
+        }
+        retryAtNanos = System.nanoTime() + backoff.toNanos();
+        if (added > 0) {
+            log.warn("Requeued {} write-behind events, next flush in {} ms", added, backoff.toMillis());
+        }
+    }
+
+    private void deadLetter(Queued q, String error) {
+        deadLettered.incrementAndGet();
+        log.error("Write-behind {} {} dead after {} failed attempts: {}",
+                q.event().entity(), q.event().payload().get("id"), maxAttempts, error);
+        List<Long> ids = q.journalIds();
+        try {
+            journal.deadLetter(ids.get(ids.size() - 1), error);
+            journal.delete(ids.subList(0, ids.size() - 1));
+        } catch (RuntimeException e) {
+            // Still pending in the journal, so replayed when the node restarts.
+            log.error("Could not mark write-behind {} {} dead", q.event().entity(), q.event().payload().get("id"), e);
+        }
+    }
+
+    /**
+     * Deletes the journal rows of written events. Rows left behind when this fails are replayed
+     * on restart, which writes the same versions again.
+     */
+    private void forget(List<Long> journalIds) {
+        try {
+            journal.delete(journalIds);
+        } catch (RuntimeException e) {
+            log.warn("Could not delete {} written write-behind events from the journal", journalIds.size(), e);
+        }
+    }
+
+    /**
+     * Queues the events this node acknowledged but had not written when it last stopped.
+     */
+    private void replay() {
+        List<WriteBehindJournal.Journaled> pending = journal.pending();
+        int added = 0;
+        for (WriteBehindJournal.Journaled journaled : pending) {
+            if (queue(journaled.event(), List.of(journaled.id()))) {
+                added++;
+            }
+        }
+        depth.addAndGet(added);
+        if (!pending.isEmpty()) {
+            log.info("Replayed {} journaled write-behind events", pending.size());
+        }
+    }
+
+    private List<Queued> drain() {
+        List<Queued> events = new ArrayList<>(Math.max(0, depth.get()));
+        for (Stripe stripe : stripes) {
+            Map<Key, Queued> drained;
+            stripe.lock.lock();
+            try {
+                if (stripe.events.isEmpty()) {
+                    continue;
+                }
+                drained = stripe.events;
+                stripe.events = new LinkedHashMap<>();
+            } finally {
+                stripe.lock.unlock();
+            }
+            events.addAll(drained.values());
+            depth.addAndGet(-drained.size());
+        }
+        return events;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        replay();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::scheduledFlush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Write-behind event buffer started (interval {} ms, flush size {}, max size {})",
+                intervalMillis, flushSize, maxSize);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = scheduler;
+        if (running == null) {
+            return;
+        }
+        scheduler = null;
+        running.shutdown();
+        try {
+            running.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int remaining = depth.get();
+        flush();
+        log.info("Write-behind event buffer stopped after flushing {} pending events", remaining);
+        if (depth.get() > 0) {
+            log.error("Write-behind event buffer stopped with {} events it could not write; they stay in the journal",
+                    depth.get());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Stops after the web server (which stops at {@code DEFAULT_PHASE - 2048}) so no request
+     * can queue an event once the final flush has run, and before the DataSource is closed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("reporting.events.buffer.depth", depth, AtomicInteger::get)
+                .description("Records waiting in the write-behind buffer")
+                .register(registry);
+        Gauge.builder("reporting.events.buffer.coalesce.ratio", this, WriteBehindEventBuffer::coalesceRatio)
+                .description("Share of received events replaced by a newer version before being written")
+                .register(registry);
+        FunctionCounter.builder("reporting.events.buffer.received", received, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("reporting.events.buffer.coalesced", coalesced, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("reporting.events.buffer.flush.failed.events", flushFailures, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("reporting.events.buffer.requeued", requeued, AtomicLong::get)
+                .description("Events of failed flushes put back into the buffer")
+                .register(registry);
+        FunctionCounter.builder("reporting.events.buffer.dead.lettered", deadLettered, AtomicLong::get)
+                .description("Events marked dead in the journal after max-attempts failed flushes")
+                .register(registry);
+        Gauge.builder("reporting.events.journal.dead", journal, WriteBehindJournal::deadLetters)
+                .description("Dead events kept in the write-behind journal")
+                .register(registry);
+        flushTimer = flushTimerBuilder.register(registry);
+    }
+
+    double coalesceRatio() {
+        long total = received.get();
+        return total == 0 ? 0.0 : (double) coalesced.get() / total;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static Key keyOf(BatchEvent event) {
+        return new Key(event.entity(), UUID.fromString(event.payload().get("id")));
+    }
+
+    private static List<Long> concat(List<Long> older, List<Long> newer) {
+        List<Long> ids = new ArrayList<>(older.size() + newer.size());
+        ids.addAll(older);
+        ids.addAll(newer);
+        return ids;
+    }
+
+    private record Key(String entity, UUID id) {}
+
+    /**
+     * A queued event with the journal rows it stands for: its own, last, and those of the
+     * versions of the record it replaced.
+     */
+    private record Queued(BatchEvent event, int attempts, List<Long> journalIds) {}
+
+    private record Failure(Queued queued, String error) {}
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Map<Key, Queued> events = new LinkedHashMap<>();
+    }
+}
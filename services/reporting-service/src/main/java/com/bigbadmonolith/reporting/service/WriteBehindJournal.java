@@ -0,0 +1,89 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.reporting.dto.BatchEvent;
+import com.bigbadmonolith.reporting.model.ReportEventJournalEntry;
+import com.bigbadmonolith.reporting.repository.ReportEventJournalRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The durable side of {@link WriteBehindEventBuffer}: every event is appended here before the
+ * caller is told it is queued, deleted once written, and marked dead when it could not be
+ * written. Rows belong to the node that received them ({@code node-id}, the host name by
+ * default), which replays its own rows when it starts again.
+ */
+@Component
+public class WriteBehindJournal {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final TypeReference<Map<String, String>> PAYLOAD = new TypeReference<>() {};
+
+    private final ReportEventJournalRepository journalRepository;
+    private final ObjectMapper objectMapper;
+    private final String node;
+
+    public WriteBehindJournal(ReportEventJournalRepository journalRepository, ObjectMapper objectMapper,
+                              @Value("${reporting.events.write-behind.node-id:${HOSTNAME:local}}") String node) {
+        this.journalRepository = journalRepository;
+        this.objectMapper = objectMapper;
+        this.node = node;
+    }
+
+    /**
+     * Stores the event and returns its journal id.
+     */
+    public long append(BatchEvent event) {
+        try {
+            return journalRepository.save(new ReportEventJournalEntry(node, event.entity(),
+                    UUID.fromString(event.payload().get("id")), event.action(),
+                    objectMapper.writeValueAsString(event.payload()))).getId();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unserializable payload for " + event.entity(), e);
+        }
+    }
+
+    public void delete(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            journalRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    @Transactional
+    public void deadLetter(long id, String error) {
+        journalRepository.deadLetter(id, Instant.now(),
+                error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH));
+    }
+
+    /**
+     * This node's events that were acknowledged but neither written nor dead, in arrival order.
+     */
+    public List<Journaled> pending() {
+        return journalRepository.findByNodeAndDeadAtIsNullOrderByIdAsc(node).stream()
+                .map(entry -> new Journaled(entry.getId(), new BatchEvent(entry.getEntity(), entry.getAction(), payload(entry))))
+                .toList();
+    }
+
+    public long deadLetters() {
+        return journalRepository.countByDeadAtIsNotNull();
+    }
+
+    private Map<String, String> payload(ReportEventJournalEntry entry) {
+        try {
+            return objectMapper.readValue(entry.getPayload(), PAYLOAD);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt journal payload for event " + entry.getId(), e);
+        }
+    }
+
+    public record Journaled(long id, BatchEvent event) {}
+}
@@ -0,0 +1,21 @@
+-- Monthly rollups maintained incrementally by the event handlers; rebuilt via POST /internal/rollups/rebuild
+CREATE TABLE IF NOT EXISTS report_monthly_rollups (
+    customer_id UUID NOT NULL,
+    category_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    period_year INTEGER NOT NULL,
+    period_month INTEGER NOT NULL,
+    total_hours DECIMAL(14, 2) NOT NULL,
+    total_revenue DECIMAL(19, 4) NOT NULL,
+    entry_count BIGINT NOT NULL,
+    PRIMARY KEY (customer_id, category_id, user_id, period_year, period_month)
+);
+
+CREATE INDEX idx_report_rollups_period ON report_monthly_rollups(period_year, period_month);
+
+INSERT INTO report_monthly_rollups (customer_id, category_id, user_id, period_year, period_month, total_hours, total_revenue, entry_count)
+SELECT customer_id, category_id, user_id,
+       EXTRACT(YEAR FROM date_logged), EXTRACT(MONTH FROM date_logged),
+       SUM(hours), SUM(hours * rate_snapshot), COUNT(*)
+FROM report_billable_hours
+GROUP BY customer_id, category_id, user_id, EXTRACT(YEAR FROM date_logged), EXTRACT(MONTH FROM date_logged);
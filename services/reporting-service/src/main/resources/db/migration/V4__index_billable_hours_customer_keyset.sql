@@ -0,0 +1,2 @@
+-- Seek index for paging a customer's bill on (date_logged DESC, id DESC)
+CREATE INDEX idx_report_bh_customer_date_id ON report_billable_hours(customer_id, date_logged DESC, id DESC);
@@ -0,0 +1,97 @@
+-- Range-partitions report_billable_hours by month of date_logged, mirroring billable_hours in the
+-- billing service. Partitions are named report_billable_hours_pYYYYMM; report_billable_hours_default
+-- only catches rows for months that have no partition yet. The primary key becomes (id, date_logged)
+-- because it has to include the partition key.
+
+-- Creates the partition for the month containing month_start (if missing) and returns its name,
+-- first moving that month's rows out of the default partition so that the attach is allowed.
+CREATE OR REPLACE FUNCTION create_report_billable_hours_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    from_date DATE := date_trunc('month', month_start)::date;
+    to_date DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::date;
+    partition_name TEXT := 'report_billable_hours_p' || to_char(month_start, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE report_billable_hours INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    IF to_regclass('report_billable_hours_default') IS NOT NULL THEN
+        EXECUTE format('WITH moved AS (DELETE FROM report_billable_hours_default WHERE date_logged >= %L AND date_logged < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM moved', from_date, to_date, partition_name);
+    END IF;
+    EXECUTE format('ALTER TABLE report_billable_hours ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, from_date, to_date);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Makes sure partitions exist from the current month to months_ahead months ahead; returns how
+-- many it had to create.
+CREATE OR REPLACE FUNCTION ensure_report_billable_hours_partitions(months_ahead INT) RETURNS INT AS $$
+DECLARE
+    created INT := 0;
+    month_start DATE;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        month_start := (date_trunc('month', CURRENT_DATE) + make_interval(months => i))::date;
+        IF to_regclass('report_billable_hours_p' || to_char(month_start, 'YYYYMM')) IS NULL THEN
+            PERFORM create_report_billable_hours_partition(month_start);
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches one month's partition, leaving it as a standalone table; returns its name, or NULL if
+-- that month has no partition.
+CREATE OR REPLACE FUNCTION detach_report_billable_hours_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    partition_name TEXT := 'report_billable_hours_p' || to_char(month_start, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        RETURN NULL;
+    END IF;
+    EXECUTE format('ALTER TABLE report_billable_hours DETACH PARTITION %I', partition_name);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE report_billable_hours RENAME TO report_billable_hours_unpartitioned;
+
+CREATE TABLE report_billable_hours (
+    id UUID NOT NULL,
+    customer_id UUID NOT NULL REFERENCES report_customers(id),
+    user_id UUID NOT NULL REFERENCES report_users(id),
+    category_id UUID NOT NULL REFERENCES report_billing_categories(id),
+    hours DECIMAL(5, 2) NOT NULL,
+    rate_snapshot DECIMAL(10, 2) NOT NULL,
+    date_logged DATE NOT NULL,
+    note VARCHAR(500),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+) PARTITION BY RANGE (date_logged);
+
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR month_start IN SELECT DISTINCT date_trunc('month', date_logged)::date FROM report_billable_hours_unpartitioned LOOP
+        PERFORM create_report_billable_hours_partition(month_start);
+    END LOOP;
+    PERFORM ensure_report_billable_hours_partitions(3);
+END $$;
+
+CREATE TABLE report_billable_hours_default PARTITION OF report_billable_hours DEFAULT;
+
+INSERT INTO report_billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at)
+SELECT id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, note, created_at
+FROM report_billable_hours_unpartitioned;
+
+DROP TABLE report_billable_hours_unpartitioned;
+
+-- Created on the parent, these cascade to every current and future partition.
+ALTER TABLE report_billable_hours ADD PRIMARY KEY (id, date_logged);
+CREATE INDEX idx_report_bh_customer ON report_billable_hours(customer_id);
+CREATE INDEX idx_report_bh_user ON report_billable_hours(user_id);
+CREATE INDEX idx_report_bh_date ON report_billable_hours(date_logged);
+CREATE INDEX idx_report_bh_customer_date_id ON report_billable_hours(customer_id, date_logged DESC, id DESC);
@@ -0,0 +1,15 @@
+-- Events the write-behind buffer has acknowledged but not yet written, per node; replayed when
+-- the node starts again. Rows with dead_at set could not be written and are kept for inspection.
+CREATE TABLE IF NOT EXISTS report_event_journal (
+    id BIGSERIAL PRIMARY KEY,
+    node VARCHAR(100) NOT NULL,
+    entity VARCHAR(50) NOT NULL,
+    entity_id UUID NOT NULL,
+    action VARCHAR(20) NOT NULL,
+    payload TEXT NOT NULL,
+    received_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    dead_at TIMESTAMP WITH TIME ZONE,
+    last_error VARCHAR(1000)
+);
+
+CREATE INDEX idx_report_event_journal_node ON report_event_journal(node, id) WHERE dead_at IS NULL;
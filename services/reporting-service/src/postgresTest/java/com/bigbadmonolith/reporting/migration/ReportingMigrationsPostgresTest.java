@@ -0,0 +1,159 @@
+package com.bigbadmonolith.reporting.migration;
+
+import com.bigbadmonolith.reporting.model.ReportBillableHour;
+import com.bigbadmonolith.reporting.repository.ReportEventBatchRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs the reporting migrations on PostgreSQL over a database that already holds billable hours:
+ * up to V2 first, then rows are added, then the rest, so that the rollup backfill (V3) and the
+ * partitioning of report_billable_hours (V5) both see existing rows. Then checks the SQL that
+ * depends on the partitioned (id, date_logged) key.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReportingMigrationsPostgresTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    private static final UUID USER = UUID.fromString("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11");
+    private static final UUID DEVELOPMENT = UUID.fromString("f0eebc99-9c0b-4ef8-bb6d-6bb9bd380a66");
+    private static final UUID CUSTOMER = UUID.randomUUID();
+    // Rows added by the tests themselves, after the migration.
+    private static final UUID LATER_CUSTOMER = UUID.randomUUID();
+    private static final String INSERT_HOUR = "INSERT INTO report_billable_hours " +
+            "(id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged) VALUES (?, ?, ?, ?, ?, 150.00, ?)";
+
+    private static JdbcTemplate jdbc;
+    private static int rowsBefore;
+
+    @BeforeAll
+    static void migrateOverExistingRows() {
+        DataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        flyway(dataSource, "2").migrate();
+
+        for (UUID customer : List.of(CUSTOMER, LATER_CUSTOMER)) {
+            jdbc.update("INSERT INTO report_customers (id, name) VALUES (?, ?)", customer, "Customer " + customer);
+        }
+        for (int month = 1; month <= 3; month++) {
+            for (int i = 0; i < 4; i++) {
+                insertHour(UUID.randomUUID(), CUSTOMER, "2.50", LocalDate.of(2024, month, 1 + i * 7));
+            }
+        }
+        rowsBefore = jdbc.queryForObject("SELECT COUNT(*) FROM report_billable_hours", Integer.class);
+
+        flyway(dataSource, "latest").migrate();
+    }
+
+    @Test
+    void migrate_shouldMoveExistingRowsIntoMonthlyPartitions() {
+        assertThat(jdbc.queryForObject("SELECT relkind FROM pg_class WHERE relname = 'report_billable_hours'", String.class))
+                .isEqualTo("p");
+        assertThat(jdbc.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'report_billable_hours'::regclass", String.class))
+                .contains("report_billable_hours_p202401", "report_billable_hours_p202402", "report_billable_hours_p202403",
+                        "report_billable_hours_p202501", "report_billable_hours_default");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM report_billable_hours WHERE customer_id <> ?", Integer.class,
+                LATER_CUSTOMER)).isEqualTo(rowsBefore);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM report_billable_hours_default WHERE customer_id <> ?", Integer.class,
+                LATER_CUSTOMER)).isZero();
+        assertThat(jdbc.queryForList("SELECT a.attname FROM pg_index x " +
+                "JOIN pg_attribute a ON a.attrelid = x.indrelid AND a.attnum = ANY (x.indkey) " +
+                "WHERE x.indrelid = 'report_billable_hours'::regclass AND x.indisprimary ORDER BY a.attname", String.class))
+                .containsExactly("date_logged", "id");
+    }
+
+    @Test
+    void migrate_shouldBackfillRollupsFromExistingRows() {
+        assertThat(jdbc.queryForObject("SELECT SUM(entry_count) FROM report_monthly_rollups WHERE customer_id = ?",
+                Long.class, CUSTOMER)).isEqualTo(12);
+        assertThat(jdbc.queryForObject("SELECT SUM(total_hours) FROM report_monthly_rollups WHERE customer_id = ?",
+                BigDecimal.class, CUSTOMER)).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void billQuery_shouldScanOnlyPartitionsWithinBounds() {
+        String plan = String.join("\n", jdbc.queryForList("EXPLAIN SELECT * FROM report_billable_hours " +
+                "WHERE customer_id = '" + CUSTOMER + "' AND date_logged BETWEEN DATE '2024-02-01' AND DATE '2024-02-29'",
+                String.class));
+
+        assertThat(plan).contains("report_billable_hours_p202402")
+                .doesNotContain("report_billable_hours_p202401", "report_billable_hours_p202403",
+                        "report_billable_hours_p202501", "report_billable_hours_default");
+    }
+
+    @Test
+    void upsertBillableHours_shouldMoveChangedDateAcrossPartitionsWithoutDuplicating() {
+        ReportEventBatchRepository repository = new ReportEventBatchRepository(jdbc);
+        UUID id = UUID.randomUUID();
+        ReportBillableHour hour = hour(id, LocalDate.of(2024, 1, 20), "3.00");
+
+        repository.upsertBillableHours(List.of(hour));
+        Timestamp createdAt = jdbc.queryForObject("SELECT created_at FROM report_billable_hours WHERE id = ?", Timestamp.class, id);
+        repository.upsertBillableHours(List.of(hour(id, LocalDate.of(2024, 3, 20), "4.00")));
+        repository.upsertBillableHours(List.of(hour(id, LocalDate.of(2024, 3, 20), "4.50")));
+
+        assertThat(jdbc.queryForList("SELECT tableoid::regclass::text FROM report_billable_hours WHERE id = ?", String.class, id))
+                .containsExactly("report_billable_hours_p202403");
+        assertThat(jdbc.queryForObject("SELECT hours FROM report_billable_hours WHERE id = ?", BigDecimal.class, id))
+                .isEqualByComparingTo("4.50");
+        assertThat(jdbc.queryForObject("SELECT created_at FROM report_billable_hours WHERE id = ?", Timestamp.class, id))
+                .isEqualTo(createdAt);
+
+        repository.deleteBillableHours(List.of(id));
+        assertThat(repository.findBillableHours(List.of(id))).isEmpty();
+    }
+
+    @Test
+    void createPartition_shouldMoveRowsOutOfDefaultPartition() {
+        UUID id = UUID.randomUUID();
+        insertHour(id, LATER_CUSTOMER, "1.00", LocalDate.of(2031, 5, 3));
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM report_billable_hours_default WHERE id = ?", Integer.class, id)).isOne();
+
+        assertThat(jdbc.queryForObject("SELECT create_report_billable_hours_partition(DATE '2031-05-01')", String.class))
+                .isEqualTo("report_billable_hours_p203105");
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM report_billable_hours_p203105 WHERE id = ?", Integer.class, id)).isOne();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM report_billable_hours_default WHERE id = ?", Integer.class, id)).isZero();
+        assertThat(jdbc.queryForObject("SELECT ensure_report_billable_hours_partitions(3)", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT detach_report_billable_hours_partition(DATE '2031-05-01')", String.class))
+                .isEqualTo("report_billable_hours_p203105");
+    }
+
+    private static ReportBillableHour hour(UUID id, LocalDate dateLogged, String hours) {
+        ReportBillableHour hour = new ReportBillableHour();
+        hour.setId(id);
+        hour.setCustomerId(LATER_CUSTOMER);
+        hour.setUserId(USER);
+        hour.setCategoryId(DEVELOPMENT);
+        hour.setHours(new BigDecimal(hours));
+        hour.setRateSnapshot(new BigDecimal("150.00"));
+        hour.setDateLogged(dateLogged);
+        return hour;
+    }
+
+    private static void insertHour(UUID id, UUID customerId, String hours, LocalDate dateLogged) {
+        jdbc.update(INSERT_HOUR, id, customerId, USER, DEVELOPMENT, new BigDecimal(hours), dateLogged);
+    }
+
+    private static Flyway flyway(DataSource dataSource, String target) {
+        return Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target(target).load();
+    }
+}
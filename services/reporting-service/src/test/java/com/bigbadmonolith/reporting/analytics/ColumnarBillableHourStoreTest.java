@@ -0,0 +1,216 @@
+package com.bigbadmonolith.reporting.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Drives the store with random upserts and removes and checks every aggregate against a
+ * BigDecimal reference computed from a plain map of the surviving rows.
+ */
+class ColumnarBillableHourStoreTest {
+
+    private final Random random = new Random(11);
+    private final List<UUID> customerIds = randomIds(7);
+    private final List<UUID> userIds = randomIds(5);
+    private final List<UUID> categoryIds = randomIds(4);
+    private final Map<UUID, Row> reference = new HashMap<>();
+    private ColumnarBillableHourStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarBillableHourStore(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class), true);
+    }
+
+    @Test
+    void aggregates_shouldMatchReferenceAfterRandomUpsertsAndRemoves() {
+        List<UUID> ids = randomIds(3_000);
+        for (int i = 0; i < 20_000; i++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            if (random.nextInt(5) == 0) {
+                store.remove(id);
+                reference.remove(id);
+            } else {
+                upsert(id);
+            }
+        }
+
+        assertThat(store.size()).isEqualTo(reference.size());
+        assertMatchesReference(AnalyticsFilter.all());
+        assertMatchesReference(new AnalyticsFilter(LocalDate.of(2024, 2, 10), LocalDate.of(2024, 5, 3), null, null, null));
+        assertMatchesReference(new AnalyticsFilter(null, null, customerIds.get(2), null, categoryIds.get(1)));
+        assertMatchesReference(new AnalyticsFilter(LocalDate.of(2024, 3, 1), null, null, userIds.get(4), null));
+    }
+
+    @Test
+    void aggregates_shouldSplitLargeScansAcrossForkJoinTasks() {
+        int rows = ColumnarBillableHourStore.SCAN_SPLIT_THRESHOLD * 3 + 17;
+        for (int i = 0; i < rows; i++) {
+            upsert(UUID.randomUUID());
+        }
+
+        assertThat(store.size()).isEqualTo(rows);
+        assertMatchesReference(AnalyticsFilter.all());
+        assertMatchesReference(new AnalyticsFilter(null, null, null, userIds.get(0), null));
+    }
+
+    @Test
+    void upsert_shouldMoveRowBetweenGroupsWhenUpdated() {
+        UUID id = UUID.randomUUID();
+        store.upsert(id, customerIds.get(0), userIds.get(0), categoryIds.get(0),
+                new BigDecimal("8.00"), new BigDecimal("150.00"), LocalDate.of(2024, 1, 31));
+        store.upsert(id, customerIds.get(1), userIds.get(0), categoryIds.get(0),
+                new BigDecimal("6.00"), new BigDecimal("150.00"), LocalDate.of(2024, 2, 1));
+
+        Map<UUID, ColumnarTotals> byCustomer = store.sumBy(AnalyticsDimension.CUSTOMER, AnalyticsFilter.all());
+        assertThat(byCustomer).containsOnlyKeys(customerIds.get(1));
+        assertThat(byCustomer.get(customerIds.get(1)).totalRevenue()).isEqualByComparingTo("900.00");
+        assertThat(store.sumByMonth(AnalyticsFilter.all())).containsOnlyKeys(YearMonth.of(2024, 2));
+    }
+
+    @Test
+    void sumBy_shouldReturnNothingForUnknownFilterId() {
+        upsert(UUID.randomUUID());
+
+        assertThat(store.sumBy(AnalyticsDimension.CUSTOMER, new AnalyticsFilter(null, null, UUID.randomUUID(), null, null))).isEmpty();
+        assertThat(store.sum(new AnalyticsFilter(null, null, null, UUID.randomUUID(), null)).entryCount()).isZero();
+    }
+
+    @Test
+    void writesInTransaction_shouldApplyOnlyAfterCommit() {
+        UUID committed = UUID.randomUUID();
+        UUID rolledBack = UUID.randomUUID();
+
+        inTransaction(() -> {
+            store.upsert(committed, customerIds.get(0), userIds.get(0), categoryIds.get(0),
+                    BigDecimal.ONE, BigDecimal.TEN, LocalDate.of(2024, 1, 1));
+            assertThat(store.size()).isZero();
+        }, TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(store.size()).isEqualTo(1);
+
+        inTransaction(() -> {
+            store.remove(committed);
+            store.upsert(rolledBack, customerIds.get(0), userIds.get(0), categoryIds.get(0),
+                    BigDecimal.ONE, BigDecimal.TEN, LocalDate.of(2024, 1, 1));
+        }, TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.sumBy(AnalyticsDimension.CUSTOMER, AnalyticsFilter.all()).get(customerIds.get(0)).entryCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void reload_shouldReplayWritesCommittedWhileLoading() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ColumnarBillableHourStore reloading = new ColumnarBillableHourStore(
+                jdbcTemplate, mock(PlatformTransactionManager.class), true);
+        UUID id = UUID.randomUUID();
+        doAnswer(invocation -> {
+            reloading.upsert(id, customerIds.get(0), userIds.get(0), categoryIds.get(0),
+                    BigDecimal.ONE, BigDecimal.TEN, LocalDate.of(2024, 1, 1));
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        reloading.reload();
+
+        assertThat(reloading.size()).isEqualTo(1);
+        reloading.remove(id);
+        assertThat(reloading.size()).isZero();
+    }
+
+    @Test
+    void disabledStore_shouldIgnoreWrites() {
+        ColumnarBillableHourStore disabled = new ColumnarBillableHourStore(
+                mock(JdbcTemplate.class), mock(PlatformTransactionManager.class), false);
+        disabled.upsert(UUID.randomUUID(), customerIds.get(0), userIds.get(0), categoryIds.get(0),
+                BigDecimal.ONE, BigDecimal.TEN, LocalDate.of(2024, 1, 1));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.size()).isZero();
+    }
+
+    private static void inTransaction(Runnable work, int outcome) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (outcome == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(outcome));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void upsert(UUID id) {
+        Row row = new Row(
+                customerIds.get(random.nextInt(customerIds.size())),
+                userIds.get(random.nextInt(userIds.size())),
+                categoryIds.get(random.nextInt(categoryIds.size())),
+                BigDecimal.valueOf(25 + random.nextInt(775), 2),
+                BigDecimal.valueOf(10000 + random.nextInt(5) * 2500L, 2),
+                LocalDate.of(2024, 1, 1).plusDays(random.nextInt(180)));
+        store.upsert(id, row.customerId, row.userId, row.categoryId, row.hours, row.rate, row.date);
+        reference.put(id, row);
+    }
+
+    private void assertMatchesReference(AnalyticsFilter filter) {
+        List<Row> matching = reference.values().stream().filter(matches(filter)).toList();
+
+        assertTotals(store.sum(filter), matching);
+        assertGroups(store.sumBy(AnalyticsDimension.CUSTOMER, filter), matching, Row::customerId);
+        assertGroups(store.sumBy(AnalyticsDimension.USER, filter), matching, Row::userId);
+        assertGroups(store.sumBy(AnalyticsDimension.CATEGORY, filter), matching, Row::categoryId);
+        assertGroups(store.sumByMonth(filter), matching, row -> YearMonth.from(row.date));
+    }
+
+    private static <K> void assertGroups(Map<K, ColumnarTotals> actual, List<Row> rows, Function<Row, K> key) {
+        Map<K, List<Row>> expected = rows.stream().collect(Collectors.groupingBy(key));
+        assertThat(actual).containsOnlyKeys(expected.keySet());
+        expected.forEach((k, groupRows) -> assertTotals(actual.get(k), groupRows));
+    }
+
+    private static void assertTotals(ColumnarTotals totals, List<Row> rows) {
+        assertThat(totals.entryCount()).isEqualTo(rows.size());
+        assertThat(totals.totalHours()).isEqualByComparingTo(
+                rows.stream().map(Row::hours).reduce(BigDecimal.ZERO, BigDecimal::add));
+        assertThat(totals.totalRevenue()).isEqualByComparingTo(
+                rows.stream().map(r -> r.hours.multiply(r.rate)).reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    private static Predicate<Row> matches(AnalyticsFilter filter) {
+        return row -> (filter.from() == null || !row.date.isBefore(filter.from()))
+                && (filter.to() == null || !row.date.isAfter(filter.to()))
+                && (filter.customerId() == null || row.customerId.equals(filter.customerId()))
+                && (filter.userId() == null || row.userId.equals(filter.userId()))
+                && (filter.categoryId() == null || row.categoryId.equals(filter.categoryId()));
+    }
+
+    private static List<UUID> randomIds(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+    private record Row(UUID customerId, UUID userId, UUID categoryId, BigDecimal hours, BigDecimal rate, LocalDate date) {}
+}
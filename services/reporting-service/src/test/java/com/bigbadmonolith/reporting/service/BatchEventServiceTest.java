@@ -0,0 +1,156 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.reporting.analytics.AnalyticsFilter;
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.analytics.ColumnarTotals;
+import com.bigbadmonolith.reporting.dto.BatchEvent;
+import com.bigbadmonolith.reporting.dto.BatchEventResponse;
+import com.bigbadmonolith.reporting.dto.BatchEventResult;
+import com.bigbadmonolith.reporting.model.ReportBillableHour;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollup;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollupId;
+import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
+import com.bigbadmonolith.reporting.repository.ReportEventBatchRepository;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+import static com.bigbadmonolith.reporting.dto.BatchEventResult.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs without a test transaction so each chunk really commits, as it does behind the endpoint.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {"reporting.events.batch-chunk-size=3", "reporting.columnar.enabled=true"})
+@Import({ColumnarBillableHourStore.class, DimensionCache.class, EventHandlerService.class, MonthlyRollupService.class,
+        ReportEventBatchRepository.class, BatchEventService.class})
+class BatchEventServiceTest {
+
+    @Autowired
+    private BatchEventService batchEventService;
+    @Autowired
+    private MonthlyRollupService rollupService;
+    @Autowired
+    private ReportBillableHourRepository billableHourRepository;
+    @Autowired
+    private ReportMonthlyRollupRepository rollupRepository;
+    @Autowired
+    private ColumnarBillableHourStore columnarStore;
+    @Autowired
+    private DimensionCache dimensionCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID customerId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID categoryId = UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM report_billable_hours");
+        jdbcTemplate.update("DELETE FROM report_monthly_rollups");
+        jdbcTemplate.update("DELETE FROM report_billing_categories");
+        jdbcTemplate.update("DELETE FROM report_customers");
+        jdbcTemplate.update("DELETE FROM report_users");
+        columnarStore.reload();
+    }
+
+    @Test
+    void process_shouldApplyMixedBatchInDependencyOrder() {
+        UUID kept = UUID.randomUUID();
+        UUID edited = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+        List<BatchEvent> events = new ArrayList<>();
+        // Hours arrive before their dimensions; dependency ordering must still apply them.
+        for (int i = 0; i < 5; i++) {
+            events.add(hour(UUID.randomUUID(), "2.00", "100.00", "2024-01-0" + (i + 1)));
+        }
+        events.add(hour(kept, "8.00", "150.00", "2024-02-10"));
+        events.add(hour(edited, "1.00", "100.00", "2024-01-20"));
+        events.add(hour(removed, "3.00", "100.00", "2024-01-21"));
+        events.add(new BatchEvent("customers", "upsert", Map.of("id", customerId.toString(), "name", "Acme Corp")));
+        events.add(new BatchEvent("users", "upsert", Map.of("id", userId.toString(), "name", "Jane Doe")));
+        events.add(new BatchEvent("categories", "upsert",
+                Map.of("id", categoryId.toString(), "name", "Development", "hourlyRate", "150.00")));
+        events.add(hour(edited, "4.00", "100.00", "2024-02-01"));
+        events.add(new BatchEvent("billable-hours", "remove", Map.of("id", removed.toString())));
+
+        BatchEventResponse response = batchEventService.process(events);
+
+        assertThat(response.received()).isEqualTo(13);
+        assertThat(response.failed()).isZero();
+        assertThat(response.applied()).isEqualTo(11);
+        assertThat(response.results()).extracting(BatchEventResult::status)
+                .containsExactly(APPLIED, APPLIED, APPLIED, APPLIED, APPLIED, APPLIED,
+                        SUPERSEDED, SUPERSEDED, APPLIED, APPLIED, APPLIED, APPLIED, REMOVED);
+
+        assertThat(billableHourRepository.count()).isEqualTo(7);
+        assertThat(billableHourRepository.findById(removed)).isEmpty();
+        ReportBillableHour editedHour = billableHourRepository.findById(edited).orElseThrow();
+        assertThat(editedHour.getHours()).isEqualByComparingTo("4.00");
+        assertThat(editedHour.getCreatedAt()).isNotNull();
+
+        assertThat(rollupService.findDriftedCustomers()).isEmpty();
+        ReportMonthlyRollup february = rollupRepository
+                .findById(new ReportMonthlyRollupId(customerId, categoryId, userId, 2024, 2)).orElseThrow();
+        assertThat(february.getTotalHours()).isEqualByComparingTo("12.00");
+        assertThat(february.getTotalRevenue()).isEqualByComparingTo("1600.00");
+
+        ColumnarTotals totals = columnarStore.sum(AnalyticsFilter.all());
+        assertThat(totals.entryCount()).isEqualTo(7);
+        assertThat(totals.totalHours()).isEqualByComparingTo("22.00");
+        assertThat(dimensionCache.customerName(customerId)).contains("Acme Corp");
+    }
+
+    @Test
+    void process_shouldReportInvalidEventsWithoutFailingTheRest() {
+        UUID orphan = UUID.randomUUID();
+        List<BatchEvent> events = List.of(
+                new BatchEvent("customers", "upsert", Map.of("id", customerId.toString(), "name", "Acme Corp")),
+                new BatchEvent("users", "upsert", Map.of("id", userId.toString(), "name", "Jane Doe")),
+                new BatchEvent("categories", "upsert",
+                        Map.of("id", categoryId.toString(), "name", "Development", "hourlyRate", "150.00")),
+                hour(UUID.randomUUID(), "2.00", "100.00", "2024-03-01"),
+                new BatchEvent("billable-hours", "upsert", Map.of("id", orphan.toString(),
+                        "customerId", UUID.randomUUID().toString(), "userId", userId.toString(),
+                        "categoryId", categoryId.toString(), "hours", "1.00", "rateSnapshot", "100.00",
+                        "dateLogged", "2024-03-02")),
+                new BatchEvent("users", "upsert", Map.of("id", "not-a-uuid", "name", "Bad")),
+                new BatchEvent("customers", "upsert", Map.of("id", UUID.randomUUID().toString())),
+                new BatchEvent("invoices", "upsert", Map.of("id", UUID.randomUUID().toString())),
+                new BatchEvent("users", "archive", Map.of("id", UUID.randomUUID().toString())));
+
+        BatchEventResponse response = batchEventService.process(events);
+
+        assertThat(response.applied()).isEqualTo(4);
+        assertThat(response.failed()).isEqualTo(5);
+        assertThat(response.results().get(4).message()).startsWith("Unknown customer");
+        assertThat(response.results().get(6).message()).isEqualTo("Missing field 'name'");
+        assertThat(response.results().get(7).message()).isEqualTo("Unknown entity 'invoices'");
+        assertThat(response.results().get(8).message()).isEqualTo("Unknown action 'archive'");
+        assertThat(billableHourRepository.findById(orphan)).isEmpty();
+        assertThat(rollupService.findDriftedCustomers()).isEmpty();
+    }
+
+    private BatchEvent hour(UUID id, String hours, String rate, String date) {
+        return new BatchEvent("billable-hours", "upsert", Map.of(
+                "id", id.toString(),
+                "customerId", customerId.toString(),
+                "userId", userId.toString(),
+                "categoryId", categoryId.toString(),
+                "hours", hours,
+                "rateSnapshot", rate,
+                "dateLogged", date));
+    }
+}
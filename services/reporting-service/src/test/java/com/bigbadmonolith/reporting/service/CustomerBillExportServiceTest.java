@@ -0,0 +1,133 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import com.bigbadmonolith.common.exception.ResourceNotFoundException;
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.dto.CustomerBillExportTotals;
+import com.bigbadmonolith.reporting.dto.ExportFormat;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ColumnarBillableHourStore.class, DimensionCache.class, EventHandlerService.class, MonthlyRollupService.class, CustomerBillExportService.class})
+class CustomerBillExportServiceTest {
+
+    @Autowired
+    private EventHandlerService eventHandlerService;
+    @Autowired
+    private CustomerBillExportService exportService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ReportMonthlyRollupRepository rollupRepository;
+
+    private final UUID customerId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID categoryId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        eventHandlerService.syncCustomer(customerId, "Acme Corp", "acme@example.com", null);
+        eventHandlerService.syncUser(userId, "Jane Doe", "jane@example.com");
+        eventHandlerService.syncCategory(categoryId, "Development", new BigDecimal("150.00"));
+        eventHandlerService.syncBillableHour(UUID.randomUUID(), customerId, userId, categoryId,
+                new BigDecimal("8.00"), new BigDecimal("150.00"), LocalDate.of(2024, 1, 15), "Feature, \"phase 2\"");
+        eventHandlerService.syncBillableHour(UUID.randomUUID(), customerId, UUID.randomUUID(), categoryId,
+                new BigDecimal("4.00"), new BigDecimal("100.00"), LocalDate.of(2024, 1, 16), null);
+        eventHandlerService.syncBillableHour(UUID.randomUUID(), UUID.randomUUID(), userId, categoryId,
+                new BigDecimal("2.00"), new BigDecimal("150.00"), LocalDate.of(2024, 1, 16), null);
+    }
+
+    @Test
+    void export_csv_shouldStreamLineItemsAndTrailingTotals() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        CustomerBillExportTotals totals = exportService.export(customerId, exportService.getCustomerName(customerId), ExportFormat.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).isEqualTo("id,date_logged,user,category,hours,rate,line_total,note");
+        assertThat(lines.get(1)).contains(",2024-01-16,Unknown,Development,4.00,100.00,400.0000,");
+        assertThat(lines.get(2)).endsWith(",2024-01-15,Jane Doe,Development,8.00,150.00,1200.0000,\"Feature, \"\"phase 2\"\"\"");
+        assertThat(lines.get(3)).isEqualTo("TOTAL,,,,12.00,,1600.0000,2 line items");
+        assertThat(totals.lineItemCount()).isEqualTo(2);
+        assertThat(totals.totalRevenue()).isEqualByComparingTo(new BigDecimal("1600.00"));
+    }
+
+    @Test
+    void export_ndjson_shouldEmitOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(customerId, exportService.getCustomerName(customerId), ExportFormat.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("dateLogged").asText()).isEqualTo("2024-01-16");
+        assertThat(first.get("userName").asText()).isEqualTo("Unknown");
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertThat(second.get("userName").asText()).isEqualTo("Jane Doe");
+        assertThat(second.get("lineTotal").decimalValue()).isEqualByComparingTo(new BigDecimal("1200.00"));
+        JsonNode totals = objectMapper.readTree(lines.get(2)).get("totals");
+        assertThat(totals.get("customerName").asText()).isEqualTo("Acme Corp");
+        assertThat(totals.get("lineItemCount").asLong()).isEqualTo(2);
+        assertThat(totals.get("totalHours").decimalValue()).isEqualByComparingTo(new BigDecimal("12.00"));
+    }
+
+    @Test
+    void export_shouldEmitOnlyTotalsForCustomerWithoutHours() throws Exception {
+        UUID emptyCustomerId = UUID.randomUUID();
+        eventHandlerService.syncCustomer(emptyCustomerId, "Empty Co", "empty@example.com", null);
+        String customerName = exportService.getCustomerName(emptyCustomerId);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        CustomerBillExportTotals totals = exportService.export(emptyCustomerId, customerName, ExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines().toList()).hasSize(2);
+        assertThat(totals.lineItemCount()).isZero();
+        assertThat(totals.totalHours()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void export_shouldStreamEveryLineWhenTheRollupsAreMissing() throws Exception {
+        rollupRepository.deleteAllInBatch();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        CustomerBillExportTotals totals = exportService.export(customerId, exportService.getCustomerName(customerId), ExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines().toList()).hasSize(4);
+        assertThat(totals.lineItemCount()).isEqualTo(2);
+        assertThat(totals.totalHours()).isEqualByComparingTo(new BigDecimal("12.00"));
+    }
+
+    @Test
+    void getCustomer_shouldThrowWhenCustomerNotFound() {
+        assertThatThrownBy(() -> exportService.getCustomerName(UUID.randomUUID()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void fromParameter_shouldRejectUnknownFormat() {
+        assertThat(ExportFormat.fromParameter("NDJSON")).isEqualTo(ExportFormat.NDJSON);
+        assertThatThrownBy(() -> ExportFormat.fromParameter("xlsx"))
+                .isInstanceOf(BusinessValidationException.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.dto.CustomerBillLineItem;
+import com.bigbadmonolith.reporting.dto.CustomerBillPageResponse;
+import com.bigbadmonolith.reporting.dto.CustomerBillResponse;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Walks a bill page by page and checks the seek cursor visits every line exactly once,
+ * including lines that share a date_logged, and that the rollup totals match the full bill.
+ */
+@DataJpaTest
+@Import({ColumnarBillableHourStore.class, DimensionCache.class, EventHandlerService.class, MonthlyRollupService.class, CustomerBillService.class})
+class CustomerBillPagingTest {
+
+    @Autowired
+    private EventHandlerService eventHandlerService;
+    @Autowired
+    private CustomerBillService customerBillService;
+    @Autowired
+    private ReportMonthlyRollupRepository rollupRepository;
+
+    @Test
+    void getCustomerBillPage_shouldVisitEveryLineOnceAcrossPages() {
+        UUID customerId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        eventHandlerService.syncCustomer(customerId, "Acme Corp", "acme@example.com", null);
+        eventHandlerService.syncUser(userId, "Jane Doe", "jane@example.com");
+        eventHandlerService.syncCategory(categoryId, "Development", new BigDecimal("150.00"));
+        for (int i = 0; i < 23; i++) {
+            eventHandlerService.syncBillableHour(UUID.randomUUID(), customerId, userId, categoryId,
+                    new BigDecimal("1.50"), new BigDecimal("150.00"), LocalDate.of(2024, 1 + i % 3, 1 + i % 4), null);
+        }
+        // The first and last day of a month are on the bill too.
+        for (LocalDate edge : List.of(LocalDate.of(2023, 12, 1), LocalDate.of(2024, 3, 31))) {
+            eventHandlerService.syncBillableHour(UUID.randomUUID(), customerId, userId, categoryId,
+                    new BigDecimal("2.00"), new BigDecimal("150.00"), edge, null);
+        }
+        eventHandlerService.syncBillableHour(UUID.randomUUID(), UUID.randomUUID(), userId, categoryId,
+                new BigDecimal("9.00"), new BigDecimal("150.00"), LocalDate.of(2024, 1, 1), null);
+
+        List<UUID> visited = new ArrayList<>();
+        List<LocalDate> dates = new ArrayList<>();
+        String cursor = null;
+        CustomerBillPageResponse page;
+        do {
+            page = customerBillService.getCustomerBillPage(customerId, cursor, 5);
+            assertThat(page.lineItems()).hasSizeLessThanOrEqualTo(5);
+            page.lineItems().forEach(item -> {
+                visited.add(item.id());
+                dates.add(item.dateLogged());
+            });
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        CustomerBillResponse full = customerBillService.getCustomerBill(customerId);
+        assertThat(full.lineItems()).hasSize(25);
+        assertThat(visited).doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(full.lineItems().stream().map(CustomerBillLineItem::id).toList());
+        assertThat(dates).isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(page.totalHours()).isEqualByComparingTo(full.totalHours());
+        assertThat(page.totalRevenue()).isEqualByComparingTo(full.totalRevenue());
+    }
+
+    @Test
+    void getCustomerBill_shouldListEveryHourWhenTheRollupsAreMissing() {
+        UUID customerId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        eventHandlerService.syncCustomer(customerId, "Acme Corp", "acme@example.com", null);
+        eventHandlerService.syncCategory(categoryId, "Development", new BigDecimal("150.00"));
+        for (int i = 0; i < 3; i++) {
+            eventHandlerService.syncBillableHour(UUID.randomUUID(), customerId, UUID.randomUUID(), categoryId,
+                    new BigDecimal("2.00"), new BigDecimal("150.00"), LocalDate.of(2024, 1 + i, 10), null);
+        }
+        // Rollups are derived data; a bill must not depend on them being there.
+        rollupRepository.deleteAllInBatch();
+
+        CustomerBillResponse full = customerBillService.getCustomerBill(customerId);
+        CustomerBillPageResponse page = customerBillService.getCustomerBillPage(customerId, null, 5);
+
+        assertThat(full.lineItems()).hasSize(3);
+        assertThat(full.totalHours()).isEqualByComparingTo(new BigDecimal("6.00"));
+        assertThat(page.lineItems()).extracting(CustomerBillLineItem::id)
+                .containsExactlyElementsOf(full.lineItems().stream().map(CustomerBillLineItem::id).toList());
+    }
+}
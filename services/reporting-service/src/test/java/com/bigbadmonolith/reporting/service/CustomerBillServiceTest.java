@@ -1,7 +1,11 @@
 package com.bigbadmonolith.reporting.service;
 
+import com.bigbadmonolith.common.exception.BusinessValidationException;
 import com.bigbadmonolith.common.exception.ResourceNotFoundException;
+import com.bigbadmonolith.reporting.dto.CustomerBillCursor;
+import com.bigbadmonolith.reporting.dto.CustomerBillPageResponse;
 import com.bigbadmonolith.reporting.dto.CustomerBillResponse;
+import com.bigbadmonolith.reporting.dto.CustomerTotals;
 import com.bigbadmonolith.reporting.model.ReportBillableHour;
 import com.bigbadmonolith.reporting.model.ReportBillingCategory;
 import com.bigbadmonolith.reporting.model.ReportCustomer;
@@ -9,15 +13,17 @@ import com.bigbadmonolith.reporting.model.ReportUser;
 import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
 import com.bigbadmonolith.reporting.repository.ReportBillingCategoryRepository;
 import com.bigbadmonolith.reporting.repository.ReportCustomerRepository;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
 import com.bigbadmonolith.reporting.repository.ReportUserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
@@ -39,8 +45,9 @@ class CustomerBillServiceTest {
     private ReportUserRepository userRepository;
     @Mock
     private ReportBillingCategoryRepository categoryRepository;
+    @Mock
+    private ReportMonthlyRollupRepository rollupRepository;
 
-    @InjectMocks
     private CustomerBillService customerBillService;
 
     private UUID customerId;
@@ -52,6 +59,9 @@ class CustomerBillServiceTest {
 
     @BeforeEach
     void setUp() {
+        customerBillService = new CustomerBillService(billableHourRepository, rollupRepository,
+                new DimensionCache(userRepository, customerRepository, categoryRepository, 100, Duration.ofMinutes(5)));
+
         customerId = UUID.randomUUID();
         userId = UUID.randomUUID();
         categoryId = UUID.randomUUID();
@@ -158,4 +168,67 @@ class CustomerBillServiceTest {
         assertThat(result.totalHours()).isEqualByComparingTo(new BigDecimal("10.00"));
         assertThat(result.totalRevenue()).isEqualByComparingTo(new BigDecimal("1200.00"));
     }
+
+    @Test
+    void getCustomerBillPage_shouldReturnNextCursorAndTotalsFromRollups() {
+        ReportBillableHour newest = hour(LocalDate.of(2024, 1, 16), "6.00");
+        ReportBillableHour middle = hour(LocalDate.of(2024, 1, 15), "4.00");
+        ReportBillableHour oldest = hour(LocalDate.of(2024, 1, 14), "2.00");
+
+        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+        when(billableHourRepository.findFirstBillPage(customerId, Limit.of(3))).thenReturn(List.of(newest, middle, oldest));
+        when(rollupRepository.sumForCustomer(customerId))
+                .thenReturn(Optional.of(new CustomerTotals(customerId, new BigDecimal("120.00"), new BigDecimal("18000.00"))));
+
+        CustomerBillPageResponse result = customerBillService.getCustomerBillPage(customerId, null, 2);
+
+        assertThat(result.lineItems()).extracting(item -> item.id()).containsExactly(newest.getId(), middle.getId());
+        assertThat(CustomerBillCursor.decode(result.nextCursor()))
+                .isEqualTo(new CustomerBillCursor(middle.getDateLogged(), middle.getId()));
+        assertThat(result.totalHours()).isEqualByComparingTo(new BigDecimal("120.00"));
+        assertThat(result.totalRevenue()).isEqualByComparingTo(new BigDecimal("18000.00"));
+        verify(billableHourRepository, never()).findByCustomerIdOrderByDateLoggedDesc(any());
+    }
+
+    @Test
+    void getCustomerBillPage_shouldSeekPastCursorAndEndWithoutNextCursor() {
+        ReportBillableHour oldest = hour(LocalDate.of(2024, 1, 14), "2.00");
+        CustomerBillCursor cursor = new CustomerBillCursor(LocalDate.of(2024, 1, 15), UUID.randomUUID());
+
+        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+        when(billableHourRepository.findBillPageAfter(customerId, cursor.dateLogged(), cursor.id(), Limit.of(3)))
+                .thenReturn(List.of(oldest));
+        when(rollupRepository.sumForCustomer(customerId)).thenReturn(Optional.empty());
+
+        CustomerBillPageResponse result = customerBillService.getCustomerBillPage(customerId, cursor.encode(), 2);
+
+        assertThat(result.lineItems()).hasSize(1);
+        assertThat(result.nextCursor()).isNull();
+        assertThat(result.totalHours()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void getCustomerBillPage_shouldRejectInvalidLimitAndCursor() {
+        assertThatThrownBy(() -> customerBillService.getCustomerBillPage(customerId, null, 0))
+                .isInstanceOf(BusinessValidationException.class);
+        assertThatThrownBy(() -> customerBillService.getCustomerBillPage(customerId, null, CustomerBillService.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(BusinessValidationException.class);
+
+        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+        assertThatThrownBy(() -> customerBillService.getCustomerBillPage(customerId, "not-a-cursor", 10))
+                .isInstanceOf(BusinessValidationException.class);
+    }
+
+    private ReportBillableHour hour(LocalDate dateLogged, String hours) {
+        ReportBillableHour hour = new ReportBillableHour();
+        hour.setId(UUID.randomUUID());
+        hour.setCustomerId(customerId);
+        hour.setUserId(userId);
+        hour.setCategoryId(categoryId);
+        hour.setHours(new BigDecimal(hours));
+        hour.setRateSnapshot(new BigDecimal("150.00"));
+        hour.setDateLogged(dateLogged);
+        hour.setCreatedAt(Instant.now());
+        return hour;
+    }
 }
@@ -0,0 +1,146 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.reporting.model.ReportBillingCategory;
+import com.bigbadmonolith.reporting.model.ReportCustomer;
+import com.bigbadmonolith.reporting.model.ReportUser;
+import com.bigbadmonolith.reporting.repository.ReportBillingCategoryRepository;
+import com.bigbadmonolith.reporting.repository.ReportCustomerRepository;
+import com.bigbadmonolith.reporting.repository.ReportUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DimensionCacheTest {
+
+    @Mock
+    private ReportUserRepository userRepository;
+    @Mock
+    private ReportCustomerRepository customerRepository;
+    @Mock
+    private ReportBillingCategoryRepository categoryRepository;
+
+    private DimensionCache dimensionCache;
+    private ReportCustomer customer;
+
+    @BeforeEach
+    void setUp() {
+        dimensionCache = new DimensionCache(userRepository, customerRepository, categoryRepository, 100, Duration.ofMinutes(5));
+        customer = new ReportCustomer();
+        customer.setId(UUID.randomUUID());
+        customer.setName("Acme Corp");
+    }
+
+    @Test
+    void afterSingletonsInstantiated_shouldWarmEveryDimension() {
+        ReportUser user = new ReportUser();
+        user.setId(UUID.randomUUID());
+        user.setName("Jane Doe");
+        when(userRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(user)));
+        when(customerRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(customer)));
+        when(categoryRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<ReportBillingCategory>(List.of()));
+
+        dimensionCache.afterSingletonsInstantiated();
+
+        assertThat(dimensionCache.userNames(List.of(user.getId()))).containsEntry(user.getId(), "Jane Doe");
+        assertThat(dimensionCache.customerName(customer.getId())).contains("Acme Corp");
+        verify(userRepository, never()).findAllById(any());
+        verify(customerRepository, never()).findById(any());
+    }
+
+    @Test
+    void customerName_shouldLoadOnceAndReportHitsAndMisses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dimensionCache.bindTo(registry);
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+
+        assertThat(dimensionCache.customerName(customer.getId())).contains("Acme Corp");
+        assertThat(dimensionCache.customerName(customer.getId())).contains("Acme Corp");
+        assertThat(dimensionCache.customerNames(List.of(customer.getId()))).containsEntry(customer.getId(), "Acme Corp");
+
+        verify(customerRepository, times(1)).findById(customer.getId());
+        assertThat(registry.get("cache.gets").tag("cache", "reportCustomers").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("cache.gets").tag("cache", "reportCustomers").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.size").tag("cache", "reportCustomers").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void customerNames_shouldOmitUnknownIdsWithoutCachingThem() {
+        UUID unknown = UUID.randomUUID();
+        when(customerRepository.findAllById(any())).thenReturn(List.of(customer));
+
+        assertThat(dimensionCache.customerNames(List.of(customer.getId(), unknown)))
+                .containsOnlyKeys(customer.getId());
+        assertThat(dimensionCache.customerNames(List.of(customer.getId(), unknown)))
+                .containsOnlyKeys(customer.getId());
+
+        verify(customerRepository, times(2)).findAllById(any());
+    }
+
+    @Test
+    void invalidateCustomer_shouldReloadRenamedCustomer() {
+        ReportCustomer renamed = new ReportCustomer();
+        renamed.setId(customer.getId());
+        renamed.setName("Acme Holdings");
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer)).thenReturn(Optional.of(renamed));
+
+        assertThat(dimensionCache.customerName(customer.getId())).contains("Acme Corp");
+        dimensionCache.invalidateCustomer(customer.getId());
+
+        assertThat(dimensionCache.customerName(customer.getId())).contains("Acme Holdings");
+    }
+
+    @Test
+    void customerName_shouldReloadAfterExpiring() throws InterruptedException {
+        // A rename handled by another node never invalidates this one.
+        DimensionCache shortLived = new DimensionCache(userRepository, customerRepository, categoryRepository, 100,
+                Duration.ofMillis(50));
+        ReportCustomer renamed = new ReportCustomer();
+        renamed.setId(customer.getId());
+        renamed.setName("Acme Holdings");
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer)).thenReturn(Optional.of(renamed));
+
+        assertThat(shortLived.customerName(customer.getId())).contains("Acme Corp");
+        Thread.sleep(100);
+
+        assertThat(shortLived.customerName(customer.getId())).contains("Acme Holdings");
+    }
+
+    @Test
+    void invalidateCustomer_shouldEvictAgainAfterCommit() {
+        ReportCustomer renamed = new ReportCustomer();
+        renamed.setId(customer.getId());
+        renamed.setName("Acme Holdings");
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer)).thenReturn(Optional.of(renamed));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dimensionCache.invalidateCustomer(customer.getId());
+            // A concurrent report re-caches the pre-commit name before the event commits
+            assertThat(dimensionCache.customerName(customer.getId())).contains("Acme Corp");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(dimensionCache.customerName(customer.getId())).contains("Acme Holdings");
+    }
+}
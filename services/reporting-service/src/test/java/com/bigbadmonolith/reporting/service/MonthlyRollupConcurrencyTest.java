@@ -0,0 +1,100 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollup;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs without a test transaction so rollup updates from concurrent events really commit.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ColumnarBillableHourStore.class, DimensionCache.class, EventHandlerService.class, MonthlyRollupService.class})
+class MonthlyRollupConcurrencyTest {
+
+    @Autowired
+    private EventHandlerService eventHandlerService;
+    @Autowired
+    private MonthlyRollupService rollupService;
+    @Autowired
+    private ReportMonthlyRollupRepository rollupRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID customerA = UUID.randomUUID();
+    private final UUID customerB = UUID.randomUUID();
+    private final UUID categoryId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        eventHandlerService.syncCustomer(customerA, "Customer A", "a@example.com", null);
+        eventHandlerService.syncCustomer(customerB, "Customer B", "b@example.com", null);
+        eventHandlerService.syncCategory(categoryId, "Consulting", new BigDecimal("150.00"));
+        eventHandlerService.syncUser(userId, "User", "user@example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM report_billable_hours");
+        jdbcTemplate.update("DELETE FROM report_monthly_rollups");
+        jdbcTemplate.update("DELETE FROM report_billing_categories");
+        jdbcTemplate.update("DELETE FROM report_customers");
+        jdbcTemplate.update("DELETE FROM report_users");
+    }
+
+    @Test
+    void syncBillableHour_shouldCountEveryConcurrentFirstEntryOfABucketOnce() throws Exception {
+        int events = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < events; i++) {
+                UUID customerId = i % 2 == 0 ? customerA : customerB;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    eventHandlerService.syncBillableHour(UUID.randomUUID(), customerId, userId, categoryId,
+                            new BigDecimal("1.25"), new BigDecimal("150.00"), LocalDate.of(2024, 1, 15), null);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<ReportMonthlyRollup> rollups = rollupRepository.findByPeriod(2024, 1);
+        assertThat(rollups).hasSize(2);
+        for (ReportMonthlyRollup rollup : rollups) {
+            assertThat(rollup.getEntryCount()).isEqualTo(events / 2);
+            assertThat(rollup.getTotalHours()).isEqualByComparingTo("125.00");
+            assertThat(rollup.getTotalRevenue()).isEqualByComparingTo("18750.00");
+        }
+        assertThat(rollupService.findDriftedCustomers()).isEmpty();
+    }
+}
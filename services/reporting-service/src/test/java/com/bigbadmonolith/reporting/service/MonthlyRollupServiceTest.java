@@ -0,0 +1,217 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.dto.MonthlySummaryResponse;
+import com.bigbadmonolith.reporting.dto.MonthlySummaryRow;
+import com.bigbadmonolith.reporting.dto.RevenueSummaryByCategory;
+import com.bigbadmonolith.reporting.dto.RevenueSummaryByCustomer;
+import com.bigbadmonolith.reporting.dto.RevenueSummaryResponse;
+import com.bigbadmonolith.reporting.model.ReportBillableHour;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollup;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollupId;
+import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Replays a random stream of sync/remove events and checks that the incrementally
+ * maintained rollups give the same answers as a full scan of report_billable_hours.
+ */
+@DataJpaTest
+@Import({ColumnarBillableHourStore.class, DimensionCache.class, EventHandlerService.class, MonthlyRollupService.class, MonthlySummaryService.class, RevenueSummaryService.class})
+class MonthlyRollupServiceTest {
+
+    private static final List<YearMonth> MONTHS = List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2), YearMonth.of(2024, 3));
+
+    @Autowired
+    private EventHandlerService eventHandlerService;
+    @Autowired
+    private MonthlyRollupService rollupService;
+    @Autowired
+    private MonthlySummaryService monthlySummaryService;
+    @Autowired
+    private RevenueSummaryService revenueSummaryService;
+    @Autowired
+    private ReportBillableHourRepository billableHourRepository;
+    @Autowired
+    private ReportMonthlyRollupRepository rollupRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private final Random random = new Random(42);
+    private final List<UUID> customerIds = new ArrayList<>();
+    private final List<UUID> categoryIds = new ArrayList<>();
+    private final List<UUID> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            UUID customerId = UUID.randomUUID();
+            eventHandlerService.syncCustomer(customerId, "Customer " + i, "c" + i + "@example.com", null);
+            customerIds.add(customerId);
+
+            UUID categoryId = UUID.randomUUID();
+            eventHandlerService.syncCategory(categoryId, "Category " + i, new BigDecimal(100 + i * 50));
+            categoryIds.add(categoryId);
+
+            UUID userId = UUID.randomUUID();
+            eventHandlerService.syncUser(userId, "User " + i, "u" + i + "@example.com");
+            userIds.add(userId);
+        }
+    }
+
+    @Test
+    void rollups_shouldMatchFullScanAfterRandomSyncAndRemoveEvents() {
+        replayRandomEvents(400);
+
+        for (YearMonth month : MONTHS) {
+            MonthlySummaryResponse summary = monthlySummaryService.getMonthlySummary(month.getYear(), month.getMonthValue());
+            Map<UUID, BigDecimal[]> expected = fullScanByCustomer(month);
+
+            assertThat(summary.customers()).hasSize(expected.size());
+            for (MonthlySummaryRow row : summary.customers()) {
+                assertThat(row.totalHours()).isEqualByComparingTo(expected.get(row.customerId())[0]);
+                assertThat(row.totalRevenue()).isEqualByComparingTo(expected.get(row.customerId())[1]);
+            }
+        }
+
+        RevenueSummaryResponse revenue = revenueSummaryService.getRevenueSummary();
+        List<ReportBillableHour> allHours = billableHourRepository.findAll();
+        for (RevenueSummaryByCustomer row : revenue.byCustomer()) {
+            List<ReportBillableHour> hours = allHours.stream().filter(h -> h.getCustomerId().equals(row.customerId())).toList();
+            assertThat(row.totalHours()).isEqualByComparingTo(sumHours(hours));
+            assertThat(row.totalRevenue()).isEqualByComparingTo(sumRevenue(hours));
+        }
+        for (RevenueSummaryByCategory row : revenue.byCategory()) {
+            List<ReportBillableHour> hours = allHours.stream().filter(h -> h.getCategoryId().equals(row.categoryId())).toList();
+            assertThat(row.totalHours()).isEqualByComparingTo(sumHours(hours));
+            assertThat(row.totalRevenue()).isEqualByComparingTo(sumRevenue(hours));
+        }
+        assertThat(rollupService.findDriftedCustomers()).isEmpty();
+    }
+
+    @Test
+    void findDriftedCustomers_shouldReportCustomerWhoseRollupDisagreesWithFacts() {
+        eventHandlerService.syncBillableHour(UUID.randomUUID(), customerIds.get(0), userIds.get(0), categoryIds.get(0),
+                new BigDecimal("8.00"), new BigDecimal("150.00"), LocalDate.of(2024, 1, 10), null);
+        eventHandlerService.syncBillableHour(UUID.randomUUID(), customerIds.get(1), userIds.get(0), categoryIds.get(0),
+                new BigDecimal("2.00"), new BigDecimal("150.00"), LocalDate.of(2024, 1, 10), null);
+        flushAndClear();
+        ReportMonthlyRollup rollup = rollupRepository.findByPeriod(2024, 1).stream()
+                .filter(r -> r.getId().getCustomerId().equals(customerIds.get(1)))
+                .findFirst().orElseThrow();
+        rollup.setTotalHours(new BigDecimal("3.00"));
+        rollupRepository.save(rollup);
+        flushAndClear();
+
+        assertThat(rollupService.findDriftedCustomers()).containsExactly(customerIds.get(1));
+    }
+
+    @Test
+    void syncBillableHour_shouldMoveContributionWhenEntryChangesMonthAndCustomer() {
+        UUID id = UUID.randomUUID();
+        eventHandlerService.syncBillableHour(id, customerIds.get(0), userIds.get(0), categoryIds.get(0),
+                new BigDecimal("8.00"), new BigDecimal("150.00"), LocalDate.of(2024, 1, 31), null);
+        eventHandlerService.syncBillableHour(id, customerIds.get(1), userIds.get(0), categoryIds.get(0),
+                new BigDecimal("6.00"), new BigDecimal("150.00"), LocalDate.of(2024, 2, 1), null);
+        flushAndClear();
+
+        assertThat(rollupRepository.findByPeriod(2024, 1)).isEmpty();
+        List<ReportMonthlyRollup> february = rollupRepository.findByPeriod(2024, 2);
+        assertThat(february).hasSize(1);
+        assertThat(february.get(0).getId().getCustomerId()).isEqualTo(customerIds.get(1));
+        assertThat(february.get(0).getTotalHours()).isEqualByComparingTo(new BigDecimal("6.00"));
+        assertThat(february.get(0).getTotalRevenue()).isEqualByComparingTo(new BigDecimal("900.00"));
+        assertThat(february.get(0).getEntryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void removeBillableHour_shouldDropEmptyRollupRow() {
+        UUID id = UUID.randomUUID();
+        eventHandlerService.syncBillableHour(id, customerIds.get(0), userIds.get(0), categoryIds.get(0),
+                new BigDecimal("4.00"), new BigDecimal("100.00"), LocalDate.of(2024, 3, 5), null);
+        eventHandlerService.removeBillableHour(id);
+        flushAndClear();
+
+        assertThat(rollupRepository.count()).isZero();
+    }
+
+    @Test
+    void rebuild_shouldReproduceIncrementallyMaintainedRollups() {
+        replayRandomEvents(200);
+        Map<ReportMonthlyRollupId, ReportMonthlyRollup> incremental = rollupRepository.findAll().stream()
+                .collect(Collectors.toMap(ReportMonthlyRollup::getId, r -> r));
+        entityManager.clear();
+
+        int rows = rollupService.rebuild();
+        flushAndClear();
+
+        List<ReportMonthlyRollup> rebuilt = rollupRepository.findAll();
+        assertThat(rows).isEqualTo(incremental.size());
+        assertThat(rebuilt).hasSize(incremental.size());
+        for (ReportMonthlyRollup rollup : rebuilt) {
+            ReportMonthlyRollup expected = incremental.get(rollup.getId());
+            assertThat(expected).isNotNull();
+            assertThat(rollup.getTotalHours()).isEqualByComparingTo(expected.getTotalHours());
+            assertThat(rollup.getTotalRevenue()).isEqualByComparingTo(expected.getTotalRevenue());
+            assertThat(rollup.getEntryCount()).isEqualTo(expected.getEntryCount());
+        }
+    }
+
+    private void replayRandomEvents(int events) {
+        List<UUID> hourIds = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            hourIds.add(UUID.randomUUID());
+        }
+        for (int i = 0; i < events; i++) {
+            UUID id = hourIds.get(random.nextInt(hourIds.size()));
+            if (random.nextInt(10) == 0) {
+                eventHandlerService.removeBillableHour(id);
+            } else {
+                YearMonth month = MONTHS.get(random.nextInt(MONTHS.size()));
+                eventHandlerService.syncBillableHour(id,
+                        customerIds.get(random.nextInt(customerIds.size())),
+                        userIds.get(random.nextInt(userIds.size())),
+                        categoryIds.get(random.nextInt(categoryIds.size())),
+                        BigDecimal.valueOf(1 + random.nextInt(32), 2).multiply(BigDecimal.valueOf(25)),
+                        BigDecimal.valueOf(100 + random.nextInt(3) * 50L).setScale(2),
+                        month.atDay(1 + random.nextInt(month.lengthOfMonth())),
+                        null);
+            }
+        }
+        flushAndClear();
+    }
+
+    private Map<UUID, BigDecimal[]> fullScanByCustomer(YearMonth month) {
+        return billableHourRepository.findByDateRange(month.atDay(1), month.atEndOfMonth()).stream()
+                .collect(Collectors.groupingBy(ReportBillableHour::getCustomerId)).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        e -> new BigDecimal[]{sumHours(e.getValue()), sumRevenue(e.getValue())}));
+    }
+
+    private BigDecimal sumHours(List<ReportBillableHour> hours) {
+        return hours.stream().map(ReportBillableHour::getHours).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private BigDecimal sumRevenue(List<ReportBillableHour> hours) {
+        return hours.stream().map(h -> h.getHours().multiply(h.getRateSnapshot())).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -1,21 +1,29 @@
 package com.bigbadmonolith.reporting.service;
 
+import com.bigbadmonolith.reporting.analytics.AnalyticsDimension;
+import com.bigbadmonolith.reporting.analytics.AnalyticsFilter;
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.analytics.ColumnarTotals;
 import com.bigbadmonolith.reporting.dto.MonthlySummaryResponse;
-import com.bigbadmonolith.reporting.model.ReportBillableHour;
 import com.bigbadmonolith.reporting.model.ReportCustomer;
-import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollup;
+import com.bigbadmonolith.reporting.model.ReportMonthlyRollupId;
+import com.bigbadmonolith.reporting.repository.ReportBillingCategoryRepository;
 import com.bigbadmonolith.reporting.repository.ReportCustomerRepository;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
+import com.bigbadmonolith.reporting.repository.ReportUserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
-import java.time.Instant;
-import java.time.LocalDate;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -26,11 +34,13 @@ import static org.mockito.Mockito.*;
 class MonthlySummaryServiceTest {
 
     @Mock
-    private ReportBillableHourRepository billableHourRepository;
+    private ReportMonthlyRollupRepository rollupRepository;
     @Mock
     private ReportCustomerRepository customerRepository;
 
-    @InjectMocks
+    @Mock
+    private ColumnarBillableHourStore columnarStore;
+
     private MonthlySummaryService monthlySummaryService;
 
     private UUID customerId1;
@@ -40,6 +50,10 @@ class MonthlySummaryServiceTest {
 
     @BeforeEach
     void setUp() {
+        monthlySummaryService = new MonthlySummaryService(rollupRepository, columnarStore,
+                new DimensionCache(mock(ReportUserRepository.class), customerRepository,
+                        mock(ReportBillingCategoryRepository.class), 100, Duration.ofMinutes(5)));
+
         customerId1 = UUID.randomUUID();
         customerId2 = UUID.randomUUID();
 
@@ -54,11 +68,11 @@ class MonthlySummaryServiceTest {
 
     @Test
     void getMonthlySummary_shouldReturnSummaryGroupedByCustomer() {
-        ReportBillableHour hour1 = createHour(customerId1, new BigDecimal("8.00"), new BigDecimal("150.00"), LocalDate.of(2024, 1, 10));
-        ReportBillableHour hour2 = createHour(customerId2, new BigDecimal("4.00"), new BigDecimal("100.00"), LocalDate.of(2024, 1, 15));
+        ReportMonthlyRollup rollup1 = createRollup(customerId1, new BigDecimal("5.00"), new BigDecimal("750.00"), 2024, 1);
+        ReportMonthlyRollup rollup2 = createRollup(customerId1, new BigDecimal("3.00"), new BigDecimal("450.00"), 2024, 1);
+        ReportMonthlyRollup rollup3 = createRollup(customerId2, new BigDecimal("4.00"), new BigDecimal("400.00"), 2024, 1);
 
-        when(billableHourRepository.findByDateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
-                .thenReturn(List.of(hour1, hour2));
+        when(rollupRepository.findByPeriod(2024, 1)).thenReturn(List.of(rollup1, rollup2, rollup3));
         when(customerRepository.findAllById(any())).thenReturn(List.of(customer1, customer2));
 
         MonthlySummaryResponse result = monthlySummaryService.getMonthlySummary(2024, 1);
@@ -76,8 +90,7 @@ class MonthlySummaryServiceTest {
 
     @Test
     void getMonthlySummary_shouldReturnEmptyForMonthWithNoHours() {
-        when(billableHourRepository.findByDateRange(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)))
-                .thenReturn(List.of());
+        when(rollupRepository.findByPeriod(2024, 2)).thenReturn(List.of());
 
         MonthlySummaryResponse result = monthlySummaryService.getMonthlySummary(2024, 2);
 
@@ -89,43 +102,41 @@ class MonthlySummaryServiceTest {
     }
 
     @Test
-    void getMonthlySummary_shouldHandleFebruaryLeapYear() {
-        when(billableHourRepository.findByDateRange(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)))
-                .thenReturn(List.of());
+    void getMonthlySummary_shouldReadOnlyTheRequestedPeriod() {
+        when(rollupRepository.findByPeriod(2023, 2)).thenReturn(List.of());
 
-        MonthlySummaryResponse result = monthlySummaryService.getMonthlySummary(2024, 2);
+        MonthlySummaryResponse result = monthlySummaryService.getMonthlySummary(2023, 2);
 
         assertThat(result.month()).isEqualTo(2);
-        verify(billableHourRepository).findByDateRange(
-                eq(LocalDate.of(2024, 2, 1)),
-                eq(LocalDate.of(2024, 2, 29))
-        );
+        verify(rollupRepository).findByPeriod(eq(2023), eq(2));
+        verifyNoMoreInteractions(rollupRepository);
     }
 
     @Test
-    void getMonthlySummary_shouldHandleFebruaryNonLeapYear() {
-        when(billableHourRepository.findByDateRange(LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 28)))
-                .thenReturn(List.of());
+    void getMonthlySummary_shouldRejectInvalidMonth() {
+        assertThatThrownBy(() -> monthlySummaryService.getMonthlySummary(2024, 13))
+                .isInstanceOf(DateTimeException.class);
+        verifyNoInteractions(rollupRepository);
+    }
 
-        MonthlySummaryResponse result = monthlySummaryService.getMonthlySummary(2023, 2);
+    @Test
+    void getMonthlySummary_shouldScanColumnarStoreWhenEnabled() {
+        when(columnarStore.isEnabled()).thenReturn(true);
+        when(columnarStore.sumBy(AnalyticsDimension.CUSTOMER, AnalyticsFilter.forMonth(YearMonth.of(2024, 1)))).thenReturn(Map.of(
+                customerId1, new ColumnarTotals(new BigDecimal("8.00"), new BigDecimal("1200.0000"), 2),
+                customerId2, new ColumnarTotals(new BigDecimal("4.00"), new BigDecimal("400.0000"), 1)));
+        when(customerRepository.findAllById(any())).thenReturn(List.of(customer1, customer2));
 
-        assertThat(result.month()).isEqualTo(2);
-        verify(billableHourRepository).findByDateRange(
-                eq(LocalDate.of(2023, 2, 1)),
-                eq(LocalDate.of(2023, 2, 28))
-        );
+        MonthlySummaryResponse result = monthlySummaryService.getMonthlySummary(2024, 1);
+
+        assertThat(result.customers()).extracting(row -> row.customerName()).containsExactly("Acme Corp", "Beta Inc");
+        assertThat(result.grandTotalHours()).isEqualByComparingTo(new BigDecimal("12.00"));
+        assertThat(result.grandTotalRevenue()).isEqualByComparingTo(new BigDecimal("1600.00"));
+        verifyNoInteractions(rollupRepository);
     }
 
-    private ReportBillableHour createHour(UUID customerId, BigDecimal hours, BigDecimal rate, LocalDate date) {
-        ReportBillableHour hour = new ReportBillableHour();
-        hour.setId(UUID.randomUUID());
-        hour.setCustomerId(customerId);
-        hour.setUserId(UUID.randomUUID());
-        hour.setCategoryId(UUID.randomUUID());
-        hour.setHours(hours);
-        hour.setRateSnapshot(rate);
-        hour.setDateLogged(date);
-        hour.setCreatedAt(Instant.now());
-        return hour;
+    private ReportMonthlyRollup createRollup(UUID customerId, BigDecimal hours, BigDecimal revenue, int year, int month) {
+        ReportMonthlyRollupId id = new ReportMonthlyRollupId(customerId, UUID.randomUUID(), UUID.randomUUID(), year, month);
+        return new ReportMonthlyRollup(id, hours, revenue, 1);
     }
 }
@@ -0,0 +1,136 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.reporting.analytics.AnalyticsDimension;
+import com.bigbadmonolith.reporting.analytics.AnalyticsFilter;
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.dto.CategoryTotals;
+import com.bigbadmonolith.reporting.dto.CustomerTotals;
+import com.bigbadmonolith.reporting.model.ReportBillableHour;
+import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Compares the old findAll() + Collectors.groupingBy revenue aggregation with the
+ * GROUP BY projection queries and the columnar store scan. Run with: ./gradlew :services:reporting-service:benchmark
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Import(ColumnarBillableHourStore.class)
+class RevenueSummaryBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+
+    @Autowired
+    private ReportBillableHourRepository billableHourRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private ColumnarBillableHourStore columnarStore;
+
+    @Test
+    void groupByProjection_vsFindAllAndGroupingBy() {
+        seed(ROWS, 50, 10);
+
+        Map<UUID, BigDecimal> scanned = measure("findAll + groupingBy", () -> {
+            List<ReportBillableHour> all = billableHourRepository.findAll();
+            Map<UUID, BigDecimal> byCustomer = all.stream().collect(Collectors.groupingBy(
+                    ReportBillableHour::getCustomerId,
+                    Collectors.reducing(BigDecimal.ZERO, h -> h.getHours().multiply(h.getRateSnapshot()), BigDecimal::add)));
+            all.stream().collect(Collectors.groupingBy(
+                    ReportBillableHour::getCategoryId,
+                    Collectors.reducing(BigDecimal.ZERO, h -> h.getHours().multiply(h.getRateSnapshot()), BigDecimal::add)));
+            return byCustomer;
+        });
+        entityManager.clear();
+
+        Map<UUID, BigDecimal> projected = measure("GROUP BY projections", () -> {
+            List<CategoryTotals> byCategory = billableHourRepository.sumByCategory();
+            assertThat(byCategory).hasSize(10);
+            return billableHourRepository.sumByCustomer().stream()
+                    .collect(Collectors.toMap(CustomerTotals::customerId, CustomerTotals::totalRevenue));
+        });
+
+        measure("columnar store load", () -> {
+            columnarStore.reload();
+            return columnarStore.size();
+        });
+        Map<UUID, BigDecimal> columnar = measure("columnar fork/join scan", () -> {
+            assertThat(columnarStore.sumBy(AnalyticsDimension.CATEGORY, AnalyticsFilter.all())).hasSize(10);
+            return columnarStore.sumBy(AnalyticsDimension.CUSTOMER, AnalyticsFilter.all()).entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().totalRevenue()));
+        });
+
+        assertThat(projected).hasSameSizeAs(scanned);
+        assertThat(columnar).hasSameSizeAs(scanned);
+        scanned.forEach((customerId, revenue) -> {
+            assertThat(projected.get(customerId)).isEqualByComparingTo(revenue);
+            assertThat(columnar.get(customerId)).isEqualByComparingTo(revenue);
+        });
+    }
+
+    private void seed(int rows, int customers, int categories) {
+        List<UUID> customerIds = randomIds(customers);
+        List<UUID> categoryIds = randomIds(categories);
+        List<UUID> userIds = randomIds(20);
+        Random random = new Random(7);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        String sql = "INSERT INTO report_billable_hours (id, customer_id, user_id, category_id, hours, rate_snapshot, date_logged, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        int batchSize = 10_000;
+        for (int offset = 0; offset < rows; offset += batchSize) {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            for (int i = offset; i < Math.min(rows, offset + batchSize); i++) {
+                batch.add(new Object[]{
+                        UUID.randomUUID(),
+                        customerIds.get(random.nextInt(customers)),
+                        userIds.get(random.nextInt(userIds.size())),
+                        categoryIds.get(random.nextInt(categories)),
+                        BigDecimal.valueOf(25 + random.nextInt(775), 2),
+                        BigDecimal.valueOf(10000 + random.nextInt(4) * 5000L, 2),
+                        Date.valueOf(start.plusDays(random.nextInt(1800)))
+                });
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    private static List<UUID> randomIds(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+    private static <T> T measure(String label, Supplier<T> work) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        T result = work.get();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long allocatedMb = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / (1024 * 1024);
+        System.out.printf("[benchmark] %-24s rows=%,d time=%,d ms allocated=%,d MB%n", label, ROWS, elapsedMs, allocatedMb);
+        return result;
+    }
+}
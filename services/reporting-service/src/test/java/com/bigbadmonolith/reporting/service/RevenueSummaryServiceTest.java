@@ -1,12 +1,14 @@
 package com.bigbadmonolith.reporting.service;
 
+import com.bigbadmonolith.reporting.analytics.ColumnarBillableHourStore;
+import com.bigbadmonolith.reporting.dto.CategoryTotals;
+import com.bigbadmonolith.reporting.dto.CustomerTotals;
 import com.bigbadmonolith.reporting.dto.RevenueSummaryResponse;
-import com.bigbadmonolith.reporting.model.ReportBillableHour;
 import com.bigbadmonolith.reporting.model.ReportBillingCategory;
 import com.bigbadmonolith.reporting.model.ReportCustomer;
-import com.bigbadmonolith.reporting.repository.ReportBillableHourRepository;
 import com.bigbadmonolith.reporting.repository.ReportBillingCategoryRepository;
 import com.bigbadmonolith.reporting.repository.ReportCustomerRepository;
+import com.bigbadmonolith.reporting.repository.ReportMonthlyRollupRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,8 +17,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
-import java.time.Instant;
-import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,12 +27,15 @@ import static org.mockito.Mockito.*;
 class RevenueSummaryServiceTest {
 
     @Mock
-    private ReportBillableHourRepository billableHourRepository;
+    private ReportMonthlyRollupRepository rollupRepository;
     @Mock
     private ReportCustomerRepository customerRepository;
     @Mock
     private ReportBillingCategoryRepository categoryRepository;
 
+    @Mock
+    private ColumnarBillableHourStore columnarStore;
+
     @InjectMocks
     private RevenueSummaryService revenueSummaryService;
 
@@ -73,9 +76,10 @@ class RevenueSummaryServiceTest {
 
     @Test
     void getRevenueSummary_shouldIncludeAllCustomersAndCategories() {
-        ReportBillableHour hour = createHour(customerId1, categoryId1, new BigDecimal("8.00"), new BigDecimal("150.00"));
-
-        when(billableHourRepository.findAll()).thenReturn(List.of(hour));
+        when(rollupRepository.sumByCustomer()).thenReturn(List.of(
+                new CustomerTotals(customerId1, new BigDecimal("8.00"), new BigDecimal("1200.0000"))));
+        when(rollupRepository.sumByCategory()).thenReturn(List.of(
+                new CategoryTotals(categoryId1, new BigDecimal("8.00"), new BigDecimal("1200.0000"))));
         when(customerRepository.findAll()).thenReturn(List.of(customer1, customer2));
         when(categoryRepository.findAll()).thenReturn(List.of(category1, category2));
 
@@ -106,7 +110,8 @@ class RevenueSummaryServiceTest {
 
     @Test
     void getRevenueSummary_shouldReturnEmptyWhenNoData() {
-        when(billableHourRepository.findAll()).thenReturn(List.of());
+        when(rollupRepository.sumByCustomer()).thenReturn(List.of());
+        when(rollupRepository.sumByCategory()).thenReturn(List.of());
         when(customerRepository.findAll()).thenReturn(List.of());
         when(categoryRepository.findAll()).thenReturn(List.of());
 
@@ -118,10 +123,12 @@ class RevenueSummaryServiceTest {
 
     @Test
     void getRevenueSummary_shouldCalculateAverageRateCorrectly() {
-        ReportBillableHour hour1 = createHour(customerId1, categoryId1, new BigDecimal("4.00"), new BigDecimal("100.00"));
-        ReportBillableHour hour2 = createHour(customerId1, categoryId2, new BigDecimal("6.00"), new BigDecimal("200.00"));
-
-        when(billableHourRepository.findAll()).thenReturn(List.of(hour1, hour2));
+        // Revenue: 4*100 + 6*200 = 400 + 1200 = 1600
+        when(rollupRepository.sumByCustomer()).thenReturn(List.of(
+                new CustomerTotals(customerId1, new BigDecimal("10.00"), new BigDecimal("1600.0000"))));
+        when(rollupRepository.sumByCategory()).thenReturn(List.of(
+                new CategoryTotals(categoryId1, new BigDecimal("4.00"), new BigDecimal("400.0000")),
+                new CategoryTotals(categoryId2, new BigDecimal("6.00"), new BigDecimal("1200.0000"))));
         when(customerRepository.findAll()).thenReturn(List.of(customer1));
         when(categoryRepository.findAll()).thenReturn(List.of(category1, category2));
 
@@ -129,7 +136,6 @@ class RevenueSummaryServiceTest {
 
         var acme = result.byCustomer().get(0);
         assertThat(acme.totalHours()).isEqualByComparingTo(new BigDecimal("10.00"));
-        // Revenue: 4*100 + 6*200 = 400 + 1200 = 1600
         assertThat(acme.totalRevenue()).isEqualByComparingTo(new BigDecimal("1600.00"));
         // Average rate: 1600 / 10 = 160.00
         assertThat(acme.averageRate()).isEqualByComparingTo(new BigDecimal("160.00"));
@@ -137,7 +143,8 @@ class RevenueSummaryServiceTest {
 
     @Test
     void getRevenueSummary_shouldShowCustomersWithZeroHours() {
-        when(billableHourRepository.findAll()).thenReturn(List.of());
+        when(rollupRepository.sumByCustomer()).thenReturn(List.of());
+        when(rollupRepository.sumByCategory()).thenReturn(List.of());
         when(customerRepository.findAll()).thenReturn(List.of(customer1, customer2));
         when(categoryRepository.findAll()).thenReturn(List.of(category1));
 
@@ -150,17 +157,4 @@ class RevenueSummaryServiceTest {
             assertThat(c.averageRate()).isEqualByComparingTo(BigDecimal.ZERO);
         });
     }
-
-    private ReportBillableHour createHour(UUID customerId, UUID categoryId, BigDecimal hours, BigDecimal rate) {
-        ReportBillableHour hour = new ReportBillableHour();
-        hour.setId(UUID.randomUUID());
-        hour.setCustomerId(customerId);
-        hour.setUserId(UUID.randomUUID());
-        hour.setCategoryId(categoryId);
-        hour.setHours(hours);
-        hour.setRateSnapshot(rate);
-        hour.setDateLogged(LocalDate.now());
-        hour.setCreatedAt(Instant.now());
-        return hour;
-    }
 }
@@ -0,0 +1,251 @@
+package com.bigbadmonolith.reporting.service;
+
+import com.bigbadmonolith.common.exception.BusinessValidationException;
+import com.bigbadmonolith.reporting.dto.BatchEvent;
+import com.bigbadmonolith.reporting.dto.BatchEventResponse;
+import com.bigbadmonolith.reporting.dto.BatchEventResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class WriteBehindEventBufferTest {
+
+    private BatchEventService batchEventService;
+    private WriteBehindJournal journal;
+    private final AtomicLong journalIds = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        batchEventService = mock(BatchEventService.class);
+        journal = mock(WriteBehindJournal.class);
+        when(journal.append(any())).thenAnswer(invocation -> journalIds.incrementAndGet());
+        when(batchEventService.process(anyList()))
+                .thenAnswer(invocation -> new BatchEventResponse(invocation.<List<?>>getArgument(0).size(), 0, 0, List.of()));
+    }
+
+    @Test
+    void flush_shouldWriteOnlyLatestVersionOfEachRecord() {
+        WriteBehindEventBuffer buffer = buffer(true, 1000, 50_000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        buffer.bindTo(registry);
+        UUID edited = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+
+        buffer.offer(BatchEventService.BILLABLE_HOURS, "upsert", Map.of("id", edited.toString(), "hours", "1.00"));
+        buffer.offer(BatchEventService.BILLABLE_HOURS, "upsert", Map.of("id", other.toString(), "hours", "2.00"));
+        buffer.offer(BatchEventService.BILLABLE_HOURS, "upsert", Map.of("id", edited.toString(), "hours", "3.00"));
+        buffer.offer(BatchEventService.BILLABLE_HOURS, "upsert", Map.of("id", edited.toString(), "hours", "4.00"));
+        // Same id but a different entity is a different record.
+        buffer.offer(BatchEventService.USERS, "upsert", Map.of("id", edited.toString(), "name", "Jane"));
+
+        assertThat(registry.get("reporting.events.buffer.depth").gauge().value()).isEqualTo(3);
+        buffer.flush();
+
+        List<BatchEvent> flushed = captureFlushes().get(0);
+        assertThat(flushed).hasSize(3);
+        assertThat(flushed).filteredOn(e -> e.entity().equals(BatchEventService.BILLABLE_HOURS)
+                        && e.payload().get("id").equals(edited.toString()))
+                .singleElement()
+                .satisfies(e -> assertThat(e.payload()).containsEntry("hours", "4.00"));
+        assertThat(buffer.depth()).isZero();
+        assertThat(registry.get("reporting.events.buffer.coalesce.ratio").gauge().value()).isEqualTo(0.4);
+        assertThat(registry.get("reporting.events.buffer.flush").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void offer_shouldLetLatestRemoveReplaceQueuedUpsert() {
+        WriteBehindEventBuffer buffer = buffer(true, 1000, 50_000);
+        UUID id = UUID.randomUUID();
+
+        buffer.offer(BatchEventService.CUSTOMERS, "upsert", Map.of("id", id.toString(), "name", "Acme"));
+        buffer.offer(BatchEventService.CUSTOMERS, "remove", Map.of("id", id.toString()));
+        buffer.flush();
+
+        assertThat(captureFlushes().get(0)).singleElement().extracting(BatchEvent::action).isEqualTo("remove");
+    }
+
+    @Test
+    void offer_shouldFlushSynchronouslyWhenBufferIsFull() {
+        WriteBehindEventBuffer buffer = buffer(true, 1000, 3);
+
+        for (int i = 0; i < 3; i++) {
+            buffer.offer(BatchEventService.USERS, "upsert", Map.of("id", UUID.randomUUID().toString(), "name", "u" + i));
+        }
+
+        assertThat(captureFlushes().get(0)).hasSize(3);
+        assertThat(buffer.depth()).isZero();
+    }
+
+    @Test
+    void stop_shouldFlushEventsStillInBuffer() {
+        WriteBehindEventBuffer buffer = buffer(true, 1000, 50_000);
+        buffer.start();
+        buffer.offer(BatchEventService.USERS, "upsert", Map.of("id", UUID.randomUUID().toString(), "name", "Jane"));
+
+        buffer.stop();
+
+        assertThat(buffer.isRunning()).isFalse();
+        assertThat(buffer.depth()).isZero();
+        assertThat(captureFlushes()).flatMap(events -> events).hasSize(1);
+    }
+
+    @Test
+    void flush_shouldRequeueEventsWhenWriteFailsAndWriteThemOnNextFlush() {
+        when(batchEventService.process(anyList()))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenAnswer(invocation -> new BatchEventResponse(invocation.<List<?>>getArgument(0).size(), 0, 0, List.of()));
+        WriteBehindEventBuffer buffer = buffer(true, 1000, 50_000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        buffer.bindTo(registry);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        buffer.offer(BatchEventService.USERS, "upsert", Map.of("id", first.toString(), "name", "Jane"));
+        buffer.offer(BatchEventService.USERS, "upsert", Map.of("id", second.toString(), "name", "John"));
+
+        buffer.flush();
+
+        assertThat(buffer.depth()).isEqualTo(2);
+        assertThat(registry.get("reporting.events.buffer.requeued").functionCounter().count()).isEqualTo(2);
+
+        buffer.flush();
+
+        List<List<BatchEvent>> flushes = captureFlushes();
+        assertThat(flushes).hasSize(2);
+        assertThat(flushes.get(1)).extracting(e -> e.payload().get("id"))
+                .containsExactlyInAnyOrder(first.toString(), second.toString());
+        assertThat(buffer.depth()).isZero();
+    }
+
+    @Test
+    void flush_shouldNotLetRequeuedEventOverwriteNewerVersion() {
+        WriteBehindEventBuffer buffer = buffer(true, 1000, 50_000);
+        UUID id = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        when(batchEventService.process(anyList()))
+                .thenAnswer(invocation -> {
+                    // A newer version arrives while the failing flush is being written.
+                    buffer.offer(BatchEventService.CUSTOMERS, "upsert", Map.of("id", id.toString(), "name", "Acme 2"));
+                    return new BatchEventResponse(2, 0, 2, List.of(
+                            new BatchEventResult(0, BatchEventService.CUSTOMERS, id.toString(), BatchEventResult.FAILED, "timeout"),
+                            new BatchEventResult(1, BatchEventService.CUSTOMERS, other.toString(), BatchEventResult.FAILED, "timeout")));
+                })
+                .thenAnswer(invocation -> new BatchEventResponse(invocation.<List<?>>getArgument(0).size(), 0, 0, List.of()));
+        buffer.offer(BatchEventService.CUSTOMERS, "upsert", Map.of("id", id.toString(), "name", "Acme"));
+        buffer.offer(BatchEventService.CUSTOMERS, "upsert", Map.of("id", other.toString(), "name", "Other"));
+
+        buffer.flush();
+        buffer.flush();
+
+        assertThat(captureFlushes().get(1))
+                .extracting(e -> e.payload().get("name"))
+                .containsExactlyInAnyOrder("Acme 2", "Other");
+    }
+
+    @Test
+    void flush_shouldDeleteTheJournalRowsOfWrittenEventsAndTheVersionsTheyReplaced() {
+        WriteBehindEventBuffer buffer = buffer(true, 1000, 50_000);
+        UUID id = UUID.randomUUID();
+
+        buffer.offer(BatchEventService.CUSTOMERS, "upsert", Map.of("id", id.toString(), "name", "Acme"));
+        buffer.offer(BatchEventService.CUSTOMERS, "upsert", Map.of("id", id.toString(), "name", "Acme 2"));
+        buffer.offer(BatchEventService.USERS, "upsert", Map.of("id", id.toString(), "name", "Jane"));
+        verify(journal, times(3)).append(any());
+        verify(journal, never()).delete(anyCollection());
+
+        buffer.flush();
+
+        verify(journal).delete(argThat(ids -> ids.containsAll(List.of(1L, 2L, 3L)) && ids.size() == 3));
+    }
+
+    @Test
+    void offer_shouldQueueNothingThatIsInvalidOrCouldNotBeJournaled() {
+        WriteBehindEventBuffer buffer = buffer(true, 1000, 50_000);
+        doThrow(new BusinessValidationException("Missing field 'name'"))
+                .when(batchEventService).validate(argThat(event -> !event.payload().containsKey("name")));
+        when(journal.append(argThat(event -> "Down".equals(event.payload().get("name")))))
+                .thenThrow(new DataAccessResourceFailureException("database unavailable"));
+
+        assertThatThrownBy(() -> buffer.offer(BatchEventService.USERS, "upsert", Map.of("id", UUID.randomUUID().toString())))
+                .isInstanceOf(BusinessValidationException.class);
+        assertThatThrownBy(() -> buffer.offer(BatchEventService.USERS, "upsert",
+                Map.of("id", UUID.randomUUID().toString(), "name", "Down")))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(buffer.depth()).isZero();
+        buffer.flush();
+        verify(batchEventService, never()).process(anyList());
+    }
+
+    @Test
+    void start_shouldReplayTheEventsLeftInTheJournal() {
+        UUID id = UUID.randomUUID();
+        when(journal.pending()).thenReturn(List.of(
+                new WriteBehindJournal.Journaled(7, new BatchEvent(BatchEventService.USERS, "upsert", Map.of("id", id.toString(), "name", "Jane"))),
+                new WriteBehindJournal.Journaled(9, new BatchEvent(BatchEventService.USERS, "upsert", Map.of("id", id.toString(), "name", "Jane 2")))));
+        WriteBehindEventBuffer buffer = buffer(true, 1000, 50_000);
+
+        buffer.start();
+        assertThat(buffer.depth()).isEqualTo(1);
+        buffer.stop();
+
+        assertThat(captureFlushes().get(0)).singleElement().satisfies(e -> assertThat(e.payload()).containsEntry("name", "Jane 2"));
+        verify(journal).delete(List.of(7L, 9L));
+    }
+
+    @Test
+    void flush_shouldDeadLetterEventAfterMaxAttempts() {
+        when(batchEventService.process(anyList())).thenThrow(new IllegalStateException("database unavailable"));
+        WriteBehindEventBuffer buffer = buffer(true, 1000, 50_000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        buffer.bindTo(registry);
+        buffer.offer(BatchEventService.USERS, "upsert", Map.of("id", UUID.randomUUID().toString(), "name", "Jane"));
+
+        buffer.flush();
+        buffer.flush();
+        assertThat(buffer.depth()).isEqualTo(1);
+        buffer.flush();
+
+        assertThat(buffer.depth()).isZero();
+        assertThat(registry.get("reporting.events.buffer.dead.lettered").functionCounter().count()).isEqualTo(1);
+        verify(batchEventService, times(3)).process(anyList());
+        verify(journal).deadLetter(1L, "database unavailable");
+        verify(journal, never()).delete(argThat(ids -> !ids.isEmpty()));
+    }
+
+    @Test
+    void offer_shouldDeclineWhenWriteBehindIsDisabled() {
+        WriteBehindEventBuffer buffer = buffer(false, 1000, 50_000);
+
+        assertThat(buffer.offer(BatchEventService.USERS, "upsert", Map.of("id", UUID.randomUUID().toString()))).isFalse();
+        buffer.flush();
+
+        verifyNoInteractions(batchEventService);
+    }
+
+    private WriteBehindEventBuffer buffer(boolean enabled, int flushSize, int maxSize) {
+        return new WriteBehindEventBuffer(batchEventService, journal, enabled, Duration.ofHours(1), flushSize, maxSize, 4,
+                3, Duration.ofSeconds(30));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<BatchEvent>> captureFlushes() {
+        ArgumentCaptor<List<BatchEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchEventService, atLeastOnce()).process(captor.capture());
+        return captor.getAllValues();
+    }
+}